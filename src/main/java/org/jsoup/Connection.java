@@ -966,6 +966,30 @@ public interface Connection {
          */
         @Nullable String contentType();
 
+        /**
+         Get the count of body bytes received so far, as sent on the wire. If the body has a content encoding (such as
+         {@code gzip} or {@code br}), these are the encoded bytes, which the {@code Content-Length} counts, and which the
+         {@link Connection#onResponseProgress(Progress) progress} is reported in; compare with
+         {@link #bodyBytesDecoded()}.
+
+         @return the count of encoded bytes received; or -1 if not tracked by this implementation
+         @since 1.23.2
+         */
+        default long bodyBytesReceived() {
+            return -1;
+        }
+
+        /**
+         Get the count of body bytes decoded so far. The same as {@link #bodyBytesReceived()} if the body has no content
+         encoding.
+
+         @return the count of decoded bytes; or -1 if not tracked by this implementation
+         @since 1.23.2
+         */
+        default long bodyBytesDecoded() {
+            return -1;
+        }
+
         /**
          Read and parse the body of the response as a Document. If you intend to parse the same response multiple times,
          you should {@link #readFully()} first, which will buffer the body into memory.
@@ -0,0 +1,218 @@
+package org.jsoup.helper;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ Guesses the charset of undeclared content that is not valid UTF-8, from a sample of its bytes. Each candidate legacy
+ charset decodes the sample, and is scored by how much of its non-ASCII text looks like the language it is used for: for
+ the multibyte charsets, the most frequent characters of the language; for the single byte charsets, letters that form
+ plausible words. The best scoring candidate wins, with windows-1252 as the fallback.
+ <p>Used by {@link DataUtil} when {@link org.jsoup.parser.Parser#setDetectUndeclaredCharset(boolean)} is enabled.</p>
+ */
+final class CharsetDetector {
+    static final String Fallback = "windows-1252";
+    private static final float MinScore = 0.25f; // below which a guess is no better than the fallback
+    private static final float MaxErrorRate = 0.02f; // of the non-ASCII chars that did not decode
+
+    private CharsetDetector() {}
+
+    /**
+     Guesses the charset of the bytes.
+     @param bytes the start of the content
+     @param length the count of bytes to sample
+     @return the name of a legacy charset; or null if the bytes are ASCII or valid UTF-8
+     */
+    static @Nullable String detect(byte[] bytes, int length) {
+        if (isUtf8(bytes, length)) return null;
+
+        String best = Fallback;
+        float bestScore = MinScore;
+        for (Candidate candidate : Candidates.All) {
+            float score = candidate.score(bytes, length);
+            if (score > bestScore) {
+                best = candidate.name;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /** Tests if the bytes are valid UTF-8 (which includes ASCII), allowing for a sequence cut off by the sample's end. */
+    static boolean isUtf8(byte[] bytes, int length) {
+        for (int i = 0; i < length; ) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int trail;
+            int min; // the minimum code point, to reject overlong forms
+            if (b >= 0xC2 && b <= 0xDF) { trail = 1; min = 0x80; }
+            else if (b >= 0xE0 && b <= 0xEF) { trail = 2; min = 0x800; }
+            else if (b >= 0xF0 && b <= 0xF4) { trail = 3; min = 0x10000; }
+            else return false;
+
+            int cp = b & (0x3F >> trail);
+            for (int t = 1; t <= trail; t++) {
+                if (i + t >= length) return true; // cut off
+                int c = bytes[i + t] & 0xFF;
+                if ((c & 0xC0) != 0x80) return false;
+                cp = cp << 6 | c & 0x3F;
+            }
+            if (cp < min || cp > 0x10FFFF || cp >= 0xD800 && cp <= 0xDFFF) return false;
+            i += trail + 1;
+        }
+        return true;
+    }
+
+    /** A legacy charset, and the model of the text it is expected to encode. */
+    private abstract static class Candidate {
+        final String name;
+        final @Nullable Charset charset; // null if not supported by this runtime
+
+        Candidate(String name) {
+            this.name = name;
+            charset = Charset.isSupported(name) ? Charset.forName(name) : null;
+        }
+
+        /** Scores how well the bytes decode as this charset, from 0 (not at all) to 1. */
+        float score(byte[] bytes, int length) {
+            if (charset == null) return 0;
+            CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .replaceWith("�");
+            CharBuffer out = CharBuffer.allocate(length);
+            decoder.decode(ByteBuffer.wrap(bytes, 0, length), out, false); // leaves a cut off sequence undecoded
+            char[] text = out.array();
+            int len = out.position();
+
+            int nonAscii = 0, errors = 0;
+            for (int i = 0; i < len; i++) {
+                char c = text[i];
+                if (c < 0x80) continue;
+                nonAscii++;
+                if (c == '�') errors++;
+            }
+            if (nonAscii == 0 || errors > nonAscii * MaxErrorRate) return 0;
+            return (float) likely(text, len) / nonAscii;
+        }
+
+        /** Counts the non-ASCII chars that are likely in this charset's language. */
+        abstract int likely(char[] text, int len);
+    }
+
+    /** A multibyte charset, whose text is recognized by its language's most frequent characters. */
+    private static final class Multibyte extends Candidate {
+        private final char[] frequent; // sorted, for binary search
+        private final boolean kana; // if kana are also frequent
+
+        Multibyte(String name, String frequent, boolean kana) {
+            super(name);
+            this.frequent = frequent.toCharArray();
+            Arrays.sort(this.frequent);
+            this.kana = kana;
+        }
+
+        @Override int likely(char[] text, int len) {
+            int likely = 0;
+            for (int i = 0; i < len; i++) {
+                char c = text[i];
+                if (c >= '　' && c <= '〿' || c >= '！' && c <= '～' || // CJK & fullwidth punctuation
+                    kana && c >= 'ぁ' && c <= 'ヿ' ||
+                    c >= 0x80 && Arrays.binarySearch(frequent, c) >= 0)
+                    likely++;
+            }
+            return likely;
+        }
+    }
+
+    /**
+     A single byte charset, whose text is recognized by non-ASCII letters in word-like runs: a non-Latin alphabet makes
+     runs of whole words (where multibyte text makes runs of whole sentences), but accented Latin letters are mostly
+     alone among ASCII letters. The letters are given as the lower case range; the upper case is 32 below.
+     */
+    private static final class SingleByte extends Candidate {
+        private final char first, last; // the range of the likely lower case letters
+        private final String punctuation; // likely non-ASCII punctuation
+        private final int minRun, maxRun; // the likely lengths of a run of non-ASCII chars
+
+        SingleByte(String name, char first, char last, String punctuation, int minRun, int maxRun) {
+            super(name);
+            this.first = first;
+            this.last = last;
+            this.punctuation = punctuation;
+            this.minRun = minRun;
+            this.maxRun = maxRun;
+        }
+
+        @Override int likely(char[] text, int len) {
+            int likely = 0;
+            for (int i = 0; i < len; ) {
+                if (text[i] < 0x80) {
+                    i++;
+                    continue;
+                }
+                // the run of non-ASCII chars must look like a word (or two): capitalized or lower case letters
+                int start = i, letters = 0;
+                boolean word = true;
+                for (; i < len && text[i] >= 0x80; i++) {
+                    char c = text[i];
+                    if (punctuation.indexOf(c) >= 0) {
+                        likely++;
+                    } else if (isLower(c) || isUpper(c) && (i == start || punctuation.indexOf(text[i - 1]) >= 0)) {
+                        letters++;
+                    } else {
+                        word = false;
+                    }
+                }
+                int run = i - start;
+                if (word && run >= minRun && run <= maxRun)
+                    likely += letters;
+            }
+            return likely;
+        }
+
+        private boolean isLower(char c) {
+            return c >= first && c <= last && c != '÷';
+        }
+
+        private boolean isUpper(char c) {
+            return c >= first - 32 && c <= last - 32 && c != '×';
+        }
+    }
+
+    /** The candidates, created on first use. */
+    private static final class Candidates {
+        static final List<Candidate> All = new ArrayList<>();
+
+        static {
+            // the most frequent characters of each language, after the kana for Japanese
+            add(new Multibyte("Shift_JIS", "日本人年月大中一出会社国者時行見分上下生長自事", true));
+            add(new Multibyte("EUC-JP", "日本人年月大中一出会社国者時行見分上下生長自事", true));
+            add(new Multibyte("GB18030", "的一是不了在人有我他这中大来上国个到说们为和年地出就要以时会可也你对生能而子那得于着" +
+                "下自之过发后作里用道行所然家种事成方多经么去法学如都同现当没动面起看定天分还进好小部其些主样理心她本前开但因只从想实", false));
+            add(new Multibyte("Big5", "的一是不了在人有我他這中大來上國個到說們為和年地出就要以時會可也你對生能而子那得於著" +
+                "下自之過發後作裡用道行所然家種事成方多經麼去法學如都同現當沒動面起看定天分還進好小部其些主樣理心她本前開但因只從想實", false));
+            add(new Multibyte("EUC-KR", "이다는의에고하을기가지서로리사한도자들니대를인어수아일나정게시해있과으만그요보주상전부적것라제장우" +
+                "성여되었구동내면스위선및국개원계습소조없무오마같학경할문세관통입생연모저업신중비방터용화히까말공식실분진안드회물거권체", false));
+            // Cyrillic lower case in words; Latin-1 letters alone or in pairs like "öß"
+            add(new SingleByte("windows-1251", 'а', 'я', "«»–—…№", 2, 24));
+            add(new SingleByte("KOI8-R", 'а', 'я', "«»–—…№", 2, 24));
+            add(new SingleByte(Fallback, 'à', 'þ', "‘’“”–—…•€©®°«»·ß", 1, 2));
+        }
+
+        private static void add(Candidate candidate) {
+            All.add(candidate);
+        }
+    }
+}
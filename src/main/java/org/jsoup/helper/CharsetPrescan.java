@@ -0,0 +1,242 @@
+package org.jsoup.helper;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ Finds the character encoding declared at the start of an HTML byte stream, without decoding or parsing it. Implements
+ the WHATWG <a href="https://html.spec.whatwg.org/multipage/parsing.html#prescan-a-byte-stream-to-determine-its-encoding">prescan
+ a byte stream to determine its encoding</a> algorithm, which skips comments and the attributes of other tags, and takes
+ the first {@code meta} with a supported {@code charset}, or a {@code content} charset with a content-type
+ {@code http-equiv}. Also reads the {@code encoding} of a leading XML declaration, used if there is no such meta.
+ <p>Labels are resolved with {@link Charset#isSupported(String)}, rather than the WHATWG label table.</p>
+ */
+final class CharsetPrescan {
+    private final byte[] bytes;
+    private final int end;
+    private int pos = 0;
+    // the current attribute, set by nextAttribute():
+    private final StringBuilder name = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+
+    private CharsetPrescan(byte[] bytes, int length) {
+        this.bytes = bytes;
+        this.end = length;
+    }
+
+    /**
+     Scans the bytes for a declared charset.
+     @param bytes the start of the stream
+     @param length the count of bytes to scan
+     @return the name of a supported charset, or null if none was declared
+     */
+    static @Nullable String prescan(byte[] bytes, int length) {
+        return new CharsetPrescan(bytes, length).scan();
+    }
+
+    private @Nullable String scan() {
+        String xmlEncoding = null;
+        int firstTag = skipWhitespace(0);
+        try {
+            while (pos < end) {
+                if (matches("<!--")) {
+                    pos = indexOf("-->", pos + 2); // the dashes of the open can also close: <!-->
+                    if (pos < 0) break;
+                    pos += 3;
+                } else if (matchesIgnoreCase("<meta") && isSpaceOrSlash(at(pos + 5))) {
+                    pos += 6;
+                    String charset = meta();
+                    if (charset != null) return charset;
+                    pos++;
+                } else if (pos == firstTag && matchesIgnoreCase("<?xml") && isSpace(at(pos + 5))) {
+                    pos += 6;
+                    while (nextAttribute()) {
+                        if (name.toString().equals("encoding")) xmlEncoding = DataUtil.validateCharset(value.toString());
+                    }
+                    pos++;
+                } else if (at(pos) == '<' && (isLetter(at(pos + 1)) || at(pos + 1) == '/' && isLetter(at(pos + 2)))) {
+                    pos += 2;
+                    while (pos < end && !isSpace(bytes[pos]) && bytes[pos] != '>') pos++;
+                    //noinspection StatementWithEmptyBody
+                    while (nextAttribute()) { } // skipped, but a '>' in a quoted value does not end the tag
+                    pos++;
+                } else if (matches("<!") || matches("</") || matches("<?")) {
+                    pos = indexOf(">", pos + 2);
+                    if (pos < 0) break;
+                    pos++;
+                } else {
+                    pos++;
+                }
+            }
+        } catch (EndOfInput e) {
+            // the scan ran out of bytes within a tag; a charset there would have been cut off too
+        }
+        return xmlEncoding;
+    }
+
+    /** Reads the attributes of a meta tag, returning its charset if it declares one. */
+    private @Nullable String meta() {
+        Set<String> seen = new HashSet<>();
+        boolean gotPragma = false;
+        Boolean needPragma = null;
+        String charset = null;
+
+        while (nextAttribute()) {
+            String attr = name.toString();
+            if (!seen.add(attr)) continue; // only the first of a duplicate name counts
+            switch (attr) {
+                case "http-equiv":
+                    if (value.toString().equals("content-type")) gotPragma = true;
+                    break;
+                case "content":
+                    if (charset == null) {
+                        String found = charsetFromContent(value);
+                        if (found != null) {
+                            charset = found;
+                            needPragma = true;
+                        }
+                    }
+                    break;
+                case "charset":
+                    charset = value.toString();
+                    needPragma = false;
+                    break;
+            }
+        }
+
+        if (needPragma == null || needPragma && !gotPragma) return null;
+        charset = DataUtil.validateCharset(charset);
+        if (charset == null) return null;
+        String canonical = Charset.forName(charset).name();
+        if (canonical.startsWith("UTF-16")) return DataUtil.defaultCharsetName; // bytes this far were ASCII compatible
+        return charset;
+    }
+
+    /**
+     Reads the next attribute into the name and value buffers, per the spec's "get an attribute" steps. Names and values
+     are lower-cased, and their bytes read as Latin-1, which is fine for charset labels.
+     @return true if an attribute was read; false if the tag ended
+     */
+    private boolean nextAttribute() {
+        name.setLength(0);
+        value.setLength(0);
+        while (isSpaceOrSlash(byteAt(pos))) pos++;
+        if (bytes[pos] == '>') return false;
+
+        for (;; pos++) { // name
+            byte b = byteAt(pos);
+            if (b == '=' && name.length() > 0) break;
+            if (isSpace(b)) {
+                while (isSpace(byteAt(pos))) pos++;
+                if (bytes[pos] != '=') return true; // a name with no value
+                break;
+            }
+            if (b == '/' || b == '>') return true;
+            name.append(lower(b));
+        }
+
+        pos++; // past the '='
+        while (isSpace(byteAt(pos))) pos++;
+        byte b = bytes[pos];
+        if (b == '"' || b == '\'') {
+            for (pos++; byteAt(pos) != b; pos++) value.append(lower(bytes[pos]));
+            pos++;
+            return true;
+        }
+        if (b == '>') return true;
+        for (; !isSpace(b) && b != '>'; b = byteAt(++pos)) value.append(lower(b));
+        return true;
+    }
+
+    /** Finds the charset in a meta's content value, e.g. {@code text/html; charset=gb2312}. */
+    static @Nullable String charsetFromContent(CharSequence content) {
+        String s = content.toString(); // already lower-cased
+        int len = s.length();
+        for (int i = 0; (i = s.indexOf("charset", i)) >= 0; ) {
+            i += "charset".length();
+            while (i < len && isSpace(s.charAt(i))) i++;
+            if (i >= len || s.charAt(i) != '=') continue; // look for a later "charset"
+            i++;
+            while (i < len && isSpace(s.charAt(i))) i++;
+            if (i >= len) return null;
+            char c = s.charAt(i);
+            if (c == '"' || c == '\'') {
+                int close = s.indexOf(c, i + 1);
+                return close < 0 ? null : s.substring(i + 1, close);
+            }
+            int stop = i;
+            while (stop < len && !isSpace(s.charAt(stop)) && s.charAt(stop) != ';') stop++;
+            return s.substring(i, stop);
+        }
+        return null;
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < end && isSpace(bytes[i])) i++;
+        return i;
+    }
+
+    private boolean matches(String seq) {
+        if (pos + seq.length() > end) return false;
+        for (int i = 0; i < seq.length(); i++) {
+            if (bytes[pos + i] != seq.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean matchesIgnoreCase(String seq) {
+        if (pos + seq.length() > end) return false;
+        for (int i = 0; i < seq.length(); i++) {
+            if (lower(bytes[pos + i]) != seq.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int indexOf(String seq, int from) {
+        for (pos = from; pos < end; pos++) {
+            if (matches(seq)) return pos;
+        }
+        return -1;
+    }
+
+    /** Gets the byte at the index, or 0 past the end. */
+    private int at(int i) {
+        return i < end ? bytes[i] : 0;
+    }
+
+    /** Gets the byte at the index, ending the scan if past the end. */
+    private byte byteAt(int i) {
+        if (i >= end) throw EndOfInput.Instance;
+        return bytes[i];
+    }
+
+    private static char lower(byte b) {
+        char c = (char) (b & 0xFF);
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static boolean isLetter(int b) {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z';
+    }
+
+    private static boolean isSpace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\f' || b == '\r';
+    }
+
+    private static boolean isSpaceOrSlash(int b) {
+        return isSpace(b) || b == '/';
+    }
+
+    /** Unwinds the scan when it runs out of bytes mid-tag. Shared and stackless, as it never escapes. */
+    private static final class EndOfInput extends RuntimeException {
+        static final EndOfInput Instance = new EndOfInput();
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.jspecify.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ The content encodings that a response body may be decoded from. {@code gzip} and {@code deflate} are decoded by the JDK.
+ {@code br} (Brotli) and {@code zstd} (Zstandard) are decoded if a supporting library is found on the classpath, as
+ {@link Regex} does for re2j:
+ <ul>
+ <li>{@code br}: {@code org.brotli:dec}</li>
+ <li>{@code zstd}: {@code com.github.luben:zstd-jni}, or {@code io.airlift:aircompressor}</li>
+ </ul>
+ <p>Each library's decoding stream is found and constructed reflectively, so jsoup does not depend on them. The
+ encodings found are advertised in the request's default {@code Accept-Encoding} header.</p>
+ */
+final class ContentEncodings {
+    /** Wraps an encoded stream with one that decodes it. */
+    interface Decoder {
+        InputStream decode(InputStream in) throws IOException;
+    }
+
+    // the decodable encodings, by their Content-Encoding token
+    private static final Map<String, Decoder> decoders = new LinkedHashMap<>();
+    /** The default Accept-Encoding header value. */
+    static final String AcceptEncoding;
+
+    static {
+        decoders.put("gzip", GZIPInputStream::new);
+        decoders.put("deflate", in -> new InflaterInputStream(in, new Inflater(true)));
+        StringBuilder accept = new StringBuilder("gzip"); // deflate is decoded if sent, but not asked for, as some servers send it raw and others zlib wrapped
+        add("br", accept, "org.brotli.dec.BrotliInputStream");
+        add("zstd", accept, "com.github.luben.zstd.ZstdInputStream", "io.airlift.compress.v3.zstd.ZstdInputStream",
+            "io.airlift.compress.zstd.ZstdInputStream");
+        AcceptEncoding = accept.toString();
+    }
+
+    private ContentEncodings() {}
+
+    private static void add(String encoding, StringBuilder accept, String... classNames) {
+        Decoder decoder = find(classNames);
+        if (decoder == null) return;
+        decoders.put(encoding, decoder);
+        accept.append(", ").append(encoding);
+    }
+
+    /**
+     Finds the first of the named decoding stream classes that is on the classpath and can be initialized (e.g. has its
+     native library), and has an {@code InputStream} constructor.
+     @return a Decoder that constructs the stream, or null if none was found
+     */
+    static @Nullable Decoder find(String... classNames) {
+        for (String className : classNames) {
+            try {
+                Class<?> cls = Class.forName(className, true, ContentEncodings.class.getClassLoader());
+                if (!InputStream.class.isAssignableFrom(cls)) continue;
+                Constructor<?> constructor = cls.getConstructor(InputStream.class);
+                return in -> construct(constructor, in);
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                // not on the classpath, or could not load; try the next
+            }
+        }
+        return null;
+    }
+
+    private static InputStream construct(Constructor<?> constructor, InputStream in) throws IOException {
+        try {
+            return (InputStream) constructor.newInstance(in);
+        } catch (InvocationTargetException e) { // e.g. an IOException reading the stream header
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     Gets the decoder for the response's Content-Encoding.
+     @return the decoder, or null if the body is not encoded, or its encoding is not supported (and so will be read as
+     is)
+     */
+    static @Nullable Decoder forResponse(Connection.Response res) {
+        for (Map.Entry<String, Decoder> entry : decoders.entrySet()) {
+            if (res.hasHeaderWithValue(HttpConnection.CONTENT_ENCODING, entry.getKey()))
+                return entry.getValue();
+        }
+        return null;
+    }
+
+    /** Counts the bytes read through it, for the body sizes reported by the Response. */
+    static final class CountingInputStream extends FilterInputStream {
+        private volatile long count; // written only by the reading thread
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override public boolean markSupported() {
+            return false; // a reset would count bytes twice
+        }
+    }
+}
@@ -5,16 +5,9 @@ import org.jsoup.internal.ControllableInputStream;
 import org.jsoup.internal.Normalizer;
 import org.jsoup.internal.SimpleStreamReader;
 import org.jsoup.internal.StringUtil;
-import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
-import org.jsoup.nodes.XmlDeclaration;
 import org.jsoup.parser.Parser;
 import org.jsoup.parser.StreamParser;
-import org.jsoup.select.Elements;
-import org.jsoup.select.Evaluator;
-import org.jsoup.select.Selector;
 import org.jspecify.annotations.Nullable;
 
 import java.io.File;
@@ -140,7 +133,7 @@ public final class DataUtil {
         StreamParser streamer = new StreamParser(parser);
         String charsetName = charset != null? charset.name() : null;
         try {
-            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharsetForStreamParser(openStream(path), charsetName, baseUri, parser);
+            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(openStream(path), charsetName, parser);
             Reader reader = new SimpleStreamReader(charsetDoc.input, charsetDoc.charset);
             streamer.parse(reader, baseUri); // initializes the parse and the document, but does not step() it
         } catch (IOException e) {
@@ -207,16 +200,14 @@ public final class DataUtil {
         }
     }
 
-    /** A struct to return a detected charset, and a document (if fully read). */
+    /** A struct to return a detected charset, and the input to read with it. */
     static class CharsetDoc {
         Charset charset;
         InputStream input;
-        @Nullable Document doc;
 
-        CharsetDoc(Charset charset, @Nullable Document doc, InputStream input) {
+        CharsetDoc(Charset charset, InputStream input) {
             this.charset = charset;
             this.input = input;
-            this.doc = doc;
         }
     }
 
@@ -226,7 +217,7 @@ public final class DataUtil {
         final Document doc;
         CharsetDoc charsetDoc = null;
         try {
-            charsetDoc = detectCharset(input, charsetName, baseUri, parser);
+            charsetDoc = detectCharset(input, charsetName, parser);
             doc = parseInputStream(charsetDoc, baseUri, parser);
         } finally {
             if (charsetDoc != null)
@@ -235,96 +226,38 @@ public final class DataUtil {
         return doc;
     }
 
-    private static final Evaluator metaCharset = Selector.evaluatorOf("meta[http-equiv=content-type], meta[charset]");
-
-    /** Detects charset for a regular parse, and may reuse a fully sniffed document. */
-    static CharsetDoc detectCharset(ControllableInputStream input, @Nullable String charsetName, String baseUri, Parser parser) throws IOException {
-        return detectCharset(input, charsetName, baseUri, parser, true);
-    }
-
-    /** Detects charset for a stream parse, and leaves the input readable for subsequent parsing. */
-    static CharsetDoc detectCharsetForStreamParser(ControllableInputStream input, @Nullable String charsetName, String baseUri, Parser parser) throws IOException {
-        return detectCharset(input, charsetName, baseUri, parser, false);
-    }
-
-    /** Shared charset detection worker; regular parse can reuse a fully sniffed doc, stream parse cannot. */
-    private static CharsetDoc detectCharset(ControllableInputStream input, @Nullable String charsetName, String baseUri, Parser parser, boolean reuseDocIfFullyRead) throws IOException {
-        Document doc = null;
-        // read the start of the stream and look for a BOM or meta charset:
+    /**
+     Detects the charset of the input: from a BOM, else the supplied name (e.g. from a content-type header), else a
+     meta charset or XML declaration found by prescanning the first bytes, else (if the parser is set to) a guess from
+     those bytes, else UTF-8. The input is left positioned to be read in that charset.
+     */
+    static CharsetDoc detectCharset(ControllableInputStream input, @Nullable String charsetName, Parser parser) throws IOException {
         // look for BOM - overrides any other header or input
         String bomCharset = detectCharsetFromBom(input); // resets / consumes appropriately
         if (bomCharset != null)
             charsetName = bomCharset;
 
-        if (charsetName == null) { // read ahead and determine from meta. safe first parse as UTF-8
-            int origMax = input.max();
-            input.max(firstReadBufferSize);
-            input.resetFullyRead(); // clear any pre-read (e.g., BOM) state before capped sniff
+        if (charsetName == null) { // read ahead and look for <meta charset="gb2312">, <meta http-equiv>, or <?xml encoding>
+            byte[] head = new byte[firstReadBufferSize];
             input.mark(firstReadBufferSize);
-            input.allowClose(false); // ignores closes during parse, in case we need to rewind
-            try (Reader reader = new SimpleStreamReader(input, UTF_8)) { // input is currently capped to firstReadBufferSize
-                doc = parser.parseInput(reader, baseUri);
-                input.reset();
-                input.max(origMax); // reset for a full read if required
-            } catch (UncheckedIOException e) {
-                throw e.getCause();
-            } finally {
-                input.allowClose(true);
-            }
-
-            // look for <meta http-equiv="Content-Type" content="text/html;charset=gb2312"> or HTML5 <meta charset="gb2312">
-            Elements metaElements = doc.select(metaCharset);
-            String foundCharset = null; // if not found, will keep utf-8 as best attempt
-            for (Element meta : metaElements) {
-                if (meta.hasAttr("http-equiv"))
-                    foundCharset = getCharsetFromContentType(meta.attr("content"));
-                if (foundCharset == null && meta.hasAttr("charset"))
-                    foundCharset = meta.attr("charset");
-                if (foundCharset != null)
-                    break;
-            }
-
-            // look for <?xml encoding='ISO-8859-1'?>
-            if (foundCharset == null && doc.childNodeSize() > 0) {
-                Node first = doc.childNode(0);
-                XmlDeclaration decl = null;
-                if (first instanceof XmlDeclaration)
-                    decl = (XmlDeclaration) first;
-                else if (first instanceof Comment) {
-                    Comment comment = (Comment) first;
-                    if (comment.isXmlDeclaration())
-                        decl = comment.asXmlDeclaration();
-                }
-                if (decl != null && decl.name().equalsIgnoreCase("xml")) {
-                    foundCharset = decl.attr("encoding");
-                }
-            }
-            foundCharset = validateCharset(foundCharset);
-            if (foundCharset != null && !foundCharset.equalsIgnoreCase(defaultCharsetName)) { // need to re-decode. (case-insensitive check here to match how validate works)
-                foundCharset = foundCharset.trim().replaceAll("[\"']", "");
-                charsetName = foundCharset;
-                doc = null;
-            } else if (reuseDocIfFullyRead && input.baseReadFully()) { // keep the current parse if the caller can use a fully read doc
-                input.close(); // the parser tried to close it
-            } else {
-                doc = null;
-            }
+            int len = 0;
+            for (int read; len < head.length && (read = input.read(head, len, head.length - len)) != -1; )
+                len += read;
+            input.reset();
+            charsetName = CharsetPrescan.prescan(head, len);
+            if (charsetName == null && parser.isDetectUndeclaredCharset())
+                charsetName = CharsetDetector.detect(head, len); // if still not found, will keep utf-8 as best attempt
         } else { // specified by content type header (or by user on file load)
             Validate.notEmpty(charsetName, "Must set charset arg to character set of file to parse. Set to null to attempt to detect from HTML");
         }
 
         // finally: prepare the return struct
-        if (charsetName == null)
-            charsetName = defaultCharsetName;
-        Charset charset = charsetName.equals(defaultCharsetName) ? UTF_8 : Charset.forName(charsetName);
-        return new CharsetDoc(charset, doc, input);
+        if (charsetName == null || charsetName.equalsIgnoreCase(defaultCharsetName))
+            return new CharsetDoc(UTF_8, input);
+        return new CharsetDoc(Charset.forName(charsetName), input);
     }
 
     static Document parseInputStream(CharsetDoc charsetDoc, String baseUri, Parser parser) throws IOException {
-        // if doc != null it was fully parsed during charset detection; so just return that
-        if (charsetDoc.doc != null)
-            return charsetDoc.doc;
-
         final InputStream input = charsetDoc.input;
         Validate.notNull(input);
         final Document doc;
@@ -378,7 +311,7 @@ public final class DataUtil {
         return null;
     }
 
-    private @Nullable static String validateCharset(@Nullable String cs) {
+    static @Nullable String validateCharset(@Nullable String cs) {
         if (cs == null || cs.length() == 0) return null;
         cs = cs.trim().replaceAll("[\"']", "");
         try {
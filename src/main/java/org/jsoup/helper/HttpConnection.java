@@ -43,9 +43,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import static org.jsoup.Connection.Method.HEAD;
 import static org.jsoup.helper.DataUtil.UTF_8;
@@ -647,7 +644,7 @@ public class HttpConnection implements Connection {
             followRedirects = true;
             data = new ArrayList<>();
             method = Method.GET;
-            addHeader("Accept-Encoding", "gzip");
+            addHeader("Accept-Encoding", ContentEncodings.AcceptEncoding);
             addHeader(USER_AGENT, DEFAULT_UA);
             parser = Parser.htmlParser();
             cookieManager = new CookieManager(); // creates a default InMemoryCookieStore
@@ -853,6 +850,8 @@ public class HttpConnection implements Connection {
         String statusMessage = "";
         private @Nullable ByteBuffer byteData;
         private @Nullable ControllableInputStream bodyStream;
+        private ContentEncodings.@Nullable CountingInputStream received; // the body bytes read from the connection
+        private ContentEncodings.@Nullable CountingInputStream decoded; // the body bytes decoded, if content encoded
         @Nullable RequestExecutor executor;
         private @Nullable String charset;
         @Nullable String contentType;
@@ -988,18 +987,21 @@ public class HttpConnection implements Connection {
 
                 res.charset = DataUtil.getCharsetFromContentType(res.contentType); // may be null, readInputStream deals with it
                 if (res.contentLength != 0 && req.method() != HEAD) { // -1 means unknown, chunked. sun throws an IO exception on 500 response with no content when trying to read body
-                    InputStream stream = executor.responseBody();
-                    if (res.hasHeaderWithValue(CONTENT_ENCODING, "gzip"))
-                        stream = new GZIPInputStream(stream);
-                    else if (res.hasHeaderWithValue(CONTENT_ENCODING, "deflate"))
-                        stream = new InflaterInputStream(stream, new Inflater(true));
-                    
+                    InputStream stream = res.received = new ContentEncodings.CountingInputStream(executor.responseBody());
+                    ContentEncodings.Decoder decoder = ContentEncodings.forResponse(res);
+                    if (decoder != null)
+                        stream = res.decoded = new ContentEncodings.CountingInputStream(decoder.decode(stream));
+
                     res.bodyStream = ControllableInputStream.wrap(
                         stream, DefaultBufferSize, req.maxBodySize())
                         .timeout(startTime, req.timeout());
 
-                    if (req.responseProgress != null) // set response progress listener
-                        res.bodyStream.onProgress(res.contentLength, req.responseProgress, res);
+                    if (req.responseProgress != null) { // set response progress listener
+                        // the content length counts the bytes received, which differ from those read if decoded
+                        ContentEncodings.CountingInputStream received = res.received;
+                        res.bodyStream.onProgress(res.contentLength, req.responseProgress, res,
+                            decoder == null ? null : () -> (int) Math.min(received.count(), Integer.MAX_VALUE));
+                    }
                 } else {
                     res.byteData = DataUtil.emptyByteBuffer();
                 }
@@ -1044,6 +1046,16 @@ public class HttpConnection implements Connection {
             return contentType;
         }
 
+        @Override
+        public long bodyBytesReceived() {
+            return received != null ? received.count() : 0;
+        }
+
+        @Override
+        public long bodyBytesDecoded() {
+            return decoded != null ? decoded.count() : bodyBytesReceived();
+        }
+
         /** Called from parse() or streamParser(), validates and prepares the input stream, and aligns common settings. */
         private ControllableInputStream prepareParse() {
             Validate.isTrue(executed, "Request must be executed (with .execute(), .get(), or .post() before parsing response");
@@ -1071,7 +1083,7 @@ public class HttpConnection implements Connection {
         @Override public StreamParser streamParser() throws IOException {
             ControllableInputStream stream = prepareParse();
             String baseUri = url.toExternalForm();
-            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharsetForStreamParser(stream, charset, baseUri, req.parser());
+            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(stream, charset, req.parser());
 
             // set up the stream parser and rig this connection up to the parsed doc:
             StreamParser streamer = new StreamParser(req.parser());
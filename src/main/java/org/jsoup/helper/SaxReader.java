@@ -0,0 +1,368 @@
+package org.jsoup.helper;
+
+import org.jsoup.internal.NamespaceBindings;
+import org.jsoup.internal.XmlNodes;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.DocumentType;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jsoup.parser.Parser;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import java.util.ArrayList;
+
+import static org.jsoup.nodes.Document.OutputSettings.Syntax;
+
+/**
+ A SAX {@link XMLReader} that emits the events of a parsed jsoup node, so that its content can be piped into SAX
+ consumers such as a {@link javax.xml.transform.Transformer} or a validator, without first converting it to a W3C DOM.
+ The source is read when {@link #parse()} is called (or any of the {@code parse} methods, whose input arguments are
+ ignored).
+ <p>Usage:</p>
+ <pre><code>
+ Document doc = Jsoup.parse(html);
+ SaxReader reader = new SaxReader(doc);
+ transformer.transform(new SAXSource(reader, new InputSource()), result);
+ </code></pre>
+ <p>The events match the tree built by {@link W3CDom#fromJsoup(Document)}: a document holds its doctype, comments,
+ processing instructions, and first root element; names are made XML-safe; and {@link DataNode}s are character data.
+ Element and attribute namespaces come from the jsoup tree, and {@code startPrefixMapping} events are emitted wherever
+ a prefix needs to be (re)bound, whether or not the source declared it. Comments, CDATA sections, and the doctype are
+ reported to a {@link LexicalHandler}, if one is set via the {@code http://xml.org/sax/properties/lexical-handler}
+ property, or if the content handler implements it.</p>
+ <p>The {@code namespaces} (default on) and {@code namespace-prefixes} (default off) features are supported. A reader
+ is not thread-safe, but the source can be read multiple times.</p>
+
+ @since 1.23.2
+ */
+public class SaxReader implements XMLReader {
+    private static final String NamespacesFeature = "http://xml.org/sax/features/namespaces";
+    private static final String NamespacePrefixesFeature = "http://xml.org/sax/features/namespace-prefixes";
+    private static final String LexicalHandlerProperty = "http://xml.org/sax/properties/lexical-handler";
+    private static final String Cdata = "CDATA";
+
+    private final Node root;
+    private @Nullable ContentHandler contentHandler;
+    private @Nullable LexicalHandler lexicalHandler;
+    private @Nullable DTDHandler dtdHandler;
+    private @Nullable EntityResolver entityResolver;
+    private @Nullable ErrorHandler errorHandler;
+    private boolean namespaces = true;
+    private boolean namespacePrefixes = false;
+
+    // parse state
+    private final NamespaceBindings sourceNamespaces = new NamespaceBindings(); // to resolve attribute prefixes
+    private final NamespaceBindings outputNamespaces = new NamespaceBindings(); // prefixes mapped in the event stream
+    private final ArrayList<ArrayList<String>> mappedPrefixes = new ArrayList<>(); // per element depth, to end
+    private final AttributesImpl attributes = new AttributesImpl();
+    private int depth;
+
+    /**
+     Create a reader for a jsoup node. If the node is a Document, its content is emitted; otherwise the node (and its
+     descendants) is emitted as the root of a document.
+     @param root the node to read
+     */
+    public SaxReader(Node root) {
+        Validate.notNull(root);
+        this.root = root;
+    }
+
+    /**
+     Emit the source's events to the content handler.
+     @throws SAXException if thrown by a handler
+     */
+    public void parse() throws SAXException {
+        ContentHandler handler = contentHandler != null ? contentHandler : new DefaultHandler();
+        LexicalHandler lexical = lexicalHandler != null ? lexicalHandler :
+            handler instanceof LexicalHandler ? (LexicalHandler) handler : null;
+
+        sourceNamespaces.clear();
+        outputNamespaces.clear();
+        depth = 0;
+        if (root instanceof Element)
+            seedSourceNamespaces((Element) root);
+
+        handler.startDocument();
+        if (root instanceof Document) {
+            for (Node child : root.childNodes()) {
+                if (XmlNodes.isDocumentChild(child, true)) // one root element, and no text outside it
+                    emit(child, handler, lexical);
+            }
+        } else {
+            emit(root, handler, lexical);
+        }
+        handler.endDocument();
+    }
+
+    /** Walks a subtree, emitting each node's events. */
+    private void emit(Node subRoot, ContentHandler handler, @Nullable LexicalHandler lexical) throws SAXException {
+        Node node = subRoot;
+        while (true) {
+            head(node, handler, lexical);
+            if (node instanceof Element && node.childNodeSize() > 0) {
+                node = node.childNode(0); // descend
+                continue;
+            }
+            while (true) {
+                if (node instanceof Element)
+                    endElement((Element) node, handler);
+                if (node == subRoot) return;
+                Node next = node.nextSibling();
+                if (next != null) {
+                    node = next;
+                    break;
+                }
+                node = node.parentNode(); // ascend
+                if (node == null) return;
+            }
+        }
+    }
+
+    private void head(Node node, ContentHandler handler, @Nullable LexicalHandler lexical) throws SAXException {
+        if (node instanceof Element) {
+            startElement((Element) node, handler);
+        } else if (node instanceof CDataNode) {
+            if (lexical != null) lexical.startCDATA();
+            characters(((CDataNode) node).getWholeText(), handler);
+            if (lexical != null) lexical.endCDATA();
+        } else if (node instanceof TextNode) {
+            characters(((TextNode) node).getWholeText(), handler);
+        } else if (node instanceof DataNode) {
+            characters(((DataNode) node).getWholeData(), handler);
+        } else if (node instanceof Comment) {
+            if (lexical != null) {
+                char[] data = ((Comment) node).getData().toCharArray();
+                lexical.comment(data, 0, data.length);
+            }
+        } else if (node instanceof XmlDeclaration) {
+            if (XmlNodes.isInstruction(node)) {
+                XmlDeclaration decl = (XmlDeclaration) node;
+                handler.processingInstruction(decl.name(), decl.getWholeDeclaration());
+            }
+        } else if (node instanceof DocumentType) {
+            // only presented at the document level, as in the W3C conversion
+            if (lexical != null && node.parentNode() instanceof Document) {
+                DocumentType type = (DocumentType) node;
+                lexical.startDTD(type.name(), emptyToNull(type.publicId()), emptyToNull(type.systemId()));
+                lexical.endDTD();
+            }
+        }
+    }
+
+    private void startElement(Element el, ContentHandler handler) throws SAXException {
+        sourceNamespaces.pushScope();
+        outputNamespaces.pushScope();
+        ArrayList<String> mapped = mappedAt(depth++);
+        attributes.clear();
+        String qName = xmlName(el.tagName());
+
+        if (!namespaces) {
+            for (Attribute attr : el.attributes())
+                attributes.addAttribute("", "", xmlName(attr.getKey()), Cdata, attr.getValue());
+            handler.startElement("", "", qName, attributes);
+            return;
+        }
+
+        sourceNamespaces.applyDeclarations(el.attributes());
+        for (Attribute attr : el.attributes()) { // declarations first, so they are mapped as the source has them
+            String prefix = NamespaceBindings.declarationPrefix(attr.getKey());
+            if (prefix != null)
+                mapPrefix(prefix, attr.getValue(), mapped, handler);
+        }
+        mapPrefix(prefix(qName), elementNamespace(el), mapped, handler);
+
+        for (Attribute attr : el.attributes()) {
+            String key = attr.getKey();
+            if (NamespaceBindings.isDeclaration(key)) {
+                if (namespacePrefixes)
+                    attributes.addAttribute("", "", key, Cdata, attr.getValue());
+                continue;
+            }
+            String name = xmlName(key);
+            int pos = name.indexOf(':');
+            if (pos == -1) { // default namespaces do not apply to unprefixed attributes
+                attributes.addAttribute("", name, name, Cdata, attr.getValue());
+                continue;
+            }
+            String namespace = attr.namespace();
+            if (namespace.isEmpty()) {
+                String bound = sourceNamespaces.get(attr.prefix());
+                namespace = bound == null || bound.isEmpty() ? W3CDom.W3CBuilder.undefinedNs : bound;
+            }
+            mapPrefix(name.substring(0, pos), namespace, mapped, handler);
+            attributes.addAttribute(namespace, name.substring(pos + 1), name, Cdata, attr.getValue());
+        }
+
+        handler.startElement(elementNamespace(el), localName(qName), qName, attributes);
+    }
+
+    private void endElement(Element el, ContentHandler handler) throws SAXException {
+        String qName = xmlName(el.tagName());
+        ArrayList<String> mapped = mappedAt(--depth);
+        if (namespaces) {
+            handler.endElement(elementNamespace(el), localName(qName), qName);
+            for (int i = mapped.size() - 1; i >= 0; i--)
+                handler.endPrefixMapping(mapped.get(i));
+        } else {
+            handler.endElement("", "", qName);
+        }
+        mapped.clear();
+        sourceNamespaces.popScope();
+        outputNamespaces.popScope();
+    }
+
+    /** Emits a prefix mapping, if the prefix is not already bound to the namespace in the output. */
+    private void mapPrefix(String prefix, String namespace, ArrayList<String> mapped, ContentHandler handler) throws SAXException {
+        if (prefix.equals(XMLConstants.XML_NS_PREFIX)) return; // permanently bound
+        String current = outputNamespaces.get(prefix);
+        if (namespace.equals(current == null ? "" : current)) return;
+        if (namespace.isEmpty() && !prefix.isEmpty()) return; // prefixes can't be unbound; the source was invalid
+        outputNamespaces.put(prefix, namespace);
+        if (!mapped.contains(prefix)) {
+            mapped.add(prefix);
+            handler.startPrefixMapping(prefix, namespace);
+        }
+    }
+
+    private ArrayList<String> mappedAt(int index) {
+        while (mappedPrefixes.size() <= index)
+            mappedPrefixes.add(new ArrayList<>(2));
+        return mappedPrefixes.get(index);
+    }
+
+    /** Applies declarations inherited from ancestors outside the emitted subtree. */
+    private void seedSourceNamespaces(Element el) {
+        for (Element parent = el.parent(); parent != null; parent = parent.parent()) {
+            if (parent.attributesSize() == 0) continue;
+            for (Attribute attr : parent.attributes()) {
+                String prefix = NamespaceBindings.declarationPrefix(attr.getKey());
+                if (prefix != null && sourceNamespaces.get(prefix) == null) // nearest declaration wins
+                    sourceNamespaces.put(prefix, attr.getValue());
+            }
+        }
+    }
+
+    /** The element's namespace, as in the W3C conversion: plain XML elements have no namespace. */
+    private static String elementNamespace(Element el) {
+        String namespace = el.tag().namespace();
+        if (Parser.NamespaceXml.equals(namespace) && el.tag().prefix().isEmpty())
+            return "";
+        return namespace;
+    }
+
+    private static String xmlName(String name) {
+        return Attribute.getValidKey(name, Syntax.xml);
+    }
+
+    private static String prefix(String qName) {
+        int pos = qName.indexOf(':');
+        return pos == -1 ? "" : qName.substring(0, pos);
+    }
+
+    private static String localName(String qName) {
+        return qName.substring(qName.indexOf(':') + 1);
+    }
+
+    private static void characters(String text, ContentHandler handler) throws SAXException {
+        char[] chars = text.toCharArray();
+        handler.characters(chars, 0, chars.length);
+    }
+
+    private static @Nullable String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+
+    @Override
+    public void parse(InputSource input) throws SAXException {
+        parse();
+    }
+
+    @Override
+    public void parse(String systemId) throws SAXException {
+        parse();
+    }
+
+    @Override
+    public boolean getFeature(String name) throws SAXNotRecognizedException {
+        if (NamespacesFeature.equals(name)) return namespaces;
+        if (NamespacePrefixesFeature.equals(name)) return namespacePrefixes;
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setFeature(String name, boolean value) throws SAXNotRecognizedException {
+        if (NamespacesFeature.equals(name)) namespaces = value;
+        else if (NamespacePrefixesFeature.equals(name)) namespacePrefixes = value;
+        else throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public @Nullable Object getProperty(String name) throws SAXNotRecognizedException {
+        if (LexicalHandlerProperty.equals(name)) return lexicalHandler;
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setProperty(String name, @Nullable Object value) throws SAXNotRecognizedException {
+        if (LexicalHandlerProperty.equals(name)) lexicalHandler = (LexicalHandler) value;
+        else throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setEntityResolver(@Nullable EntityResolver resolver) {
+        entityResolver = resolver; // retained for getEntityResolver; the source has no external entities
+    }
+
+    @Override
+    public @Nullable EntityResolver getEntityResolver() {
+        return entityResolver;
+    }
+
+    @Override
+    public void setDTDHandler(@Nullable DTDHandler handler) {
+        dtdHandler = handler; // retained for getDTDHandler; no notation or unparsed entity events are emitted
+    }
+
+    @Override
+    public @Nullable DTDHandler getDTDHandler() {
+        return dtdHandler;
+    }
+
+    @Override
+    public void setContentHandler(@Nullable ContentHandler handler) {
+        contentHandler = handler;
+    }
+
+    @Override
+    public @Nullable ContentHandler getContentHandler() {
+        return contentHandler;
+    }
+
+    @Override
+    public void setErrorHandler(@Nullable ErrorHandler handler) {
+        errorHandler = handler; // retained for getErrorHandler; the source has already been parsed
+    }
+
+    @Override
+    public @Nullable ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+}
@@ -217,6 +217,26 @@ public class W3CDom {
         }
     }
 
+    /**
+     Creates a read-only W3C DOM view of a jsoup Document. Unlike {@link #fromJsoup(org.jsoup.nodes.Document)}, the
+     document is not copied: each W3C node wraps its jsoup node, and is created when first navigated to. That makes
+     the view suitable for passing large documents to a {@link Transformer} (via a {@link DOMSource}) or to XPath.
+     <p>The view presents the same nodes, names, and namespaces as a conversion with this W3CDom's {@link
+     #namespaceAware()} setting, and each
+     node's {@link #SourceProperty} user data is its jsoup node, so {@link #sourceNodes(NodeList, Class)} can be used
+     with the view's XPath results. Methods that would modify the view throw a {@link DOMException}.</p>
+     <p>The view reads through to the jsoup document, which should not be modified while the view is in use. A view is
+     not thread-safe.</p>
+
+     @param in jsoup doc
+     @return a read-only W3C Document backed by the jsoup Document
+     @since 1.23.2
+     */
+    public Document view(org.jsoup.nodes.Document in) {
+        Validate.notNull(in);
+        return W3CDomView.of(in, namespaceAware);
+    }
+
     /**
      * Converts a jsoup document into the provided W3C Document. If required, you can set options on the output
      * document before converting.
@@ -590,7 +610,7 @@ public class W3CDom {
         }
 
         private static final Pattern QNameParts = Pattern.compile("^([^:]+):(.+)$");
-        private static final String undefinedNs = "undefined";
+        static final String undefinedNs = "undefined"; // for unbound prefixes; also used by the W3CDomView
     }
 
 }
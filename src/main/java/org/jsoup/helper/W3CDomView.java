@@ -0,0 +1,1169 @@
+package org.jsoup.helper;
+
+import org.jsoup.internal.NamespaceBindings;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.internal.XmlNodes;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jsoup.parser.Parser;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Attr;
+import org.w3c.dom.CDATASection;
+import org.w3c.dom.Comment;
+import org.w3c.dom.DOMConfiguration;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.EntityReference;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.w3c.dom.Text;
+import org.w3c.dom.TypeInfo;
+import org.w3c.dom.UserDataHandler;
+
+import javax.xml.XMLConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jsoup.nodes.Document.OutputSettings.Syntax;
+
+/**
+ A read-only W3C DOM view of a jsoup Document, created by {@link W3CDom#view(org.jsoup.nodes.Document)}. Rather than
+ copying the document, each W3C node wraps its jsoup node, and is created when the tree is first navigated to it.
+ Wrappers are kept for the life of the view, so that navigating to a node again returns the same object, as W3C DOM
+ consumers expect.
+ <p>The tree presented matches that built by {@link W3CDom#fromJsoup(org.jsoup.nodes.Document)}: a document holds
+ its doctype, comments, processing instructions, and first root element; names are made XML-safe; and {@link
+ DataNode}s are text. Any attempt to modify the view throws a {@link DOMException} with code {@link
+ DOMException#NO_MODIFICATION_ALLOWED_ERR}.</p>
+ */
+final class W3CDomView {
+    private W3CDomView() {}
+
+    static Document of(org.jsoup.nodes.Document source, boolean namespaceAware) {
+        return new ViewDocument(source, namespaceAware);
+    }
+
+    static DOMException readOnly() {
+        return new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR, "The jsoup W3C DOM view is read-only");
+    }
+
+    /** Tests if a jsoup node is presented in the view. */
+    static boolean isVisible(org.jsoup.nodes.Node node) {
+        if (node.parentNode() instanceof org.jsoup.nodes.Document) return XmlNodes.isDocumentChild(node, true);
+        if (node instanceof XmlDeclaration) return XmlNodes.isInstruction(node);
+        return !(node instanceof org.jsoup.nodes.DocumentType);
+    }
+
+    static String xmlName(String name) {
+        return Attribute.getValidKey(name, Syntax.xml);
+    }
+
+    static @Nullable String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+
+    /** The base of all view nodes. Navigation is computed from the jsoup tree on each call. */
+    abstract static class ViewNode implements Node {
+        final ViewDocument doc;
+        private @Nullable Map<String, Object> userData; // set via setUserData, which doesn't modify the document
+
+        ViewNode(@Nullable ViewDocument doc) {
+            this.doc = doc != null ? doc : (ViewDocument) this;
+        }
+
+        /** The wrapped jsoup node, or null for attributes, which aren't Nodes in jsoup. */
+        abstract org.jsoup.nodes.@Nullable Node source();
+
+        @Override public @Nullable String getNodeValue() {
+            return null;
+        }
+
+        @Override public void setNodeValue(String nodeValue) {
+            throw readOnly();
+        }
+
+        @Override public @Nullable Node getParentNode() {
+            org.jsoup.nodes.Node source = source();
+            org.jsoup.nodes.Node parent = source != null ? source.parentNode() : null;
+            return parent != null ? doc.wrap(parent) : null;
+        }
+
+        @Override public NodeList getChildNodes() {
+            List<Node> children = new ArrayList<>();
+            for (Node child = getFirstChild(); child != null; child = child.getNextSibling())
+                children.add(child);
+            return new ViewNodeList(children);
+        }
+
+        @Override public @Nullable Node getFirstChild() {
+            org.jsoup.nodes.Node source = source();
+            if (source == null) return null;
+            org.jsoup.nodes.Node child = source.firstChild();
+            while (child != null && !isVisible(child)) child = child.nextSibling();
+            return child != null ? doc.wrap(child) : null;
+        }
+
+        @Override public @Nullable Node getLastChild() {
+            org.jsoup.nodes.Node source = source();
+            if (source == null) return null;
+            org.jsoup.nodes.Node child = source.lastChild();
+            while (child != null && !isVisible(child)) child = child.previousSibling();
+            return child != null ? doc.wrap(child) : null;
+        }
+
+        @Override public @Nullable Node getPreviousSibling() {
+            org.jsoup.nodes.Node source = source();
+            if (source == null) return null;
+            org.jsoup.nodes.Node sib = source.previousSibling();
+            while (sib != null && !isVisible(sib)) sib = sib.previousSibling();
+            return sib != null ? doc.wrap(sib) : null;
+        }
+
+        @Override public @Nullable Node getNextSibling() {
+            org.jsoup.nodes.Node source = source();
+            if (source == null) return null;
+            org.jsoup.nodes.Node sib = source.nextSibling();
+            while (sib != null && !isVisible(sib)) sib = sib.nextSibling();
+            return sib != null ? doc.wrap(sib) : null;
+        }
+
+        @Override public @Nullable NamedNodeMap getAttributes() {
+            return null;
+        }
+
+        @Override public Document getOwnerDocument() {
+            return doc;
+        }
+
+        @Override public Node insertBefore(Node newChild, Node refChild) {
+            throw readOnly();
+        }
+
+        @Override public Node replaceChild(Node newChild, Node oldChild) {
+            throw readOnly();
+        }
+
+        @Override public Node removeChild(Node oldChild) {
+            throw readOnly();
+        }
+
+        @Override public Node appendChild(Node newChild) {
+            throw readOnly();
+        }
+
+        @Override public boolean hasChildNodes() {
+            return getFirstChild() != null;
+        }
+
+        @Override public Node cloneNode(boolean deep) {
+            throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "View nodes can't be cloned");
+        }
+
+        @Override public void normalize() {
+            // no-op; the view can't be modified
+        }
+
+        @Override public boolean isSupported(String feature, String version) {
+            return doc.getImplementation().hasFeature(feature, version);
+        }
+
+        @Override public @Nullable String getNamespaceURI() {
+            return null;
+        }
+
+        @Override public @Nullable String getPrefix() {
+            return null;
+        }
+
+        @Override public void setPrefix(String prefix) {
+            throw readOnly();
+        }
+
+        @Override public @Nullable String getLocalName() {
+            return null;
+        }
+
+        @Override public boolean hasAttributes() {
+            return false;
+        }
+
+        @Override public @Nullable String getBaseURI() {
+            return doc.getDocumentURI();
+        }
+
+        @Override public short compareDocumentPosition(Node other) {
+            if (other == this) return 0;
+            if (!(other instanceof ViewNode) || ((ViewNode) other).doc != doc)
+                return (short) (DOCUMENT_POSITION_DISCONNECTED | DOCUMENT_POSITION_IMPLEMENTATION_SPECIFIC |
+                    (System.identityHashCode(this) < System.identityHashCode(other) ? DOCUMENT_POSITION_FOLLOWING : DOCUMENT_POSITION_PRECEDING));
+
+            List<ViewNode> mine = path(this), theirs = path((ViewNode) other);
+            int len = Math.min(mine.size(), theirs.size());
+            for (int i = 0; i < len; i++) {
+                ViewNode a = mine.get(i), b = theirs.get(i);
+                if (a != b) return order(a, b) < 0 ? DOCUMENT_POSITION_FOLLOWING : DOCUMENT_POSITION_PRECEDING;
+            }
+            return mine.size() < theirs.size() ?
+                (short) (DOCUMENT_POSITION_CONTAINED_BY | DOCUMENT_POSITION_FOLLOWING) :
+                (short) (DOCUMENT_POSITION_CONTAINS | DOCUMENT_POSITION_PRECEDING);
+        }
+
+        /** The ancestors of the node, from the document down to the node. Attributes are under their owner. */
+        private static List<ViewNode> path(ViewNode node) {
+            List<ViewNode> path = new ArrayList<>();
+            for (Node n = node; n != null; n = n instanceof Attr ? ((Attr) n).getOwnerElement() : n.getParentNode())
+                path.add((ViewNode) n);
+            Collections.reverse(path);
+            return path;
+        }
+
+        /** Orders two different children of the same parent. Attributes precede child nodes. */
+        private static int order(ViewNode a, ViewNode b) {
+            if (a instanceof ViewAttr || b instanceof ViewAttr) {
+                if (!(b instanceof ViewAttr)) return -1;
+                if (!(a instanceof ViewAttr)) return 1;
+                return Integer.compare(((ViewAttr) a).index, ((ViewAttr) b).index);
+            }
+            //noinspection DataFlowIssue (only attributes don't have sources)
+            return Integer.compare(a.source().siblingIndex(), b.source().siblingIndex());
+        }
+
+        @Override public @Nullable String getTextContent() {
+            StringBuilder sb = StringUtil.borrowBuilder();
+            appendText(this, sb);
+            return StringUtil.releaseBuilder(sb);
+        }
+
+        private static void appendText(Node node, StringBuilder sb) {
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child instanceof Text) sb.append(((Text) child).getData());
+                else if (child instanceof Element) appendText(child, sb);
+            }
+        }
+
+        @Override public void setTextContent(String textContent) {
+            throw readOnly();
+        }
+
+        @Override public boolean isSameNode(Node other) {
+            return this == other;
+        }
+
+        /** The element that namespace lookups start from. */
+        @Nullable ViewElement namespaceContext() {
+            Node parent = getParentNode();
+            return parent instanceof ViewElement ? (ViewElement) parent : null;
+        }
+
+        @Override public @Nullable String lookupPrefix(@Nullable String namespaceURI) {
+            if (namespaceURI == null || namespaceURI.isEmpty()) return null;
+            for (ViewElement el = namespaceContext(); el != null; el = el.namespaceContext()) {
+                if (namespaceURI.equals(el.getNamespaceURI()) && el.getPrefix() != null) return el.getPrefix();
+                for (Attribute attr : el.source.attributes()) {
+                    String prefix = NamespaceBindings.declarationPrefix(attr.getKey());
+                    if (prefix != null && !prefix.isEmpty() && namespaceURI.equals(attr.getValue())) return prefix;
+                }
+            }
+            return null;
+        }
+
+        @Override public boolean isDefaultNamespace(@Nullable String namespaceURI) {
+            String ns = lookupNamespaceURI(null);
+            return ns == null ? namespaceURI == null || namespaceURI.isEmpty() : ns.equals(namespaceURI);
+        }
+
+        @Override public @Nullable String lookupNamespaceURI(@Nullable String prefix) {
+            if ("xml".equals(prefix)) return Parser.NamespaceXml;
+            String key = prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix;
+            for (ViewElement el = namespaceContext(); el != null; el = el.namespaceContext()) {
+                String ns = el.getNamespaceURI();
+                if (ns != null && (prefix == null ? el.getPrefix() == null : prefix.equals(el.getPrefix()))) return ns;
+                if (el.source.hasAttr(key)) return emptyToNull(el.source.attr(key));
+            }
+            return null;
+        }
+
+        @Override public boolean isEqualNode(@Nullable Node other) {
+            if (other == this) return true;
+            if (other == null || other.getNodeType() != getNodeType() || !eq(getNodeName(), other.getNodeName()) ||
+                !eq(getLocalName(), other.getLocalName()) || !eq(getNamespaceURI(), other.getNamespaceURI()) ||
+                !eq(getPrefix(), other.getPrefix()) || !eq(getNodeValue(), other.getNodeValue()))
+                return false;
+
+            NamedNodeMap attrs = getAttributes(), otherAttrs = other.getAttributes();
+            if (attrs != null) {
+                if (otherAttrs == null || attrs.getLength() != otherAttrs.getLength()) return false;
+                for (int i = 0; i < attrs.getLength(); i++) {
+                    Node attr = attrs.item(i);
+                    Node match = attr.getLocalName() != null ?
+                        otherAttrs.getNamedItemNS(attr.getNamespaceURI(), attr.getLocalName()) :
+                        otherAttrs.getNamedItem(attr.getNodeName());
+                    if (match == null || !attr.isEqualNode(match)) return false;
+                }
+            }
+
+            Node a = getFirstChild(), b = other.getFirstChild();
+            for (; a != null && b != null; a = a.getNextSibling(), b = b.getNextSibling()) {
+                if (!a.isEqualNode(b)) return false;
+            }
+            return a == null && b == null;
+        }
+
+        private static boolean eq(@Nullable String a, @Nullable String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override public @Nullable Object getFeature(String feature, String version) {
+            return isSupported(feature, version) ? this : null;
+        }
+
+        @Override public @Nullable Object setUserData(String key, @Nullable Object data, @Nullable UserDataHandler handler) {
+            if (userData == null) userData = new HashMap<>();
+            return data != null ? userData.put(key, data) : userData.remove(key);
+        }
+
+        @Override public @Nullable Object getUserData(String key) {
+            if (userData != null && userData.containsKey(key)) return userData.get(key);
+            return W3CDom.SourceProperty.equals(key) ? source() : null;
+        }
+
+        @Override public String toString() {
+            return "[" + getNodeName() + ": " + getNodeValue() + "]";
+        }
+    }
+
+    static final class ViewDocument extends ViewNode implements Document {
+        final org.jsoup.nodes.Document source;
+        final boolean namespaceAware;
+        private final Map<org.jsoup.nodes.Node, ViewNode> nodes = new IdentityHashMap<>();
+
+        ViewDocument(org.jsoup.nodes.Document source, boolean namespaceAware) {
+            super(null);
+            this.source = source;
+            this.namespaceAware = namespaceAware;
+            nodes.put(source, this);
+        }
+
+        /** Gets the view of a jsoup node, creating it on first use. */
+        ViewNode wrap(org.jsoup.nodes.Node node) {
+            ViewNode view = nodes.get(node);
+            if (view == null) {
+                view = create(node);
+                nodes.put(node, view);
+            }
+            return view;
+        }
+
+        private ViewNode create(org.jsoup.nodes.Node node) {
+            if (node instanceof org.jsoup.nodes.Element) return new ViewElement(this, (org.jsoup.nodes.Element) node);
+            if (node instanceof CDataNode) return new ViewCData(this, (CDataNode) node);
+            if (node instanceof TextNode) return new ViewText(this, node, ((TextNode) node).getWholeText());
+            if (node instanceof DataNode) return new ViewText(this, node, ((DataNode) node).getWholeData());
+            if (node instanceof org.jsoup.nodes.Comment) return new ViewComment(this, (org.jsoup.nodes.Comment) node);
+            if (node instanceof XmlDeclaration) return new ViewInstruction(this, (XmlDeclaration) node);
+            if (node instanceof org.jsoup.nodes.DocumentType)
+                return new ViewDocumentType(this, (org.jsoup.nodes.DocumentType) node);
+            throw new IllegalArgumentException("Unsupported node type " + node.getClass().getName());
+        }
+
+        @Override org.jsoup.nodes.Node source() {
+            return source;
+        }
+
+        @Override public String getNodeName() {
+            return "#document";
+        }
+
+        @Override public short getNodeType() {
+            return DOCUMENT_NODE;
+        }
+
+        @Override public @Nullable Document getOwnerDocument() {
+            return null;
+        }
+
+        @Override public @Nullable String getTextContent() {
+            return null;
+        }
+
+        @Override @Nullable ViewElement namespaceContext() {
+            return (ViewElement) getDocumentElement();
+        }
+
+        @Override public @Nullable DocumentType getDoctype() {
+            for (Node child = getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child instanceof DocumentType) return (DocumentType) child;
+            }
+            return null;
+        }
+
+        @Override public DOMImplementation getImplementation() {
+            return Implementation.Instance;
+        }
+
+        @Override public @Nullable Element getDocumentElement() {
+            org.jsoup.nodes.Element root = source.firstElementChild();
+            return root != null ? (Element) wrap(root) : null;
+        }
+
+        @Override public Element createElement(String tagName) {
+            throw readOnly();
+        }
+
+        @Override public DocumentFragment createDocumentFragment() {
+            throw readOnly();
+        }
+
+        @Override public Text createTextNode(String data) {
+            throw readOnly();
+        }
+
+        @Override public Comment createComment(String data) {
+            throw readOnly();
+        }
+
+        @Override public CDATASection createCDATASection(String data) {
+            throw readOnly();
+        }
+
+        @Override public ProcessingInstruction createProcessingInstruction(String target, String data) {
+            throw readOnly();
+        }
+
+        @Override public Attr createAttribute(String name) {
+            throw readOnly();
+        }
+
+        @Override public EntityReference createEntityReference(String name) {
+            throw readOnly();
+        }
+
+        @Override public NodeList getElementsByTagName(String tagname) {
+            Element root = getDocumentElement();
+            if (root == null) return new ViewNodeList(Collections.emptyList());
+            return ((ViewElement) root).elementsByName(tagname, true);
+        }
+
+        @Override public Node importNode(Node importedNode, boolean deep) {
+            throw readOnly();
+        }
+
+        @Override public Element createElementNS(String namespaceURI, String qualifiedName) {
+            throw readOnly();
+        }
+
+        @Override public Attr createAttributeNS(String namespaceURI, String qualifiedName) {
+            throw readOnly();
+        }
+
+        @Override public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+            Element root = getDocumentElement();
+            if (root == null) return new ViewNodeList(Collections.emptyList());
+            return ((ViewElement) root).elementsByNameNS(namespaceURI, localName, true);
+        }
+
+        @Override public @Nullable Element getElementById(String elementId) {
+            org.jsoup.nodes.Element root = source.firstElementChild();
+            org.jsoup.nodes.Element found = root != null ? root.getElementById(elementId) : null;
+            return found != null ? (Element) wrap(found) : null;
+        }
+
+        @Override public @Nullable String getInputEncoding() {
+            return null;
+        }
+
+        @Override public @Nullable String getXmlEncoding() {
+            return null;
+        }
+
+        @Override public boolean getXmlStandalone() {
+            return true;
+        }
+
+        @Override public void setXmlStandalone(boolean xmlStandalone) {
+            throw readOnly();
+        }
+
+        @Override public String getXmlVersion() {
+            return "1.0";
+        }
+
+        @Override public void setXmlVersion(String xmlVersion) {
+            throw readOnly();
+        }
+
+        @Override public boolean getStrictErrorChecking() {
+            return true;
+        }
+
+        @Override public void setStrictErrorChecking(boolean strictErrorChecking) {
+            // no-op; the view isn't modifiable, so there are no operations to check
+        }
+
+        @Override public @Nullable String getDocumentURI() {
+            return StringUtil.isBlank(source.location()) ? null : source.location();
+        }
+
+        @Override public void setDocumentURI(String documentURI) {
+            throw readOnly();
+        }
+
+        @Override public Node adoptNode(Node source) {
+            throw readOnly();
+        }
+
+        @Override public DOMConfiguration getDomConfig() {
+            throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "The view has no DOM configuration");
+        }
+
+        @Override public void normalizeDocument() {
+            // no-op; the view can't be modified
+        }
+
+        @Override public Node renameNode(Node n, String namespaceURI, String qualifiedName) {
+            throw readOnly();
+        }
+    }
+
+    static final class ViewElement extends ViewNode implements Element {
+        final org.jsoup.nodes.Element source;
+        private ViewAttr @Nullable [] attrs; // created on first use
+
+        ViewElement(ViewDocument doc, org.jsoup.nodes.Element source) {
+            super(doc);
+            this.source = source;
+        }
+
+        @Override org.jsoup.nodes.Node source() {
+            return source;
+        }
+
+        @Override public String getNodeName() {
+            return xmlName(source.tagName());
+        }
+
+        @Override public short getNodeType() {
+            return ELEMENT_NODE;
+        }
+
+        @Override public @Nullable String getNamespaceURI() {
+            if (!doc.namespaceAware) return null;
+            // as in the W3C conversion, plain XML elements have no namespace
+            String namespace = source.tag().namespace();
+            if (Parser.NamespaceXml.equals(namespace) && source.tag().prefix().isEmpty()) return null;
+            return emptyToNull(namespace);
+        }
+
+        @Override public @Nullable String getPrefix() {
+            return emptyToNull(source.tag().prefix());
+        }
+
+        @Override public String getLocalName() {
+            String name = getNodeName();
+            int pos = name.indexOf(':');
+            return pos == -1 ? name : name.substring(pos + 1);
+        }
+
+        @Override @Nullable ViewElement namespaceContext() {
+            return this;
+        }
+
+        ViewAttr[] attrs() {
+            if (attrs == null) {
+                // ordered by name, as in a converted W3C DOM
+                List<Attribute> sorted = new ArrayList<>(source.attributesSize());
+                for (Attribute attr : source.attributes()) sorted.add(attr);
+                sorted.sort((a, b) -> xmlName(a.getKey()).compareTo(xmlName(b.getKey())));
+                ViewAttr[] viewAttrs = new ViewAttr[sorted.size()];
+                for (int i = 0; i < viewAttrs.length; i++)
+                    viewAttrs[i] = new ViewAttr(doc, this, sorted.get(i), i);
+                attrs = viewAttrs;
+            }
+            return attrs;
+        }
+
+        @Override public NamedNodeMap getAttributes() {
+            return new ViewAttrMap(attrs());
+        }
+
+        @Override public boolean hasAttributes() {
+            return source.attributesSize() > 0;
+        }
+
+        @Override public String getTagName() {
+            return getNodeName();
+        }
+
+        private @Nullable ViewAttr attr(String name) {
+            for (ViewAttr attr : attrs()) {
+                if (attr.getName().equals(name)) return attr;
+            }
+            return null;
+        }
+
+        private @Nullable ViewAttr attrNS(@Nullable String namespaceURI, String localName) {
+            String ns = emptyToNull(namespaceURI == null ? "" : namespaceURI);
+            for (ViewAttr attr : attrs()) {
+                if (localName.equals(attr.getLocalName()) && ViewNode.eq(ns, attr.getNamespaceURI())) return attr;
+            }
+            return null;
+        }
+
+        @Override public String getAttribute(String name) {
+            ViewAttr attr = attr(name);
+            return attr != null ? attr.getValue() : "";
+        }
+
+        @Override public void setAttribute(String name, String value) {
+            throw readOnly();
+        }
+
+        @Override public void removeAttribute(String name) {
+            throw readOnly();
+        }
+
+        @Override public @Nullable Attr getAttributeNode(String name) {
+            return attr(name);
+        }
+
+        @Override public Attr setAttributeNode(Attr newAttr) {
+            throw readOnly();
+        }
+
+        @Override public Attr removeAttributeNode(Attr oldAttr) {
+            throw readOnly();
+        }
+
+        @Override public NodeList getElementsByTagName(String name) {
+            return elementsByName(name, false);
+        }
+
+        /** Finds descendant elements (and optionally this element) by name, or all with {@code *}. */
+        NodeList elementsByName(String name, boolean includeSelf) {
+            List<Node> found = new ArrayList<>();
+            for (org.jsoup.nodes.Element el : source.getAllElements()) {
+                if (!includeSelf && el == source) continue;
+                Node view = doc.wrap(el);
+                if (name.equals("*") || name.equals(view.getNodeName())) found.add(view);
+            }
+            return new ViewNodeList(found);
+        }
+
+        NodeList elementsByNameNS(@Nullable String namespaceURI, String localName, boolean includeSelf) {
+            List<Node> found = new ArrayList<>();
+            for (org.jsoup.nodes.Element el : source.getAllElements()) {
+                if (!includeSelf && el == source) continue;
+                Node view = doc.wrap(el);
+                if ((localName.equals("*") || localName.equals(view.getLocalName())) &&
+                    ("*".equals(namespaceURI) || ViewNode.eq(emptyToNull(namespaceURI == null ? "" : namespaceURI), view.getNamespaceURI())))
+                    found.add(view);
+            }
+            return new ViewNodeList(found);
+        }
+
+        @Override public String getAttributeNS(@Nullable String namespaceURI, String localName) {
+            ViewAttr attr = attrNS(namespaceURI, localName);
+            return attr != null ? attr.getValue() : "";
+        }
+
+        @Override public void setAttributeNS(String namespaceURI, String qualifiedName, String value) {
+            throw readOnly();
+        }
+
+        @Override public void removeAttributeNS(String namespaceURI, String localName) {
+            throw readOnly();
+        }
+
+        @Override public @Nullable Attr getAttributeNodeNS(@Nullable String namespaceURI, String localName) {
+            return attrNS(namespaceURI, localName);
+        }
+
+        @Override public Attr setAttributeNodeNS(Attr newAttr) {
+            throw readOnly();
+        }
+
+        @Override public NodeList getElementsByTagNameNS(@Nullable String namespaceURI, String localName) {
+            return elementsByNameNS(namespaceURI, localName, false);
+        }
+
+        @Override public boolean hasAttribute(String name) {
+            return attr(name) != null;
+        }
+
+        @Override public boolean hasAttributeNS(@Nullable String namespaceURI, String localName) {
+            return attrNS(namespaceURI, localName) != null;
+        }
+
+        @Override public TypeInfo getSchemaTypeInfo() {
+            return NoType.Instance;
+        }
+
+        @Override public void setIdAttribute(String name, boolean isId) {
+            throw readOnly();
+        }
+
+        @Override public void setIdAttributeNS(String namespaceURI, String localName, boolean isId) {
+            throw readOnly();
+        }
+
+        @Override public void setIdAttributeNode(Attr idAttr, boolean isId) {
+            throw readOnly();
+        }
+    }
+
+    static final class ViewAttr extends ViewNode implements Attr {
+        private final ViewElement owner;
+        private final String name;
+        private final String value;
+        private final @Nullable String namespace;
+        final int index;
+
+        ViewAttr(ViewDocument doc, ViewElement owner, Attribute attr, int index) {
+            super(doc);
+            this.owner = owner;
+            this.name = xmlName(attr.getKey());
+            this.value = attr.getValue();
+            this.index = index;
+            if (!doc.namespaceAware) namespace = null;
+            else if (NamespaceBindings.isDeclaration(attr.getKey())) namespace = XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+            else if (name.indexOf(':') == -1) namespace = null; // default namespaces do not apply to attributes
+            else namespace = resolveNamespace(owner, attr);
+        }
+
+        /** Resolves a prefixed attribute's namespace from its declarations, as the W3C conversion does. */
+        private static String resolveNamespace(ViewElement owner, Attribute attr) {
+            String namespace = attr.namespace();
+            if (namespace.isEmpty()) {
+                String key = "xmlns:" + attr.prefix();
+                for (org.jsoup.nodes.Element el = owner.source; el != null; el = el.parent()) {
+                    if (el.hasAttr(key)) {
+                        namespace = el.attr(key);
+                        break;
+                    }
+                }
+            }
+            return namespace.isEmpty() ? W3CDom.W3CBuilder.undefinedNs : namespace;
+        }
+
+        @Override org.jsoup.nodes.@Nullable Node source() {
+            return null;
+        }
+
+        @Override public String getNodeName() {
+            return name;
+        }
+
+        @Override public String getNodeValue() {
+            return value;
+        }
+
+        @Override public short getNodeType() {
+            return ATTRIBUTE_NODE;
+        }
+
+        @Override public @Nullable Node getParentNode() {
+            return null; // per the DOM, attributes have an owner element but no parent
+        }
+
+        @Override @Nullable ViewElement namespaceContext() {
+            return owner;
+        }
+
+        @Override public @Nullable String getNamespaceURI() {
+            return namespace;
+        }
+
+        @Override public @Nullable String getPrefix() {
+            int pos = name.indexOf(':');
+            return pos == -1 || !doc.namespaceAware ? null : name.substring(0, pos);
+        }
+
+        @Override public @Nullable String getLocalName() {
+            if (!doc.namespaceAware) return null; // as a DOM Level 1 attribute, when not namespace aware
+            int pos = name.indexOf(':');
+            return pos == -1 ? name : name.substring(pos + 1);
+        }
+
+        @Override public String getTextContent() {
+            return value;
+        }
+
+        @Override public String getName() {
+            return name;
+        }
+
+        @Override public boolean getSpecified() {
+            return true;
+        }
+
+        @Override public String getValue() {
+            return value;
+        }
+
+        @Override public void setValue(String value) {
+            throw readOnly();
+        }
+
+        @Override public Element getOwnerElement() {
+            return owner;
+        }
+
+        @Override public TypeInfo getSchemaTypeInfo() {
+            return NoType.Instance;
+        }
+
+        @Override public boolean isId() {
+            return false;
+        }
+    }
+
+    /** Text, comments, and CDATA sections. */
+    abstract static class ViewCharacterData extends ViewNode implements org.w3c.dom.CharacterData {
+        final org.jsoup.nodes.Node source;
+        final String data;
+
+        ViewCharacterData(ViewDocument doc, org.jsoup.nodes.Node source, String data) {
+            super(doc);
+            this.source = source;
+            this.data = data;
+        }
+
+        @Override org.jsoup.nodes.Node source() {
+            return source;
+        }
+
+        @Override public String getNodeValue() {
+            return data;
+        }
+
+        @Override public String getTextContent() {
+            return data;
+        }
+
+        @Override public @Nullable Node getFirstChild() {
+            return null;
+        }
+
+        @Override public @Nullable Node getLastChild() {
+            return null;
+        }
+
+        @Override public String getData() {
+            return data;
+        }
+
+        @Override public void setData(String data) {
+            throw readOnly();
+        }
+
+        @Override public int getLength() {
+            return data.length();
+        }
+
+        @Override public String substringData(int offset, int count) {
+            if (offset < 0 || count < 0 || offset > data.length())
+                throw new DOMException(DOMException.INDEX_SIZE_ERR, "Offset out of range");
+            return data.substring(offset, Math.min(data.length(), offset + count));
+        }
+
+        @Override public void appendData(String arg) {
+            throw readOnly();
+        }
+
+        @Override public void insertData(int offset, String arg) {
+            throw readOnly();
+        }
+
+        @Override public void deleteData(int offset, int count) {
+            throw readOnly();
+        }
+
+        @Override public void replaceData(int offset, int count, String arg) {
+            throw readOnly();
+        }
+    }
+
+    static class ViewText extends ViewCharacterData implements Text {
+        ViewText(ViewDocument doc, org.jsoup.nodes.Node source, String data) {
+            super(doc, source, data);
+        }
+
+        @Override public String getNodeName() {
+            return "#text";
+        }
+
+        @Override public short getNodeType() {
+            return TEXT_NODE;
+        }
+
+        @Override public Text splitText(int offset) {
+            throw readOnly();
+        }
+
+        @Override public boolean isElementContentWhitespace() {
+            return false;
+        }
+
+        @Override public String getWholeText() {
+            // this and logically adjacent text nodes
+            Node first = this;
+            for (Node prev = getPreviousSibling(); prev instanceof Text; prev = prev.getPreviousSibling()) first = prev;
+            StringBuilder sb = StringUtil.borrowBuilder();
+            for (Node text = first; text instanceof Text; text = text.getNextSibling())
+                sb.append(((Text) text).getData());
+            return StringUtil.releaseBuilder(sb);
+        }
+
+        @Override public Text replaceWholeText(String content) {
+            throw readOnly();
+        }
+    }
+
+    static final class ViewCData extends ViewText implements CDATASection {
+        ViewCData(ViewDocument doc, CDataNode source) {
+            super(doc, source, source.getWholeText());
+        }
+
+        @Override public String getNodeName() {
+            return "#cdata-section";
+        }
+
+        @Override public short getNodeType() {
+            return CDATA_SECTION_NODE;
+        }
+    }
+
+    static final class ViewComment extends ViewCharacterData implements Comment {
+        ViewComment(ViewDocument doc, org.jsoup.nodes.Comment source) {
+            super(doc, source, source.getData());
+        }
+
+        @Override public String getNodeName() {
+            return "#comment";
+        }
+
+        @Override public short getNodeType() {
+            return COMMENT_NODE;
+        }
+    }
+
+    static final class ViewInstruction extends ViewNode implements ProcessingInstruction {
+        private final XmlDeclaration source;
+
+        ViewInstruction(ViewDocument doc, XmlDeclaration source) {
+            super(doc);
+            this.source = source;
+        }
+
+        @Override org.jsoup.nodes.Node source() {
+            return source;
+        }
+
+        @Override public String getNodeName() {
+            return source.name();
+        }
+
+        @Override public String getNodeValue() {
+            return getData();
+        }
+
+        @Override public short getNodeType() {
+            return PROCESSING_INSTRUCTION_NODE;
+        }
+
+        @Override public String getTextContent() {
+            return getData();
+        }
+
+        @Override public @Nullable Node getFirstChild() {
+            return null;
+        }
+
+        @Override public @Nullable Node getLastChild() {
+            return null;
+        }
+
+        @Override public String getTarget() {
+            return source.name();
+        }
+
+        @Override public String getData() {
+            return source.getWholeDeclaration();
+        }
+
+        @Override public void setData(String data) {
+            throw readOnly();
+        }
+    }
+
+    static final class ViewDocumentType extends ViewNode implements DocumentType {
+        private final org.jsoup.nodes.DocumentType source;
+
+        ViewDocumentType(ViewDocument doc, org.jsoup.nodes.DocumentType source) {
+            super(doc);
+            this.source = source;
+        }
+
+        @Override org.jsoup.nodes.Node source() {
+            return source;
+        }
+
+        @Override public String getNodeName() {
+            return source.name();
+        }
+
+        @Override public short getNodeType() {
+            return DOCUMENT_TYPE_NODE;
+        }
+
+        @Override public @Nullable String getTextContent() {
+            return null;
+        }
+
+        @Override public @Nullable Node getFirstChild() {
+            return null;
+        }
+
+        @Override public @Nullable Node getLastChild() {
+            return null;
+        }
+
+        @Override public String getName() {
+            return source.name();
+        }
+
+        @Override public NamedNodeMap getEntities() {
+            return new ViewAttrMap(new ViewAttr[0]);
+        }
+
+        @Override public NamedNodeMap getNotations() {
+            return new ViewAttrMap(new ViewAttr[0]);
+        }
+
+        @Override public @Nullable String getPublicId() {
+            return emptyToNull(source.publicId());
+        }
+
+        @Override public @Nullable String getSystemId() {
+            return emptyToNull(source.systemId());
+        }
+
+        @Override public @Nullable String getInternalSubset() {
+            return null;
+        }
+    }
+
+    static final class ViewNodeList implements NodeList {
+        private final List<Node> nodes;
+
+        ViewNodeList(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override public @Nullable Node item(int index) {
+            return index >= 0 && index < nodes.size() ? nodes.get(index) : null;
+        }
+
+        @Override public int getLength() {
+            return nodes.size();
+        }
+    }
+
+    static final class ViewAttrMap implements NamedNodeMap {
+        private final ViewAttr[] attrs;
+
+        ViewAttrMap(ViewAttr[] attrs) {
+            this.attrs = attrs;
+        }
+
+        @Override public @Nullable Node getNamedItem(String name) {
+            for (ViewAttr attr : attrs) {
+                if (attr.getName().equals(name)) return attr;
+            }
+            return null;
+        }
+
+        @Override public Node setNamedItem(Node arg) {
+            throw readOnly();
+        }
+
+        @Override public Node removeNamedItem(String name) {
+            throw readOnly();
+        }
+
+        @Override public @Nullable Node item(int index) {
+            return index >= 0 && index < attrs.length ? attrs[index] : null;
+        }
+
+        @Override public int getLength() {
+            return attrs.length;
+        }
+
+        @Override public @Nullable Node getNamedItemNS(@Nullable String namespaceURI, String localName) {
+            String ns = emptyToNull(namespaceURI == null ? "" : namespaceURI);
+            for (ViewAttr attr : attrs) {
+                if (localName.equals(attr.getLocalName()) && ViewNode.eq(ns, attr.getNamespaceURI())) return attr;
+            }
+            return null;
+        }
+
+        @Override public Node setNamedItemNS(Node arg) {
+            throw readOnly();
+        }
+
+        @Override public Node removeNamedItemNS(String namespaceURI, String localName) {
+            throw readOnly();
+        }
+    }
+
+    static final class Implementation implements DOMImplementation {
+        static final Implementation Instance = new Implementation();
+
+        @Override public boolean hasFeature(String feature, @Nullable String version) {
+            boolean anyVersion = version == null || version.isEmpty();
+            return ("Core".equalsIgnoreCase(feature) || "XML".equalsIgnoreCase(feature)) &&
+                (anyVersion || version.equals("1.0") || version.equals("2.0") || version.equals("3.0"));
+        }
+
+        @Override public DocumentType createDocumentType(String qualifiedName, String publicId, String systemId) {
+            throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "Use W3CDom to create documents");
+        }
+
+        @Override public Document createDocument(String namespaceURI, String qualifiedName, DocumentType doctype) {
+            throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "Use W3CDom to create documents");
+        }
+
+        @Override public @Nullable Object getFeature(String feature, String version) {
+            return hasFeature(feature, version) ? this : null;
+        }
+    }
+
+    static final class NoType implements TypeInfo {
+        static final NoType Instance = new NoType();
+
+        @Override public @Nullable String getTypeName() {
+            return null;
+        }
+
+        @Override public @Nullable String getTypeNamespace() {
+            return null;
+        }
+
+        @Override public boolean isDerivedFrom(String typeNamespaceArg, String typeNameArg, int derivationMethod) {
+            return false;
+        }
+    }
+}
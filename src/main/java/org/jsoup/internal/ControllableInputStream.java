@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.util.function.IntSupplier;
 
 import static org.jsoup.internal.SharedConstants.DefaultBufferSize;
 
@@ -93,7 +94,7 @@ public class ControllableInputStream extends FilterInputStream {
             try {
                 final int read = super.read(b, off, len);
                 if (read == -1) { // completed
-                    contentLength = readPos;
+                    contentLength = processed();
                 } else {
                     if (capped && read > 0) {
                         remaining -= read; // track bytes returned to the caller
@@ -218,19 +219,34 @@ public class ControllableInputStream extends FilterInputStream {
         ProgressState<?> progress = this.progress;
         if (progress == null) return;
         // calculate percent complete if contentLength > 0 (and cap to 100.0 if totalRead > contentLength):
-        float percent = contentLength > 0 ? Math.min(100f, readPos * 100f / contentLength) : 0;
-        progress.emit(readPos, contentLength, percent);
+        int processed = processed();
+        float percent = contentLength > 0 ? Math.min(100f, processed * 100f / contentLength) : 0;
+        progress.emit(processed, contentLength, percent);
         if (percent == 100.0f) this.progress = null; // detach once we reach 100%, so that any subsequent buffer hits don't report 100 again
     }
 
     public <ProgressContext> ControllableInputStream onProgress(int contentLength, Progress<ProgressContext> callback, ProgressContext context) {
+        return onProgress(contentLength, callback, context, null);
+    }
+
+    /**
+     Tracks progress as {@link #onProgress(int, Progress, Object)}, but with the processed count taken from the given
+     source, rather than the bytes read from this stream. E.g. the encoded bytes beneath a decompressing stream, which
+     are what the content length counts.
+     */
+    public <ProgressContext> ControllableInputStream onProgress(int contentLength, Progress<ProgressContext> callback, ProgressContext context, @Nullable IntSupplier processed) {
         Validate.notNull(callback);
         Validate.notNull(context);
         this.contentLength = contentLength;
-        this.progress = new ProgressState<>(callback, context);
+        this.progress = new ProgressState<>(callback, context, processed);
         return this;
     }
 
+    private int processed() {
+        ProgressState<?> progress = this.progress;
+        return progress != null && progress.processed != null ? progress.processed.getAsInt() : readPos;
+    }
+
     private boolean expired() {
         if (timeout == 0)
             return false;
@@ -248,10 +264,12 @@ public class ControllableInputStream extends FilterInputStream {
     private static class ProgressState<ProgressContext> {
         private final Progress<ProgressContext> callback;
         private final ProgressContext context;
+        private final @Nullable IntSupplier processed;
 
-        ProgressState(Progress<ProgressContext> callback, ProgressContext context) {
+        ProgressState(Progress<ProgressContext> callback, ProgressContext context, @Nullable IntSupplier processed) {
             this.callback = callback;
             this.context = context;
+            this.processed = processed;
         }
 
         void emit(int processed, int total, float percent) {
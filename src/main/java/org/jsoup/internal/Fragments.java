@@ -0,0 +1,107 @@
+package org.jsoup.internal;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.FormElement;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.HtmlTreeBuilder;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.Tag;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ Parses the HTML fragments of the node methods (e.g. {@code wrap}, {@code append}, {@code before}). Within a bulk edit
+ (e.g. {@code Elements.wrap(html)}), each distinct fragment and context is parsed once, and its nodes are cloned for
+ each target; otherwise each call parses anew.
+ */
+public final class Fragments {
+    private static final ThreadLocal<Map<Key, List<Node>>> parsed = new ThreadLocal<>();
+
+    private Fragments() {}
+
+    /**
+     Run the bulk edit, reusing the fragments it parses.
+     @param edits the edits, which call the node methods with the same HTML for each target
+     */
+    public static void reusing(Runnable edits) {
+        if (parsed.get() != null) { // already within a bulk edit
+            edits.run();
+            return;
+        }
+        parsed.set(new HashMap<>());
+        try {
+            edits.run();
+        } finally {
+            parsed.remove();
+        }
+    }
+
+    /**
+     Parse the HTML fragment in the context, as {@link Parser#parseFragmentInput(String, Element, String)}; or, within
+     a bulk edit, clone the nodes of an earlier parse of the same fragment in an equivalent context.
+     */
+    public static List<Node> parse(Parser parser, String html, @Nullable Element context, String baseUri) {
+        Map<Key, List<Node>> reuse = parsed.get();
+        if (reuse == null || !isReusable(parser, context))
+            return parser.parseFragmentInput(html, context, baseUri);
+
+        Key key = new Key(html, context, baseUri);
+        List<Node> template = reuse.get(key);
+        if (template == null) {
+            template = new ArrayList<>(parser.parseFragmentInput(html, context, baseUri));
+            for (Node node : template) node.remove(); // detached from the parse's context, so its clones are orphans
+            reuse.put(key, template);
+        }
+        List<Node> nodes = new ArrayList<>(template.size());
+        for (Node node : template) nodes.add(node.clone());
+        return nodes;
+    }
+
+    /**
+     Test if the fragment's parse depends only on the context's tag and document. Not so if the parse reports errors,
+     in XML (which binds the namespaces declared by the context's ancestors), in foreign content, or within a form
+     (which the parsed controls are added to).
+     */
+    private static boolean isReusable(Parser parser, @Nullable Element context) {
+        if (parser.isTrackErrors() || !(parser.getTreeBuilder() instanceof HtmlTreeBuilder)) return false;
+        if (context == null) return true;
+        if (!Parser.NamespaceHtml.equals(context.tag().namespace())) return false;
+        for (Element el = context; el != null; el = el.parent()) {
+            if (el instanceof FormElement) return false;
+        }
+        return true;
+    }
+
+    private static final class Key {
+        final String html;
+        final @Nullable Tag tag;
+        final @Nullable Document doc; // for its parser and quirks mode
+        final String baseUri;
+
+        Key(String html, @Nullable Element context, String baseUri) {
+            this.html = html;
+            this.tag = context != null ? context.tag() : null;
+            this.doc = context != null ? context.ownerDocument() : null;
+            this.baseUri = baseUri;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return tag == key.tag && doc == key.doc && html.equals(key.html) && baseUri.equals(key.baseUri);
+        }
+
+        @Override public int hashCode() {
+            int result = html.hashCode();
+            result = 31 * result + System.identityHashCode(tag);
+            result = 31 * result + System.identityHashCode(doc);
+            result = 31 * result + baseUri.hashCode();
+            return result;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package org.jsoup.internal;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.Arrays;
 
 /**
- Maps source offsets to line and column coordinates. Jsoup internal; API subject to change.
+ Maps source offsets to line and column coordinates, and optionally holds the retained source text of the parse.
+ Jsoup internal; API subject to change.
  */
 public final class LineMap {
     private static final int InitialLineCapacity = 16;
@@ -11,6 +14,7 @@ public final class LineMap {
     private static final int[] Empty = new int[0];
     private int[] lineStarts = Empty;
     private int size;
+    private @Nullable SourceText source;
 
     /**
      Creates a shared line map for tracked source ranges.
@@ -29,11 +33,26 @@ public final class LineMap {
     }
 
     /**
-     Trims the backing array after the parse has completed.
+     Trims the backing arrays after the parse has completed.
      */
     public void complete() {
         if (lineStarts.length != size)
             lineStarts = size == 0 ? Empty : Arrays.copyOf(lineStarts, size);
+        if (source != null) source.complete();
+    }
+
+    /**
+     Sets the retained source text for this parse.
+     */
+    public void source(SourceText source) {
+        this.source = source;
+    }
+
+    /**
+     Gets the retained source text for this parse, if source retention was enabled.
+     */
+    public @Nullable SourceText source() {
+        return source;
     }
 
     /**
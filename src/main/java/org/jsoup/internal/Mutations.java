@@ -0,0 +1,102 @@
+package org.jsoup.internal;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ Notifies listeners of the mutations of a Document's nodes, made through the node methods (e.g. {@code appendChild},
+ {@code remove}, {@code attr}, {@code text}). Listeners are held weakly, in the document's user data. Used by live
+ selections; while none are listening (or all have been collected), the node methods skip the notifications.
+ */
+public final class Mutations {
+    static final String Key = "jsoup.mutationListeners";
+    // the listeners, until unlistened or collected; while none, mutations don't look up their document
+    private static final WeakCount<Listener> listening = new WeakCount<>();
+
+    private Mutations() {}
+
+    /** Receives a document's mutations. */
+    public interface Listener {
+        /** The node (with its descendants) was inserted, or moved, to a new parent. */
+        void inserted(Node node);
+
+        /** One or more children were removed from the parent. */
+        void removed(Element parent);
+
+        /** The node's tag, attributes, or (for a leaf node) value changed. */
+        void changed(Node node);
+    }
+
+    public static boolean isActive() {
+        return !listening.isEmpty();
+    }
+
+    /** Start sending the document's mutations to the listener. */
+    public static void listen(Document doc, Listener listener) {
+        listeners(doc, true).add(listening.add(listener));
+    }
+
+    /** Stop sending the document's mutations to the listener. */
+    public static void unlisten(Document doc, Listener listener) {
+        List<WeakReference<Listener>> listeners = listeners(doc, false);
+        if (listeners == null) return;
+        Iterator<WeakReference<Listener>> it = listeners.iterator();
+        while (it.hasNext()) {
+            WeakReference<Listener> ref = it.next();
+            Listener l = ref.get();
+            if (l == null || l == listener) {
+                it.remove();
+                listening.release(ref);
+            }
+        }
+    }
+
+    public static void inserted(Node node) {
+        if (isActive()) notify(node, listener -> listener.inserted(node));
+    }
+
+    public static void removed(Element parent) {
+        if (isActive()) notify(parent, listener -> listener.removed(parent));
+    }
+
+    public static void changed(Node node) {
+        if (isActive()) notify(node, listener -> listener.changed(node));
+    }
+
+    /** Notifies the listeners of the node's document, dropping any that have been collected. */
+    private static void notify(Node node, Consumer<Listener> action) {
+        Document doc = node.ownerDocument();
+        List<WeakReference<Listener>> listeners = doc != null ? listeners(doc, false) : null;
+        if (listeners == null) return;
+
+        Iterator<WeakReference<Listener>> it = listeners.iterator();
+        while (it.hasNext()) {
+            WeakReference<Listener> ref = it.next();
+            Listener listener = ref.get();
+            if (listener != null) {
+                action.accept(listener);
+            } else {
+                it.remove();
+                listening.release(ref);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable List<WeakReference<Listener>> listeners(Document doc, boolean create) {
+        List<WeakReference<Listener>> listeners = (List<WeakReference<Listener>>) doc.attributes().userData(Key);
+        if (listeners == null && create) {
+            listeners = new ArrayList<>();
+            doc.attributes().userData(Key, listeners);
+        }
+        return listeners;
+    }
+}
@@ -1,8 +1,17 @@
 package org.jsoup.internal;
 
 import org.jsoup.SerializationException;
+import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 /**
  A jsoup internal class to wrap an Appendable and throw IOExceptions as SerializationExceptions.
@@ -85,8 +94,123 @@ public abstract class QuietAppendable {
         }
     }
 
+    /**
+     A version that encodes directly to an OutputStream or a blocking WritableByteChannel, through a bounded char and
+     byte buffer. Each filled chunk is encoded and written before more is accepted, so the full output is never held in
+     memory, and a slow consumer holds back the serializer. Call {@link #finish()} to write the final chunk.
+     */
+    public static final class EncodingAppendable extends QuietAppendable {
+        static final int ChunkSize = 8 * 1024;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(ChunkSize);
+        private final ByteBuffer bytes;
+        private final @Nullable OutputStream out;
+        private final @Nullable WritableByteChannel channel;
+
+        private EncodingAppendable(Charset charset, @Nullable OutputStream out, @Nullable WritableByteChannel channel) {
+            encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE); // the printer escapes unmappable chars, so unexpected
+            bytes = ByteBuffer.allocate((int) Math.ceil(ChunkSize * encoder.maxBytesPerChar()));
+            this.out = out;
+            this.channel = channel;
+        }
+
+        @Override
+        public EncodingAppendable append(CharSequence csq) {
+            int len = csq.length();
+            int pos = 0;
+            while (pos < len) {
+                int count = Math.min(chars.remaining(), len - pos);
+                if (csq instanceof String)
+                    chars.put((String) csq, pos, pos + count);
+                else
+                    for (int i = pos; i < pos + count; i++) chars.put(csq.charAt(i));
+                pos += count;
+                if (!chars.hasRemaining()) encode(false);
+            }
+            return this;
+        }
+
+        @Override
+        public EncodingAppendable append(char c) {
+            chars.put(c);
+            if (!chars.hasRemaining()) encode(false);
+            return this;
+        }
+
+        @Override
+        public EncodingAppendable append(char[] src, int offset, int len) {
+            int pos = offset;
+            int end = offset + len;
+            while (pos < end) {
+                int count = Math.min(chars.remaining(), end - pos);
+                chars.put(src, pos, count);
+                pos += count;
+                if (!chars.hasRemaining()) encode(false);
+            }
+            return this;
+        }
+
+        /**
+         Encode and write any buffered content, and flush the output.
+         @throws SerializationException if the output throws an IOException
+         */
+        public void finish() {
+            encode(true);
+            CoderResult result;
+            do {
+                result = encoder.flush(bytes);
+                write();
+            } while (result.isOverflow());
+            encoder.reset();
+            try {
+                if (out != null) out.flush();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        /** Encodes the buffered chars, writing each full byte buffer. An incomplete surrogate pair is carried over. */
+        private void encode(boolean endOfInput) {
+            chars.flip();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, endOfInput);
+                write();
+            } while (result.isOverflow());
+            chars.compact();
+        }
+
+        private void write() {
+            bytes.flip();
+            try {
+                if (out != null) {
+                    out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                } else {
+                    assert channel != null;
+                    while (bytes.hasRemaining())
+                        channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+            bytes.clear();
+        }
+    }
+
     public static QuietAppendable wrap(Appendable a) {
         if (a instanceof StringBuilder) return new StringBuilderAppendable((StringBuilder) a);
         else                            return new BaseAppendable(a);
     }
+
+    /** Wrap an OutputStream, encoding output in the given charset. */
+    public static EncodingAppendable wrap(OutputStream out, Charset charset) {
+        return new EncodingAppendable(charset, out, null);
+    }
+
+    /** Wrap a blocking WritableByteChannel, encoding output in the given charset. */
+    public static EncodingAppendable wrap(WritableByteChannel channel, Charset charset) {
+        return new EncodingAppendable(charset, null, channel);
+    }
 }
@@ -20,7 +20,7 @@ import static org.jsoup.internal.SimpleBufferedInput.BufferPool;
  */
 public class SimpleStreamReader extends Reader {
     private final InputStream in;
-    private final CharsetDecoder decoder;
+    private final CharsetDecoder decoder; // decodes into the caller's array; for UTF-8 and ASCII, via intrinsic array loops
     private @Nullable ByteBuffer byteBuf; // null after close
 
     public SimpleStreamReader(InputStream in, Charset charset) {
@@ -0,0 +1,84 @@
+package org.jsoup.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ Retains the original input characters of a parse, up to a maximum length, so that the source of parsed nodes can be
+ sliced out later without re-serializing. Jsoup internal; API subject to change.
+ <p>Content beyond the maximum length is not retained; slices that extend past the retained prefix are unavailable.</p>
+ */
+public final class SourceText {
+    private static final int InitialCapacity = 1024 * 4;
+    private static final char[] Empty = new char[0];
+    private final int maxLength;
+    private char[] chars = Empty;
+    private int length;
+    private boolean truncated;
+
+    /**
+     Creates a source text store that will retain at most {@code maxLength} characters.
+     */
+    public SourceText(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     Appends characters read from the input. Characters past the maximum length are dropped.
+     */
+    public void append(char[] buf, int off, int len) {
+        if (truncated || len <= 0) return;
+        if (length + len > maxLength) {
+            len = maxLength - length;
+            truncated = true;
+        }
+        ensureCapacity(length + len);
+        System.arraycopy(buf, off, chars, length, len);
+        length += len;
+    }
+
+    /**
+     Gets the number of characters retained.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     Tests if input was dropped because it exceeded the maximum length.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     Gets a read-only view of the retained source between the two offsets, without copying.
+     @return the view, or null if the range is not wholly retained.
+     */
+    public @Nullable CharSequence slice(int startPos, int endPos) {
+        if (startPos < 0 || endPos < startPos || endPos > length) return null;
+        return CharBuffer.wrap(chars, startPos, endPos - startPos).asReadOnlyBuffer();
+    }
+
+    /**
+     Trims the backing array after the parse has completed.
+     */
+    public void complete() {
+        if (chars.length != length)
+            chars = length == 0 ? Empty : Arrays.copyOf(chars, length);
+    }
+
+    /**
+     Grows storage by doubling, capped at the maximum length.
+     */
+    private void ensureCapacity(int minSize) {
+        if (chars.length >= minSize)
+            return;
+        long newSize = chars.length == 0 ? InitialCapacity : (long) chars.length * 2;
+        if (newSize < minSize)
+            newSize = minSize;
+        chars = Arrays.copyOf(chars, (int) Math.min(newSize, maxLength));
+    }
+}
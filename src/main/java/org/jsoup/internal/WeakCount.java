@@ -0,0 +1,55 @@
+package org.jsoup.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ A count of registered objects, for gating a fast path while none are registered. Each object is counted until it is
+ released, or until it is garbage collected, so that an object that is abandoned without being released doesn't hold
+ the gate open.
+ @param <T> the type of the counted objects
+ */
+public final class WeakCount<T> {
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+    // holds the references until released, as a reference is only enqueued while it is itself reachable
+    private final Set<Reference<T>> registered = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     Count the object until it is released or collected.
+     @param referent the object to count
+     @return a weak reference to the object, to release it with
+     */
+    public WeakReference<T> add(T referent) {
+        WeakReference<T> ref = new WeakReference<>(referent, collected);
+        registered.add(ref);
+        count.incrementAndGet();
+        return ref;
+    }
+
+    /**
+     Stop counting the object of the reference. Has no effect if it was already released.
+     @param ref a reference from {@link #add(Object)}
+     */
+    public void release(Reference<T> ref) {
+        ref.clear(); // so it is not enqueued; if it already was, it's no longer registered and isn't recounted
+        if (registered.remove(ref)) count.decrementAndGet();
+    }
+
+    /**
+     Test if no objects are counted, after dropping any that have been collected.
+     @return true if none are counted
+     */
+    public boolean isEmpty() {
+        Reference<? extends T> ref;
+        while ((ref = collected.poll()) != null) {
+            if (registered.remove(ref)) count.decrementAndGet();
+        }
+        return count.get() == 0;
+    }
+}
@@ -0,0 +1,38 @@
+package org.jsoup.internal;
+
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.DocumentType;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jspecify.annotations.Nullable;
+
+/**
+ How jsoup nodes map to the XML data models (the W3C DOM, and the XPath tree), as shared by the W3C DOM view, the SAX
+ reader, and the XPath evaluator.
+ */
+public final class XmlNodes {
+    private XmlNodes() {}
+
+    /**
+     Test if the node is a processing instruction. Only {@code <?target ...?>} declarations are; the XML declaration
+     and {@code <!...>} declarations are dropped, as in the W3C conversion.
+     */
+    public static boolean isInstruction(@Nullable Object node) {
+        if (!(node instanceof XmlDeclaration)) return false;
+        XmlDeclaration decl = (XmlDeclaration) node;
+        return !decl.name().equalsIgnoreCase("xml") && decl.outerHtml().startsWith("<?");
+    }
+
+    /**
+     Test if a child of the Document is present in the XML tree: its first element, comments, and processing
+     instructions. Text, and any further elements, are not allowed outside the root element.
+     @param node a child of a Document
+     @param doctype if the doctype is present (as in the W3C DOM; not in the XPath tree)
+     */
+    public static boolean isDocumentChild(Node node, boolean doctype) {
+        if (node instanceof Element) return node == ((Document) node.parentNode()).firstElementChild();
+        return node instanceof Comment || (doctype && node instanceof DocumentType) || isInstruction(node);
+    }
+}
@@ -0,0 +1,1003 @@
+package org.jsoup.internal;
+
+import org.jsoup.helper.Validate;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ Evaluates XPath 1.0 expressions directly against the jsoup DOM, without first converting the document to a W3C DOM.
+ Used by {@link Element#selectXpath(String)}. Compiled expressions are cached, so repeated queries are only parsed once.
+ <p>The data model matches the namespace-unaware conversion made by {@link org.jsoup.helper.W3CDom}: name tests match
+ the local name, adjacent text nodes form one text node, and only the first root element of a document is visible.
+ Expressions that use features this evaluator doesn't support, such as variables, namespace prefixes, or the {@code
+ id()} and {@code lang()} functions, are reported as unsupported, so that the caller can use the W3C implementation.</p>
+ <p>Jsoup internal; API subject to change.</p>
+ */
+public final class Xpath {
+    static final int MaxCacheSize = 256;
+    private static final Xpath Unsupported = new Xpath("", null);
+    private static final Map<String, Xpath> Cache = new LinkedHashMap<String, Xpath>(32, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, Xpath> eldest) {
+            return size() > MaxCacheSize;
+        }
+    };
+
+    private final String xpath;
+    private final @Nullable Expr expr;
+
+    private Xpath(String xpath, @Nullable Expr expr) {
+        this.xpath = xpath;
+        this.expr = expr;
+    }
+
+    /**
+     Select the nodes matching an XPath expression, evaluated natively against the jsoup DOM.
+     @param xpath XPath 1.0 expression
+     @param context the context element; if a Document, its root element is used
+     @param nodeType the type of nodes to return
+     @return the matching nodes, in document order; or {@code null} if the expression can't be evaluated natively (in
+     which case it should be evaluated via {@link org.jsoup.helper.W3CDom}).
+     */
+    public static <T extends Node> @Nullable List<T> select(String xpath, Element context, Class<T> nodeType) {
+        Validate.notEmpty(xpath);
+        Expr expr = compile(xpath).expr;
+        if (expr == null) return null;
+
+        // as in the W3C conversion, a document's context is its root element, and only that root is in the tree
+        Element el = context instanceof Document ? context.firstElementChild() : context;
+        Document doc = context.ownerDocument();
+        if (el == null || doc == null) return null;
+        for (Node n = el; n != doc; n = n.parentNode()) {
+            if (n == null || !isVisible(n)) return null;
+        }
+
+        List<Object> found = asNodes(expr.eval(el, 1, 1));
+        List<T> nodes = new ArrayList<>(found.size());
+        for (Object node : found) {
+            if (nodeType.isInstance(node) && !(node instanceof Document))
+                nodes.add(nodeType.cast(node));
+        }
+        return nodes;
+    }
+
+    /**
+     Compile an XPath expression, or get it from the cache.
+     @return the compiled expression; {@link #isSupported()} is false if it must be evaluated by the W3C implementation.
+     */
+    static Xpath compile(String xpath) {
+        Xpath compiled;
+        synchronized (Cache) {
+            compiled = Cache.get(xpath);
+        }
+        if (compiled != null) return compiled;
+
+        try {
+            Expr expr = XpathParser.parse(xpath);
+            compiled = expr.type() == Type.NodeSet ? new Xpath(xpath, expr) : Unsupported;
+        } catch (XpathParser.Unsupported e) {
+            compiled = Unsupported;
+        }
+        synchronized (Cache) {
+            Cache.put(xpath, compiled);
+        }
+        return compiled;
+    }
+
+    boolean isSupported() {
+        return expr != null;
+    }
+
+    @Override
+    public String toString() {
+        return xpath;
+    }
+
+    // The data model. Nodes in a node-set are jsoup Nodes, or AttrNodes for attributes, which aren't Nodes in jsoup.
+
+    /** An attribute in a node-set. Ordered by key within its element, as in the W3C DOM. */
+    static final class AttrNode {
+        final Element owner;
+        final int index;
+        final String key;
+        final String value;
+
+        AttrNode(Element owner, int index, String key, String value) {
+            this.owner = owner;
+            this.index = index;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static boolean isElement(Object node) {
+        return node instanceof Element && !(node instanceof Document);
+    }
+
+    static boolean isText(Object node) {
+        return node instanceof TextNode || node instanceof DataNode; // CDataNode is a TextNode; data is text in XPath
+    }
+
+    /** Tests if a node is present in the XPath tree. Text that follows text is part of the preceding text node. */
+    static boolean isVisible(Node node) {
+        if (node.parentNode() instanceof Document) return XmlNodes.isDocumentChild(node, false);
+        if (node instanceof Element || node instanceof Comment) return true;
+        if (isText(node)) {
+            Node prev = node.previousSibling();
+            return prev == null || !isText(prev);
+        }
+        return XmlNodes.isInstruction(node);
+    }
+
+    static @Nullable Node firstChild(Node parent) {
+        Node child = parent.firstChild();
+        while (child != null && !isVisible(child)) child = child.nextSibling();
+        return child;
+    }
+
+    static @Nullable Node nextSibling(Node node) {
+        Node next = node.nextSibling();
+        while (next != null && !isVisible(next)) next = next.nextSibling();
+        return next;
+    }
+
+    static @Nullable Node previousSibling(Node node) {
+        Node prev = node.previousSibling();
+        while (prev != null && !isVisible(prev)) prev = prev.previousSibling();
+        return prev;
+    }
+
+    static @Nullable Node parent(Object node) {
+        return node instanceof AttrNode ? ((AttrNode) node).owner : ((Node) node).parentNode();
+    }
+
+    /** Adds the descendants of the node that match the test, in document order. */
+    static void descendants(Node root, NodeTest test, List<Object> out) {
+        Node node = firstChild(root);
+        while (node != null) {
+            if (test.matches(node)) out.add(node);
+            Node next = firstChild(node);
+            while (next == null && node != root) {
+                next = nextSibling(node);
+                if (next == null) node = node.parentNode();
+                if (node == null) return;
+            }
+            node = next;
+        }
+    }
+
+    /** Gets the attributes of an element that match the test. Namespace declarations are not attributes in XPath. */
+    static void attributes(Element el, NodeTest test, List<Object> out) {
+        if (el.attributesSize() == 0) return;
+        List<Attribute> attrs = new ArrayList<>(el.attributesSize());
+        for (Attribute attr : el.attributes()) {
+            if (!NamespaceBindings.isDeclaration(attr.getKey())) attrs.add(attr);
+        }
+        attrs.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+        for (int i = 0; i < attrs.size(); i++) {
+            Attribute attr = attrs.get(i);
+            AttrNode node = new AttrNode(el, i, attr.getKey(), attr.getValue());
+            if (test.matches(node)) out.add(node);
+        }
+    }
+
+    static String stringValue(Object node) {
+        if (node instanceof AttrNode) return ((AttrNode) node).value;
+        if (node instanceof Comment) return ((Comment) node).getData();
+        if (node instanceof XmlDeclaration) return ((XmlDeclaration) node).getWholeDeclaration();
+        StringBuilder sb = StringUtil.borrowBuilder();
+        if (isText(node)) {
+            // includes the following text that the W3C DOM merges into this node
+            for (Node text = (Node) node; text != null && isText(text); text = text.nextSibling())
+                appendText(text, sb);
+        } else if (node instanceof Element) {
+            List<Object> texts = new ArrayList<>();
+            descendants((Node) node, NodeTest.Text, texts);
+            for (Object text : texts) sb.append(stringValue(text));
+        }
+        return StringUtil.releaseBuilder(sb);
+    }
+
+    private static void appendText(Node text, StringBuilder sb) {
+        if (text instanceof TextNode) sb.append(((TextNode) text).getWholeText());
+        else sb.append(((DataNode) text).getWholeData());
+    }
+
+    static String localName(String qName) {
+        int pos = qName.indexOf(':');
+        return pos == -1 ? qName : qName.substring(pos + 1);
+    }
+
+    private static boolean localNameIs(String qName, String local) {
+        int pos = qName.indexOf(':');
+        if (pos == -1) return qName.equals(local);
+        return qName.length() - pos - 1 == local.length() && qName.startsWith(local, pos + 1);
+    }
+
+    static String name(Object node) {
+        if (node instanceof AttrNode) return ((AttrNode) node).key;
+        if (isElement(node)) return ((Element) node).tagName();
+        if (node instanceof XmlDeclaration) return ((XmlDeclaration) node).name();
+        return "";
+    }
+
+    // Document order
+
+    /** A node's position in the tree: the sibling indexes of its path from the root. */
+    private static int[] orderKey(Object item) {
+        Node node = item instanceof AttrNode ? ((AttrNode) item).owner : (Node) item;
+        int depth = 0;
+        for (Node n = node; n.parentNode() != null; n = n.parentNode()) depth++;
+        boolean isAttr = item instanceof AttrNode;
+        int[] key = new int[isAttr ? depth + 1 : depth];
+        int i = depth - 1;
+        for (Node n = node; n.parentNode() != null; n = n.parentNode())
+            key[i--] = n.siblingIndex();
+        if (isAttr) key[depth] = Integer.MIN_VALUE + ((AttrNode) item).index; // after the element, before its children
+        return key;
+    }
+
+    private static int compareKeys(int[] a, int[] b) {
+        int len = Math.min(a.length, b.length);
+        for (int i = 0; i < len; i++) {
+            if (a[i] != b[i]) return a[i] < b[i] ? -1 : 1;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /** Sorts a node-set into document order, and removes duplicates. */
+    static List<Object> sortUnique(List<Object> items) {
+        int size = items.size();
+        if (size < 2) return items;
+        Object[][] keyed = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            Object item = items.get(i);
+            keyed[i] = new Object[]{orderKey(item), item};
+        }
+        Arrays.sort(keyed, (a, b) -> compareKeys((int[]) a[0], (int[]) b[0]));
+        List<Object> sorted = new ArrayList<>(size);
+        int[] prev = null;
+        for (Object[] pair : keyed) {
+            int[] key = (int[]) pair[0];
+            if (prev == null || compareKeys(prev, key) != 0) sorted.add(pair[1]);
+            prev = key;
+        }
+        return sorted;
+    }
+
+    // Value conversions, per the XPath 1.0 core functions string(), number(), and boolean()
+
+    @SuppressWarnings("unchecked")
+    static List<Object> asNodes(Object value) {
+        return (List<Object>) value;
+    }
+
+    static String string(Object value) {
+        if (value instanceof String) return (String) value;
+        if (value instanceof List) {
+            List<Object> nodes = asNodes(value);
+            return nodes.isEmpty() ? "" : stringValue(nodes.get(0));
+        }
+        if (value instanceof Double) return numberString((Double) value);
+        return value.toString(); // boolean
+    }
+
+    static double number(Object value) {
+        if (value instanceof Double) return (Double) value;
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        return parseNumber(string(value));
+    }
+
+    static boolean bool(Object value) {
+        if (value instanceof Boolean) return (Boolean) value;
+        if (value instanceof List) return !asNodes(value).isEmpty();
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return d != 0 && !Double.isNaN(d);
+        }
+        return !((String) value).isEmpty();
+    }
+
+    /** Parses an XPath Number (optional minus, digits with an optional decimal point); anything else is NaN. */
+    static double parseNumber(String s) {
+        s = s.trim();
+        int len = s.length();
+        int i = 0;
+        if (i < len && s.charAt(i) == '-') i++;
+        boolean digits = false, point = false;
+        for (; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') digits = true;
+            else if (c == '.' && !point) point = true;
+            else return Double.NaN;
+        }
+        return digits ? Double.parseDouble(s) : Double.NaN;
+    }
+
+    static String numberString(double d) {
+        if (Double.isNaN(d)) return "NaN";
+        if (Double.isInfinite(d)) return d > 0 ? "Infinity" : "-Infinity";
+        if (d == (long) d && Math.abs(d) < 1e15) return Long.toString((long) d); // also prints -0 as 0
+        return new BigDecimal(Double.toString(d)).stripTrailingZeros().toPlainString();
+    }
+
+    static double round(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) return d;
+        if (d < 0 && d >= -0.5) return -0.0;
+        return Math.floor(d + 0.5);
+    }
+
+    static String normalizeSpace(String s) {
+        StringBuilder sb = StringUtil.borrowBuilder();
+        boolean space = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                sb.append(c);
+                space = false;
+            }
+        }
+        return StringUtil.releaseBuilder(sb);
+    }
+
+    // The expression tree
+
+    enum Type { NodeSet, Boolean, Number, String }
+
+    abstract static class Expr {
+        /**
+         Evaluate this expression.
+         @return a node-set ({@code List<Object>}, in document order), Boolean, Double, or String
+         */
+        abstract Object eval(Object node, int position, int size);
+
+        abstract Type type();
+
+        /** Tests if the result depends on the context position or size, i.e. it calls {@code position()} or {@code last()}. */
+        boolean usesPosition() {
+            return false;
+        }
+    }
+
+    static final class Literal extends Expr {
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            return value;
+        }
+
+        @Override Type type() {
+            return value instanceof Double ? Type.Number : Type.String;
+        }
+    }
+
+    enum Op { Or, And, Eq, Ne, Lt, Le, Gt, Ge, Add, Sub, Mul, Div, Mod }
+
+    static final class Binary extends Expr {
+        private final Op op;
+        private final Expr left;
+        private final Expr right;
+
+        Binary(Op op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            switch (op) {
+                case Or: return bool(left.eval(node, position, size)) || bool(right.eval(node, position, size));
+                case And: return bool(left.eval(node, position, size)) && bool(right.eval(node, position, size));
+                case Eq: case Ne: case Lt: case Le: case Gt: case Ge:
+                    return compare(op, left.eval(node, position, size), right.eval(node, position, size));
+            }
+            double l = number(left.eval(node, position, size));
+            double r = number(right.eval(node, position, size));
+            switch (op) {
+                case Add: return l + r;
+                case Sub: return l - r;
+                case Mul: return l * r;
+                case Div: return l / r;
+                default: return l % r; // mod truncates, as Java's remainder
+            }
+        }
+
+        @Override Type type() {
+            return op.ordinal() <= Op.Ge.ordinal() ? Type.Boolean : Type.Number;
+        }
+
+        @Override boolean usesPosition() {
+            return left.usesPosition() || right.usesPosition();
+        }
+
+        /** Compares two values; node-sets compare true if any of their nodes does. */
+        static boolean compare(Op op, Object l, Object r) {
+            boolean lNodes = l instanceof List, rNodes = r instanceof List;
+            if (lNodes && rNodes) {
+                List<Object> rights = asNodes(r);
+                List<String> rStrings = new ArrayList<>(rights.size());
+                for (Object n : rights) rStrings.add(stringValue(n));
+                for (Object n : asNodes(l)) {
+                    String ls = stringValue(n);
+                    for (String rs : rStrings) {
+                        if (compareAtomic(op, ls, rs)) return true;
+                    }
+                }
+                return false;
+            }
+            if (lNodes || rNodes) {
+                Object other = lNodes ? r : l;
+                List<Object> nodes = asNodes(lNodes ? l : r);
+                Op nodesOp = lNodes ? op : flip(op);
+                if (other instanceof Boolean) return compareAtomic(nodesOp, bool(nodes), other);
+                for (Object n : nodes) {
+                    String s = stringValue(n);
+                    if (compareAtomic(nodesOp, other instanceof Double ? parseNumber(s) : s, other)) return true;
+                }
+                return false;
+            }
+            return compareAtomic(op, l, r);
+        }
+
+        private static boolean compareAtomic(Op op, Object l, Object r) {
+            if (op == Op.Eq || op == Op.Ne) {
+                boolean eq;
+                if (l instanceof Boolean || r instanceof Boolean) eq = bool(l) == bool(r);
+                else if (l instanceof Double || r instanceof Double) eq = number(l) == number(r);
+                else eq = string(l).equals(string(r));
+                return op == Op.Eq ? eq : !eq;
+            }
+            double ln = number(l), rn = number(r);
+            switch (op) {
+                case Lt: return ln < rn;
+                case Le: return ln <= rn;
+                case Gt: return ln > rn;
+                default: return ln >= rn;
+            }
+        }
+
+        private static Op flip(Op op) {
+            switch (op) {
+                case Lt: return Op.Gt;
+                case Le: return Op.Ge;
+                case Gt: return Op.Lt;
+                case Ge: return Op.Le;
+                default: return op;
+            }
+        }
+    }
+
+    static final class Negate extends Expr {
+        private final Expr expr;
+
+        Negate(Expr expr) {
+            this.expr = expr;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            return -number(expr.eval(node, position, size));
+        }
+
+        @Override Type type() {
+            return Type.Number;
+        }
+
+        @Override boolean usesPosition() {
+            return expr.usesPosition();
+        }
+    }
+
+    static final class Union extends Expr {
+        private final Expr[] parts;
+
+        Union(Expr[] parts) {
+            this.parts = parts;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            List<Object> all = new ArrayList<>();
+            for (Expr part : parts) all.addAll(asNodes(part.eval(node, position, size)));
+            return sortUnique(all);
+        }
+
+        @Override Type type() {
+            return Type.NodeSet;
+        }
+
+        @Override boolean usesPosition() {
+            for (Expr part : parts) {
+                if (part.usesPosition()) return true;
+            }
+            return false;
+        }
+    }
+
+    /** A primary expression filtered by predicates, e.g. {@code (//p)[1]}. Positions are in document order. */
+    static final class Filter extends Expr {
+        private final Expr primary;
+        private final Expr[] predicates;
+
+        Filter(Expr primary, Expr[] predicates) {
+            this.primary = primary;
+            this.predicates = predicates;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            List<Object> nodes = asNodes(primary.eval(node, position, size));
+            for (Expr predicate : predicates) nodes = Step.filter(nodes, predicate);
+            return nodes;
+        }
+
+        @Override Type type() {
+            return Type.NodeSet;
+        }
+
+        @Override boolean usesPosition() {
+            return primary.usesPosition();
+        }
+    }
+
+    /** A location path, or a filter expression continued by a relative path. */
+    static final class Path extends Expr {
+        private final @Nullable Expr start;
+        private final boolean absolute;
+        private final Step[] steps;
+
+        Path(@Nullable Expr start, boolean absolute, List<Step> steps) {
+            this.start = start;
+            this.absolute = absolute;
+            this.steps = steps.toArray(new Step[0]);
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            List<Object> current;
+            if (start != null) {
+                current = asNodes(start.eval(node, position, size));
+            } else {
+                current = new ArrayList<>(1);
+                current.add(absolute ? root(node) : node);
+            }
+
+            for (Step step : steps) {
+                List<Object> next = new ArrayList<>();
+                for (Object context : current) {
+                    int from = next.size();
+                    step.select(context, next);
+                    if (step.axis.reverse) Collections.reverse(next.subList(from, next.size()));
+                }
+                if (current.size() > 1 && step.axis != Axis.Self && step.axis != Axis.Attribute)
+                    next = sortUnique(next); // results from different contexts may overlap or interleave
+                current = next;
+            }
+            return current;
+        }
+
+        private static Node root(Object node) {
+            Node n = node instanceof AttrNode ? ((AttrNode) node).owner : (Node) node;
+            Document doc = n.ownerDocument();
+            return doc != null ? doc : n.root();
+        }
+
+        @Override Type type() {
+            return Type.NodeSet;
+        }
+
+        @Override boolean usesPosition() {
+            return start != null && start.usesPosition();
+        }
+    }
+
+    static final class Step {
+        final Axis axis;
+        final NodeTest test;
+        final Expr[] predicates;
+
+        Step(Axis axis, NodeTest test, Expr[] predicates) {
+            this.axis = axis;
+            this.test = test;
+            this.predicates = predicates;
+        }
+
+        /** The step for {@code //}, which is short for {@code /descendant-or-self::node()/}. */
+        static Step descendantOrSelf() {
+            return new Step(Axis.DescendantOrSelf, NodeTest.Node, new Expr[0]);
+        }
+
+        /**
+         Rewrites {@code //name} to a single {@code descendant::name} step when its predicates don't depend on position,
+         so that the result is collected in one walk and in document order.
+         */
+        static void optimize(List<Step> steps) {
+            for (int i = 0; i < steps.size() - 1; i++) {
+                Step step = steps.get(i);
+                Step next = steps.get(i + 1);
+                if (step.axis == Axis.DescendantOrSelf && step.test == NodeTest.Node && step.predicates.length == 0
+                    && next.axis == Axis.Child && !isPositional(next.predicates)) {
+                    steps.set(i, new Step(Axis.Descendant, next.test, next.predicates));
+                    steps.remove(i + 1);
+                }
+            }
+        }
+
+        private static boolean isPositional(Expr[] predicates) {
+            for (Expr predicate : predicates) {
+                if (predicate.type() == Type.Number || predicate.usesPosition()) return true;
+            }
+            return false;
+        }
+
+        /** Adds the nodes selected by this step from the context node, in axis order. */
+        void select(Object node, List<Object> out) {
+            if (predicates.length == 0) {
+                axis.collect(node, test, out);
+                return;
+            }
+            List<Object> found = new ArrayList<>();
+            axis.collect(node, test, found);
+            for (Expr predicate : predicates) found = filter(found, predicate);
+            out.addAll(found);
+        }
+
+        /** Filters nodes by a predicate. A number predicate matches the node at that position. */
+        static List<Object> filter(List<Object> nodes, Expr predicate) {
+            int size = nodes.size();
+            List<Object> kept = new ArrayList<>();
+            if (predicate instanceof Literal && predicate.type() == Type.Number) {
+                double d = (Double) ((Literal) predicate).value;
+                if (d == (int) d && d >= 1 && d <= size) kept.add(nodes.get((int) d - 1));
+                return kept;
+            }
+            for (int i = 0; i < size; i++) {
+                Object node = nodes.get(i);
+                Object result = predicate.eval(node, i + 1, size);
+                if (result instanceof Double ? (Double) result == i + 1 : bool(result))
+                    kept.add(node);
+            }
+            return kept;
+        }
+    }
+
+    enum Axis {
+        Ancestor("ancestor", true) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                for (Node p = parent(node); p != null; p = p.parentNode()) {
+                    if (test.matches(p)) out.add(p);
+                }
+            }
+        },
+        AncestorOrSelf("ancestor-or-self", true) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                Self.collect(node, test, out);
+                Ancestor.collect(node, test, out);
+            }
+        },
+        Attribute("attribute", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (isElement(node)) attributes((Element) node, test, out);
+            }
+        },
+        Child("child", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (!(node instanceof Element)) return;
+                for (Node child = firstChild((Node) node); child != null; child = nextSibling(child)) {
+                    if (test.matches(child)) out.add(child);
+                }
+            }
+        },
+        Descendant("descendant", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (node instanceof Element) descendants((Node) node, test, out);
+            }
+        },
+        DescendantOrSelf("descendant-or-self", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                Self.collect(node, test, out);
+                Descendant.collect(node, test, out);
+            }
+        },
+        Following("following", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                Node n;
+                if (node instanceof AttrNode) {
+                    n = ((AttrNode) node).owner;
+                    descendants(n, test, out);
+                } else {
+                    n = (Node) node;
+                }
+                for (; n != null && !(n instanceof Document); n = n.parentNode()) {
+                    for (Node sib = nextSibling(n); sib != null; sib = nextSibling(sib)) {
+                        if (test.matches(sib)) out.add(sib);
+                        descendants(sib, test, out);
+                    }
+                }
+            }
+        },
+        FollowingSibling("following-sibling", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (node instanceof AttrNode) return;
+                for (Node sib = nextSibling((Node) node); sib != null; sib = nextSibling(sib)) {
+                    if (test.matches(sib)) out.add(sib);
+                }
+            }
+        },
+        Parent("parent", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                Node p = parent(node);
+                if (p != null && test.matches(p)) out.add(p);
+            }
+        },
+        Preceding("preceding", true) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                // collect in document order, from the top of the ancestor chain, then reverse into axis order
+                List<Node> chain = new ArrayList<>();
+                for (Node n = node instanceof AttrNode ? ((AttrNode) node).owner : (Node) node;
+                     n != null && !(n instanceof Document); n = n.parentNode())
+                    chain.add(n);
+                List<Object> found = new ArrayList<>();
+                for (int i = chain.size() - 1; i >= 0; i--) {
+                    Node n = chain.get(i);
+                    Node parent = n.parentNode();
+                    if (parent == null) continue;
+                    for (Node sib = firstChild(parent); sib != null && sib != n; sib = nextSibling(sib)) {
+                        if (test.matches(sib)) found.add(sib);
+                        descendants(sib, test, found);
+                    }
+                }
+                Collections.reverse(found);
+                out.addAll(found);
+            }
+        },
+        PrecedingSibling("preceding-sibling", true) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (node instanceof AttrNode) return;
+                for (Node sib = previousSibling((Node) node); sib != null; sib = previousSibling(sib)) {
+                    if (test.matches(sib)) out.add(sib);
+                }
+            }
+        },
+        Self("self", false) {
+            @Override void collect(Object node, NodeTest test, List<Object> out) {
+                if (test.matches(node)) out.add(node);
+            }
+        };
+
+        final String name;
+        final boolean reverse; // reverse axes are collected nearest first, and predicate positions count that way
+
+        Axis(String name, boolean reverse) {
+            this.name = name;
+            this.reverse = reverse;
+        }
+
+        /** Adds the nodes on this axis from the context node that match the test, in axis order. */
+        abstract void collect(Object node, NodeTest test, List<Object> out);
+
+        static @Nullable Axis named(String name) {
+            for (Axis axis : values()) {
+                if (axis.name.equals(name)) return axis;
+            }
+            return null; // includes the namespace axis
+        }
+    }
+
+    abstract static class NodeTest {
+        abstract boolean matches(Object node);
+
+        static final NodeTest Node = new NodeTest() {
+            @Override boolean matches(Object node) {
+                return true;
+            }
+        };
+
+        static final NodeTest Text = new NodeTest() {
+            @Override boolean matches(Object node) {
+                return isText(node);
+            }
+        };
+
+        static final NodeTest Comment = new NodeTest() {
+            @Override boolean matches(Object node) {
+                return node instanceof Comment;
+            }
+        };
+
+        static NodeTest instruction(@Nullable String target) {
+            return new NodeTest() {
+                @Override boolean matches(Object node) {
+                    return XmlNodes.isInstruction(node) && (target == null || ((XmlDeclaration) node).name().equals(target));
+                }
+            };
+        }
+
+        /**
+         A name test, or {@code *} if the name is null. Matches the principal node type of the axis: attributes on the
+         attribute axis, otherwise elements.
+         */
+        static NodeTest name(@Nullable String name, boolean attribute) {
+            return new NodeTest() {
+                @Override boolean matches(Object node) {
+                    if (attribute) {
+                        return node instanceof AttrNode && (name == null || localNameIs(((AttrNode) node).key, name));
+                    }
+                    return isElement(node) && (name == null || localNameIs(((Element) node).tagName(), name));
+                }
+            };
+        }
+    }
+
+    enum Fn {
+        Last("last", 0, 0, Type.Number), Position("position", 0, 0, Type.Number),
+        Count("count", 1, 1, Type.Number, true), LocalName("local-name", 0, 1, Type.String, true),
+        NamespaceUri("namespace-uri", 0, 1, Type.String, true), Name("name", 0, 1, Type.String, true),
+        String("string", 0, 1, Type.String), Concat("concat", 2, Integer.MAX_VALUE, Type.String),
+        StartsWith("starts-with", 2, 2, Type.Boolean), Contains("contains", 2, 2, Type.Boolean),
+        SubstringBefore("substring-before", 2, 2, Type.String), SubstringAfter("substring-after", 2, 2, Type.String),
+        Substring("substring", 2, 3, Type.String), StringLength("string-length", 0, 1, Type.Number),
+        NormalizeSpace("normalize-space", 0, 1, Type.String), Translate("translate", 3, 3, Type.String),
+        Boolean("boolean", 1, 1, Type.Boolean), Not("not", 1, 1, Type.Boolean), True("true", 0, 0, Type.Boolean),
+        False("false", 0, 0, Type.Boolean), Number("number", 0, 1, Type.Number),
+        Sum("sum", 1, 1, Type.Number, true), Floor("floor", 1, 1, Type.Number),
+        Ceiling("ceiling", 1, 1, Type.Number), Round("round", 1, 1, Type.Number);
+
+        final String name;
+        final int minArgs;
+        final int maxArgs;
+        final Type type;
+        final boolean nodeSetArg; // the argument must be a node-set
+
+        Fn(String name, int minArgs, int maxArgs, Type type) {
+            this(name, minArgs, maxArgs, type, false);
+        }
+
+        Fn(String name, int minArgs, int maxArgs, Type type, boolean nodeSetArg) {
+            this.name = name;
+            this.minArgs = minArgs;
+            this.maxArgs = maxArgs;
+            this.type = type;
+            this.nodeSetArg = nodeSetArg;
+        }
+
+        static @Nullable Fn named(String name) {
+            for (Fn fn : values()) {
+                if (fn.name.equals(name)) return fn;
+            }
+            return null; // includes id() and lang()
+        }
+    }
+
+    static final class FunctionCall extends Expr {
+        private final Fn fn;
+        private final Expr[] args;
+
+        FunctionCall(Fn fn, Expr[] args) {
+            this.fn = fn;
+            this.args = args;
+        }
+
+        @Override Object eval(Object node, int position, int size) {
+            switch (fn) {
+                case Last: return (double) size;
+                case Position: return (double) position;
+                case Count: return (double) asNodes(arg(0, node, position, size)).size();
+                case LocalName: case NamespaceUri: case Name: {
+                    Object target = node;
+                    if (args.length > 0) {
+                        List<Object> nodes = asNodes(arg(0, node, position, size));
+                        if (nodes.isEmpty()) return "";
+                        target = nodes.get(0);
+                    }
+                    if (fn == Fn.NamespaceUri) return ""; // not namespace aware
+                    return fn == Fn.Name ? name(target) : localName(name(target));
+                }
+                case String: return args.length == 0 ? stringValue(node) : string(arg(0, node, position, size));
+                case Concat: {
+                    StringBuilder sb = StringUtil.borrowBuilder();
+                    for (int i = 0; i < args.length; i++) sb.append(string(arg(i, node, position, size)));
+                    return StringUtil.releaseBuilder(sb);
+                }
+                case StartsWith: return str(0, node, position, size).startsWith(str(1, node, position, size));
+                case Contains: return str(0, node, position, size).contains(str(1, node, position, size));
+                case SubstringBefore: {
+                    String s = str(0, node, position, size);
+                    int i = s.indexOf(str(1, node, position, size));
+                    return i == -1 ? "" : s.substring(0, i);
+                }
+                case SubstringAfter: {
+                    String s = str(0, node, position, size);
+                    String find = str(1, node, position, size);
+                    int i = s.indexOf(find);
+                    return i == -1 ? "" : s.substring(i + find.length());
+                }
+                case Substring: return substring(node, position, size);
+                case StringLength: return (double) contextString(node, position, size).length();
+                case NormalizeSpace: return normalizeSpace(contextString(node, position, size));
+                case Translate: return translate(str(0, node, position, size), str(1, node, position, size),
+                    str(2, node, position, size));
+                case Boolean: return bool(arg(0, node, position, size));
+                case Not: return !bool(arg(0, node, position, size));
+                case True: return true;
+                case False: return false;
+                case Number: return args.length == 0 ? parseNumber(stringValue(node)) : number(arg(0, node, position, size));
+                case Sum: {
+                    double sum = 0;
+                    for (Object n : asNodes(arg(0, node, position, size))) sum += parseNumber(stringValue(n));
+                    return sum;
+                }
+                case Floor: return Math.floor(number(arg(0, node, position, size)));
+                case Ceiling: return Math.ceil(number(arg(0, node, position, size)));
+                case Round: return round(number(arg(0, node, position, size)));
+                default: throw new IllegalStateException(fn.name);
+            }
+        }
+
+        private Object arg(int i, Object node, int position, int size) {
+            return args[i].eval(node, position, size);
+        }
+
+        private String str(int i, Object node, int position, int size) {
+            return string(arg(i, node, position, size));
+        }
+
+        /** The string of the first argument, or of the context node if there is none. */
+        private String contextString(Object node, int position, int size) {
+            return args.length == 0 ? stringValue(node) : str(0, node, position, size);
+        }
+
+        /** Characters from the rounded start position, for the rounded length; positions count from 1. */
+        private String substring(Object node, int position, int size) {
+            String s = str(0, node, position, size);
+            double start = round(number(arg(1, node, position, size)));
+            double end = args.length == 3 ? start + round(number(arg(2, node, position, size))) : Double.POSITIVE_INFINITY;
+            StringBuilder sb = StringUtil.borrowBuilder();
+            for (int i = 0; i < s.length(); i++) {
+                int p = i + 1;
+                if (p >= start && p < end) sb.append(s.charAt(i));
+            }
+            return StringUtil.releaseBuilder(sb);
+        }
+
+        private static String translate(String s, String from, String to) {
+            StringBuilder sb = StringUtil.borrowBuilder();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                int pos = from.indexOf(c);
+                if (pos == -1) sb.append(c);
+                else if (pos < to.length()) sb.append(to.charAt(pos));
+            }
+            return StringUtil.releaseBuilder(sb);
+        }
+
+        @Override Type type() {
+            return fn.type;
+        }
+
+        @Override boolean usesPosition() {
+            if (fn == Fn.Last || fn == Fn.Position) return true;
+            for (Expr arg : args) {
+                if (arg.usesPosition()) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package org.jsoup.internal;
+
+import org.jsoup.internal.Xpath.Axis;
+import org.jsoup.internal.Xpath.Binary;
+import org.jsoup.internal.Xpath.Expr;
+import org.jsoup.internal.Xpath.Fn;
+import org.jsoup.internal.Xpath.FunctionCall;
+import org.jsoup.internal.Xpath.Literal;
+import org.jsoup.internal.Xpath.Negate;
+import org.jsoup.internal.Xpath.NodeTest;
+import org.jsoup.internal.Xpath.Op;
+import org.jsoup.internal.Xpath.Path;
+import org.jsoup.internal.Xpath.Step;
+import org.jsoup.internal.Xpath.Type;
+import org.jsoup.internal.Xpath.Union;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ Parses an XPath 1.0 expression into an {@link Xpath.Expr} tree for native evaluation. Input that is invalid, or that
+ uses a feature the native evaluator doesn't support (variables, namespace prefixes, the namespace axis, or the
+ {@code id()} and {@code lang()} functions), throws {@link Unsupported}; the query is then run by the JDK XPath
+ implementation instead, which also reports any syntax errors.
+ */
+final class XpathParser {
+    private static final String[] NodeTypes = {"comment", "node", "processing-instruction", "text"};
+
+    /** Thrown when an expression can't be evaluated natively. Has no stack trace, as it's expected flow. */
+    static final class Unsupported extends RuntimeException {
+        Unsupported(String message) {
+            super(message);
+        }
+
+        @Override public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    enum TokenType { LParen, RParen, LBracket, RBracket, Dot, DotDot, At, Comma, ColonColon,
+        NameTest, NodeType, Function, Axis, Operator, Literal, Number, End }
+
+    static final class Token {
+        final TokenType type;
+        final String text;
+
+        Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        @Override public String toString() {
+            return type + ":" + text;
+        }
+    }
+
+    private final String query;
+    private final List<Token> tokens = new ArrayList<>();
+    private int pos = 0; // the current token
+
+    private XpathParser(String query) {
+        this.query = query;
+    }
+
+    /**
+     Parse an XPath expression.
+     @param query the XPath expression
+     @return the compiled expression
+     @throws Unsupported if the expression is invalid or not supported by the native evaluator
+     */
+    static Expr parse(String query) {
+        XpathParser p = new XpathParser(query);
+        p.lex();
+        Expr expr = p.orExpr();
+        p.expect(TokenType.End);
+        return expr;
+    }
+
+    // Lexer. Follows the disambiguation rules of XPath 1.0 section 3.7.
+
+    private void lex() {
+        final String q = query;
+        final int len = q.length();
+        int i = 0;
+        while (true) {
+            while (i < len && isSpace(q.charAt(i))) i++;
+            if (i >= len) {
+                add(TokenType.End, "");
+                return;
+            }
+            char c = q.charAt(i);
+            char next = i + 1 < len ? q.charAt(i + 1) : 0;
+            switch (c) {
+                case '(': add(TokenType.LParen, "("); i++; break;
+                case ')': add(TokenType.RParen, ")"); i++; break;
+                case '[': add(TokenType.LBracket, "["); i++; break;
+                case ']': add(TokenType.RBracket, "]"); i++; break;
+                case '@': add(TokenType.At, "@"); i++; break;
+                case ',': add(TokenType.Comma, ","); i++; break;
+                case '|': case '+': case '-': case '=':
+                    add(TokenType.Operator, String.valueOf(c)); i++; break;
+                case '/':
+                    if (next == '/') { add(TokenType.Operator, "//"); i += 2; }
+                    else { add(TokenType.Operator, "/"); i++; }
+                    break;
+                case '!':
+                    if (next != '=') throw new Unsupported("Unexpected '!'");
+                    add(TokenType.Operator, "!="); i += 2;
+                    break;
+                case '<': case '>':
+                    if (next == '=') { add(TokenType.Operator, c + "="); i += 2; }
+                    else { add(TokenType.Operator, String.valueOf(c)); i++; }
+                    break;
+                case '*':
+                    add(isOperatorContext() ? TokenType.Operator : TokenType.NameTest, "*"); i++;
+                    break;
+                case ':':
+                    if (next != ':') throw new Unsupported("Unexpected ':'");
+                    add(TokenType.ColonColon, "::"); i += 2;
+                    break;
+                case '.':
+                    if (next == '.') { add(TokenType.DotDot, ".."); i += 2; }
+                    else if (isDigit(next)) i = lexNumber(i);
+                    else { add(TokenType.Dot, "."); i++; }
+                    break;
+                case '"': case '\'':
+                    int end = q.indexOf(c, i + 1);
+                    if (end == -1) throw new Unsupported("Unterminated literal");
+                    add(TokenType.Literal, q.substring(i + 1, end));
+                    i = end + 1;
+                    break;
+                default:
+                    if (isDigit(c)) i = lexNumber(i);
+                    else if (isNameStart(c)) i = lexName(i);
+                    else throw new Unsupported("Unexpected character '" + c + "'"); // includes $variables
+            }
+        }
+    }
+
+    private int lexNumber(int start) {
+        int i = start;
+        final int len = query.length();
+        while (i < len && isDigit(query.charAt(i))) i++;
+        if (i < len && query.charAt(i) == '.') {
+            i++;
+            while (i < len && isDigit(query.charAt(i))) i++;
+        }
+        add(TokenType.Number, query.substring(start, i));
+        return i;
+    }
+
+    private int lexName(int start) {
+        final int len = query.length();
+        int i = start + 1;
+        while (i < len && isNameChar(query.charAt(i))) i++;
+        String name = query.substring(start, i);
+
+        if (isOperatorContext()) {
+            if (!(name.equals("and") || name.equals("or") || name.equals("mod") || name.equals("div")))
+                throw new Unsupported("Expected an operator, but found '" + name + "'");
+            add(TokenType.Operator, name);
+            return i;
+        }
+        if (i + 1 < len && query.charAt(i) == ':' && query.charAt(i + 1) != ':')
+            throw new Unsupported("Namespace prefixes are not supported"); // prefix:name and prefix:*
+
+        int look = i;
+        while (look < len && isSpace(query.charAt(look))) look++;
+        if (look < len && query.charAt(look) == '(') {
+            boolean isNodeType = false;
+            for (String type : NodeTypes) {
+                if (type.equals(name)) isNodeType = true;
+            }
+            add(isNodeType ? TokenType.NodeType : TokenType.Function, name);
+        } else if (look + 1 < len && query.charAt(look) == ':' && query.charAt(look + 1) == ':') {
+            add(TokenType.Axis, name);
+        } else {
+            add(TokenType.NameTest, name);
+        }
+        return i;
+    }
+
+    /** An operator is expected if there is a preceding token that can end an operand. */
+    private boolean isOperatorContext() {
+        if (tokens.isEmpty()) return false;
+        TokenType prev = tokens.get(tokens.size() - 1).type;
+        return !(prev == TokenType.At || prev == TokenType.ColonColon || prev == TokenType.LParen ||
+            prev == TokenType.LBracket || prev == TokenType.Comma || prev == TokenType.Operator);
+    }
+
+    private void add(TokenType type, String text) {
+        tokens.add(new Token(type, text));
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isNameStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '·';
+    }
+
+    // Parser. Recursive descent following the XPath 1.0 grammar, from the lowest precedence.
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private boolean isOp(String op) {
+        Token t = peek();
+        return t.type == TokenType.Operator && t.text.equals(op);
+    }
+
+    private Token expect(TokenType type) {
+        Token t = peek();
+        if (t.type != type) throw new Unsupported("Expected " + type + " but found " + t);
+        pos++;
+        return t;
+    }
+
+    private Expr orExpr() {
+        Expr e = andExpr();
+        while (isOp("or")) {
+            pos++;
+            e = new Binary(Op.Or, e, andExpr());
+        }
+        return e;
+    }
+
+    private Expr andExpr() {
+        Expr e = equalityExpr();
+        while (isOp("and")) {
+            pos++;
+            e = new Binary(Op.And, e, equalityExpr());
+        }
+        return e;
+    }
+
+    private Expr equalityExpr() {
+        Expr e = relationalExpr();
+        while (true) {
+            if (isOp("=")) { pos++; e = new Binary(Op.Eq, e, relationalExpr()); }
+            else if (isOp("!=")) { pos++; e = new Binary(Op.Ne, e, relationalExpr()); }
+            else return e;
+        }
+    }
+
+    private Expr relationalExpr() {
+        Expr e = additiveExpr();
+        while (true) {
+            if (isOp("<")) { pos++; e = new Binary(Op.Lt, e, additiveExpr()); }
+            else if (isOp("<=")) { pos++; e = new Binary(Op.Le, e, additiveExpr()); }
+            else if (isOp(">")) { pos++; e = new Binary(Op.Gt, e, additiveExpr()); }
+            else if (isOp(">=")) { pos++; e = new Binary(Op.Ge, e, additiveExpr()); }
+            else return e;
+        }
+    }
+
+    private Expr additiveExpr() {
+        Expr e = multiplicativeExpr();
+        while (true) {
+            if (isOp("+")) { pos++; e = new Binary(Op.Add, e, multiplicativeExpr()); }
+            else if (isOp("-")) { pos++; e = new Binary(Op.Sub, e, multiplicativeExpr()); }
+            else return e;
+        }
+    }
+
+    private Expr multiplicativeExpr() {
+        Expr e = unaryExpr();
+        while (true) {
+            if (isOp("*")) { pos++; e = new Binary(Op.Mul, e, unaryExpr()); }
+            else if (isOp("div")) { pos++; e = new Binary(Op.Div, e, unaryExpr()); }
+            else if (isOp("mod")) { pos++; e = new Binary(Op.Mod, e, unaryExpr()); }
+            else return e;
+        }
+    }
+
+    private Expr unaryExpr() {
+        if (isOp("-")) {
+            pos++;
+            return new Negate(unaryExpr());
+        }
+        return unionExpr();
+    }
+
+    private Expr unionExpr() {
+        Expr e = pathExpr();
+        if (!isOp("|")) return e;
+        List<Expr> parts = new ArrayList<>();
+        parts.add(requireNodeSet(e));
+        while (isOp("|")) {
+            pos++;
+            parts.add(requireNodeSet(pathExpr()));
+        }
+        return new Union(parts.toArray(new Expr[0]));
+    }
+
+    private Expr pathExpr() {
+        if (isOp("/")) {
+            pos++;
+            List<Step> steps = new ArrayList<>();
+            if (startsStep()) relativePath(steps);
+            return new Path(null, true, steps);
+        }
+        if (isOp("//")) {
+            pos++;
+            List<Step> steps = new ArrayList<>();
+            steps.add(Step.descendantOrSelf());
+            relativePath(steps);
+            return new Path(null, true, steps);
+        }
+        if (startsStep()) {
+            List<Step> steps = new ArrayList<>();
+            relativePath(steps);
+            return new Path(null, false, steps);
+        }
+
+        // a filter expression, optionally continued by a relative path
+        Expr e = primaryExpr();
+        List<Expr> predicates = predicates();
+        if (!predicates.isEmpty())
+            e = new Xpath.Filter(requireNodeSet(e), predicates.toArray(new Expr[0]));
+        if (isOp("/") || isOp("//")) {
+            requireNodeSet(e);
+            List<Step> steps = new ArrayList<>();
+            if (isOp("//")) steps.add(Step.descendantOrSelf());
+            pos++;
+            relativePath(steps);
+            return new Path(e, false, steps);
+        }
+        return e;
+    }
+
+    private boolean startsStep() {
+        TokenType type = peek().type;
+        return type == TokenType.NameTest || type == TokenType.NodeType || type == TokenType.Axis ||
+            type == TokenType.At || type == TokenType.Dot || type == TokenType.DotDot;
+    }
+
+    private void relativePath(List<Step> steps) {
+        steps.add(step());
+        while (isOp("/") || isOp("//")) {
+            if (isOp("//")) steps.add(Step.descendantOrSelf());
+            pos++;
+            steps.add(step());
+        }
+        Step.optimize(steps);
+    }
+
+    private Step step() {
+        Token t = peek();
+        if (t.type == TokenType.Dot) {
+            pos++;
+            return new Step(Axis.Self, NodeTest.Node, new Expr[0]);
+        }
+        if (t.type == TokenType.DotDot) {
+            pos++;
+            return new Step(Axis.Parent, NodeTest.Node, new Expr[0]);
+        }
+
+        Axis axis = Axis.Child;
+        if (t.type == TokenType.Axis) {
+            @Nullable Axis named = Axis.named(t.text);
+            if (named == null) throw new Unsupported("Unsupported axis " + t.text);
+            axis = named;
+            pos++;
+            expect(TokenType.ColonColon);
+        } else if (t.type == TokenType.At) {
+            axis = Axis.Attribute;
+            pos++;
+        }
+        NodeTest test = nodeTest(axis);
+        return new Step(axis, test, predicates().toArray(new Expr[0]));
+    }
+
+    private NodeTest nodeTest(Axis axis) {
+        Token t = peek();
+        if (t.type == TokenType.NameTest) {
+            pos++;
+            return NodeTest.name(t.text.equals("*") ? null : t.text, axis == Axis.Attribute);
+        }
+        Token type = expect(TokenType.NodeType);
+        expect(TokenType.LParen);
+        @Nullable String target = null;
+        if (type.text.equals("processing-instruction") && peek().type == TokenType.Literal)
+            target = expect(TokenType.Literal).text;
+        expect(TokenType.RParen);
+        switch (type.text) {
+            case "node": return NodeTest.Node;
+            case "text": return NodeTest.Text;
+            case "comment": return NodeTest.Comment;
+            default: return NodeTest.instruction(target);
+        }
+    }
+
+    private List<Expr> predicates() {
+        List<Expr> predicates = new ArrayList<>();
+        while (peek().type == TokenType.LBracket) {
+            pos++;
+            predicates.add(orExpr());
+            expect(TokenType.RBracket);
+        }
+        return predicates;
+    }
+
+    private Expr primaryExpr() {
+        Token t = peek();
+        switch (t.type) {
+            case LParen:
+                pos++;
+                Expr e = orExpr();
+                expect(TokenType.RParen);
+                return e;
+            case Literal:
+                pos++;
+                return new Literal(t.text);
+            case Number:
+                pos++;
+                return new Literal(Double.parseDouble(t.text));
+            case Function:
+                return functionCall();
+            default:
+                throw new Unsupported("Unexpected " + t);
+        }
+    }
+
+    private Expr functionCall() {
+        Token name = expect(TokenType.Function);
+        expect(TokenType.LParen);
+        List<Expr> args = new ArrayList<>();
+        if (peek().type != TokenType.RParen) {
+            args.add(orExpr());
+            while (peek().type == TokenType.Comma) {
+                pos++;
+                args.add(orExpr());
+            }
+        }
+        expect(TokenType.RParen);
+
+        @Nullable Fn fn = Fn.named(name.text);
+        if (fn == null) throw new Unsupported("Unsupported function " + name.text + "()");
+        if (args.size() < fn.minArgs || args.size() > fn.maxArgs)
+            throw new Unsupported("Incorrect number of arguments for " + name.text + "()");
+        if (fn.nodeSetArg) {
+            for (Expr arg : args) requireNodeSet(arg);
+        }
+        return new FunctionCall(fn, args.toArray(new Expr[0]));
+    }
+
+    private static Expr requireNodeSet(Expr e) {
+        if (e.type() != Type.NodeSet) throw new Unsupported("Expected a node-set");
+        return e;
+    }
+}
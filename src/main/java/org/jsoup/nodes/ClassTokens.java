@@ -0,0 +1,88 @@
+package org.jsoup.nodes;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ The class names of a {@code class} attribute value, tokenised once and shared by the elements with an equal value.
+ <p>Long class attributes (e.g. of utility-first CSS frameworks) are typically repeated over many elements, and tested
+ by each class selector, so scanning them for each {@link Element#hasClass(String)} is slow. Their tokens are held in a
+ small table keyed by the value, rather than on each element, so that Elements don't grow. A value is tokenised when
+ an equal value is seen from another attribute (a different String), so one-off values don't allocate, even when an
+ element is tested for several classes; and re-testing a value that is already noted doesn't write to the table. The
+ table is shared by all documents, so it is kept small: it retains at most 128 values (and their names), of up to 512
+ chars each. Entries are immutable, so the table is shared by threads without locking; a racing update just loses an
+ entry.</p>
+ */
+final class ClassTokens {
+    static final int MinLength = 32; // shorter values are scanned directly, in about the time of a table lookup
+    static final int MaxLength = 512; // longer values are scanned directly too, so the table doesn't retain outliers
+    private static final int Slots = 128; // a power of 2
+    private static final Object[] table = new Object[Slots]; // each a value seen once, or a value's ClassTokens
+
+    final String value;
+    final String[] names; // in attribute order, including duplicates
+    private final long lengths; // a bit per name length (lengths over 63 on bit 63), to skip names of other lengths
+
+    private ClassTokens(String value) {
+        this.value = value;
+        List<String> names = new ArrayList<>();
+        long lengths = 0;
+        int len = value.length();
+        for (int i = 0; i < len; ) {
+            int start = Element.nextClassStart(value, i, len);
+            if (start == len) break;
+            int end = Element.nextClassEnd(value, start, len);
+            names.add(value.substring(start, end));
+            lengths |= lengthBit(end - start);
+            i = end;
+        }
+        this.names = names.toArray(new String[0]);
+        this.lengths = lengths;
+    }
+
+    /**
+     Get the tokens of a class attribute value, if an equal value has been seen before.
+     @param value the class attribute value, of at least {@link #MinLength}
+     @return the value's tokens; or null until it has been seen from two attributes, or if it is longer than
+     {@link #MaxLength}, when it should be scanned directly
+     */
+    static @Nullable ClassTokens of(String value) {
+        if (value.length() > MaxLength) return null;
+        int set = (value.hashCode() & (Slots / 2 - 1)) * 2; // two ways per set, so two hot values can share one
+        int candidate = set + 1; // the way to note a first sight in; not a tokenised way if the other isn't
+        for (int i = set; i < set + 2; i++) {
+            Object entry = table[i];
+            if (entry instanceof ClassTokens) {
+                ClassTokens tokens = (ClassTokens) entry;
+                if (tokens.value == value || tokens.value.equals(value)) return tokens;
+            } else {
+                if (entry == value) return null; // the same attribute again (e.g. for .a.b); wait for another
+                if (entry != null && entry.equals(value)) { // seen on another element
+                    ClassTokens tokens = new ClassTokens(value);
+                    table[i] = tokens;
+                    return tokens;
+                }
+                candidate = i;
+            }
+        }
+        table[candidate] = value;
+        return null;
+    }
+
+    /** Test if the class name is one of these names, case-insensitively. */
+    boolean contains(String className) {
+        int len = className.length();
+        if ((lengths & lengthBit(len)) == 0) return false;
+        for (String name : names) {
+            if (name.length() == len && name.equalsIgnoreCase(className)) return true;
+        }
+        return false;
+    }
+
+    private static long lengthBit(int length) {
+        return 1L << Math.min(length, 63);
+    }
+}
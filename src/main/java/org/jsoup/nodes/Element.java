@@ -1,6 +1,8 @@
 package org.jsoup.nodes;
 
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Fragments;
+import org.jsoup.internal.Mutations;
 import org.jsoup.internal.QuietAppendable;
 import org.jsoup.helper.Regex;
 import org.jsoup.internal.StringUtil;
@@ -11,6 +13,7 @@ import org.jsoup.parser.TokenQueue;
 import org.jsoup.select.Collector;
 import org.jsoup.select.Elements;
 import org.jsoup.select.Evaluator;
+import org.jsoup.select.LiveElements;
 import org.jsoup.select.NodeFilter;
 import org.jsoup.select.NodeVisitor;
 import org.jsoup.select.Nodes;
@@ -19,8 +22,10 @@ import org.jspecify.annotations.Nullable;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -28,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -215,6 +221,8 @@ public class Element extends Node implements Iterable<Element> {
         Validate.notEmptyParam(namespace, "namespace");
         Parser parser = NodeUtils.parser(this);
         tag = parser.tagSet().valueOf(tagName, namespace, parser.settings()); // maintains the case option of the original parse
+        invalidateHtml();
+        Mutations.changed(this);
         return this;
     }
 
@@ -236,6 +244,8 @@ public class Element extends Node implements Iterable<Element> {
     public Element tag(Tag tag) {
         Validate.notNull(tag);
         this.tag = tag;
+        invalidateHtml();
+        Mutations.changed(this);
         return this;
     }
 
@@ -292,6 +302,8 @@ public class Element extends Node implements Iterable<Element> {
      */
     public Element attr(String attributeKey, boolean attributeValue) {
         attributes().put(attributeKey, attributeValue);
+        invalidateHtml();
+        Mutations.changed(this);
         return this;
     }
 
@@ -562,6 +574,35 @@ public class Element extends Node implements Iterable<Element> {
         return Selector.selectStream(evaluator, this);
     }
 
+    /**
+     Find the elements that match the {@link Selector} CSS query, as a live selection: its
+     {@link LiveElements#elements()} are kept up to date as this element's subtree is modified, without reselecting from
+     scratch for each change. Suits a query that is rerun between rounds of modifications.
+
+     @param cssQuery a {@link Selector} CSS-like query
+     @return a live selection of the matching elements
+     @throws Selector.SelectorParseException (unchecked) on an invalid CSS query.
+     @throws IllegalArgumentException if this element is not in a Document
+     @see LiveElements
+     @since 1.23.2
+     */
+    public LiveElements selectLive(String cssQuery) {
+        return Selector.selectLive(cssQuery, this);
+    }
+
+    /**
+     Find the elements that match the supplied Evaluator, as a live selection.
+
+     @param evaluator an element evaluator
+     @return a live selection of the matching elements
+     @throws IllegalArgumentException if this element is not in a Document
+     @see #selectLive(String)
+     @since 1.23.2
+     */
+    public LiveElements selectLive(Evaluator evaluator) {
+        return Selector.selectLive(evaluator, this);
+    }
+
     /**
      * Find the first Element that matches the {@link Selector} CSS query, with this element as the starting context.
      * <p>This is effectively the same as calling {@code element.select(query).first()}, but is more efficient as query
@@ -753,9 +794,9 @@ public class Element extends Node implements Iterable<Element> {
     public @Nullable Element closest(Evaluator evaluator) {
         Validate.notNull(evaluator);
         Element el = this;
-        final Element root = root();
+        final Predicate<Element> matches = evaluator.asPredicate(root()); // memoizes shared ancestor tests
         do {
-            if (evaluator.matches(root, el))
+            if (matches.test(el))
                 return el;
             el = el.parent();
         } while (el != null);
@@ -766,7 +807,9 @@ public class Element extends Node implements Iterable<Element> {
      Find Elements that match the supplied {@index XPath} expression.
      <p>Note that for convenience of writing the Xpath expression, namespaces are disabled, and queries can be
      expressed using the element's local name only.</p>
-     <p>By default, XPath 1.0 expressions are supported. If you would to use XPath 2.0 or higher, you can provide an
+     <p>By default, XPath 1.0 expressions are supported. Most are evaluated directly against the jsoup DOM; those that
+     use variables, namespace prefixes, or the {@code id()} and {@code lang()} functions are evaluated via a converted
+     W3C DOM. If you would to use XPath 2.0 or higher, you can provide an
      alternate XPathFactory implementation:</p>
      <ol>
      <li>Add the implementation to your classpath. E.g. to use <a href="https://www.saxonica.com/products/products.xml">Saxon-HE</a>, add <a href="https://mvnrepository.com/artifact/net.sf.saxon/Saxon-HE">net.sf.saxon:Saxon-HE</a> to your build.</li>
@@ -817,6 +860,7 @@ public class Element extends Node implements Iterable<Element> {
         ensureChildNodes();
         childNodes.add(child);
         child.setSiblingIndex(childNodes.size() - 1);
+        invalidateHtml();
         return this;
     }
 
@@ -907,6 +951,34 @@ public class Element extends Node implements Iterable<Element> {
         return this;
     }
 
+    /**
+     Make a batch of changes to this element's children, applied together when the batch ends. Each change of the
+     node methods (e.g. {@link Node#remove()} or {@link #insertChildren(int, Node...)}) shifts the later children in
+     the list, so many changes to a wide element take time in proportion to its width each; the batch instead rebuilds
+     the list once. E.g., to drop every other item of a long list, and insert a heading in its middle:
+     <pre><code>
+     ul.batch(b -&gt; {
+         for (int i = 1; i &lt; ul.childNodeSize(); i += 2) b.remove(ul.childNode(i));
+         b.insert(ul.childNodeSize() / 2, new Element("li").text("Middle"));
+     });
+     </code></pre>
+     <p>The indexes given to the batch are positions in the children as they were when it started; the children are
+     not changed until it ends. Inserted nodes are moved from their current parents, which may be this element.</p>
+
+     @param edits the changes to make, given the batch
+     @return this element, for chaining
+     @throws IllegalArgumentException if a change is invalid (e.g. removing a node that is not a child); then no changes
+     are made
+     @since 1.23.2
+     */
+    public Element batch(Consumer<Batch> edits) {
+        Validate.notNull(edits);
+        Batch batch = new Batch(this);
+        edits.accept(batch);
+        batch.apply();
+        return this;
+    }
+
     /**
      * Create a new element by tag name, and add it as this Element's last child.
      *
@@ -991,7 +1063,7 @@ public class Element extends Node implements Iterable<Element> {
      */
     public Element append(String html) {
         Validate.notNull(html);
-        List<Node> nodes = NodeUtils.parser(this).parseFragmentInput(html, this, baseUri());
+        List<Node> nodes = Fragments.parse(NodeUtils.parser(this), html, this, baseUri());
         addChildren(nodes.toArray(new Node[0]));
         return this;
     }
@@ -1004,7 +1076,7 @@ public class Element extends Node implements Iterable<Element> {
      */
     public Element prepend(String html) {
         Validate.notNull(html);
-        List<Node> nodes = NodeUtils.parser(this).parseFragmentInput(html, this, baseUri());
+        List<Node> nodes = Fragments.parse(NodeUtils.parser(this), html, this, baseUri());
         addChildren(0, nodes.toArray(new Node[0]));
         return this;
     }
@@ -1067,6 +1139,8 @@ public class Element extends Node implements Iterable<Element> {
         for (int i = 0; i < size; i++)
             childNodes.get(i).parentNode = null;
         childNodes.clear();
+        invalidateHtml();
+        if (size > 0) Mutations.removed(this);
         return this;
     }
 
@@ -1553,6 +1627,111 @@ public class Element extends Node implements Iterable<Element> {
         return StringUtil.releaseBuilder(accum).trim();
     }
 
+    /**
+     The text of each of the elements, as each's {@link #text()}, from one pass over their outermost elements. Nested
+     elements' texts are spans of their ancestors', so each is not walked again: an element's text differs from its
+     span of the shared accumulation only in leading and trailing whitespace, which is trimmed.
+     <p>The pass expects the elements in document order (as selected); an element that is not met where expected (e.g.
+     out of order, or repeated) is walked again on its own.</p>
+     @return each element's text, in the list order
+     */
+    static List<String> texts(List<Element> elements) {
+        int[] spans = new int[elements.size() * 2];
+        StringBuilder accum = accumulateTexts(elements, spans);
+        List<String> texts = new ArrayList<>(elements.size());
+        for (int i = 0; i < spans.length; i += 2)
+            texts.add(accum.substring(spans[i], spans[i + 1]));
+        return texts;
+    }
+
+    /** As {@link #texts(List)}, but with each text a view of the shared accumulation, rather than a copy. */
+    static List<CharSequence> textSlices(List<Element> elements) {
+        int[] spans = new int[elements.size() * 2];
+        StringBuilder accum = accumulateTexts(elements, spans); // not modified after, so can be shared by the slices
+        List<CharSequence> slices = new ArrayList<>(elements.size());
+        for (int i = 0; i < spans.length; i += 2)
+            slices.add(new TextSlice(accum, spans[i], spans[i + 1]));
+        return slices;
+    }
+
+    /** Accumulates the elements' texts, setting each's trimmed start and end in the spans. */
+    private static StringBuilder accumulateTexts(List<Element> elements, int[] spans) {
+        StringBuilder accum = new StringBuilder();
+        TextSpans visitor = new TextSpans(accum, elements, spans);
+        while (visitor.next < elements.size()) visitor.traverse(elements.get(visitor.next));
+
+        for (int i = 0; i < spans.length; i += 2) {
+            int start = spans[i], end = spans[i + 1];
+            while (start < end && accum.charAt(start) <= ' ') start++; // trims as String.trim()
+            while (end > start && accum.charAt(end - 1) <= ' ') end--;
+            spans[i] = start;
+            spans[i + 1] = end;
+        }
+        return accum;
+    }
+
+    /** Accumulates text as {@link #text()}, recording the span of each of the elements, when met in order. */
+    private static final class TextSpans extends TextAccumulator {
+        private final StringBuilder accum;
+        private final List<Element> elements;
+        private final int[] spans; // the start and end of each element's text
+        int next; // the index of the next element to meet
+        private int[] open = new int[8]; // the indexes of the elements being walked
+        private int depth;
+
+        TextSpans(StringBuilder accum, List<Element> elements, int[] spans) {
+            super(accum);
+            this.accum = accum;
+            this.elements = elements;
+            this.spans = spans;
+        }
+
+        @Override public void head(Node node, int depth) {
+            super.head(node, depth);
+            if (next < elements.size() && node == elements.get(next)) {
+                spans[next * 2] = accum.length();
+                if (this.depth == open.length) open = Arrays.copyOf(open, open.length * 2);
+                open[this.depth++] = next++;
+            }
+        }
+
+        @Override public void tail(Node node, int depth) {
+            if (this.depth > 0 && node == elements.get(open[this.depth - 1]))
+                spans[open[--this.depth] * 2 + 1] = accum.length();
+            super.tail(node, depth);
+        }
+    }
+
+    /** A span of a text, without copying it until {@link #toString()}. */
+    private static final class TextSlice implements CharSequence {
+        private final StringBuilder text;
+        private final int start, end;
+
+        TextSlice(StringBuilder text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override public int length() {
+            return end - start;
+        }
+
+        @Override public char charAt(int index) {
+            Validate.isTrue(index >= 0 && index < length(), "Index out of bounds");
+            return text.charAt(start + index);
+        }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            Validate.isTrue(start >= 0 && start <= end && end <= length(), "Range out of bounds");
+            return new TextSlice(text, this.start + start, this.start + end);
+        }
+
+        @Override public String toString() {
+            return text.substring(start, end);
+        }
+    }
+
     private static class TextAccumulator implements NodeVisitor {
         private final StringBuilder accum;
 
@@ -1795,6 +1974,11 @@ public class Element extends Node implements Iterable<Element> {
 
         String classAttr = attributes.getIgnoreCase("class");
         int len = classAttr.length();
+        ClassTokens tokens = len >= ClassTokens.MinLength ? ClassTokens.of(classAttr) : null;
+        if (tokens != null) {
+            Collections.addAll(classNames, tokens.names);
+            return classNames;
+        }
         for (int i = 0; i < len; ) {
             int start = nextClassStart(classAttr, i, len);
             if (start == len) break;
@@ -1823,6 +2007,8 @@ public class Element extends Node implements Iterable<Element> {
 
         String attr = attributes.getIgnoreCase("class");
         int len = attr.length();
+        ClassTokens tokens = len >= ClassTokens.MinLength ? ClassTokens.of(attr) : null;
+        if (tokens != null) return Collections.unmodifiableList(Arrays.asList(tokens.names));
         int start = nextClassStart(attr, 0, len);
         if (start == len) return Collections.emptyList();
 
@@ -1844,7 +2030,7 @@ public class Element extends Node implements Iterable<Element> {
     /**
      Find the next class token start.
      */
-    private static int nextClassStart(String classAttr, int offset, int len) {
+    static int nextClassStart(String classAttr, int offset, int len) {
         while (offset < len && StringUtil.isWhitespace(classAttr.charAt(offset))) offset++;
         return offset;
     }
@@ -1852,7 +2038,7 @@ public class Element extends Node implements Iterable<Element> {
     /**
      Find the next class token end.
      */
-    private static int nextClassEnd(String classAttr, int offset, int len) {
+    static int nextClassEnd(String classAttr, int offset, int len) {
         while (offset < len && !StringUtil.isWhitespace(classAttr.charAt(offset))) offset++;
         return offset;
     }
@@ -1876,6 +2062,8 @@ public class Element extends Node implements Iterable<Element> {
         } else {
             attributes().put("class", StringUtil.join(classNames, " "));
         }
+        invalidateHtml();
+        Mutations.changed(this);
         return this;
     }
 
@@ -1897,6 +2085,12 @@ public class Element extends Node implements Iterable<Element> {
         // if both lengths are equal, only need to compare the className with the attribute
         if (len == wantLen) return className.equalsIgnoreCase(classAttr);
 
+        // long values are tokenised once, when seen again, and shared by the elements with that value
+        if (len >= ClassTokens.MinLength) {
+            ClassTokens tokens = ClassTokens.of(classAttr);
+            if (tokens != null) return tokens.contains(className);
+        }
+
         // otherwise, scan for whitespace and compare regions (with no string or list allocations)
         for (int i = 0; i < len; ) {
             int start = nextClassStart(classAttr, i, len);
@@ -2058,6 +2252,27 @@ public class Element extends Node implements Iterable<Element> {
         return appendable;
     }
 
+    /**
+     Enable or disable caching of this element's serialized HTML. When enabled, the first time the element is printed
+     (via {@link #outerHtml()}, or the HTML of an ancestor), its HTML is kept, and is reused by later prints until
+     the element or one of its descendants is modified. This suits subtrees that are printed repeatedly but rarely
+     change, such as a shared header in a page that is otherwise being updated.
+     <p>The cache is cleared by modifications made through the node methods, such as {@link #appendChild(Node)},
+     {@link #attr(String, String)}, {@link #text(String)}, {@link Node#remove()}, and {@link #tagName(String)}. It is
+     not cleared by changes made directly to an {@link Attributes} or {@link Attribute} object (e.g. via
+     {@link #attributes()} or {@link #dataset()}); call {@code cacheHtml(true)} again after such changes to reset the
+     cache. The HTML is kept for the most recent output settings and position in the tree, and is reprinted when
+     those change.</p>
+     @param cache true to enable caching; false to disable it and discard any cached HTML
+     @return this element, for chaining
+     @since 1.23.2
+     */
+    public Element cacheHtml(boolean cache) {
+        HtmlCache.disable(this);
+        if (cache) HtmlCache.enable(this);
+        return this;
+    }
+
     /** Append the inner HTML of this element to the supplied {@link QuietAppendable}. */
     void html(QuietAppendable accum) {
         Node child = firstChild();
@@ -2104,6 +2319,7 @@ public class Element extends Node implements Iterable<Element> {
             clone.attributes = attributes.clone();
             // clear any cached children
             clone.attributes.userData(childElsKey, null);
+            HtmlCache.cloned(this, clone);
         }
 
         return clone;
@@ -2166,6 +2382,115 @@ public class Element extends Node implements Iterable<Element> {
         return  (Element) super.filter(nodeFilter);
     }
 
+    /**
+     A batch of changes to an element's children; see {@link Element#batch(Consumer)}.
+     @since 1.23.2
+     */
+    public static final class Batch {
+        private final Element parent;
+        private final int size; // of the children when the batch started
+        private final Set<Node> removes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Node> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Node> inserts = new ArrayList<>(); // in call order
+        private final List<Integer> insertIndexes = new ArrayList<>(); // of each insert
+
+        Batch(Element parent) {
+            this.parent = parent;
+            this.size = parent.childNodeSize();
+        }
+
+        /**
+         Remove the child node.
+         @param child a child of this element
+         @return this batch, for chaining
+         */
+        public Batch remove(Node child) {
+            Validate.notNull(child);
+            Validate.isTrue(child.parentNode == parent, "The node to remove must be a child of the batch's element");
+            removes.add(child);
+            return this;
+        }
+
+        /**
+         Insert the node before the child that was at the index when the batch started. Nodes inserted at the same index
+         keep the order they were inserted in.
+         @param index the index, from 0 to the child count; or negative, to count back from the end ({@code -1} is after
+         the last child)
+         @param node the node to insert
+         @return this batch, for chaining
+         */
+        public Batch insert(int index, Node node) {
+            Validate.notNull(node);
+            if (index < 0) index += size + 1; // roll around, as insertChildren
+            Validate.isTrue(index >= 0 && index <= size, "Insert position out of bounds.");
+            parent.validateChild(node);
+            Validate.isTrue(inserted.add(node), "The node is already inserted in this batch");
+            inserts.add(node);
+            insertIndexes.add(index);
+            return this;
+        }
+
+        /**
+         Append the node after the last child.
+         @param node the node to append
+         @return this batch, for chaining
+         */
+        public Batch append(Node node) {
+            return insert(size, node);
+        }
+
+        /**
+         Replace the child node with another node.
+         @param child a child of this element
+         @param with the node to insert in its place
+         @return this batch, for chaining
+         */
+        public Batch replace(Node child, Node with) {
+            remove(child);
+            return insert(child.siblingIndex(), with);
+        }
+
+        private void apply() {
+            if (removes.isEmpty() && inserts.isEmpty()) return;
+
+            // detach the inserted nodes from other parents; a child of this element is moved, so is removed from its place
+            for (Node node : inserts) {
+                if (node.parentNode == parent) removes.add(node);
+                else if (node.parentNode != null) node.parentNode.removeChild(node);
+            }
+
+            int[] starts = new int[size + 2]; // inserts bucketed by index, keeping their order: those at i are from starts[i]
+            for (int index : insertIndexes) starts[index + 1]++;
+            for (int i = 1; i < starts.length; i++) starts[i] += starts[i - 1];
+            Node[] ordered = new Node[inserts.size()];
+            int[] fill = Arrays.copyOf(starts, size + 1);
+            for (int i = 0; i < ordered.length; i++) ordered[fill[insertIndexes.get(i)]++] = inserts.get(i);
+
+            parent.ensureChildNodes();
+            NodeList children = parent.childNodes;
+            List<Node> rebuilt = new ArrayList<>(size - removes.size() + inserts.size());
+            for (int i = 0; i <= size; i++) {
+                for (int j = starts[i]; j < starts[i + 1]; j++) rebuilt.add(ordered[j]);
+                if (i == size) break;
+                Node child = children.get(i);
+                if (removes.contains(child)) child.parentNode = null;
+                else rebuilt.add(child);
+            }
+            for (Node node : inserts)
+                node.parentNode = parent;
+
+            children.clear(); // keeps the list, so its modCount invalidates the cached child elements
+            children.addAll(rebuilt);
+            parent.reindexChildren();
+            if (parent instanceof FormElement && !removes.isEmpty())
+                ((FormElement) parent).linkedEls.removeIf(removes::contains);
+            parent.invalidateHtml();
+
+            if (!removes.isEmpty()) Mutations.removed(parent);
+            for (Node node : inserts) Mutations.inserted(node);
+        }
+    }
+
     static final class NodeList extends ArrayList<Node> {
         /** Tracks if the children have valid sibling indices. We only need to reindex on siblingIndex() demand. */
         boolean validChildren = true;
@@ -20,7 +20,7 @@ import java.util.List;
  * form to easily be submitted.
  */
 public class FormElement extends Element {
-    private final Elements linkedEls = new Elements();
+    final Elements linkedEls = new Elements();
     // contains form submittable elements that were linked during the parse (and due to parse rules, may no longer be a child of this form)
     private static final Evaluator submittable = Selector.evaluatorOf(StringUtil.join(SharedConstants.FormSubmitTags, ", "));
 
@@ -0,0 +1,110 @@
+package org.jsoup.nodes;
+
+import org.jsoup.internal.WeakCount;
+import org.jsoup.nodes.Document.OutputSettings;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+
+/**
+ The serialized HTML of an element that has {@link Element#cacheHtml(boolean) caching} enabled. Held in the element's
+ user data. The HTML excludes the indent that may precede the element, which depends on its siblings; what it
+ includes depends only on the element's subtree, its parent, its depth in the print, whether whitespace is preserved
+ by an ancestor, and the output settings, so those are recorded and checked on use. Mutations of the subtree clear
+ the HTML of each cached element up the ancestor chain, via {@link Node#invalidateHtml()}.
+ */
+final class HtmlCache {
+    static final String Key = "jsoup.htmlCache";
+    // the elements that have caching enabled, until disabled or collected; while none, mutations and printing skip the
+    // cache checks
+    private static final WeakCount<Element> enabled = new WeakCount<>();
+
+    private final WeakReference<Element> ref; // this element's count in enabled
+    private volatile @Nullable Entry entry; // replaced whole, so concurrent prints see a consistent entry
+
+    private HtmlCache(Element el) {
+        ref = enabled.add(el);
+    }
+
+    static boolean isActive() {
+        return !enabled.isEmpty();
+    }
+
+    static void enable(Element el) {
+        if (of(el) != null) return;
+        el.attributes().userData(Key, new HtmlCache(el));
+    }
+
+    static void disable(Element el) {
+        HtmlCache cache = of(el);
+        if (cache == null) return;
+        el.attributes().userData(Key, null);
+        enabled.release(cache.ref);
+    }
+
+    /** Gives a clone its own empty cache, if the original's was copied with its user data. */
+    static void cloned(Element original, Element clone) {
+        if (of(original) == null) return;
+        clone.attributes().userData(Key, new HtmlCache(clone));
+    }
+
+    /** Gets the element's cache, if enabled. */
+    static @Nullable HtmlCache of(Element el) {
+        if (el.attributes == null || !el.attributes.hasUserData()) return null; // don't create empty userdata
+        return (HtmlCache) el.attributes.userData(Key);
+    }
+
+    /** Clears the element's cached HTML, if any. */
+    static void clear(Element el) {
+        HtmlCache cache = of(el);
+        if (cache != null) cache.entry = null;
+    }
+
+    /** Gets the cached HTML, if it was printed in the same context. */
+    @Nullable String get(Element el, int depth, boolean preserveWhitespace, OutputSettings settings) {
+        Entry entry = this.entry;
+        return entry != null && entry.matches(el, depth, preserveWhitespace, settings) ? entry.html : null;
+    }
+
+    void put(String html, Element el, int depth, boolean preserveWhitespace, OutputSettings settings) {
+        entry = new Entry(html, el, depth, preserveWhitespace, settings);
+    }
+
+    private static final class Entry {
+        final String html;
+        final @Nullable Element parent;
+        final int depth;
+        final boolean preserveWhitespace;
+        // the output settings are mutable, so their values are recorded, not the object
+        final Entities.EscapeMode escapeMode;
+        final Charset charset;
+        final OutputSettings.Syntax syntax;
+        final boolean prettyPrint;
+        final boolean outline;
+        final int indentAmount;
+        final int maxPaddingWidth;
+
+        Entry(String html, Element el, int depth, boolean preserveWhitespace, OutputSettings settings) {
+            this.html = html;
+            parent = el.parentNode;
+            this.depth = depth;
+            this.preserveWhitespace = preserveWhitespace;
+            escapeMode = settings.escapeMode();
+            charset = settings.charset();
+            syntax = settings.syntax();
+            prettyPrint = settings.prettyPrint();
+            outline = settings.outline();
+            indentAmount = settings.indentAmount();
+            maxPaddingWidth = settings.maxPaddingWidth();
+        }
+
+        boolean matches(Element el, int depth, boolean preserveWhitespace, OutputSettings settings) {
+            return parent == el.parentNode && this.depth == depth && this.preserveWhitespace == preserveWhitespace &&
+                escapeMode == settings.escapeMode() && charset.equals(settings.charset()) &&
+                syntax == settings.syntax() && prettyPrint == settings.prettyPrint() &&
+                outline == settings.outline() && indentAmount == settings.indentAmount() &&
+                maxPaddingWidth == settings.maxPaddingWidth();
+        }
+    }
+}
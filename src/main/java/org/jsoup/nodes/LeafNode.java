@@ -1,6 +1,7 @@
 package org.jsoup.nodes;
 
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Mutations;
 import org.jsoup.internal.QuietAppendable;
 import org.jspecify.annotations.Nullable;
 
@@ -66,6 +67,8 @@ public abstract class LeafNode extends Node {
             ((TrackedValue) this.value).coreValue = value;
         else
             this.value = value;
+        invalidateHtml();
+        Mutations.changed(this);
     }
 
     @Override
@@ -1,6 +1,9 @@
 package org.jsoup.nodes;
 
+import org.jsoup.SerializationException;
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Fragments;
+import org.jsoup.internal.Mutations;
 import org.jsoup.internal.QuietAppendable;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.parser.ParseSettings;
@@ -9,6 +12,8 @@ import org.jsoup.select.NodeVisitor;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -162,6 +167,8 @@ public abstract class Node implements Cloneable {
         ParseSettings settings = doc != null ? doc.parser().settings() : ParseSettings.htmlDefault;
         attributeKey = settings.normalizeAttribute(attributeKey);
         attributes().putIgnoreCase(attributeKey, attributeValue);
+        invalidateHtml();
+        Mutations.changed(this);
         return this;
     }
 
@@ -190,8 +197,11 @@ public abstract class Node implements Cloneable {
      */
     public Node removeAttr(String attributeKey) {
         Validate.notNull(attributeKey);
-        if (hasAttributes())
+        if (hasAttributes()) {
             attributes().removeIgnoreCase(attributeKey);
+            invalidateHtml();
+            Mutations.changed(this);
+        }
         return this;
     }
 
@@ -206,6 +216,8 @@ public abstract class Node implements Cloneable {
                 it.next();
                 it.remove();
             }
+            invalidateHtml();
+            Mutations.changed(this);
         }
         return this;
     }
@@ -444,7 +456,7 @@ public abstract class Node implements Cloneable {
         Validate.notNull(parentNode);
 
         Element context = parentNode instanceof Element ? (Element) parentNode : null;
-        List<Node> nodes = NodeUtils.parser(this).parseFragmentInput(html, context, baseUri());
+        List<Node> nodes = Fragments.parse(NodeUtils.parser(this), html, context, baseUri());
         parentNode.addChildren(index, nodes.toArray(new Node[0]));
     }
 
@@ -463,7 +475,7 @@ public abstract class Node implements Cloneable {
             parentNode != null && parentNode instanceof Element ? (Element) parentNode :
                 this instanceof Element ? (Element) this :
                     null;
-        List<Node> wrapChildren = NodeUtils.parser(this).parseFragmentInput(html, context, baseUri());
+        List<Node> wrapChildren = Fragments.parse(NodeUtils.parser(this), html, context, baseUri());
         Node wrapNode = wrapChildren.get(0);
         if (!(wrapNode instanceof Element)) // nothing to wrap with; noop
             return this;
@@ -547,12 +559,13 @@ public abstract class Node implements Cloneable {
         if (this.parentNode != null)
             this.parentNode.removeChild(this);
         this.parentNode = parentNode;
+        Mutations.inserted(this);
     }
 
     private static final String CycleError = "Cannot add a node here because it would create a cycle.";
 
     /** Checks that the child is neither this node nor an ancestor of this node. */
-    private void validateChild(Node child) {
+    void validateChild(Node child) {
         Validate.isFalse(child == this, CycleError);
         if (child.childNodeSize() == 0) return;
 
@@ -584,6 +597,8 @@ public abstract class Node implements Cloneable {
         out.parentNode = null;
 
         parent.childNodes.incrementMod(); // as mod count not changed in set(), requires explicit update, to invalidate the child element cache
+        invalidateHtml();
+        Mutations.removed(parent);
     }
 
     protected void removeChild(Node out) {
@@ -596,6 +611,8 @@ public abstract class Node implements Cloneable {
 
         el.invalidateChildren();
         out.parentNode = null;
+        invalidateHtml();
+        Mutations.removed(el);
     }
 
     protected void addChildren(Node... children) {
@@ -611,6 +628,7 @@ public abstract class Node implements Cloneable {
             nodes.add(child);
             child.setSiblingIndex(nodes.size()-1);
         }
+        invalidateHtml();
     }
 
     protected void addChildren(int index, Node... children) {
@@ -644,6 +662,7 @@ public abstract class Node implements Cloneable {
                     children[i].setParentNodeUnchecked(parent);
                 }
                 parent.invalidateChildren();
+                invalidateHtml();
                 return;
             }
         }
@@ -653,12 +672,21 @@ public abstract class Node implements Cloneable {
         }
         nodes.addAll(index, Arrays.asList(children));
         parent.invalidateChildren();
+        invalidateHtml();
     }
     
     protected void reparentChild(Node child) {
         child.setParentNode(this);
     }
 
+    /** Clears the cached HTML of this node and of its ancestors, as a change here alters theirs. */
+    final void invalidateHtml() {
+        if (!HtmlCache.isActive()) return;
+        for (Node node = this; node != null; node = node.parentNode) {
+            if (node instanceof Element) HtmlCache.clear((Element) node);
+        }
+    }
+
     /**
      Retrieves this node's sibling nodes. Similar to {@link #childNodes() node.parent.childNodes()}, but does not
      include this node (a node is not a sibling of itself).
@@ -896,6 +924,47 @@ public abstract class Node implements Cloneable {
         return appendable;
     }
 
+    /**
+     Write the outer HTML of this node to the supplied {@link OutputStream}, encoded in the owner document's {@link
+     Document.OutputSettings#charset() output charset}. The HTML is encoded and written in bounded chunks as it is
+     generated, so a large document is not first built as a String. The stream is flushed, but not closed.
+
+     @param out the {@link OutputStream} that will receive the encoded HTML.
+     @throws IOException if the stream throws an IOException.
+     @see #outerHtml(Appendable)
+     @since 1.23.2
+     */
+    public void writeHtml(OutputStream out) throws IOException {
+        Validate.notNull(out);
+        writeHtml(QuietAppendable.wrap(out, NodeUtils.outputSettings(this).charset()));
+    }
+
+    /**
+     Write the outer HTML of this node to the supplied blocking {@link WritableByteChannel}, encoded in the owner
+     document's {@link Document.OutputSettings#charset() output charset}. The HTML is encoded and written in bounded
+     chunks as it is generated; a write that blocks holds back serialization until the channel accepts more. The
+     channel is not closed.
+
+     @param channel the {@link WritableByteChannel} that will receive the encoded HTML.
+     @throws IOException if the channel throws an IOException.
+     @see #writeHtml(OutputStream)
+     @since 1.23.2
+     */
+    public void writeHtml(WritableByteChannel channel) throws IOException {
+        Validate.notNull(channel);
+        writeHtml(QuietAppendable.wrap(channel, NodeUtils.outputSettings(this).charset()));
+    }
+
+    private void writeHtml(QuietAppendable.EncodingAppendable accum) throws IOException {
+        try {
+            outerHtml((QuietAppendable) accum);
+            accum.finish();
+        } catch (SerializationException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
     /** Append the outer HTML of this node to the internal output. */
     protected void outerHtml(QuietAppendable accum) {
         Printer printer = Printer.printerFor(this, accum);
@@ -946,6 +1015,24 @@ public abstract class Node implements Cloneable {
         return Range.ofStart(this);
     }
 
+    /**
+     Get the original source markup of this node, exactly as it appeared in the parsed input. Unlike {@link #outerHtml()},
+     this is not re-serialized, so it retains the original formatting, entity encoding, and attribute quoting. For an
+     Element, the source spans from the start of its start tag to the end of its end tag (or to where it was implicitly
+     closed).
+     <p>Source retention must be enabled with {@link org.jsoup.parser.Parser#setRetainSource(int)} prior to parsing.
+     The returned sequence is a read-only view over the retained input, and does not reflect later modifications to
+     the node.</p>
+     @return a view of the node's original source, or {@code null} if the source was not retained for this node.
+     @see org.jsoup.parser.Parser#setRetainSource(int)
+     @see #sourceRange()
+     @since 1.23.2
+     */
+    public @Nullable CharSequence sourceHtml() {
+        Range.Spans rangeSpans = spans();
+        return rangeSpans != null ? rangeSpans.source() : null;
+    }
+
     /**
      Gets the range spans, if source tracking was used.
      */
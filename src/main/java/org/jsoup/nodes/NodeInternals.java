@@ -3,8 +3,11 @@ package org.jsoup.nodes;
 import org.jsoup.helper.Validate;
 import org.jsoup.internal.LineMap;
 
+import java.util.List;
+
 /**
- Internal hooks used by the parser and cleaner to attach source ranges to nodes and attributes.
+ Internal hooks used by the parser and cleaner to attach source ranges to nodes and attributes, and by Elements to
+ extract texts in bulk.
  <p>This class is public only because jsoup's internal packages need to cross package boundaries; it is not a supported
  user API.</p>
  */
@@ -57,4 +60,20 @@ public final class NodeInternals {
         if (index != Attributes.NotFound && range.isTracked())
             attributes.ensureSpans().attributeRange(index, range);
     }
+
+    /**
+     Gets the text of each of the elements, as each's {@link Element#text()}, from one pass over the outermost elements.
+     */
+    public static List<String> texts(List<Element> elements) {
+        Validate.notNull(elements);
+        return Element.texts(elements);
+    }
+
+    /**
+     Gets the text of each of the elements, as views of one shared buffer.
+     */
+    public static List<CharSequence> textSlices(List<Element> elements) {
+        Validate.notNull(elements);
+        return Element.textSlices(elements);
+    }
 }
@@ -2,6 +2,7 @@ package org.jsoup.nodes;
 
 import org.jsoup.helper.Validate;
 import org.jsoup.helper.W3CDom;
+import org.jsoup.internal.Xpath;
 import org.jsoup.parser.HtmlTreeBuilder;
 import org.jsoup.parser.Parser;
 import org.w3c.dom.NodeList;
@@ -36,16 +37,21 @@ final class NodeUtils {
     }
 
     /**
-     This impl works by compiling the input xpath expression, and then evaluating it against a W3C Document converted
-     from the original jsoup element. The original jsoup elements are then fetched from the w3c doc user data (where we
-     stashed them during conversion). This process could potentially be optimized by transpiling the compiled xpath
-     expression to a jsoup Evaluator when there's 1:1 support, thus saving the W3C document conversion stage.
+     Expressions supported by the native {@link Xpath} evaluator are run directly against the jsoup DOM. Otherwise (or
+     if an alternate XPathFactory has been configured), this impl works by compiling the input xpath expression, and
+     then evaluating it against a W3C Document converted from the original jsoup element. The original jsoup elements
+     are then fetched from the w3c doc user data (where we stashed them during conversion).
      */
     static <T extends Node> List<T> selectXpath(String xpath, Element el, Class<T> nodeType) {
         Validate.notEmpty(xpath);
         Validate.notNull(el);
         Validate.notNull(nodeType);
 
+        if (System.getProperty(W3CDom.XPathFactoryProperty) == null) {
+            List<T> nodes = Xpath.select(xpath, el, nodeType);
+            if (nodes != null) return nodes;
+        }
+
         W3CDom w3c = new W3CDom().namespaceAware(false);
         org.w3c.dom.Document wDoc = w3c.fromJsoup(el);
         org.w3c.dom.Node contextNode = w3c.contextNode(wDoc);
@@ -0,0 +1,217 @@
+package org.jsoup.nodes;
+
+import org.jsoup.SerializationException;
+import org.jsoup.internal.QuietAppendable;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ Serializes a node as {@link Node#outerHtml(QuietAppendable)} does, but prints the children of its widest heavy
+ element (the split) in contiguous groups, each into its own buffer on an executor, while the calling thread prints the rest
+ (the frame). The buffers are then joined in order.
+ <p>Each group is printed by its own {@link Printer} for the same root, resumed at the split with the depth it has in
+ the full walk. The pretty printers' only carried state is whether whitespace is preserved, which is restored at the
+ split; their other decisions look at neighbouring nodes, so the seams print exactly as in a serial walk.</p>
+ */
+final class ParallelPrinter {
+    static final int MinSplitChildren = 16; // an element with fewer (non-blank) children is searched through, not split
+    static final int MinSplitNodes = 1024; // a smaller subtree is serialized serially, as it's not worth the tasks
+    private static final int TasksPerProcessor = 4; // oversubscribe, as groups are even by count, not by size
+
+    private ParallelPrinter() {}
+
+    static void print(Node node, QuietAppendable accum, Executor executor) {
+        Element split = findSplit(node);
+        if (split == null) {
+            node.outerHtml(accum);
+            return;
+        }
+
+        // the walk that outerHtml makes: a Document prints each of its children, with the first as the root
+        boolean isDoc = node instanceof Document;
+        Node root = isDoc ? node.firstChild() : node;
+        assert root != null;
+        int splitDepth = 0;
+        for (Node n = split; n != node && !(isDoc && n.parentNode == node); n = n.parentNode)
+            splitDepth++;
+        int depth = splitDepth + 1; // of the split's children
+
+        // sibling indexes are fixed up lazily on read, so settle them before the tree is shared across threads
+        NodeTraversor.traverse((n, d) -> {
+            if (n instanceof Element && !((Element) n).hasValidChildren()) ((Element) n).reindexChildren();
+        }, node);
+
+        List<Node> children = split.ensureChildNodes();
+        int count = children.size();
+        int tasks = Math.min(count, Runtime.getRuntime().availableProcessors() * TasksPerProcessor);
+        List<FutureTask<StringBuilder>> groups = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int from = (int) ((long) count * i / tasks);
+            int to = (int) ((long) count * (i + 1) / tasks);
+            FutureTask<StringBuilder> group = new FutureTask<>(() -> printGroup(root, split, children, from, to, depth));
+            groups.add(group);
+            try {
+                executor.execute(group);
+            } catch (RejectedExecutionException e) {
+                group.run();
+            }
+        }
+
+        StringBuilder frame = new StringBuilder();
+        int mark = printFrame(node, root, split, frame);
+        try {
+            accum.append(frame.substring(0, mark));
+            for (FutureTask<StringBuilder> group : groups)
+                accum.append(result(group));
+            accum.append(frame.substring(mark));
+        } finally {
+            for (FutureTask<StringBuilder> group : groups)
+                group.cancel(true); // no-op if complete
+        }
+    }
+
+    /**
+     Finds the element to split: following the heaviest subtree down from the node, the first element that has enough
+     children that are not blank text, and no child that holds most of its subtree. So on a typical page, a wide {@code
+     head} is passed over for the {@code body}, and the work is spread over the children. Null if there is no such
+     element, or if the subtrees are too small to be worth splitting.
+     */
+    static @Nullable Element findSplit(Node node) {
+        SubtreeSizes sizes = new SubtreeSizes(node);
+        if (sizes.nodes[0] < MinSplitNodes) return null;
+        Node el = node;
+        int index = 0; // the document order index of el, among the elements
+        while (true) {
+            int children = 0;
+            Element heaviest = null;
+            int heaviestIndex = 0;
+            int i = index + 1;
+            for (Node child = el.firstChild(); child != null; child = child.nextSibling()) {
+                if (!(child instanceof TextNode && ((TextNode) child).isBlank())) children++;
+                if (child instanceof Element) {
+                    if (heaviest == null || sizes.nodes[i] > sizes.nodes[heaviestIndex]) {
+                        heaviest = (Element) child;
+                        heaviestIndex = i;
+                    }
+                    i += sizes.elements[i];
+                }
+            }
+            if (el instanceof Element && children >= MinSplitChildren &&
+                (heaviest == null || sizes.nodes[heaviestIndex] * 2 <= sizes.nodes[index]))
+                return (Element) el;
+            if (heaviest == null || sizes.nodes[heaviestIndex] < MinSplitNodes) return null;
+            el = heaviest;
+            index = heaviestIndex;
+        }
+    }
+
+    /**
+     The size of each element's subtree, indexed by the element's position in document order. Walks the elements only;
+     leaf nodes are counted from their parent's child count.
+     */
+    private static final class SubtreeSizes {
+        int[] nodes = new int[256]; // the nodes in each subtree
+        int[] elements = new int[256]; // the elements in each subtree, to step over it in the index
+        private int count;
+
+        SubtreeSizes(Node root) {
+            Node[] path = new Node[32];
+            int[] next = new int[32]; // the next child to visit, at each depth
+            int[] open = new int[32]; // the index of the element at each depth
+            int depth = 0;
+            path[0] = root;
+            open[0] = enter(root);
+            while (depth >= 0) {
+                Node node = path[depth];
+                if (next[depth] < node.childNodeSize()) {
+                    Node child = node.childNode(next[depth]++);
+                    if (!(child instanceof Element)) continue;
+                    if (++depth == path.length) {
+                        path = Arrays.copyOf(path, depth * 2);
+                        next = Arrays.copyOf(next, depth * 2);
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    path[depth] = child;
+                    next[depth] = 0;
+                    open[depth] = enter(child);
+                } else {
+                    int index = open[depth];
+                    elements[index] = count - index;
+                    if (depth > 0) nodes[open[depth - 1]] += nodes[index] - 1; // replaces the child's count of 1
+                    path[depth--] = null;
+                }
+            }
+        }
+
+        private int enter(Node node) {
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+                elements = Arrays.copyOf(elements, count * 2);
+            }
+            nodes[count] = 1 + node.childNodeSize();
+            return count++;
+        }
+    }
+
+    /** Prints a group of the split's children, as the serial walk would have reached them. */
+    private static StringBuilder printGroup(Node root, Element split, List<Node> children, int from, int to, int depth) {
+        StringBuilder sb = new StringBuilder();
+        Printer printer = Printer.printerFor(root, QuietAppendable.wrap(sb));
+        printer.resumeAt(split);
+        for (int i = from; i < to; i++)
+            printer.traverse(children.get(i), depth);
+        return sb;
+    }
+
+    /** Prints everything but the split's children, returning the position they are to be inserted at. */
+    private static int printFrame(Node node, Node root, Element split, StringBuilder frame) {
+        Printer printer = Printer.printerFor(root, QuietAppendable.wrap(frame));
+        int[] mark = {0};
+        NodeFilter filter = new NodeFilter() {
+            @Override public FilterResult head(Node n, int depth) {
+                if (n.parentNode == split) return FilterResult.SKIP_ENTIRELY;
+                printer.head(n, depth);
+                if (n == split) mark[0] = frame.length();
+                return FilterResult.CONTINUE;
+            }
+
+            @Override public FilterResult tail(Node n, int depth) {
+                printer.tail(n, depth);
+                return FilterResult.CONTINUE;
+            }
+        };
+        if (node instanceof Document) {
+            for (Node top = root; top != null; top = top.nextSibling())
+                NodeTraversor.filter(filter, top);
+        } else {
+            NodeTraversor.filter(filter, node);
+        }
+        return mark[0];
+    }
+
+    /** Gets a group's output, first running it on this thread if the executor has not started it. */
+    private static StringBuilder result(FutureTask<StringBuilder> group) {
+        group.run(); // no-op if started elsewhere; avoids waiting on a saturated executor
+        try {
+            return group.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new SerializationException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerializationException(e);
+        }
+    }
+}
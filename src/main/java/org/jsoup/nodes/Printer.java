@@ -4,6 +4,8 @@ import org.jsoup.internal.QuietAppendable;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Document.OutputSettings;
 import org.jsoup.parser.Tag;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 import org.jsoup.select.NodeVisitor;
 import org.jspecify.annotations.Nullable;
 
@@ -36,6 +38,90 @@ class Printer implements NodeVisitor {
         node.outerHtmlHead(accum, settings);
     }
 
+    /** Prepares to print the children of the given parent, as if the traversal from the root had just reached them. */
+    void resumeAt(Element parent) {}
+
+    /** Prints what precedes an element's start tag, which depends on its context (e.g. its indent). */
+    void leadIn(Element el, int depth) {}
+
+    /** Tests if whitespace is currently being preserved (e.g. within a {@code pre}). */
+    boolean preservingWhitespace() {
+        return false;
+    }
+
+    /** Prints the node and its descendants. */
+    @Override
+    public void traverse(Node node) {
+        traverse(node, 0);
+    }
+
+    /**
+     Prints the node and its descendants, with depths offset by the given amount. Elements with cached HTML are spliced
+     in, rather than walked.
+     */
+    void traverse(Node node, int offset) {
+        if (HtmlCache.isActive())
+            NodeTraversor.filter(new CacheSplicer(offset), node);
+        else if (offset == 0)
+            NodeTraversor.traverse(this, node);
+        else
+            NodeTraversor.traverse(new NodeVisitor() {
+                @Override public void head(Node n, int depth) {
+                    Printer.this.head(n, depth + offset);
+                }
+
+                @Override public void tail(Node n, int depth) {
+                    Printer.this.tail(n, depth + offset);
+                }
+            }, node);
+    }
+
+    /** Prints an element with caching enabled: from its cache if valid; otherwise printed separately and cached. */
+    private void printCached(Element el, HtmlCache cache, int depth) {
+        leadIn(el, depth);
+        boolean preserve = preservingWhitespace();
+        String html = cache.get(el, depth, preserve, settings);
+        if (html == null) {
+            StringBuilder sb = new StringBuilder();
+            Printer printer = printerFor(el, QuietAppendable.wrap(sb)); // as the root, prints no lead in
+            printer.head(el, depth);
+            for (Node child = el.firstChild(); child != null; child = child.nextSibling())
+                printer.traverse(child, depth + 1);
+            printer.tail(el, depth);
+            html = sb.toString();
+            cache.put(html, el, depth, preserve, settings);
+        }
+        accum.append(html);
+    }
+
+    /** A traversal that splices in cached element HTML, and skips those elements' children. */
+    private final class CacheSplicer implements NodeFilter {
+        private final int offset;
+
+        CacheSplicer(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof Element) {
+                HtmlCache cache = HtmlCache.of((Element) node);
+                if (cache != null) {
+                    printCached((Element) node, cache, depth + offset);
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+            }
+            Printer.this.head(node, depth + offset);
+            return FilterResult.CONTINUE;
+        }
+
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            Printer.this.tail(node, depth + offset);
+            return FilterResult.CONTINUE;
+        }
+    }
+
     void indent(int depth) {
         accum.append('\n').append(StringUtil.padding(depth * settings.indentAmount(), settings.maxPaddingWidth()));
     }
@@ -60,20 +146,36 @@ class Printer implements NodeVisitor {
 
         Pretty(Node root, QuietAppendable accum, OutputSettings settings) {
             super(root, accum, settings);
+            preserveWhitespace = preservesWhitespace(root);
+        }
 
-            // check if there is a pre on stack
-            for (Node node = root; node != null; node = node.parentNode()) {
-                if (tagIs(Tag.PreserveWhitespace, node)) {
-                    preserveWhitespace = true;
-                    break;
-                }
+        @Override
+        void resumeAt(Element parent) {
+            preserveWhitespace = preservesWhitespace(parent);
+        }
+
+        /** Checks if there is a pre on the stack. */
+        static boolean preservesWhitespace(@Nullable Node node) {
+            for (; node != null; node = node.parentNode()) {
+                if (tagIs(Tag.PreserveWhitespace, node)) return true;
             }
+            return false;
         }
 
         @Override
-        void addHead(Element el, int depth) {
+        void leadIn(Element el, int depth) {
             if (shouldIndent(el))
                 indent(depth);
+        }
+
+        @Override
+        boolean preservingWhitespace() {
+            return preserveWhitespace;
+        }
+
+        @Override
+        void addHead(Element el, int depth) {
+            leadIn(el, depth);
             super.addHead(el, depth);
             if (tagIs(Tag.PreserveWhitespace, el)) preserveWhitespace = true;
         }
@@ -1,7 +1,9 @@
 package org.jsoup.nodes;
 
 import org.jsoup.internal.LineMap;
+import org.jsoup.internal.SourceText;
 import org.jsoup.internal.StringUtil;
+import org.jspecify.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Objects;
@@ -424,6 +426,17 @@ public class Range {
             endTagEndPos = endPos;
         }
 
+        /**
+         Gets a view of the retained source text from the node's start to the end of its end tag (if any).
+         */
+        @Nullable CharSequence source() {
+            SourceText source = lineMap.source();
+            if (source == null || nodeStartPos == -1)
+                return null;
+            int endPos = endTagEndPos != -1 ? endTagEndPos : nodeEndPos;
+            return source.slice(nodeStartPos, endPos);
+        }
+
         /**
          Gets the source ranges for an attribute slot.
          */
@@ -3,6 +3,7 @@ package org.jsoup.parser;
 import org.jsoup.helper.Validate;
 import org.jsoup.internal.LineMap;
 import org.jsoup.internal.SoftPool;
+import org.jsoup.internal.SourceText;
 import org.jsoup.internal.StringUtil;
 import org.jspecify.annotations.Nullable;
 
@@ -40,6 +41,7 @@ public final class CharacterReader implements AutoCloseable {
     private static final SoftPool<char[]> BufferPool = new SoftPool<>(() -> new char[BufferSize]); // recycled char buffer
 
     @Nullable private LineMap lineMap = null; // optionally maps source offsets to line and column positions
+    @Nullable private SourceText source = null; // optionally retains the input as read
 
     public CharacterReader(Reader input, int sz) {
         this(input); // sz is no longer used
@@ -72,6 +74,7 @@ public final class CharacterReader implements AutoCloseable {
             StringPool.release(stringCache); // conversely, we don't clear the string cache, so we can reuse the contents
             stringCache = null;
             lineMap = null;
+            source = null;
         }
     }
 
@@ -117,6 +120,7 @@ public final class CharacterReader implements AutoCloseable {
         fillPoint = Math.min(bufLength, RefillPoint);
 
         scanBufferForNewlines(); // if enabled, we index newline positions for line number tracking
+        retainBuffer(); // and if enabled, keep a copy of the newly read input
     }
 
     void mark() {
@@ -227,6 +231,29 @@ public final class CharacterReader implements AutoCloseable {
         return lineNumber() + ":" + columnNumber();
     }
 
+    /**
+     Retains the input read into this reader in the supplied source text, so that the original source of a parsed range
+     can be retrieved after the parse. Should be enabled before any content is consumed.
+     */
+    void retainSource(SourceText source) {
+        this.source = source;
+        retainBuffer(); // first pass when enabled; subsequently called during bufferUp
+    }
+
+    /**
+     Appends the part of the buffer not yet retained to the source text.
+     */
+    private void retainBuffer() {
+        if (source == null)
+            return;
+
+        int from = source.length() - consumed; // buffer offset that has not yet been retained
+        if (from < 0 || source.isTruncated())
+            return;
+        if (from < bufLength)
+            source.append(charBuf, from, bufLength - from);
+    }
+
     /**
      Scans the buffer for newline positions and records line starts.
      */
@@ -676,8 +703,10 @@ public final class CharacterReader implements AutoCloseable {
      * some more duplicates.
      */
     private static String cacheString(final char[] charBuf, final String[] stringCache, final int start, final int count) {
-        if (count > MaxStringCacheLen) // don't cache strings that are too big
-            return new String(charBuf, start, count);
+        if (count > MaxStringCacheLen) { // don't cache strings that are too big, unless they are a common whitespace run
+            String whitespace = canonicalWhitespace(charBuf, start, count);
+            return whitespace != null ? whitespace : new String(charBuf, start, count);
+        }
         if (count < 1)
             return "";
 
@@ -702,6 +731,43 @@ public final class CharacterReader implements AutoCloseable {
         return cached;
     }
 
+    private static final int MaxIndent = 128; // longest canonical whitespace run
+    private static final String[][] IndentCache = new String[4][]; // [newline?][space/tab] -> run length -> string
+
+    /**
+     Gets a canonical instance of an indentation whitespace run: a run of spaces or of tabs, optionally preceded by a
+     newline. These are very common between tags, and are otherwise too long for the per-document string cache, so
+     sharing them across all documents reduces the heap size of retained documents. Returns null if the range is not
+     such a run.
+     */
+    private static @Nullable String canonicalWhitespace(final char[] charBuf, final int start, final int count) {
+        int i = start;
+        final boolean newline = charBuf[i] == '\n';
+        if (newline) i++;
+        final int end = start + count;
+        if (i == end) return null;
+        final char indent = charBuf[i];
+        if (indent != ' ' && indent != '\t') return null;
+        final int runLen = end - i;
+        if (runLen > MaxIndent) return null;
+        for (; i < end; i++) {
+            if (charBuf[i] != indent) return null;
+        }
+
+        final int table = (newline ? 2 : 0) + (indent == ' ' ? 0 : 1);
+        String[] runs = IndentCache[table];
+        if (runs == null) {
+            runs = new String[MaxIndent + 1];
+            IndentCache[table] = runs; // a race will just create an extra table
+        }
+        String cached = runs[runLen];
+        if (cached == null) {
+            cached = new String(charBuf, start, count); // Strings are immutable, so safe to publish through the race
+            runs[runLen] = cached;
+        }
+        return cached;
+    }
+
     /**
      * Check if the value of the provided range equals the string.
      */
@@ -0,0 +1,75 @@
+package org.jsoup.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ Dense integer ids for the HTML tag names that the tree builder's insertion modes test for, and sets of those ids.
+ <p>A tag token or {@link Tag} looks up its id once, by its normal name, so that the insertion modes test set membership
+ with a bit test instead of a binary search of names. Any other name (custom tags, and the names no insertion mode
+ distinguishes) has the id {@link #Other}, which no set contains; so as with the name searches, such tags take the
+ default branches. As with those searches, ids are by name only, and checks that depend on the namespace test it
+ separately.</p>
+ */
+final class HtmlTagIds {
+    /** The id of a name not in the table. */
+    static final int Other = 0;
+
+    // ids are 1 + the index in this sorted table; must stay under 128, to fit an IdSet
+    static final String[] Names = new String[]{
+        "a", "address", "applet", "article", "aside", "b", "base", "basefont", "bgsound", "big", "blockquote", "body",
+        "br", "button", "caption", "center", "code", "col", "colgroup", "command", "dd", "details", "dir", "div", "dl",
+        "dt", "em", "embed", "fieldset", "figcaption", "figure", "font", "footer", "frame", "h1", "h2", "h3", "h4", "h5",
+        "h6", "head", "header", "hgroup", "hr", "html", "i", "img", "input", "keygen", "li", "link", "listing",
+        "marquee", "menu", "meta", "nav", "nobr", "noframes", "object", "ol", "optgroup", "option", "p", "param", "pre",
+        "rb", "rp", "rt", "rtc", "ruby", "s", "script", "section", "small", "source", "span", "strike", "strong",
+        "style", "sub", "summary", "sup", "table", "tbody", "td", "template", "textarea", "tfoot", "th", "thead",
+        "title", "tr", "track", "tt", "u", "ul", "var"};
+
+    private static final Map<String, Integer> ids = new HashMap<>(Names.length * 2);
+
+    static {
+        for (int i = 0; i < Names.length; i++)
+            ids.put(Names[i], i + 1);
+    }
+
+    private HtmlTagIds() {}
+
+    /**
+     Get the id of a tag's normal (lower case) name.
+     @return the id, or {@link #Other} if the name is not in the table
+     */
+    static int idOf(String normalName) {
+        Integer id = ids.get(normalName);
+        return id != null ? id : Other;
+    }
+
+    /**
+     Create a set of the named tags.
+     @throws IllegalStateException if a name is not in the table (so would never match)
+     */
+    static IdSet set(String... normalNames) {
+        long low = 0, high = 0;
+        for (String name : normalNames) {
+            int id = idOf(name);
+            if (id == Other) throw new IllegalStateException("No tag id for " + name);
+            if (id < 64) low |= 1L << id;
+            else high |= 1L << (id - 64);
+        }
+        return new IdSet(low, high);
+    }
+
+    /** An immutable set of tag ids, as a 128 bit bitset. */
+    static final class IdSet {
+        private final long low, high;
+
+        private IdSet(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        boolean contains(int id) {
+            return id < 64 ? (low & 1L << id) != 0 : (high & 1L << (id - 64)) != 0;
+        }
+    }
+}
@@ -12,13 +12,13 @@ import org.jsoup.nodes.Element;
 import org.jsoup.nodes.FormElement;
 import org.jsoup.nodes.Node;
 import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.HtmlTagIds.IdSet;
 import org.jspecify.annotations.Nullable;
 
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.jsoup.internal.StringUtil.inSorted;
 import static org.jsoup.parser.HtmlTreeBuilderState.Constants.Headings;
 import static org.jsoup.parser.HtmlTreeBuilderState.Constants.InTableFoster;
 import static org.jsoup.parser.HtmlTreeBuilderState.ForeignContent;
@@ -45,11 +45,11 @@ public class HtmlTreeBuilder extends TreeBuilder {
     private @Nullable Element headElement; // the current head element
     private @Nullable FormElement formElement; // the current form element
     private @Nullable Element contextElement; // fragment parse root; shallow copy of context, may be null during fragment parsing
-    ArrayList<Element> formattingElements; // active (open) formatting elements
-    private ArrayList<HtmlTreeBuilderState> tmplInsertMode; // stack of Template Insertion modes
+    WorkList<Element> formattingElements; // active (open) formatting elements
+    private WorkList<HtmlTreeBuilderState> tmplInsertMode; // stack of Template Insertion modes
     private @Nullable NoscriptState noscriptState; // active noscript island state
-    private List<Token.Character> pendingTableCharacters; // chars in table to be shifted out
-    private Token.EndTag emptyEnd; // reused empty end tag
+    private WorkList<Token.Character> pendingTableCharacters; // chars in table to be shifted out
+    private final Token.EndTag emptyEnd = new Token.EndTag(this); // reused empty end tag
 
     private boolean framesetOk; // if ok to go into frameset
     private boolean fosterInserts; // if next inserts should be fostered
@@ -68,18 +68,18 @@ public class HtmlTreeBuilder extends TreeBuilder {
     protected void initialiseParse(Reader input, String baseUri, Parser parser) {
         super.initialiseParse(input, baseUri, parser);
 
-        // this is a bit mucky. todo - probably just create new parser objects to ensure all reset.
+        // reset all state; working lists are retained between parses (unless an outlier grew them large)
         state = HtmlTreeBuilderState.Initial;
         originalState = null;
         baseUriSetFromDoc = false;
         headElement = null;
         formElement = null;
         contextElement = null;
-        formattingElements = new ArrayList<>();
-        tmplInsertMode = new ArrayList<>();
+        formattingElements = resetList(formattingElements);
+        tmplInsertMode = resetList(tmplInsertMode);
         noscriptState = null;
-        pendingTableCharacters = new ArrayList<>();
-        emptyEnd = new Token.EndTag(this);
+        pendingTableCharacters = resetList(pendingTableCharacters);
+        emptyEnd.reset();
         framesetOk = true;
         fosterInserts = false;
         fragmentParsing = false;
@@ -394,8 +394,7 @@ public class HtmlTreeBuilder extends TreeBuilder {
 
         // handle self-closing tags. when the spec expects an empty (void) tag, will directly hit insertEmpty, so won't generate this fake end tag.
         if (startTag.isSelfClosing()) {
-            Tag tag = el.tag();
-            tag.setSeenSelfClose(); // can infer output if in xml syntax
+            Tag tag = seenSelfClose(el); // can infer output if in xml syntax
             if (tag.isEmpty()) {
                 // treated as empty below; nothing further
             } else if (tag.isKnownTag() && tag.isSelfClosing()) {
@@ -423,7 +422,7 @@ public class HtmlTreeBuilder extends TreeBuilder {
         doInsertElement(el);
 
         if (startTag.isSelfClosing()) { // foreign els are OK to self-close
-            el.tag().setSeenSelfClose(); // remember this is self-closing for output
+            seenSelfClose(el); // remember this is self-closing for output
             pop();
         }
 
@@ -466,7 +465,7 @@ public class HtmlTreeBuilder extends TreeBuilder {
             error("Invalid xmlns attribute [%s] on tag [%s]", el.attr("xmlns"), el.tagName());
 
         Element target = currentElOrDoc();
-        if (isFosterInserts() && StringUtil.inSorted(target.normalName(), InTableFoster))
+        if (isFosterInserts() && InTableFoster.contains(target.tag().tagId()))
             insertInFosterParent(el);
         else
             target.appendChild(el);
@@ -598,10 +597,10 @@ public class HtmlTreeBuilder extends TreeBuilder {
     }
 
     /** Pops the stack until one of the given HTML elements is removed. */
-    void popStackToClose(String... elNames) { // elnames is sorted, comes from Constants
+    void popStackToClose(IdSet elNames) {
         for (int pos = stack.size() -1; pos >= 0; pos--) {
             Element el = pop();
-            if (inSorted(el.normalName(), elNames) && NamespaceHtml.equals(el.tag().namespace())) {
+            if (elNames.contains(el.tag().tagId()) && NamespaceHtml.equals(el.tag().namespace())) {
                 break;
             }
         }
@@ -773,7 +772,7 @@ public class HtmlTreeBuilder extends TreeBuilder {
         for (int pos = stack.size() - 1; pos >= 0; pos--) {
             Element el = stack.get(pos);
             Tag tag = el.tag();
-            if (NamespaceHtml.equals(tag.namespace()) && inSorted(el.normalName(), Headings))
+            if (NamespaceHtml.equals(tag.namespace()) && Headings.contains(tag.tagId()))
                 return true;
             if (tag.hasParserOption(HtmlTagOptions.Scope))
                 return false;
@@ -811,10 +810,9 @@ public class HtmlTreeBuilder extends TreeBuilder {
     }
 
     /** Tests if there is some element on the stack that is not in the provided set. */
-    boolean onStackNot(String[] allowedTags) {
+    boolean onStackNot(IdSet allowedTags) {
         for (int pos = stack.size() - 1; pos >= 0; pos--) {
-            final String elName = stack.get(pos).normalName();
-            if (!inSorted(elName, allowedTags))
+            if (!allowedTags.contains(stack.get(pos).tag().tagId()))
                 return true;
         }
         return false;
@@ -10,11 +10,12 @@ import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
 import org.jsoup.nodes.NodeInternals;
 import org.jsoup.nodes.Range;
+import org.jsoup.parser.HtmlTagIds.IdSet;
 import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 
-import static org.jsoup.internal.StringUtil.inSorted;
+import static org.jsoup.parser.HtmlTagIds.set;
 import static org.jsoup.parser.HtmlTreeBuilder.isSpecial;
 import static org.jsoup.parser.HtmlTreeBuilderState.Constants.*;
 
@@ -61,7 +62,7 @@ enum HtmlTreeBuilderState {
             } else if (t.isStartTag() && t.asStartTag().normalName().equals("html")) {
                 tb.insertElementFor(t.asStartTag());
                 tb.transition(BeforeHead);
-            } else if (t.isEndTag() && (inSorted(t.asEndTag().normalName(), BeforeHtmlToHead))) {
+            } else if (t.isEndTag() && (BeforeHtmlToHead.contains(t.asEndTag().tagId()))) {
                 return anythingElse(t, tb);
             } else if (t.isEndTag()) {
                 tb.error(this);
@@ -93,7 +94,7 @@ enum HtmlTreeBuilderState {
                 Element head = tb.insertElementFor(t.asStartTag());
                 tb.setHeadElement(head);
                 tb.transition(InHead);
-            } else if (t.isEndTag() && (inSorted(t.asEndTag().normalName(), BeforeHtmlToHead))) {
+            } else if (t.isEndTag() && (BeforeHtmlToHead.contains(t.asEndTag().tagId()))) {
                 tb.processStartTag("head");
                 return tb.process(t);
             } else if (t.isEndTag()) {
@@ -125,7 +126,7 @@ enum HtmlTreeBuilderState {
                     name = start.normalName();
                     if (name.equals("html")) {
                         return InBody.process(t, tb);
-                    } else if (inSorted(name, InHeadEmpty)) {
+                    } else if (InHeadEmpty.contains(start.tagId())) {
                         Element el = tb.insertEmptyElementFor(start);
                         // jsoup special: update base the first time it is seen
                         if (name.equals("base") && el.hasAttr("href"))
@@ -134,7 +135,7 @@ enum HtmlTreeBuilderState {
                         tb.insertEmptyElementFor(start);
                     } else if (name.equals("title")) {
                         HandleTextState(start, tb, tb.tagFor(start).textState());
-                    } else if (inSorted(name, InHeadRaw)) {
+                    } else if (InHeadRaw.contains(start.tagId())) {
                         HandleTextState(start, tb, tb.tagFor(start).textState());
                     } else if (name.equals("noscript")) {
                         tb.startNoscript(start);
@@ -160,7 +161,7 @@ enum HtmlTreeBuilderState {
                     if (name.equals("head")) {
                         tb.pop();
                         tb.transition(AfterHead);
-                    } else if (inSorted(name, Constants.InHeadEnd)) {
+                    } else if (InHeadEnd.contains(end.tagId())) {
                         return anythingElse(t, tb);
                     } else if (name.equals("template")) {
                         if (!tb.onStack(name)) {
@@ -210,7 +211,7 @@ enum HtmlTreeBuilderState {
                 } else if (name.equals("frameset")) {
                     tb.insertElementFor(startTag);
                     tb.transition(InFrameset);
-                } else if (inSorted(name, InBodyStartToHead)) {
+                } else if (InBodyStartToHead.contains(startTag.tagId())) {
                     tb.error(this);
                     Element head = tb.getHeadElement();
                     tb.push(head);
@@ -224,7 +225,7 @@ enum HtmlTreeBuilderState {
                 }
             } else if (t.isEndTag()) {
                 String name = t.asEndTag().normalName();
-                if (inSorted(name, AfterHeadBody)) {
+                if (AfterHeadBody.contains(t.asEndTag().tagId())) {
                     anythingElse(t, tb);
                 } else if (name.equals("template")) {
                     tb.process(t, InHead);
@@ -322,7 +323,7 @@ enum HtmlTreeBuilderState {
                             tb.processEndTag("li");
                             break;
                         }
-                        if (isSpecial(el) && !inSorted(el.normalName(), Constants.InBodyStartLiBreakers))
+                        if (isSpecial(el) && !InBodyStartLiBreakers.contains(el.tag().tagId()))
                             break;
                     }
                     if (tb.inButtonScope("p")) {
@@ -491,7 +492,7 @@ enum HtmlTreeBuilderState {
                     if (tb.inButtonScope("p")) {
                         tb.processEndTag("p");
                     }
-                    if (tb.hasCurrentElement() && inSorted(tb.currentElement().normalName(), Constants.Headings)) {
+                    if (tb.hasCurrentElement() && Headings.contains(tb.currentElement().tag().tagId())) {
                         tb.error(this);
                         tb.pop();
                     }
@@ -516,11 +517,11 @@ enum HtmlTreeBuilderState {
                     final int upper = bottom >= MaxStackScan ? bottom - MaxStackScan : 0;
                     for (int i = bottom; i >= upper; i--) {
                         el = stack.get(i);
-                        if (inSorted(el.normalName(), Constants.DdDt)) {
+                        if (DdDt.contains(el.tag().tagId())) {
                             tb.processEndTag(el.normalName());
                             break;
                         }
-                        if (isSpecial(el) && !inSorted(el.normalName(), Constants.InBodyStartLiBreakers))
+                        if (isSpecial(el) && !InBodyStartLiBreakers.contains(el.tag().tagId()))
                             break;
                     }
                     if (tb.inButtonScope("p")) {
@@ -592,19 +593,19 @@ enum HtmlTreeBuilderState {
                         HandleTextState(startTag, tb, textState);
                     } else if (!tag.isKnownTag()) { // no other special rules for custom tags
                         tb.insertElementFor(startTag);
-                    } else if (inSorted(name, Constants.InBodyStartPClosers)) {
+                    } else if (InBodyStartPClosers.contains(startTag.tagId())) {
                         if (tb.inButtonScope("p")) tb.processEndTag("p");
                         tb.insertElementFor(startTag);
-                    } else if (inSorted(name, Constants.InBodyStartToHead)) {
+                    } else if (InBodyStartToHead.contains(startTag.tagId())) {
                         return tb.process(t, InHead);
-                    } else if (inSorted(name, Constants.InBodyStartApplets)) {
+                    } else if (InBodyStartApplets.contains(startTag.tagId())) {
                         tb.reconstructFormattingElements();
                         tb.insertElementFor(startTag);
                         tb.insertMarkerToFormattingElements();
                         tb.framesetOk(false);
-                    } else if (inSorted(name, Constants.InBodyStartMedia)) {
+                    } else if (InBodyStartMedia.contains(startTag.tagId())) {
                         tb.insertEmptyElementFor(startTag);
-                    } else if (inSorted(name, Constants.InBodyStartDrop)) {
+                    } else if (InBodyStartDrop.contains(startTag.tagId())) {
                         tb.error(this);
                         return false;
                     } else {
@@ -730,9 +731,9 @@ enum HtmlTreeBuilderState {
                     return false;
                 default:
                     // todo - move rest to switch if desired
-                    if (inSorted(name, Constants.InBodyEndAdoptionFormatters)) {
+                    if (InBodyEndAdoptionFormatters.contains(endTag.tagId())) {
                         return inBodyEndTagAdoption(t, tb);
-                    } else if (inSorted(name, Constants.InBodyEndClosers)) {
+                    } else if (InBodyEndClosers.contains(endTag.tagId())) {
                         if (!tb.inScope(name)) {
                             // nothing to close
                             tb.error(this);
@@ -743,7 +744,7 @@ enum HtmlTreeBuilderState {
                                 tb.error(this);
                             tb.popStackToClose(name);
                         }
-                    } else if (inSorted(name, Constants.InBodyStartApplets)) {
+                    } else if (InBodyStartApplets.contains(endTag.tagId())) {
                         if (!tb.inScope("name")) {
                             if (!tb.inScope(name)) {
                                 tb.error(this);
@@ -972,7 +973,7 @@ enum HtmlTreeBuilderState {
     },
     InTable {
         @Override boolean process(Token t, HtmlTreeBuilder tb) {
-            if (t.isCharacter() && tb.hasCurrentElement() && inSorted(tb.currentElement().normalName(), InTableFoster)) {
+            if (t.isCharacter() && tb.hasCurrentElement() && InTableFoster.contains(tb.currentElement().tag().tagId())) {
                 tb.resetPendingTableCharacters();
                 tb.markInsertionMode();
                 tb.transition(InTableText);
@@ -999,11 +1000,11 @@ enum HtmlTreeBuilderState {
                     tb.clearStackToTableContext();
                     tb.processStartTag("colgroup");
                     return tb.process(t);
-                } else if (inSorted(name, InTableToBody)) {
+                } else if (InTableToBody.contains(startTag.tagId())) {
                     tb.clearStackToTableContext();
                     tb.insertElementFor(startTag);
                     tb.transition(InTableBody);
-                } else if (inSorted(name, InTableAddBody)) {
+                } else if (InTableAddBody.contains(startTag.tagId())) {
                     tb.clearStackToTableContext();
                     tb.processStartTag("tbody");
                     return tb.process(t);
@@ -1020,7 +1021,7 @@ enum HtmlTreeBuilderState {
                         }
                         return tb.process(t);
                     }
-                } else if (inSorted(name, InTableToHead)) {
+                } else if (InTableToHead.contains(startTag.tagId())) {
                     return tb.process(t, InHead);
                 } else if (name.equals("noscript")) {
                     tb.startNoscript(startTag);
@@ -1053,7 +1054,7 @@ enum HtmlTreeBuilderState {
                         tb.popStackToClose("table");
                         tb.resetInsertionMode();
                     }
-                } else if (inSorted(name, InTableEndErr)) {
+                } else if (InTableEndErr.contains(endTag.tagId())) {
                     tb.error(this);
                     return false;
                 } else if (name.equals("template")) {
@@ -1091,7 +1092,7 @@ enum HtmlTreeBuilderState {
                         if (!isWhitespace(c)) {
                             // InTable anything else section:
                             tb.error(this);
-                            if (inSorted(tb.currentElement().normalName(), InTableFoster)) {
+                            if (InTableFoster.contains(tb.currentElement().tag().tagId())) {
                                 tb.setFosterInserts(true);
                                 tb.process(c, InBody);
                                 tb.setFosterInserts(false);
@@ -1124,7 +1125,7 @@ enum HtmlTreeBuilderState {
                     tb.transition(InTable);
                 }
             } else if ((
-                    t.isStartTag() && inSorted(t.asStartTag().normalName(), InCellCol) ||
+                    t.isStartTag() && InCellCol.contains(t.asStartTag().tagId()) ||
                             t.isEndTag() && t.asEndTag().normalName().equals("table"))
                     ) {
                 // same as above but processes after transition
@@ -1138,7 +1139,7 @@ enum HtmlTreeBuilderState {
                 tb.clearFormattingElementsToLastMarker();
                 tb.transition(InTable);
                 InTable.process(t, tb); // doesn't check foreign context
-            } else if (t.isEndTag() && inSorted(t.asEndTag().normalName(), InCaptionIgnore)) {
+            } else if (t.isEndTag() && InCaptionIgnore.contains(t.asEndTag().tagId())) {
                 tb.error(this);
                 return false;
             } else {
@@ -1229,11 +1230,11 @@ enum HtmlTreeBuilderState {
                         tb.clearStackToTableBodyContext();
                         tb.insertElementFor(startTag);
                         tb.transition(InRow);
-                    } else if (inSorted(name, InCellNames)) {
+                    } else if (InCellNames.contains(startTag.tagId())) {
                         tb.error(this);
                         tb.processStartTag("tr");
                         return tb.process(startTag);
-                    } else if (inSorted(name, InTableBodyExit)) {
+                    } else if (InTableBodyExit.contains(startTag.tagId())) {
                         return exitTableBody(t, tb);
                     } else
                         return anythingElse(t, tb);
@@ -1241,7 +1242,7 @@ enum HtmlTreeBuilderState {
                 case EndTag:
                     Token.EndTag endTag = t.asEndTag();
                     name = endTag.normalName();
-                    if (inSorted(name, InTableEndIgnore)) {
+                    if (InTableEndIgnore.contains(endTag.tagId())) {
                         if (!tb.inTableScope(name)) {
                             tb.error(this);
                             return false;
@@ -1252,7 +1253,7 @@ enum HtmlTreeBuilderState {
                         }
                     } else if (name.equals("table")) {
                         return exitTableBody(t, tb);
-                    } else if (inSorted(name, InTableBodyEndIgnore)) {
+                    } else if (InTableBodyEndIgnore.contains(endTag.tagId())) {
                         tb.error(this);
                         return false;
                     } else
@@ -1285,12 +1286,12 @@ enum HtmlTreeBuilderState {
                 Token.StartTag startTag = t.asStartTag();
                 String name = startTag.normalName();
 
-                if (inSorted(name, InCellNames)) { // td, th
+                if (InCellNames.contains(startTag.tagId())) { // td, th
                     tb.clearStackToTableRowContext();
                     tb.insertElementFor(startTag);
                     tb.transition(InCell);
                     tb.insertMarkerToFormattingElements();
-                } else if (inSorted(name, InRowMissing)) { // "caption", "col", "colgroup", "tbody", "tfoot", "thead", "tr"
+                } else if (InRowMissing.contains(startTag.tagId())) { // "caption", "col", "colgroup", "tbody", "tfoot", "thead", "tr"
                     if (!tb.inTableScope("tr")) {
                         tb.error(this);
                         return false;
@@ -1323,7 +1324,7 @@ enum HtmlTreeBuilderState {
                     tb.pop(); // tr
                     tb.transition(InTableBody);
                     return tb.process(t);
-                } else if (inSorted(name, InTableToBody)) { // "tbody", "tfoot", "thead"
+                } else if (InTableToBody.contains(endTag.tagId())) { // "tbody", "tfoot", "thead"
                     if (!tb.inTableScope(name)) {
                         tb.error(this);
                         return false;
@@ -1336,7 +1337,7 @@ enum HtmlTreeBuilderState {
                     tb.pop(); // tr
                     tb.transition(InTableBody);
                     return tb.process(t);
-                } else if (inSorted(name, InRowIgnore)) {
+                } else if (InRowIgnore.contains(endTag.tagId())) {
                     tb.error(this);
                     return false;
                 } else {
@@ -1358,7 +1359,7 @@ enum HtmlTreeBuilderState {
                 Token.EndTag endTag = t.asEndTag();
                 String name = endTag.normalName();
 
-                if (inSorted(name, Constants.InCellNames)) { // td, th
+                if (InCellNames.contains(endTag.tagId())) { // td, th
                     if (!tb.inTableScope(name)) {
                         tb.error(this);
                         tb.transition(InRow); // might not be in scope if empty: <td /> and processing fake end tag
@@ -1370,10 +1371,10 @@ enum HtmlTreeBuilderState {
                     tb.popStackToClose(name);
                     tb.clearFormattingElementsToLastMarker();
                     tb.transition(InRow);
-                } else if (inSorted(name, Constants.InCellBody)) {
+                } else if (InCellBody.contains(endTag.tagId())) {
                     tb.error(this);
                     return false;
-                } else if (inSorted(name, Constants.InCellTable)) {
+                } else if (InCellTable.contains(endTag.tagId())) {
                     if (!tb.inTableScope(name)) {
                         tb.error(this);
                         return false;
@@ -1384,7 +1385,7 @@ enum HtmlTreeBuilderState {
                     return anythingElse(t, tb);
                 }
             } else if (t.isStartTag() &&
-                    inSorted(t.asStartTag().normalName(), Constants.InCellCol)) {
+                    InCellCol.contains(t.asStartTag().tagId())) {
                 if (!(tb.inTableScope("td") || tb.inTableScope("th"))) {
                     tb.error(this);
                     return false;
@@ -1440,7 +1441,7 @@ enum HtmlTreeBuilderState {
                     } else if (name.equals("select")) {
                         tb.error(this);
                         return tb.processEndTag("select");
-                    } else if (inSorted(name, InSelectEnd)) {
+                    } else if (InSelectEnd.contains(start.tagId())) {
                         tb.error(this);
                         if (!tb.inSelectScope("select"))
                             return false; // frag
@@ -1508,12 +1509,12 @@ enum HtmlTreeBuilderState {
     },
     InSelectInTable {
         @Override boolean process(Token t, HtmlTreeBuilder tb) {
-            if (t.isStartTag() && inSorted(t.asStartTag().normalName(), InSelectTableEnd)) {
+            if (t.isStartTag() && InSelectTableEnd.contains(t.asStartTag().tagId())) {
                 tb.error(this);
                 tb.popStackToClose("select");
                 tb.resetInsertionMode();
                 return tb.process(t);
-            } else if (t.isEndTag() && inSorted(t.asEndTag().normalName(), InSelectTableEnd)) {
+            } else if (t.isEndTag() && InSelectTableEnd.contains(t.asEndTag().tagId())) {
                 tb.error(this);
                 if (tb.inTableScope(t.asEndTag().normalName())) {
                     tb.popStackToClose("select");
@@ -1537,9 +1538,9 @@ enum HtmlTreeBuilderState {
                     break;
                 case StartTag:
                     name = t.asStartTag().normalName();
-                    if (inSorted(name, InTemplateToHead))
+                    if (InTemplateToHead.contains(t.asStartTag().tagId()))
                         tb.process(t, InHead);
-                    else if (inSorted(name, InTemplateToTable)) {
+                    else if (InTemplateToTable.contains(t.asStartTag().tagId())) {
                         tb.popTemplateMode();
                         tb.pushTemplateMode(InTable);
                         tb.transition(InTable);
@@ -1764,7 +1765,7 @@ enum HtmlTreeBuilderState {
                     break;
                 case StartTag:
                     Token.StartTag start = t.asStartTag();
-                    if (StringUtil.in(start.normalName, InForeignToHtml))
+                    if (InForeignToHtml.contains(start.tagId()))
                         return breakoutToHtml(t, tb);
                     if (start.normalName.equals("font") && (
                         start.hasAttributeIgnoreCase("color")
@@ -1884,48 +1885,48 @@ enum HtmlTreeBuilderState {
         tb.insertElementFor(startTag);
     }
 
-    // lists of tags to search through
+    // sets of tags to test for, by tag id
     static final class Constants {
-        static final String[] InHeadEmpty = new String[]{"base", "basefont", "bgsound", "command", "link"};
-        static final String[] InHeadRaw = new String[]{"noframes", "style"};
-        static final String[] InHeadEnd = new String[]{"body", "br", "html"};
-        static final String[] AfterHeadBody = new String[]{"body", "br", "html"};
-        static final String[] BeforeHtmlToHead = new String[]{"body", "br", "head", "html", };
-        static final String[] InBodyStartToHead = new String[]{"base", "basefont", "bgsound", "command", "link", "meta", "noframes", "script", "style", "template", "title"};
-        static final String[] InBodyStartPClosers = new String[]{"address", "article", "aside", "blockquote", "center", "details", "dir", "div", "dl",
+        static final IdSet InHeadEmpty = set("base", "basefont", "bgsound", "command", "link");
+        static final IdSet InHeadRaw = set("noframes", "style");
+        static final IdSet InHeadEnd = set("body", "br", "html");
+        static final IdSet AfterHeadBody = set("body", "br", "html");
+        static final IdSet BeforeHtmlToHead = set("body", "br", "head", "html");
+        static final IdSet InBodyStartToHead = set("base", "basefont", "bgsound", "command", "link", "meta", "noframes", "script", "style", "template", "title");
+        static final IdSet InBodyStartPClosers = set("address", "article", "aside", "blockquote", "center", "details", "dir", "div", "dl",
             "fieldset", "figcaption", "figure", "footer", "header", "hgroup", "menu", "nav", "ol",
-            "p", "section", "summary", "ul"};
-        static final String[] Headings = new String[]{"h1", "h2", "h3", "h4", "h5", "h6"};
-        static final String[] InBodyStartLiBreakers = new String[]{"address", "div", "p"};
-        static final String[] DdDt = new String[]{"dd", "dt"};
-        static final String[] InBodyStartApplets = new String[]{"applet", "marquee", "object"};
-        static final String[] InBodyStartMedia = new String[]{"param", "source", "track"};
+            "p", "section", "summary", "ul");
+        static final IdSet Headings = set("h1", "h2", "h3", "h4", "h5", "h6");
+        static final IdSet InBodyStartLiBreakers = set("address", "div", "p");
+        static final IdSet DdDt = set("dd", "dt");
+        static final IdSet InBodyStartApplets = set("applet", "marquee", "object");
+        static final IdSet InBodyStartMedia = set("param", "source", "track");
         static final String[] InBodyStartInputAttribs = new String[]{"action", "name", "prompt"};
-        static final String[] InBodyStartDrop = new String[]{"caption", "col", "colgroup", "frame", "head", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InBodyEndClosers = new String[]{"address", "article", "aside", "blockquote", "button", "center", "details", "dir", "div",
+        static final IdSet InBodyStartDrop = set("caption", "col", "colgroup", "frame", "head", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InBodyEndClosers = set("address", "article", "aside", "blockquote", "button", "center", "details", "dir", "div",
             "dl", "fieldset", "figcaption", "figure", "footer", "header", "hgroup", "listing", "menu",
-            "nav", "ol", "pre", "section", "summary", "ul"};
-        static final String[] InBodyEndOtherErrors = new String[] {"body", "dd", "dt", "html", "li", "optgroup", "option", "p", "rb", "rp", "rt", "rtc", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InBodyEndAdoptionFormatters = new String[]{"a", "b", "big", "code", "em", "font", "i", "nobr", "s", "small", "strike", "strong", "tt", "u"};
-        static final String[] InTableToBody = new String[]{"tbody", "tfoot", "thead"};
-        static final String[] InTableAddBody = new String[]{"td", "th", "tr"};
-        static final String[] InTableToHead = new String[]{"script", "style", "template"};
-        static final String[] InCellNames = new String[]{"td", "th"};
-        static final String[] InCellBody = new String[]{"body", "caption", "col", "colgroup", "html"};
-        static final String[] InCellTable = new String[]{ "table", "tbody", "tfoot", "thead", "tr"};
-        static final String[] InCellCol = new String[]{"caption", "col", "colgroup", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InTableEndErr = new String[]{"body", "caption", "col", "colgroup", "html", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InTableFoster = new String[]{"table", "tbody", "tfoot", "thead", "tr"};
-        static final String[] InTableBodyExit = new String[]{"caption", "col", "colgroup", "tbody", "tfoot", "thead"};
-        static final String[] InTableBodyEndIgnore = new String[]{"body", "caption", "col", "colgroup", "html", "td", "th", "tr"};
-        static final String[] InRowMissing = new String[]{"caption", "col", "colgroup", "tbody", "tfoot", "thead", "tr"};
-        static final String[] InRowIgnore = new String[]{"body", "caption", "col", "colgroup", "html", "td", "th"};
-        static final String[] InSelectEnd = new String[]{"input", "keygen", "textarea"};
-        static final String[] InSelectTableEnd = new String[]{"caption", "table", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InTableEndIgnore = new String[]{"tbody", "tfoot", "thead"};
-        static final String[] InCaptionIgnore = new String[]{"body", "col", "colgroup", "html", "tbody", "td", "tfoot", "th", "thead", "tr"};
-        static final String[] InTemplateToHead = new String[] {"base", "basefont", "bgsound", "link", "meta", "noframes", "script", "style", "template", "title"};
-        static final String[] InTemplateToTable = new String[] {"caption", "colgroup", "tbody", "tfoot", "thead"};
-        static final String[] InForeignToHtml = new String[] {"b", "big", "blockquote", "body", "br", "center", "code", "dd", "div", "dl", "dt", "em", "embed", "h1", "h2", "h3", "h4", "h5", "h6", "head", "hr", "i", "img", "li", "listing", "menu", "meta", "nobr", "ol", "p", "pre", "ruby", "s", "small", "span", "strike", "strong", "sub", "sup", "table", "tt", "u", "ul", "var"};
+            "nav", "ol", "pre", "section", "summary", "ul");
+        static final IdSet InBodyEndOtherErrors = set("body", "dd", "dt", "html", "li", "optgroup", "option", "p", "rb", "rp", "rt", "rtc", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InBodyEndAdoptionFormatters = set("a", "b", "big", "code", "em", "font", "i", "nobr", "s", "small", "strike", "strong", "tt", "u");
+        static final IdSet InTableToBody = set("tbody", "tfoot", "thead");
+        static final IdSet InTableAddBody = set("td", "th", "tr");
+        static final IdSet InTableToHead = set("script", "style", "template");
+        static final IdSet InCellNames = set("td", "th");
+        static final IdSet InCellBody = set("body", "caption", "col", "colgroup", "html");
+        static final IdSet InCellTable = set("table", "tbody", "tfoot", "thead", "tr");
+        static final IdSet InCellCol = set("caption", "col", "colgroup", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InTableEndErr = set("body", "caption", "col", "colgroup", "html", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InTableFoster = set("table", "tbody", "tfoot", "thead", "tr");
+        static final IdSet InTableBodyExit = set("caption", "col", "colgroup", "tbody", "tfoot", "thead");
+        static final IdSet InTableBodyEndIgnore = set("body", "caption", "col", "colgroup", "html", "td", "th", "tr");
+        static final IdSet InRowMissing = set("caption", "col", "colgroup", "tbody", "tfoot", "thead", "tr");
+        static final IdSet InRowIgnore = set("body", "caption", "col", "colgroup", "html", "td", "th");
+        static final IdSet InSelectEnd = set("input", "keygen", "textarea");
+        static final IdSet InSelectTableEnd = set("caption", "table", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InTableEndIgnore = set("tbody", "tfoot", "thead");
+        static final IdSet InCaptionIgnore = set("body", "col", "colgroup", "html", "tbody", "td", "tfoot", "th", "thead", "tr");
+        static final IdSet InTemplateToHead = set("base", "basefont", "bgsound", "link", "meta", "noframes", "script", "style", "template", "title");
+        static final IdSet InTemplateToTable = set("caption", "colgroup", "tbody", "tfoot", "thead");
+        static final IdSet InForeignToHtml = set("b", "big", "blockquote", "body", "br", "center", "code", "dd", "div", "dl", "dt", "em", "embed", "h1", "h2", "h3", "h4", "h5", "h6", "head", "hr", "i", "img", "li", "listing", "menu", "meta", "nobr", "ol", "p", "pre", "ruby", "s", "small", "span", "strike", "strong", "sub", "sup", "table", "tt", "u", "ul", "var");
     }
 }
@@ -1,35 +1,57 @@
 package org.jsoup.parser;
 
+import org.jsoup.internal.LineMap;
+import org.jspecify.annotations.Nullable;
+
 /**
  * A Parse Error records an error in the input HTML that occurs in either the tokenisation or the tree building phase.
+ * <p>The error message and cursor position are formatted on first read, so recording an error is cheap.</p>
  */
 public class ParseError {
+    private static final Object[] NoArgs = new Object[0];
+
     private final int pos;
-    private final String cursorPos;
-    private final String errorMsg;
+    private final @Nullable LineMap lineMap; // if the reader tracked newlines, used to derive the line:col cursor
+    private final String errorFormat;
+    private final Object[] args;
+    private @Nullable String cursorPos; // lazily formatted
+    private @Nullable String errorMsg; // lazily formatted
 
     ParseError(CharacterReader reader, String errorMsg) {
-        pos = reader.pos();
-        cursorPos = reader.posLineCol();
-        this.errorMsg = errorMsg;
+        this(reader, errorMsg, NoArgs);
     }
 
     ParseError(CharacterReader reader, String errorFormat, Object... args) {
         pos = reader.pos();
-        cursorPos = reader.posLineCol();
-        this.errorMsg = String.format(errorFormat, args);
+        lineMap = reader.isTrackNewlines() ? reader.lineMap() : null;
+        this.errorFormat = errorFormat;
+        this.args = snapshot(args);
     }
 
     ParseError(int pos, String errorMsg) {
-        this.pos = pos;
-        cursorPos = String.valueOf(pos);
-        this.errorMsg = errorMsg;
+        this(pos, errorMsg, NoArgs);
     }
 
     ParseError(int pos, String errorFormat, Object... args) {
         this.pos = pos;
+        lineMap = null;
         cursorPos = String.valueOf(pos);
-        this.errorMsg = String.format(errorFormat, args);
+        this.errorFormat = errorFormat;
+        this.args = snapshot(args);
+    }
+
+    /**
+     Args are formatted later, so any that may be mutated after the error is recorded (like reused tokens) are captured
+     as strings now.
+     */
+    private static Object[] snapshot(@Nullable Object[] args) {
+        if (args == null || args.length == 0) return NoArgs;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (!(arg == null || arg instanceof String || arg instanceof Number || arg instanceof Character || arg instanceof Enum))
+                args[i] = String.valueOf(arg);
+        }
+        return args;
     }
 
     /**
@@ -37,9 +59,21 @@ public class ParseError {
      * @return the error message.
      */
     public String getErrorMessage() {
+        if (errorMsg == null)
+            errorMsg = args.length == 0 ? errorFormat : String.format(errorFormat, args);
         return errorMsg;
     }
 
+    /**
+     Retrieve the unformatted error message template. Errors of the same type share the same template, so this can be
+     used to group errors.
+     @return the error message template.
+     @since 1.23.2
+     */
+    public String getErrorType() {
+        return errorFormat;
+    }
+
     /**
      * Retrieves the offset of the error.
      * @return error offset within input
@@ -53,11 +87,16 @@ public class ParseError {
      @return line:number cursor position
      */
     public String getCursorPos() {
+        if (cursorPos == null) {
+            cursorPos = lineMap != null ?
+                lineMap.lineNumber(pos) + ":" + lineMap.columnNumber(pos) :
+                "1:" + (pos + 1);
+        }
         return cursorPos;
     }
 
     @Override
     public String toString() {
-        return "<" + cursorPos + ">: " + errorMsg;
+        return "<" + getCursorPos() + ">: " + getErrorMessage();
     }
 }
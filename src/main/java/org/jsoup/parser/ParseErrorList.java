@@ -1,9 +1,18 @@
 package org.jsoup.parser;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A container for ParseErrors.
+ * <p>In the default tracking mode, the list holds the first errors found, up to its maximum size. In the
+ * {@link #aggregating(int) aggregating} mode, every error is counted by type, and the list holds a uniform random sample
+ * of the errors.</p>
  * 
  * @author Jonathan Hedley
  */
@@ -11,11 +20,20 @@ public class ParseErrorList extends ArrayList<ParseError>{
     private static final int INITIAL_CAPACITY = 16;
     private final int initialCapacity;
     private final int maxSize;
+    private final boolean aggregate;
+    private @Nullable LinkedHashMap<String, int[]> typeCounts; // error type -> count, if aggregating
+    private int errorCount; // total errors seen, if aggregating
     
     ParseErrorList(int initialCapacity, int maxSize) {
+        this(initialCapacity, maxSize, false);
+    }
+
+    private ParseErrorList(int initialCapacity, int maxSize, boolean aggregate) {
         super(initialCapacity);
         this.initialCapacity = initialCapacity;
         this.maxSize = maxSize;
+        this.aggregate = aggregate;
+        typeCounts = aggregate ? new LinkedHashMap<>() : null;
     }
 
     /**
@@ -23,17 +41,85 @@ public class ParseErrorList extends ArrayList<ParseError>{
      @param copy initial and max size details to copy
      */
     ParseErrorList(ParseErrorList copy) {
-        this(copy.initialCapacity, copy.maxSize);
+        this(copy.initialCapacity, copy.maxSize, copy.aggregate);
     }
     
     boolean canAddError() {
-        return size() < maxSize;
+        return aggregate || size() < maxSize;
     }
 
     int getMaxSize() {
         return maxSize;
     }
 
+    /**
+     Test if this list is tracking errors, either by holding them, or by counting them.
+     */
+    boolean isTracking() {
+        return aggregate || maxSize > 0;
+    }
+
+    /**
+     Test if this list is in the aggregating mode, where all errors are counted by type and only a sample is held.
+     @return true if aggregating
+     @since 1.23.2
+     */
+    public boolean isAggregating() {
+        return aggregate;
+    }
+
+    /**
+     Get the total number of errors seen in the last parse. In the aggregating mode, this may be larger than the number
+     of errors held in the list.
+     @return the total number of errors seen.
+     @since 1.23.2
+     */
+    public int getErrorCount() {
+        return aggregate ? errorCount : size();
+    }
+
+    /**
+     Get the number of errors seen in the last parse, grouped by {@link ParseError#getErrorType() error type}, in the
+     order the types were first seen. In the default tracking mode, this counts the errors held in the list.
+     @return an unmodifiable map of error type to count
+     @since 1.23.2
+     */
+    public Map<String, Integer> getErrorCounts() {
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        if (typeCounts != null) {
+            for (Map.Entry<String, int[]> entry : typeCounts.entrySet())
+                counts.put(entry.getKey(), entry.getValue()[0]);
+        } else {
+            for (ParseError error : this)
+                counts.merge(error.getErrorType(), 1, Integer::sum);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public boolean add(ParseError error) {
+        if (typeCounts == null)
+            return super.add(error);
+
+        errorCount++;
+        typeCounts.computeIfAbsent(error.getErrorType(), k -> new int[1])[0]++;
+
+        // reservoir sample, so the held errors are a uniform sample of all errors seen
+        if (size() < maxSize)
+            return super.add(error);
+        int i = ThreadLocalRandom.current().nextInt(errorCount);
+        if (i < maxSize)
+            set(i, error);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (typeCounts != null) typeCounts.clear();
+        errorCount = 0;
+    }
+
     public static ParseErrorList noTracking() {
         return new ParseErrorList(0, 0);
     }
@@ -42,9 +128,26 @@ public class ParseErrorList extends ArrayList<ParseError>{
         return new ParseErrorList(INITIAL_CAPACITY, maxSize);
     }
 
+    /**
+     Create an aggregating error list, which counts every error by type, and holds a uniform random sample of up to
+     {@code sampleSize} errors. Error messages are only formatted when read, so this is cheap enough to leave enabled
+     over large volumes of documents.
+     @param sampleSize the maximum number of example errors to hold. May be 0, to only count errors.
+     @return a new aggregating error list
+     @since 1.23.2
+     */
+    public static ParseErrorList aggregating(int sampleSize) {
+        return new ParseErrorList(Math.min(sampleSize, INITIAL_CAPACITY), Math.max(sampleSize, 0), true);
+    }
+
     @Override
     public Object clone() {
-        // all class fields are primitive, so native clone is enough.
-        return super.clone();
+        ParseErrorList clone = (ParseErrorList) super.clone();
+        if (typeCounts != null) { // deep copy the counters
+            clone.typeCounts = new LinkedHashMap<>();
+            for (Map.Entry<String, int[]> entry : typeCounts.entrySet())
+                clone.typeCounts.put(entry.getKey(), entry.getValue().clone());
+        }
+        return clone;
     }
 }
@@ -17,6 +17,11 @@ import java.util.concurrent.locks.ReentrantLock;
  <p>Note that a given Parser instance object is threadsafe, but not concurrent. (Concurrent parse calls will
  synchronize.) To reuse a Parser configuration in a multithreaded environment, use {@link #newInstance()} to make
  copies.</p>
+ <p>Once a Parser is reused, it retains its tokeniser, tokens, and working buffers between parses, and resets them at
+ the start of each parse. So when parsing many small documents, reusing one Parser per thread for sequential parses
+ avoids reallocating that parse state each time. (After a one-off parse, the tokeniser is released, as the Parser is
+ held by the parsed document.) Buffers that grew unusually large during an outlier document are released rather than
+ retained.</p>
  */
 public class Parser implements Cloneable {
     public static final String NamespaceHtml = "http://www.w3.org/1999/xhtml";
@@ -28,6 +33,8 @@ public class Parser implements Cloneable {
     private ParseErrorList errors;
     private ParseSettings settings;
     private boolean trackPosition = false;
+    private int retainSourceMax = 0;
+    private boolean detectUndeclaredCharset = false;
     private @Nullable TagSet tagSet;
     private final ReentrantLock lock = new ReentrantLock();
     private int maxDepth;
@@ -62,6 +69,8 @@ public class Parser implements Cloneable {
         errors = new ParseErrorList(copy.errors); // only copies size, not contents
         settings = new ParseSettings(copy.settings);
         trackPosition = copy.trackPosition;
+        retainSourceMax = copy.retainSourceMax;
+        detectUndeclaredCharset = copy.detectUndeclaredCharset;
         maxDepth = copy.maxDepth;
         tagSet = new TagSet(copy.tagSet());
     }
@@ -138,7 +147,7 @@ public class Parser implements Cloneable {
      * @return current track error state.
      */
     public boolean isTrackErrors() {
-        return errors.getMaxSize() > 0;
+        return errors.isTracking();
     }
 
     /**
@@ -151,6 +160,22 @@ public class Parser implements Cloneable {
         return this;
     }
 
+    /**
+     Enable aggregated parse error tracking for the next parse. Every error is counted by type, and a uniform random
+     sample of up to {@code sampleSize} errors is retained with their positions. Error messages are only formatted when
+     read. This is suitable for keeping error metrics enabled across high volumes of documents.
+     @param sampleSize the maximum number of example errors to retain. May be 0, to only count errors.
+     @return this, for chaining
+     @see ParseErrorList#aggregating(int)
+     @see ParseErrorList#getErrorCounts()
+     @since 1.23.2
+     */
+    public Parser setAggregateErrors(int sampleSize) {
+        Validate.isTrue(sampleSize >= 0, "sampleSize must be >= 0");
+        errors = ParseErrorList.aggregating(sampleSize);
+        return this;
+    }
+
     /**
      * Retrieve the parse errors, if any, from the last parse.
      * @return list of parse errors, up to the size of the maximum errors tracked.
@@ -172,11 +197,74 @@ public class Parser implements Cloneable {
     /**
      Enable or disable source position tracking. If enabled, Nodes will have a Position to track where in the original
      input source they were created from.
+     <p>Disabling tracking also disables {@link #setRetainSource(int) source retention}, which locates the source of
+     each node by its tracked range.</p>
      @param trackPosition position tracking setting; {@code true} to enable
      @return this Parser, for chaining
      */
     public Parser setTrackPosition(boolean trackPosition) {
         this.trackPosition = trackPosition;
+        if (!trackPosition) retainSourceMax = 0;
+        return this;
+    }
+
+    /**
+     Test if the original input source is retained during the parse, for retrieval with {@link Node#sourceHtml()}.
+     @return current retain source setting
+     @since 1.23.2
+     */
+    public boolean isRetainSource() {
+        return retainSourceMax > 0;
+    }
+
+    /**
+     Get the maximum number of input characters that will be retained when source retention is enabled.
+     @return the maximum retained source length, or 0 if not enabled
+     @since 1.23.2
+     */
+    public int getRetainSourceMax() {
+        return retainSourceMax;
+    }
+
+    /**
+     Enable or disable retaining the original input source, so that {@link Node#sourceHtml()} can return the exact
+     original markup of a parsed node. Enabling this also enables {@link #setTrackPosition(boolean) position tracking},
+     as source slices are located by the tracked ranges.
+     <p>To bound memory use on large inputs, at most {@code maxChars} characters of the input are retained. Nodes whose
+     source extends beyond that prefix will not have their source available.</p>
+     @param maxChars the maximum number of input characters to retain. Set to 0 to disable.
+     @return this Parser, for chaining
+     @since 1.23.2
+     */
+    public Parser setRetainSource(int maxChars) {
+        Validate.isTrue(maxChars >= 0, "maxChars must be >= 0");
+        this.retainSourceMax = maxChars;
+        if (maxChars > 0) trackPosition = true;
+        return this;
+    }
+
+    /**
+     Test if the charset of byte input that declares none is guessed from its content.
+     @return current detect undeclared charset setting
+     @see #setDetectUndeclaredCharset(boolean)
+     @since 1.23.2
+     */
+    public boolean isDetectUndeclaredCharset() {
+        return detectUndeclaredCharset;
+    }
+
+    /**
+     Enable or disable guessing the charset of byte input (e.g. from {@link org.jsoup.Jsoup#parse(java.io.InputStream,
+     String, String, Parser)} or a {@link org.jsoup.Connection}) that has no BOM, content-type charset, or meta charset.
+     <p>By default, such input is read as UTF-8. When enabled, input whose start is not valid UTF-8 is instead read in
+     the legacy charset that its bytes best fit, from windows-1252, windows-1251, KOI8-R, Shift_JIS, EUC-JP, GB18030,
+     Big5, and EUC-KR; falling back to windows-1252.</p>
+     @param detect {@code true} to guess undeclared charsets
+     @return this Parser, for chaining
+     @since 1.23.2
+     */
+    public Parser setDetectUndeclaredCharset(boolean detect) {
+        this.detectUndeclaredCharset = detect;
         return this;
     }
 
@@ -224,6 +312,9 @@ public class Parser implements Cloneable {
      parsed. For example, you can set a tag to preserve whitespace, or to be treated as a block tag.
      <p>You can start with the {@link TagSet#Html()} defaults and customize, or a new empty TagSet.</p>
 
+     <p>To share one TagSet between many parsers, without copying its tags for each, give each a {@link TagSet#freeze()
+     frozen} TagSet.</p>
+
      @param tagSet the TagSet to use. This gets copied, so that changes that the parse makes (tags found in the document will be added) do not clobber the original TagSet.
      @return this Parser
      @since 1.20.1
@@ -274,6 +365,10 @@ public class Parser implements Cloneable {
      * @return list of nodes parsed from the input HTML. Note that the context element, if supplied, is not modified.
      */
     public static List<Node> parseFragment(String fragmentHtml, Element context, String baseUri) {
+        if (SimpleFragment.isBodyContext(context)) { // fast path for plain text and simple inline markup
+            List<Node> nodes = SimpleFragment.parse(fragmentHtml);
+            if (nodes != null) return nodes;
+        }
         HtmlTreeBuilder treeBuilder = new HtmlTreeBuilder();
         return treeBuilder.parseFragment(new StringReader(fragmentHtml), context, baseUri, new Parser(treeBuilder));
     }
@@ -290,6 +385,13 @@ public class Parser implements Cloneable {
      * @return list of nodes parsed from the input HTML. Note that the context element, if supplied, is not modified.
      */
     public static List<Node> parseFragment(String fragmentHtml, Element context, String baseUri, ParseErrorList errorList) {
+        if (SimpleFragment.isBodyContext(context)) {
+            List<Node> nodes = SimpleFragment.parse(fragmentHtml);
+            if (nodes != null) { // simple fragments have no parse errors
+                errorList.clear();
+                return nodes;
+            }
+        }
         HtmlTreeBuilder treeBuilder = new HtmlTreeBuilder();
         Parser parser = new Parser(treeBuilder);
         parser.errors = errorList;
@@ -311,6 +413,10 @@ public class Parser implements Cloneable {
     /**
      * Parse a fragment of HTML into the {@code body} of a Document.
      *
+     * <p>Fragments that are plain text, or that contain only simple, correctly nested inline tags (like {@code <b>},
+     * {@code <em>}, {@code <span>}, and {@code <br>}) without attributes, are built directly without running the full
+     * tree builder. The resulting document is the same.</p>
+     *
      * @param bodyHtml fragment of HTML
      * @param baseUri base URI of document (i.e. original fetch location), for resolving relative URLs.
      *
@@ -353,9 +459,15 @@ public class Parser implements Cloneable {
     public String unescape(String string, boolean inAttribute) {
         Validate.notNull(string);
         if (string.indexOf('&') < 0) return string; // nothing to unescape
-        this.treeBuilder.initialiseParse(new StringReader(string), "", this);
-        Tokeniser tokeniser = new Tokeniser(this.treeBuilder);
-        return tokeniser.unescapeEntities(inAttribute);
+        try {
+            lock.lock();
+            this.treeBuilder.initialiseParse(new StringReader(string), "", this);
+            String unescaped = this.treeBuilder.tokeniser.unescapeEntities(inAttribute);
+            this.treeBuilder.closeParse();
+            return unescaped;
+        } finally {
+            lock.unlock();
+        }
     }
 
     // builders
@@ -0,0 +1,111 @@
+package org.jsoup.parser;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jsoup.internal.StringUtil.inSorted;
+import static org.jsoup.parser.Parser.NamespaceHtml;
+
+/**
+ A fast path for parsing small body fragments, such as user comments, that are plain text or contain only simple
+ inline tags. Such fragments are built directly into nodes, without setting up the tokeniser and tree builder.
+ <p>The pre-scan is deliberately strict: it accepts only input that the full HTML tree builder would parse into exactly
+ the same nodes in a {@code body} context. That is text without character references, nulls, or carriage returns, and
+ lowercase, attribute-less, correctly nested and closed tags from {@link #InlineTags}, plus {@code <br>}. Anything else
+ returns {@code null} so that the caller falls back to the full parse.</p>
+ */
+final class SimpleFragment {
+    /** Inline tags whose body-context tree construction is a plain insert and pop when correctly nested (sorted) */
+    static final String[] InlineTags = {"b", "code", "em", "i", "s", "small", "span", "strong", "sub", "sup", "u"};
+    private static final String VoidTag = "br";
+    private static final int MaxDepth = 32; // deeper than this isn't a simple fragment
+
+    private SimpleFragment() {}
+
+    /**
+     Tests if the context element is the HTML {@code body}, which is the context the fast path is valid for.
+     */
+    static boolean isBodyContext(@Nullable Element context) {
+        return context != null && context.nameIs("body") && NamespaceHtml.equals(context.tag().namespace());
+    }
+
+    /**
+     Parses the fragment into nodes if it is simple; otherwise returns null.
+     @param html the fragment HTML
+     @return the parsed (parentless) nodes, or null if the input needs the full parser.
+     */
+    static @Nullable List<Node> parse(String html) {
+        final int len = html.length();
+        final ArrayList<Node> nodes = new ArrayList<>(4);
+        final ArrayList<Element> stack = new ArrayList<>(4);
+        TagSet tagSet = null; // created on first tag
+
+        int textStart = 0;
+        int pos = 0;
+        while (pos < len) {
+            char c = html.charAt(pos);
+            if (c == '&' || c == '\0' || c == '\r')
+                return null; // references and input stream normalization need the tokeniser
+            if (c != '<') {
+                pos++;
+                continue;
+            }
+
+            // flush text up to the tag
+            if (pos > textStart)
+                append(new TextNode(html.substring(textStart, pos)), nodes, stack);
+
+            boolean isEnd = pos + 1 < len && html.charAt(pos + 1) == '/';
+            int nameStart = isEnd ? pos + 2 : pos + 1;
+            int nameEnd = nameStart;
+            while (nameEnd < len && isLowerAscii(html.charAt(nameEnd)))
+                nameEnd++;
+            if (nameEnd == nameStart || nameEnd >= len || html.charAt(nameEnd) != '>')
+                return null; // not a name, or has attributes, whitespace, self-closing etc
+
+            String name = html.substring(nameStart, nameEnd);
+            if (isEnd) {
+                int top = stack.size() - 1;
+                if (top < 0 || !stack.get(top).normalName().equals(name))
+                    return null; // misnested or stray end tag
+                stack.remove(top);
+            } else {
+                boolean isVoid = name.equals(VoidTag);
+                if (!isVoid && !inSorted(name, InlineTags))
+                    return null;
+                if (tagSet == null) tagSet = TagSet.Html();
+                Element el = new Element(tagSet.valueOf(name, NamespaceHtml, ParseSettings.htmlDefault), null, null);
+                append(el, nodes, stack);
+                if (!isVoid) {
+                    if (stack.size() >= MaxDepth)
+                        return null;
+                    stack.add(el);
+                }
+            }
+            pos = nameEnd + 1;
+            textStart = pos;
+        }
+
+        if (!stack.isEmpty())
+            return null; // unclosed; the tree builder would close them, but keep it simple
+        if (len > textStart)
+            append(new TextNode(html.substring(textStart)), nodes, stack);
+        return nodes;
+    }
+
+    private static void append(Node node, List<Node> nodes, List<Element> stack) {
+        if (stack.isEmpty())
+            nodes.add(node);
+        else
+            stack.get(stack.size() - 1).appendChild(node);
+    }
+
+    private static boolean isLowerAscii(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+}
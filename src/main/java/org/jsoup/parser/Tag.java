@@ -44,6 +44,8 @@ public class Tag implements Cloneable {
     String normalName; // always the lower case version of this tag, regardless of case preservation mode
     int options = 0;
     private int parserOptions = 0; // internal tree-builder options; see HtmlTagOptions
+    private int tagId = HtmlTagIds.Other; // internal tree-builder id of the normal name; see HtmlTagIds
+    boolean frozen = false; // if in a frozen TagSet, so shared across parses and threads; see TagSet#freeze()
 
     /**
      Create a new Tag, with the given name and namespace.
@@ -97,10 +99,12 @@ public class Tag implements Cloneable {
      Change the tag's name. As Tags are reused throughout a Document, this will change the name for all uses of this tag.
      @param tagName the new name of the tag. Case-sensitive.
      @return this tag
-     @throws IllegalArgumentException if this is a Data or RcData tag and the name cannot form a recognizable end tag
+     @throws IllegalArgumentException if this is a Data or RcData tag and the name cannot form a recognizable end tag, or if
+     this tag is in a frozen TagSet
      @since 1.20.1
      */
     public Tag name(String tagName) {
+        validateNotFrozen();
         if (is(RcData) || is(Data)) validateTextTagName(tagName);
         this.tagName = tagName;
         this.normalName = ParseSettings.normalName(tagName);
@@ -152,9 +156,11 @@ public class Tag implements Cloneable {
      Set the tag's namespace. As Tags are reused throughout a Document, this will change the namespace for all uses of this tag.
      @param namespace the new namespace of the tag.
      @return this tag
+     @throws IllegalArgumentException if this tag is in a frozen TagSet
      @since 1.20.1
      */
     public Tag namespace(String namespace) {
+        validateNotFrozen();
         this.namespace = namespace;
         setParserOptions();
         return this;
@@ -165,10 +171,12 @@ public class Tag implements Cloneable {
      <p>Once a tag has a setting applied, it will be considered a known tag.</p>
      @param option the option to set
      @return this tag
-     @throws IllegalArgumentException if setting Data or RcData on a tag whose name cannot form a recognizable end tag
+     @throws IllegalArgumentException if setting Data or RcData on a tag whose name cannot form a recognizable end tag, or
+     if this tag is in a frozen TagSet
      @since 1.20.1
      */
     public Tag set(int option) {
+        validateNotFrozen();
         if ((option & (RcData | Data)) != 0) validateTextTagName(tagName);
         options |= option;
         options |= Tag.Known; // considered known if touched
@@ -200,20 +208,27 @@ public class Tag implements Cloneable {
      Clear (unset) an option from this tag.
      @param option the option to clear
      @return this tag
+     @throws IllegalArgumentException if this tag is in a frozen TagSet
      @since 1.20.1
      */
     public Tag clear(int option) {
+        validateNotFrozen();
         options &= ~option;
         // considered known if touched, unless explicitly clearing known
         if (option != Tag.Known) options |= Tag.Known;
         return this;
     }
 
+    private void validateNotFrozen() {
+        Validate.isFalse(frozen, "Tags in a frozen TagSet cannot be modified; customize the TagSet before freezing it");
+    }
+
     /**
      Set the cached parser options from the current name and namespace.
      */
     void setParserOptions() {
         parserOptions = HtmlTagOptions.optionsFor(normalName, namespace);
+        tagId = HtmlTagIds.idOf(normalName);
     }
 
     /**
@@ -223,6 +238,13 @@ public class Tag implements Cloneable {
         return (parserOptions & option) != 0;
     }
 
+    /**
+     Get the tree-builder id of this tag's normal name.
+     */
+    int tagId() {
+        return tagId;
+    }
+
     /**
      * Get a Tag by name. If not previously defined (unknown), returns a new generic tag, that can do anything.
      * <p>
@@ -390,7 +412,9 @@ public class Tag implements Cloneable {
     @Override
     protected Tag clone() {
         try {
-            return (Tag) super.clone();
+            Tag clone = (Tag) super.clone();
+            clone.frozen = false; // a copy of a shared tag is the copier's to modify
+            return clone;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
@@ -24,9 +24,11 @@ import static org.jsoup.parser.Parser.NamespaceSvg;
 public class TagSet {
     static final TagSet HtmlTagSet = initHtmlDefault();
 
-    private final Map<String, Map<String, Tag>> tags = new HashMap<>(); // namespace -> tag name -> Tag
+    private final Map<String, Map<String, Tag>> tags; // namespace -> tag name -> Tag
     private final @Nullable TagSet source; // internal fallback for lazy tag copies
     private @Nullable ArrayList<Consumer<Tag>> customizers; // optional onNewTag tag customizer
+    private final boolean frozen; // immutable, and shared; see freeze()
+    private boolean shareSource; // if the source is frozen, and there are no later customizers, read its tags without copies
 
     /**
      Returns a mutable copy of the default HTML tag set.
@@ -36,21 +38,36 @@ public class TagSet {
     }
 
     private TagSet(@Nullable TagSet source, @Nullable ArrayList<Consumer<Tag>> customizers) {
+        this.tags = new HashMap<>();
         this.source = source;
         this.customizers = customizers;
+        this.frozen = false;
+        this.shareSource = source != null && source.frozen;
+    }
+
+    /** Creates a frozen TagSet, of the given (frozen) tags. */
+    private TagSet(Map<String, Map<String, Tag>> frozenTags, @Nullable ArrayList<Consumer<Tag>> customizers) {
+        this.tags = frozenTags;
+        this.source = null;
+        this.customizers = customizers;
+        this.frozen = true;
     }
 
     public TagSet() {
-        this(null, null);
+        this((TagSet) null, null);
     }
 
     /**
      Creates a new TagSet by copying the current tags and customizers from the provided source TagSet. Changes made to
      one TagSet will not affect the other.
+     <p>If the template is {@link #freeze() frozen}, its tags are not copied: the new TagSet reads them from the template
+     as is, and holds only the tags added to it.</p>
      @param template the TagSet to copy
      */
     public TagSet(TagSet template) {
-        this(template.source, copyCustomizers(template));
+        this(template.frozen ? template : template.source, copyCustomizers(template));
+        if (template.frozen) return;
+        shareSource = template.shareSource;
         // copy tags eagerly; any lazy pull-through should come only from the root source (which would be the HTML defaults), not the template itself.
         // that way the template tagset is not mutated when we do read through
         if (template.tags.isEmpty()) return;
@@ -85,17 +102,25 @@ public class TagSet {
 
     /** Adds the tag, but does not set defined. Used in .valueOf */
     private void doAdd(Tag tag) {
+        validateNotFrozen();
         if (customizers != null) {
             for (Consumer<Tag> customizer : customizers) {
                 customizer.accept(tag);
             }
         }
         tag.setParserOptions();
+        put(tag);
+    }
 
+    private void put(Tag tag) {
         tags.computeIfAbsent(tag.namespace, ns -> new HashMap<>())
             .put(tag.tagName, tag);
     }
 
+    private void validateNotFrozen() {
+        Validate.isFalse(frozen, "A frozen TagSet cannot be modified; modify a copy");
+    }
+
     /**
      Get an existing Tag from this TagSet by tagName and namespace. The tag name is not normalized, to support mixed
      instances.
@@ -121,6 +146,7 @@ public class TagSet {
         if (source != null) {
             Tag tag = source.get(tagName, namespace);
             if (tag != null) {
+                if (shareSource) return tag; // frozen, so safe to use without a copy
                 Tag copy = tag.clone();
                 doAdd(copy);
                 return copy;
@@ -162,6 +188,20 @@ public class TagSet {
         return tag;
     }
 
+    /**
+     Marks the tag as seen self-closing in this parse. As that would change it for other parses, a frozen tag is first
+     copied into this TagSet.
+     @return the marked tag, which is a copy if the given tag was frozen
+     */
+    Tag seenSelfClose(Tag tag) {
+        if (tag.frozen) {
+            tag = tag.clone(); // already customized
+            put(tag);
+        }
+        tag.setSeenSelfClose();
+        return tag;
+    }
+
     /**
      Get a Tag by name from this TagSet. If not previously defined (unknown), returns a new tag.
      <p>New tags will be added to this TagSet.</p>
@@ -210,12 +250,58 @@ public class TagSet {
      */
     public TagSet onNewTag(Consumer<Tag> customizer) {
         Validate.notNull(customizer);
+        validateNotFrozen();
+        shareSource = false; // copy the source's tags when read, so that they are customized
         if (customizers == null)
             customizers = new ArrayList<>();
         customizers.add(customizer);
         return this;
     }
 
+    /**
+     Get a frozen copy of this TagSet: an immutable snapshot of its tags, that parsers can share, including across
+     threads.
+     <p>A parser given a frozen TagSet via {@link Parser#tagSet(TagSet)} uses its tags as is, rather than copying each
+     tag that the document uses; only tags new to the set are added, to the parser's own TagSet. That saves the copying
+     when parsing many small documents. Freeze the TagSet once, and reuse it:</p>
+     <pre><code>
+     static final TagSet Tags = TagSet.Html().freeze();
+
+     Document doc = Jsoup.parse(html, Parser.htmlParser().tagSet(Tags));
+     </code></pre>
+     <p>The tags of a frozen TagSet cannot be modified (and so neither can those tags in a parsed document), so customize
+     them before freezing. Its {@link #onNewTag(Consumer) customizers} are kept, and run on the new tags.</p>
+
+     @return a frozen copy of this TagSet, or this TagSet if it is already frozen
+     @since 1.23.2
+     */
+    public TagSet freeze() {
+        if (frozen) return this;
+        Map<String, Map<String, Tag>> snapshot = new HashMap<>();
+        if (source != null) { // read through all of the source's tags, so they are customized
+            for (Map.Entry<String, Map<String, Tag>> namespaceEntry : source.tags.entrySet()) {
+                for (String tagName : namespaceEntry.getValue().keySet()) {
+                    Tag tag = get(tagName, namespaceEntry.getKey());
+                    if (tag != null) freezeInto(snapshot, namespaceEntry.getKey(), tagName, tag);
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, Tag>> namespaceEntry : tags.entrySet()) {
+            for (Map.Entry<String, Tag> tagEntry : namespaceEntry.getValue().entrySet()) {
+                freezeInto(snapshot, namespaceEntry.getKey(), tagEntry.getKey(), tagEntry.getValue());
+            }
+        }
+        return new TagSet(snapshot, copyCustomizers(this));
+    }
+
+    private static void freezeInto(Map<String, Map<String, Tag>> snapshot, String namespace, String tagName, Tag tag) {
+        if (!tag.frozen) {
+            tag = tag.clone(); // leaves the original modifiable
+            tag.frozen = true;
+        }
+        snapshot.computeIfAbsent(namespace, ns -> new HashMap<>()).put(tagName, tag);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof TagSet)) return false;
@@ -116,6 +116,8 @@ abstract class Token {
     static abstract class Tag extends Token {
         protected TokenData tagName = new TokenData();
         @Nullable protected String normalName; // lc version of tag name, for case-insensitive tree build
+        private int tagId; // the HtmlTagIds id of the normal name; valid if idName == normalName
+        private @Nullable String idName;
         boolean selfClosing = false;
         @Nullable Attributes attributes; // start tags get attributes on construction. End tags get attributes on first new attribute (but only for parser convenience, not used).
 
@@ -294,6 +296,16 @@ abstract class Token {
             return normalName;
         }
 
+        /** The tree-builder id of the normal name, looked up once per name. */
+        final int tagId() {
+            String name = normalName();
+            if (idName != name) { // identity; the name is replaced on change, not mutated
+                tagId = HtmlTagIds.idOf(name);
+                idName = name;
+            }
+            return tagId;
+        }
+
         final String toStringName() {
             String name = tagName.value();
             return (name.isEmpty()) ? "[unset]" : name;
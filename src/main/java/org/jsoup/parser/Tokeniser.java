@@ -31,8 +31,8 @@ final class Tokeniser {
         Arrays.sort(notCharRefCharsSorted);
     }
 
-    private final CharacterReader reader; // html input
-    private final ParseErrorList errors; // errors found while tokenising
+    private CharacterReader reader; // html input
+    private ParseErrorList errors; // errors found while tokenising
     private final TreeBuilder treeBuilder; // current tree state for contextual tokenisation
 
     private TokeniserState state = TokeniserState.Data; // current tokenisation state
@@ -62,6 +62,28 @@ final class Tokeniser {
         this.errors = treeBuilder.parser.getErrors();
     }
 
+    /**
+     Resets this Tokeniser for a new parse by its TreeBuilder, retaining the tokens and buffers. Picks up the tree
+     builder's current reader and error list.
+     */
+    void reset() {
+        reader = treeBuilder.reader;
+        errors = treeBuilder.parser.getErrors();
+        state = TokeniserState.Data;
+        emitPending = null;
+        isEmitPending = false;
+        dataBuffer.reset();
+        startPending.reset();
+        endPending.reset();
+        tagPending = startPending;
+        charPending.reset();
+        doctypePending.reset();
+        commentPending.reset();
+        xmlDeclPending.reset();
+        lastStartTag = null;
+        markupStartPos = charStartPos = 0;
+    }
+
     Token read() {
         while (!isEmitPending) {
             state.read(this, reader);
@@ -294,7 +316,7 @@ final class Tokeniser {
 
     private void characterReferenceError(String message, Object... args) {
         if (errors.canAddError())
-            errors.add(new ParseError(reader, String.format("Invalid character reference: " + message, args)));
+            errors.add(new ParseError(reader, "Invalid character reference: " + message, args));
     }
 
     void error(String errorMsg) {
@@ -2,6 +2,7 @@ package org.jsoup.parser;
 
 import org.jsoup.helper.Validate;
 import org.jsoup.internal.LineMap;
+import org.jsoup.internal.SourceText;
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -21,11 +22,14 @@ import static org.jsoup.parser.Parser.NamespaceHtml;
  * @author Jonathan Hedley
  */
 abstract class TreeBuilder {
+    /** Working lists that grew larger than this during a parse are released rather than retained for the next. */
+    static final int MaxRetainedListSize = 256;
+
     protected Parser parser;
     CharacterReader reader;
     Tokeniser tokeniser;
     Document doc; // current doc we are building into
-    final ArrayList<Element> stack = new ArrayList<>(); // open elements only; the document is never on this stack
+    final WorkList<Element> stack = new WorkList<>(); // open elements only; the document is never on this stack
     String baseUri; // current base uri, for creating new elements
     Token currentToken; // currentToken is used for error and source position tracking. Null at start of fragment parse
     ParseSettings settings;
@@ -39,6 +43,7 @@ abstract class TreeBuilder {
     boolean trackSourceRange; // optionally tracks source ranges of nodes and attributes
     @Nullable LineMap lineMap; // shared line map for retained source ranges
     private boolean parseComplete; // true only after EOF has closed the document
+    private boolean reused; // set after the first parse; the tokeniser is only retained once the Parser is reused
 
     void initialiseParse(Reader input, String baseUri, Parser parser) {
         Validate.notNullParam(input, "input");
@@ -53,19 +58,37 @@ abstract class TreeBuilder {
         trackSourceRange = parser.isTrackPosition();
         reader.trackNewlines(parser.isTrackErrors() || trackSourceRange);
         lineMap = trackSourceRange ? reader.lineMap() : null;
+        if (lineMap != null && parser.isRetainSource()) {
+            SourceText source = new SourceText(parser.getRetainSourceMax());
+            lineMap.source(source);
+            reader.retainSource(source);
+        }
         if (parser.isTrackErrors()) parser.getErrors().clear();
-        tokeniser = new Tokeniser(this);
+        // reuse the tokeniser and tokens from a previous parse, unless the source tracking mode has changed
+        if (tokeniser != null && tokeniser.startPending.trackSource == trackSourceRange)
+            tokeniser.reset();
+        else
+            tokeniser = new Tokeniser(this);
         stack.clear();
+        stack.peak = 0;
         stack.ensureCapacity(32);
         parseComplete = false;
         tagSet = parser.tagSet();
-        start = new Token.StartTag(this);
-        currentToken = start; // init current token to the virtual start token.
+        if (start != null && start.trackSource == trackSourceRange)
+            start.reset();
+        else
+            start = new Token.StartTag(this);
+        start.startPos(0);
+        currentToken = start; // init current token to the virtual start token, at the start of the input.
         this.baseUri = baseUri;
         onNodeInserted(doc);
     }
 
-    /** Closes the current input and releases parse resources without changing whether EOF was reached. */
+    /**
+     Closes the current input and releases parse resources without changing whether EOF was reached. After a one-off
+     parse, the tokeniser is released, as the Parser and TreeBuilder are retained by the document. Once the Parser has
+     been reused, the tokeniser is instead reset and retained, so that each subsequent parse can reuse it.
+     */
     void closeParse() {
         // tidy up - as the Parser and Treebuilder are retained in document for settings / fragments
         if (reader == null) return;
@@ -73,9 +96,50 @@ abstract class TreeBuilder {
         reader.close();
         reader = null;
         lineMap = null;
-        tokeniser = null;
+        if (reused) {
+            tokeniser.reset(); // releases token data, but keeps the tokens
+            start.reset();
+        } else {
+            tokeniser = null;
+            start = null;
+            reused = true;
+        }
+        end.reset();
         stack.clear();
-        stack.trimToSize();
+        if (stack.peak > MaxRetainedListSize) // keep the capacity of typical depths, but not an outlier's
+            stack.trimToSize();
+        stack.peak = 0;
+    }
+
+    /**
+     Clears a working list for reuse in the next parse, or if it grew larger than {@link #MaxRetainedListSize} during
+     the last parse, replaces it so that the outlier's capacity is not retained.
+     */
+    static <T> WorkList<T> resetList(@Nullable WorkList<T> list) {
+        if (list == null || list.peak > MaxRetainedListSize)
+            return new WorkList<>();
+        list.clear();
+        list.peak = 0;
+        return list;
+    }
+
+    /**
+     A working list that tracks its peak size, as a list is mostly drained by the end of a parse, but keeps the
+     capacity it grew to.
+     */
+    static final class WorkList<T> extends ArrayList<T> {
+        int peak; // the largest size since the last reset
+
+        @Override public boolean add(T t) {
+            super.add(t);
+            if (size() > peak) peak = size();
+            return true;
+        }
+
+        @Override public void add(int index, T t) {
+            super.add(index, t);
+            if (size() > peak) peak = size();
+        }
     }
 
     Document parse(Reader input, String baseUri, Parser parser) {
@@ -296,6 +360,16 @@ abstract class TreeBuilder {
         return tagSet.valueOf(token.name(), token.normalName, defaultNamespace(), settings.preserveTagCase());
     }
 
+    /**
+     Marks the element's tag as seen self-closing; the element gets the TagSet's copy of the tag if it was shared.
+     @return the element's tag
+     */
+    Tag seenSelfClose(Element el) {
+        Tag tag = tagSet.seenSelfClose(el.tag());
+        if (tag != el.tag()) el.tag(tag);
+        return tag;
+    }
+
     /**
      Gets the default namespace for this TreeBuilder
      * @return the default namespace
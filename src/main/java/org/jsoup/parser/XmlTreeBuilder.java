@@ -157,7 +157,7 @@ public class XmlTreeBuilder extends TreeBuilder {
         push(el);
 
         if (startTag.isSelfClosing()) {
-            tag.setSeenSelfClose();
+            seenSelfClose(el);
             pop(); // push & pop ensures onNodeInserted & onNodeClosed
         } else if (tag.isEmpty()) {
             pop(); // custom defined void tag
@@ -32,7 +32,7 @@ public class Collector {
             streamNodes(eval, root, Element.class) :
             stream(eval, root);
         Elements els = stream.collect(toCollection(Elements::new));
-        eval.reset(); // drops any held memos
+        eval.reset();
         return els;
     }
 
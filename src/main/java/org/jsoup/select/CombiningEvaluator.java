@@ -88,19 +88,29 @@ public abstract class CombiningEvaluator extends Evaluator {
 
         @Override
         public boolean matches(Element root, Element el) {
+            return matches(null, root, el);
+        }
+
+        @Override
+        public boolean matches(Element root, LeafNode leaf) {
+            return matches(null, root, leaf);
+        }
+
+        @Override
+        boolean matches(@Nullable QueryMemo memo, Element root, Element el) {
             for (int i = 0; i < num; i++) {
                 Evaluator eval = sortedEvaluators.get(i);
-                if (!eval.matches(root, el))
+                if (!eval.matches(memo, root, el))
                     return false;
             }
             return true;
         }
 
         @Override
-        public boolean matches(Element root, LeafNode leaf) {
+        boolean matches(@Nullable QueryMemo memo, Element root, LeafNode leaf) {
             for (int i = 0; i < num; i++) {
                 Evaluator eval = sortedEvaluators.get(i);
-                if (!eval.matches(root, leaf))
+                if (!eval.matches(memo, root, leaf))
                     return false;
             }
             return true;
@@ -134,19 +144,29 @@ public abstract class CombiningEvaluator extends Evaluator {
 
         @Override
         public boolean matches(Element root, Element element) {
+            return matches(null, root, element);
+        }
+
+        @Override
+        public boolean matches(Element root, LeafNode leaf) {
+            return matches(null, root, leaf);
+        }
+
+        @Override
+        boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
             for (int i = 0; i < num; i++) {
                 Evaluator eval = sortedEvaluators.get(i);
-                if (eval.matches(root, element))
+                if (eval.matches(memo, root, element))
                     return true;
             }
             return false;
         }
 
         @Override
-        public boolean matches(Element root, LeafNode leaf) {
+        boolean matches(@Nullable QueryMemo memo, Element root, LeafNode leaf) {
             for (int i = 0; i < num; i++) {
                 Evaluator eval = sortedEvaluators.get(i);
-                if (eval.matches(root, leaf))
+                if (eval.matches(memo, root, leaf))
                     return true;
             }
             return false;
@@ -1,22 +1,28 @@
 package org.jsoup.select;
 
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Fragments;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.FormElement;
 import org.jsoup.nodes.Node;
+import org.jsoup.nodes.NodeInternals;
 import org.jsoup.nodes.TextNode;
 import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
 /**
@@ -149,10 +155,7 @@ public class Elements extends Nodes<Element> {
      @return this
      */
     public Elements addClass(String className) {
-        for (Element element : this) {
-            element.addClass(className);
-        }
-        return this;
+        return editClasses(className, classes -> classes.add(className));
     }
 
     /**
@@ -161,10 +164,7 @@ public class Elements extends Nodes<Element> {
      @return this
      */
     public Elements removeClass(String className) {
-        for (Element element : this) {
-            element.removeClass(className);
-        }
-        return this;
+        return editClasses(className, classes -> classes.remove(className));
     }
 
     /**
@@ -173,8 +173,30 @@ public class Elements extends Nodes<Element> {
      @return this
      */
     public Elements toggleClass(String className) {
+        return editClasses(className, classes -> {
+            if (!classes.remove(className)) classes.add(className);
+        });
+    }
+
+    /**
+     Edit every matched element's class names. As the elements often share a {@code class} attribute, each distinct
+     value is tokenised and edited once, and the result reused for the others; elements left unchanged aren't updated.
+     */
+    private Elements editClasses(String className, Consumer<Set<String>> edit) {
+        Validate.notNull(className);
+        Map<String, String> edited = new HashMap<>(); // the class attribute before, to after
         for (Element element : this) {
-            element.toggleClass(className);
+            String before = element.attr("class");
+            String after = edited.get(before);
+            if (after == null) {
+                Set<String> classes = element.classNames();
+                edit.accept(classes);
+                after = StringUtil.join(classes, " ");
+                edited.put(before, after);
+            }
+            if (after.equals(before)) continue;
+            if (after.isEmpty()) element.removeAttr("class");
+            else element.attr("class", after);
         }
         return this;
     }
@@ -226,8 +248,7 @@ public class Elements extends Nodes<Element> {
      * @see #eachText()
      */
     public String text() {
-        return stream()
-            .map(Element::text)
+        return textSlices().stream()
             .collect(StringUtil.joining(" "));
     }
 
@@ -253,13 +274,39 @@ public class Elements extends Nodes<Element> {
      * @see #text()
      */
     public List<String> eachText() {
+        List<String> all = texts();
         ArrayList<String> texts = new ArrayList<>(size());
-        for (Element el: this) {
-            if (el.hasText())
-                texts.add(el.text());
+        for (int i = 0; i < size(); i++) {
+            if (get(i).hasText())
+                texts.add(all.get(i));
         }
         return texts;
     }
+
+    /**
+     Get the text of each of the matched elements, as each's {@link Element#text()}, including empty texts; so the
+     texts are in the same positions as their elements.
+     <p>The texts are extracted in one pass over the outermost matched elements: the text of an element within another
+     matched element (e.g. each row and each cell of a table) is taken from its ancestor's, rather than by walking it
+     again.</p>
+     @return a list of each matched element's text
+     @see #textSlices()
+     @since 1.23.2
+     */
+    public List<String> texts() {
+        return NodeInternals.texts(this);
+    }
+
+    /**
+     Get the text of each of the matched elements, as in {@link #texts()}, but as views of one shared buffer of the
+     texts, rather than as a String each. Use when just scanning or writing out the texts, e.g. of many table cells, to
+     not copy each; a view's {@link CharSequence#toString()} makes a copy.
+     @return a list of each matched element's text
+     @since 1.23.2
+     */
+    public List<CharSequence> textSlices() {
+        return NodeInternals.textSlices(this);
+    }
     
     /**
      * Get the combined inner HTML of all matched elements.
@@ -295,9 +342,11 @@ public class Elements extends Nodes<Element> {
      * @see Element#html(String)
      */
     public Elements html(String html) {
-        for (Element element : this) {
-            element.html(html);
-        }
+        Fragments.reusing(() -> {
+            for (Element element : this) {
+                element.html(html);
+            }
+        });
         return this;
     }
     
@@ -308,9 +357,11 @@ public class Elements extends Nodes<Element> {
      * @see Element#prepend(String)
      */
     public Elements prepend(String html) {
-        for (Element element : this) {
-            element.prepend(html);
-        }
+        Fragments.reusing(() -> {
+            for (Element element : this) {
+                element.prepend(html);
+            }
+        });
         return this;
     }
 
@@ -332,9 +383,11 @@ public class Elements extends Nodes<Element> {
      * @see Element#append(String)
      */
     public Elements append(String html) {
-        for (Element element : this) {
-            element.append(html);
-        }
+        Fragments.reusing(() -> {
+            for (Element element : this) {
+                element.append(html);
+            }
+        });
         return this;
     }
 
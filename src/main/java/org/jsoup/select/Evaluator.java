@@ -11,6 +11,7 @@ import org.jsoup.nodes.TextNode;
 import org.jsoup.nodes.XmlDeclaration;
 import org.jsoup.parser.ParseSettings;
 import org.jsoup.helper.Regex;
+import org.jspecify.annotations.Nullable;
 
 import java.util.List;
 import java.util.function.Predicate;
@@ -38,11 +39,13 @@ public abstract class Evaluator {
      * @since 1.17.1
      */
     public Predicate<Element> asPredicate(Element root) {
-        return element -> matches(root, element);
+        QueryMemo memo = new QueryMemo(); // scoped to this predicate
+        return element -> matches(memo.forThread(), root, element);
     }
 
     Predicate<Node> asNodePredicate(Element root) {
-        return node -> matches(root, node);
+        QueryMemo memo = new QueryMemo();
+        return node -> matches(memo.forThread(), root, node);
     }
 
     /**
@@ -68,6 +71,28 @@ public abstract class Evaluator {
         return false;
     }
 
+    /**
+     Test if the node matches, as part of a query that holds the memo. Evaluators that test other evaluators pass the
+     memo on to them; others have no use for it.
+     @param memo the query's memo, or null if not in a query (or on another thread)
+     */
+    final boolean matches(@Nullable QueryMemo memo, Element root, Node node) {
+        if (node instanceof Element) {
+            return matches(memo, root, (Element) node);
+        } else if (node instanceof LeafNode && wantsNodes()) {
+            return matches(memo, root, (LeafNode) node);
+        }
+        return false;
+    }
+
+    boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
+        return matches(root, element);
+    }
+
+    boolean matches(@Nullable QueryMemo memo, Element root, LeafNode leafNode) {
+        return matches(root, leafNode);
+    }
+
     boolean wantsNodes() {
         return false;
     }
@@ -90,7 +115,7 @@ public abstract class Evaluator {
      * Evaluator for tag name
      */
     public static final class Tag extends Evaluator {
-        private final String tagName;
+        final String tagName;
 
         public Tag(String tagName) {
             this.tagName = tagName;
@@ -158,7 +183,7 @@ public abstract class Evaluator {
      * Evaluator for element id
      */
     public static final class Id extends Evaluator {
-        private final String id;
+        final String id;
 
         public Id(String id) {
             this.id = id;
@@ -182,7 +207,7 @@ public abstract class Evaluator {
      * Evaluator for element class
      */
     public static final class Class extends Evaluator {
-        private final String className;
+        final String className;
 
         public Class(String className) {
             this.className = className;
@@ -208,7 +233,7 @@ public abstract class Evaluator {
      * Evaluator for attribute name matching
      */
     public static final class Attribute extends Evaluator {
-        private final String key;
+        final String key;
 
         public Attribute(String key) {
             this.key = key;
@@ -0,0 +1,231 @@
+package org.jsoup.select;
+
+import org.jsoup.helper.Validate;
+import org.jsoup.internal.Mutations;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ A live selection: the elements that match a query, kept up to date as the document is modified. Obtain one with
+ {@link Element#selectLive(String)}.
+ <p>Rather than walking the whole tree on each call as {@link Element#select(String)} does, a live selection listens
+ for the document's mutations, and updates its matches on the next call to {@link #elements()}. When the query depends
+ only on each element and its ancestors (its tags, ids, classes, and attributes, combined with descendant {@code E F}
+ and child {@code E > F} combinators, {@code :is()}, and {@code :not()}; e.g. {@code a[href]} or {@code div.content
+ img[src]}), just the inserted and changed subtrees are retested. Other queries (e.g. with {@code :has()},
+ {@code :contains()}, or sibling combinators) are reselected in full, but only after a mutation.</p>
+ <p>Mutations made through the node methods are tracked, such as {@link Element#appendChild(Node)},
+ {@link Node#remove()}, {@link Node#attr(String, String)}, {@link Node#replaceWith(Node)}, {@link Node#wrap(String)},
+ and {@link Node#unwrap()}. Changes made directly to an {@link org.jsoup.nodes.Attributes} object are not; call
+ {@link #refresh()} after such changes.</p>
+ <p>The selection is held weakly by the document, so needn't be closed; but {@link #close()} stops its tracking at
+ once. Like the document, a live selection is not thread-safe.</p>
+
+ @since 1.23.2
+ */
+public final class LiveElements implements Mutations.Listener, AutoCloseable {
+    private final Evaluator evaluator;
+    private final Element root;
+    private final Document doc;
+    private final boolean local; // if matches depend only on each element and its ancestors
+    private final ArrayList<Element> matches = new ArrayList<>(); // in document order
+    private final Set<Node> dirty = Collections.newSetFromMap(new IdentityHashMap<>()); // inserted or changed, to retest
+    private boolean removed; // if any nodes were removed, so matches may be detached
+    private boolean stale = true; // if the matches must be reselected in full
+    private boolean closed;
+
+    LiveElements(Evaluator evaluator, Element root) {
+        Validate.notNull(evaluator);
+        Validate.notNull(root);
+        Document doc = root.ownerDocument();
+        Validate.notNull(doc, "A live selection's root must be in a Document");
+        this.evaluator = evaluator;
+        this.root = root;
+        this.doc = doc;
+        this.local = isLocal(evaluator);
+        Mutations.listen(doc, this);
+    }
+
+    /**
+     Get the elements that currently match the query, in document order.
+     @return a new list of the matching elements; changes to it do not affect the selection
+     @throws IllegalArgumentException if this selection has been closed
+     */
+    public Elements elements() {
+        update();
+        return new Elements(matches);
+    }
+
+    /**
+     Get the count of elements that currently match the query.
+     @return the count of matches
+     @throws IllegalArgumentException if this selection has been closed
+     */
+    public int size() {
+        update();
+        return matches.size();
+    }
+
+    /**
+     Reselect the matches in full, on the next call to {@link #elements()}. Only needed after changes that are not
+     tracked, such as to an {@link org.jsoup.nodes.Attributes} object directly.
+     @return this selection, for chaining
+     */
+    public LiveElements refresh() {
+        stale = true;
+        return this;
+    }
+
+    /**
+     Stop tracking the document's mutations, and release the matches. A closed selection can't be used.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        Mutations.unlisten(doc, this);
+        matches.clear();
+        dirty.clear();
+    }
+
+    @Override
+    public String toString() {
+        return evaluator.toString();
+    }
+
+    @Override public void inserted(Node node) {
+        mark(node);
+    }
+
+    @Override public void removed(Element parent) {
+        if (local) removed = true;
+        else stale = true;
+    }
+
+    @Override public void changed(Node node) {
+        if (node instanceof Element) mark(node);
+        else if (!local) stale = true; // e.g. text, for :contains(); a local query doesn't test text
+    }
+
+    private void mark(Node node) {
+        if (local && !stale) dirty.add(node);
+        else stale = true;
+    }
+
+    private void update() {
+        Validate.isFalse(closed, "This live selection has been closed");
+        if (stale) {
+            matches.clear();
+            matches.addAll(Collector.collect(evaluator, root));
+            dirty.clear();
+            removed = false;
+            stale = false;
+            return;
+        }
+        if (dirty.isEmpty() && !removed) return;
+
+        if (removed) // drop the matches that were removed from the root, or are in a subtree to retest
+            matches.removeIf(el -> !inScope(el));
+
+        // retest the outermost dirty subtrees within the root, replacing their matches
+        evaluator.reset();
+        Predicate<Element> test = evaluator.asPredicate(root);
+        for (Node node : dirty) {
+            if (!(node instanceof Element) || node != root && !inScope(node.parent())) continue; // outside, or within another
+            int start = insertionPoint(node), end = start; // a subtree's matches are contiguous, in document order
+            if (!removed) {
+                while (end < matches.size() && isWithin(matches.get(end), node)) end++;
+                matches.subList(start, end).clear();
+            }
+            List<Element> found = new ArrayList<>();
+            ((Element) node).stream().filter(test).forEach(found::add);
+            matches.addAll(start, found);
+        }
+        evaluator.reset();
+        dirty.clear();
+        removed = false;
+    }
+
+    /** Test if the node is within the root, and not within a dirty subtree. */
+    private boolean inScope(@Nullable Node node) {
+        for (Node n = node; n != null; n = n.parent()) {
+            if (dirty.contains(n)) return false;
+            if (n == root) return true;
+        }
+        return false;
+    }
+
+    private static boolean isWithin(Node node, Node ancestor) {
+        for (Node n = node; n != null; n = n.parent()) {
+            if (n == ancestor) return true;
+        }
+        return false;
+    }
+
+    /** The index in the matches where the subtree's matches go: after each match that precedes it. */
+    private int insertionPoint(Node subtree) {
+        int low = 0, high = matches.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (precedes(matches.get(mid), subtree)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /** Test if the node is before the other in document order (i.e. is its ancestor, or is before one of them). */
+    static boolean precedes(Node node, Node other) {
+        List<Node> path = path(node), otherPath = path(other);
+        int i = 0;
+        while (i < path.size() && i < otherPath.size() && path.get(i) == otherPath.get(i)) i++;
+        if (i == path.size()) return i < otherPath.size(); // node is an ancestor of other
+        if (i == otherPath.size()) return false; // other is an ancestor of node
+        return path.get(i).siblingIndex() < otherPath.get(i).siblingIndex();
+    }
+
+    /** The node's ancestors, from the top, and the node. */
+    private static List<Node> path(Node node) {
+        List<Node> path = new ArrayList<>();
+        for (Node n = node; n != null; n = n.parent()) path.add(n);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Test if the evaluator's matches depend only on each element and its ancestors. */
+    static boolean isLocal(Evaluator eval) {
+        if (eval instanceof Evaluator.Tag || eval instanceof Evaluator.TagStartsWith || eval instanceof Evaluator.TagEndsWith
+            || eval instanceof Evaluator.Id || eval instanceof Evaluator.Class || eval instanceof Evaluator.Attribute
+            || eval instanceof Evaluator.AttributeStarting || eval instanceof Evaluator.AttributeKeyPair
+            || eval instanceof Evaluator.AllElements || eval instanceof StructuralEvaluator.Root
+            || eval instanceof SelectorCompiler.Compound)
+            return true;
+        if (eval instanceof CombiningEvaluator)
+            return allLocal(((CombiningEvaluator) eval).evaluators);
+        if (eval instanceof SelectorCompiler.And || eval instanceof SelectorCompiler.Or)
+            return allLocal(((SelectorCompiler.Compiled) eval).inner());
+        if (eval instanceof StructuralEvaluator.ImmediateParentRun)
+            return allLocal(((StructuralEvaluator.ImmediateParentRun) eval).evaluators);
+        if (eval instanceof StructuralEvaluator.Is || eval instanceof StructuralEvaluator.Not
+            || eval instanceof StructuralEvaluator.Ancestor)
+            return isLocal(((StructuralEvaluator) eval).evaluator);
+        if (eval instanceof QueryPlan)
+            return isLocal(((QueryPlan) eval).planned);
+        return false;
+    }
+
+    private static boolean allLocal(List<Evaluator> evals) {
+        for (Evaluator eval : evals) {
+            if (!isLocal(eval)) return false;
+        }
+        return true;
+    }
+}
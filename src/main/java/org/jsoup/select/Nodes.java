@@ -1,6 +1,7 @@
 package org.jsoup.select;
 
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Fragments;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
@@ -9,8 +10,10 @@ import org.jspecify.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
@@ -90,9 +93,16 @@ public class Nodes<T extends Node> extends ArrayList<T> {
      @see #clear()
      */
     public Nodes<T> remove() {
+        // each removal shifts the later siblings; so a parent's children are removed in one batch
+        Map<Element, List<Node>> byParent = new IdentityHashMap<>();
         for (T node : this) {
-            node.remove();
+            Element parent = node.parentElement();
+            if (parent != null) byParent.computeIfAbsent(parent, p -> new ArrayList<>()).add(node);
         }
+        byParent.forEach((parent, children) -> {
+            if (children.size() == 1) children.get(0).remove();
+            else parent.batch(batch -> children.forEach(batch::remove));
+        });
         return this;
     }
 
@@ -129,9 +139,11 @@ public class Nodes<T extends Node> extends ArrayList<T> {
      @see Element#before(String)
      */
     public Nodes<T> before(String html) {
-        for (T node : this) {
-            node.before(html);
-        }
+        Fragments.reusing(() -> {
+            for (T node : this) {
+                node.before(html);
+            }
+        });
         return this;
     }
 
@@ -143,9 +155,11 @@ public class Nodes<T extends Node> extends ArrayList<T> {
      @see Element#after(String)
      */
     public Nodes<T> after(String html) {
-        for (T node : this) {
-            node.after(html);
-        }
+        Fragments.reusing(() -> {
+            for (T node : this) {
+                node.after(html);
+            }
+        });
         return this;
     }
 
@@ -160,9 +174,11 @@ public class Nodes<T extends Node> extends ArrayList<T> {
      */
     public Nodes<T> wrap(String html) {
         Validate.notEmpty(html);
-        for (T node : this) {
-            node.wrap(html);
-        }
+        Fragments.reusing(() -> {
+            for (T node : this) {
+                node.wrap(html);
+            }
+        });
         return this;
     }
 
@@ -0,0 +1,130 @@
+package org.jsoup.select;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ Scratch state for one query, passed through the evaluators' matches methods. Structural evaluators memoize their inner
+ evaluator's matches here, for the nodes they test repeatedly (e.g. the shared ancestors of each candidate). Each
+ evaluator's memo is a flat identity hash table, so recording a result allocates nothing per node; and as the memo is
+ dropped with the query, it holds no nodes after it, and needs no weak references.
+ <p>A memo is only used by the thread that created it; see {@link #forThread()}.</p>
+ */
+final class QueryMemo {
+    private final Thread owner = Thread.currentThread();
+    private StructuralEvaluator[] evaluators = new StructuralEvaluator[2];
+    private Table[] tables = new Table[2];
+    private int size;
+
+    /**
+     Get this memo if the current thread created it, or else null, so that other threads (e.g. of a parallel stream)
+     evaluate without a memo.
+     */
+    @Nullable QueryMemo forThread() {
+        return Thread.currentThread() == owner ? this : null;
+    }
+
+    /** Test if the structural evaluator's inner evaluator matches the node, from the memo if already tested. */
+    boolean matches(StructuralEvaluator evaluator, Element root, Node node) {
+        Table table = table(evaluator, root);
+        int slot = table.slot(node);
+        if (table.nodes[slot] == node) return table.matches[slot];
+
+        boolean matches = evaluator.evaluator.matches(this, root, node);
+        table.put(node, matches);
+        return matches;
+    }
+
+    /** The count of memoized results. */
+    int size() {
+        int count = 0;
+        for (int i = 0; i < size; i++) count += tables[i].size;
+        return count;
+    }
+
+    private Table table(StructuralEvaluator evaluator, Element root) {
+        for (int i = 0; i < size; i++) { // a query has few structural evaluators
+            if (evaluators[i] == evaluator) return tables[i].root(root);
+        }
+        if (size == evaluators.length) {
+            evaluators = Arrays.copyOf(evaluators, size * 2);
+            tables = Arrays.copyOf(tables, size * 2);
+        }
+        Table table = new Table(root);
+        evaluators[size] = evaluator;
+        tables[size++] = table;
+        return table;
+    }
+
+    /** An open addressing identity table of nodes to their results, for one root. */
+    private static final class Table {
+        private static final int InitialCapacity = 16; // a power of two
+        Element root;
+        @Nullable Node[] nodes = new Node[InitialCapacity];
+        boolean[] matches = new boolean[InitialCapacity];
+        int size;
+
+        Table(Element root) {
+            this.root = root;
+        }
+
+        /** Results depend on the root (e.g. a :has() evaluates against each candidate), so restart for a new one. */
+        Table root(Element root) {
+            if (this.root != root) {
+                this.root = root;
+                if (nodes.length > InitialCapacity * 4) {
+                    nodes = new Node[InitialCapacity];
+                    matches = new boolean[InitialCapacity];
+                } else {
+                    Arrays.fill(nodes, null);
+                }
+                size = 0;
+            }
+            return this;
+        }
+
+        /** The slot holding the node, or the empty slot where it would go. */
+        int slot(Node node) {
+            int mask = nodes.length - 1;
+            int i = hash(node) & mask;
+            while (nodes[i] != null && nodes[i] != node)
+                i = (i + 1) & mask;
+            return i;
+        }
+
+        void put(Node node, boolean matched) {
+            int slot = slot(node);
+            if (nodes[slot] == null) {
+                if ((size + 1) * 2 > nodes.length) {
+                    grow();
+                    slot = slot(node);
+                }
+                nodes[slot] = node;
+                size++;
+            }
+            matches[slot] = matched;
+        }
+
+        private void grow() {
+            @Nullable Node[] oldNodes = nodes;
+            boolean[] oldMatches = matches;
+            nodes = new Node[oldNodes.length * 2];
+            matches = new boolean[oldNodes.length * 2];
+            for (int i = 0; i < oldNodes.length; i++) {
+                Node node = oldNodes[i];
+                if (node == null) continue;
+                int slot = slot(node);
+                nodes[slot] = node;
+                matches[slot] = oldMatches[i];
+            }
+        }
+
+        private static int hash(Node node) {
+            int h = System.identityHashCode(node);
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.jsoup.select;
+
+import org.jsoup.helper.Validate;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.LeafNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jsoup.internal.Normalizer.lowerCase;
+
+/**
+ A QueryPlan is an Evaluator that orders its tests by their estimated cost and selectivity, and can {@link #explain()}
+ that order.
+ <p>A selector is matched right to left: each element is first tested against the tests of the rightmost compound
+ selector (e.g. the {@code span} of {@code div span}), and only when those match are the combinators tried, walking up to
+ ancestors or back to siblings. Within each compound, and within each {@code :is()}, {@code :has()} etc, the tests are
+ ANDed (or ORed), so the first test to reject an element saves the rest. By default, a selector's tests are ordered by
+ their relative cost alone. When planned with statistics from a sample document (the counts of its tags, classes, ids,
+ and attribute names, and its depth and breadth), a test that rarely matches, such as a rare class, is tried before a
+ cheaper one that often matches, such as a common tag. The first test of the rightmost compound is the plan's <i>seed</i>,
+ which every element is tested against.</p>
+ <p>Plan a query once, and reuse it for documents like the sample:</p>
+ <pre><code>
+ QueryPlan plan = QueryPlan.of(Selector.evaluatorOf("div.content article > p:has(a[href*=foo]) ~ span"), sampleDoc);
+ System.out.println(plan.explain());
+ Elements spans = doc.select(plan);
+ </code></pre>
+ <p>A plan matches the same elements as the evaluator it was planned from, which is not modified. Like other Evaluators,
+ a QueryPlan is thread-safe.</p>
+ <p>This is package-private, until planning shows a measurable win over the parsed order.</p>
+ */
+final class QueryPlan extends Evaluator {
+    private static final double Unknown = 0.5; // the match rate of a test that statistics say nothing about
+    private static final double MinRate = 0.001; // keep rates off 0 and 1, so that costs stay comparable
+
+    final Evaluator planned;
+    private final @Nullable Statistics stats;
+    private final IdentityHashMap<Evaluator, Double> rates = new IdentityHashMap<>(); // the estimated match rate of each planned evaluator
+
+    private QueryPlan(Evaluator evaluator, @Nullable Statistics stats) {
+        this.stats = stats;
+        this.planned = plan(evaluator);
+    }
+
+    /**
+     Plan the evaluator, ordering its tests by their relative cost.
+     @param evaluator the evaluator to plan, e.g. from {@link Selector#evaluatorOf(String)}
+     @return the plan
+     */
+    static QueryPlan of(Evaluator evaluator) {
+        Validate.notNull(evaluator);
+        return new QueryPlan(evaluator, null);
+    }
+
+    /**
+     Plan the evaluator, ordering its tests by their relative cost and by how often they match in the sample.
+     @param evaluator the evaluator to plan, e.g. from {@link Selector#evaluatorOf(String)}
+     @param sample a document (or element) like the ones the plan will be used on
+     @return the plan
+     */
+    static QueryPlan of(Evaluator evaluator, Element sample) {
+        Validate.notNull(evaluator);
+        Validate.notNull(sample);
+        return new QueryPlan(evaluator, new Statistics(sample));
+    }
+
+    /**
+     Describe the plan, as an indented tree of the evaluators in the order they are tested. Each line gives the
+     evaluator's type, its selector, its relative cost, and if planned with statistics, its estimated match rate.
+     @return the plan description
+     */
+    String explain() {
+        StringBuilder sb = StringUtil.borrowBuilder();
+        sb.append("Plan for '").append(planned).append("'");
+        if (stats != null) sb.append(", from a sample of ").append(stats.elements).append(" elements");
+        Evaluator seed = seed(planned);
+        sb.append("\nSeed: ").append(seed.getClass().getSimpleName()).append(" '").append(seed).append("'\n");
+        explain(planned, 0, sb);
+        return StringUtil.releaseBuilder(sb);
+    }
+
+    private void explain(Evaluator eval, int depth, StringBuilder sb) {
+        sb.append(StringUtil.padding(depth * 2))
+            .append(eval.getClass().getSimpleName())
+            .append(" '").append(eval).append("' cost ").append(eval.cost());
+        if (stats != null)
+            sb.append(", matches ").append(Math.round(rate(eval) * 1000) / 10.0).append('%');
+        sb.append('\n');
+
+        for (Evaluator inner : inner(eval))
+            explain(inner, depth + 1, sb);
+    }
+
+    /** The first test that every element is tested against. */
+    private static Evaluator seed(Evaluator eval) {
+        if (eval instanceof CombiningEvaluator.And)
+            return seed(((CombiningEvaluator) eval).sortedEvaluators.get(0));
+        if (eval instanceof StructuralEvaluator.ImmediateParentRun) { // tested from the last
+            List<Evaluator> run = ((StructuralEvaluator.ImmediateParentRun) eval).evaluators;
+            return seed(run.get(run.size() - 1));
+        }
+        if (eval instanceof StructuralEvaluator.Is)
+            return seed(((StructuralEvaluator) eval).evaluator);
+        return eval;
+    }
+
+    /** The evaluators within this one, in the order they are tested. */
+    private static List<Evaluator> inner(Evaluator eval) {
+        List<Evaluator> inner = new ArrayList<>();
+        if (eval instanceof CombiningEvaluator) {
+            inner.addAll(((CombiningEvaluator) eval).sortedEvaluators);
+        } else if (eval instanceof StructuralEvaluator.ImmediateParentRun) {
+            List<Evaluator> run = ((StructuralEvaluator.ImmediateParentRun) eval).evaluators;
+            for (int i = run.size() - 1; i >= 0; i--)
+                inner.add(run.get(i));
+        } else if (eval instanceof StructuralEvaluator) {
+            inner.add(((StructuralEvaluator) eval).evaluator);
+        }
+        return inner;
+    }
+
+    /**
+     Copies the evaluator tree, with each And and Or in the planned order. The leaf evaluators are shared with the
+     original, as they hold no state.
+     */
+    private Evaluator plan(Evaluator eval) {
+        Evaluator copy;
+        double rate;
+        if (eval instanceof CombiningEvaluator) {
+            List<Evaluator> evals = new ArrayList<>();
+            for (Evaluator inner : ((CombiningEvaluator) eval).evaluators)
+                evals.add(plan(inner));
+            boolean and = eval instanceof CombiningEvaluator.And;
+            CombiningEvaluator combined = and ? new CombiningEvaluator.And(evals) : new CombiningEvaluator.Or(evals);
+            // an And is cheapest when the tests that most cheaply reject go first; an Or, when those that most cheaply accept go first
+            combined.sortedEvaluators.sort(Comparator.comparingDouble(e -> and ?
+                e.cost() / (1 - rate(e)) :
+                e.cost() / rate(e)));
+            rate = 1;
+            if (and) {
+                for (Evaluator e : evals) rate *= rate(e);
+            } else {
+                for (Evaluator e : evals) rate *= 1 - rate(e);
+                rate = 1 - rate;
+            }
+            copy = combined;
+        } else if (eval instanceof StructuralEvaluator.ImmediateParentRun) {
+            List<Evaluator> run = ((StructuralEvaluator.ImmediateParentRun) eval).evaluators;
+            StructuralEvaluator.ImmediateParentRun planRun = new StructuralEvaluator.ImmediateParentRun(plan(run.get(0)));
+            rate = rate(planRun.evaluators.get(0));
+            for (int i = 1; i < run.size(); i++) {
+                Evaluator e = plan(run.get(i));
+                planRun.add(e);
+                rate *= rate(e);
+            }
+            copy = planRun;
+        } else if (eval instanceof StructuralEvaluator) {
+            Evaluator inner = plan(((StructuralEvaluator) eval).evaluator);
+            double innerRate = rate(inner);
+            if (eval instanceof StructuralEvaluator.Has) {
+                copy = new StructuralEvaluator.Has(inner);
+                rate = stats != null ? anyOf(innerRate, stats.depth()) : innerRate; // mean descendant count == mean depth
+            } else if (eval instanceof StructuralEvaluator.Is) {
+                copy = new StructuralEvaluator.Is(inner);
+                rate = innerRate;
+            } else if (eval instanceof StructuralEvaluator.Not) {
+                copy = new StructuralEvaluator.Not(inner);
+                rate = 1 - innerRate;
+            } else if (eval instanceof StructuralEvaluator.Ancestor) {
+                copy = new StructuralEvaluator.Ancestor(inner);
+                rate = stats != null ? anyOf(innerRate, stats.depth()) : innerRate;
+            } else if (eval instanceof StructuralEvaluator.PreviousSibling) {
+                copy = new StructuralEvaluator.PreviousSibling(inner);
+                rate = stats != null ? anyOf(innerRate, stats.siblings() / 2) : innerRate;
+            } else if (eval instanceof StructuralEvaluator.ImmediatePreviousSibling) {
+                copy = new StructuralEvaluator.ImmediatePreviousSibling(inner);
+                rate = innerRate;
+            } else { // not known to the planner; used as is
+                copy = eval;
+                rate = Unknown;
+            }
+        } else {
+            copy = eval; // a simple test
+            rate = stats != null ? stats.rate(eval) : Unknown;
+        }
+        rates.put(copy, stats != null ? Math.min(Math.max(rate, MinRate), 1 - MinRate) : Unknown); // without stats, by cost alone
+        return copy;
+    }
+
+    private double rate(Evaluator eval) {
+        Double rate = rates.get(eval);
+        return rate != null ? rate : Unknown;
+    }
+
+    /** The chance that any one of the tries matches, where each matches at the rate. */
+    private static double anyOf(double rate, double tries) {
+        return 1 - Math.pow(1 - rate, tries);
+    }
+
+    @Override
+    public boolean matches(Element root, Element element) {
+        return planned.matches(root, element);
+    }
+
+    @Override
+    boolean matches(Element root, LeafNode leafNode) {
+        return planned.matches(root, leafNode);
+    }
+
+    @Override
+    boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
+        return planned.matches(memo, root, element);
+    }
+
+    @Override
+    boolean matches(@Nullable QueryMemo memo, Element root, LeafNode leafNode) {
+        return planned.matches(memo, root, leafNode);
+    }
+
+    @Override
+    boolean wantsNodes() {
+        return planned.wantsNodes();
+    }
+
+    @Override
+    protected void reset() {
+        planned.reset();
+    }
+
+    @Override
+    protected int cost() {
+        return planned.cost();
+    }
+
+    @Override
+    public String toString() {
+        return planned.toString();
+    }
+
+    /** Counts of a sample's tags, classes, ids, and attribute names; and its shape. */
+    private static final class Statistics {
+        final int elements;
+        private final Map<String, Integer> tags = new HashMap<>();
+        private final Map<String, Integer> classes = new HashMap<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Map<String, Integer> attributes = new HashMap<>();
+        private long depths; // the sum of each element's depth under the sample root
+        private long siblings; // the sum of each element's count of siblings (including itself)
+
+        Statistics(Element sample) {
+            int[] count = new int[1];
+            NodeTraversor.traverse((node, depth) -> {
+                if (!(node instanceof Element)) return;
+                Element el = (Element) node;
+                count[0]++;
+                depths += depth;
+                Element parent = el.parent();
+                siblings += parent != null ? parent.childrenSize() : 1;
+                increment(tags, el.normalName());
+                for (String className : el.classNames())
+                    increment(classes, lowerCase(className));
+                if (!el.id().isEmpty()) increment(ids, el.id());
+                el.attributes().forEach(attribute -> increment(attributes, lowerCase(attribute.getKey())));
+            }, sample);
+            elements = count[0];
+        }
+
+        private static void increment(Map<String, Integer> counts, String key) {
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        double depth() {
+            return (double) depths / elements;
+        }
+
+        double siblings() {
+            return (double) siblings / elements;
+        }
+
+        double rate(Evaluator eval) {
+            if (eval instanceof Evaluator.Tag) return rate(tags, ((Evaluator.Tag) eval).tagName);
+            if (eval instanceof Evaluator.Class) return rate(classes, lowerCase(((Evaluator.Class) eval).className));
+            if (eval instanceof Evaluator.Id) return rate(ids, ((Evaluator.Id) eval).id);
+            if (eval instanceof Evaluator.Attribute) return rate(attributes, ((Evaluator.Attribute) eval).key);
+            if (eval instanceof Evaluator.AttributeKeyPair && !(eval instanceof Evaluator.AttributeWithValueNot))
+                return rate(attributes, ((Evaluator.AttributeKeyPair) eval).key); // at most; the value test is unknown
+            if (eval instanceof Evaluator.AttributeWithValueMatching)
+                return rate(attributes, ((Evaluator.AttributeWithValueMatching) eval).key);
+            if (eval instanceof Evaluator.AllElements) return 1;
+            if (eval instanceof StructuralEvaluator.Root) return 1.0 / elements;
+            return Unknown;
+        }
+
+        private double rate(Map<String, Integer> counts, String key) {
+            Integer count = counts.get(key);
+            return count != null ? (double) count / elements : 0;
+        }
+    }
+}
@@ -169,6 +169,36 @@ public class Selector {
         return Collector.stream(evaluator, root);
     }
 
+    /**
+     Find the elements matching the CSS query, as a live selection that is kept up to date as the document is
+     modified.
+
+     @param query CSS selector
+     @param root root element to descend into; must be in a Document
+     @return a live selection of the matching elements
+     @throws Selector.SelectorParseException (unchecked) on an invalid CSS query.
+     @see LiveElements
+     @since 1.23.2
+     */
+    public static LiveElements selectLive(String query, Element root) {
+        Validate.notEmpty(query);
+        return selectLive(evaluatorOf(query), root);
+    }
+
+    /**
+     Find the elements matching the Evaluator, as a live selection that is kept up to date as the document is
+     modified.
+
+     @param evaluator CSS evaluator
+     @param root root element to descend into; must be in a Document
+     @return a live selection of the matching elements
+     @see LiveElements
+     @since 1.23.2
+     */
+    public static LiveElements selectLive(Evaluator evaluator, Element root) {
+        return new LiveElements(evaluator, root);
+    }
+
     /**
      Find elements matching the query, across multiple roots. Elements will be deduplicated (in the case of
      overlapping hierarchies).
@@ -285,6 +315,36 @@ public class Selector {
         return QueryParser.parse(css);
     }
 
+    /**
+     Parse and compile a CSS query into an Evaluator, for a query that is evaluated very many times.
+     <p>The compiled evaluator matches the same elements as {@link #evaluatorOf(String)}'s, but tests each compound
+     selector's simple tests (its tag, id, classes, and attributes) inline in one matcher, rather than through a list
+     of separate evaluators. This is faster where those tests dominate; the compile costs some time up front, so is
+     only worthwhile for queries that are reused.</p>
+
+     @param css CSS query
+     @return the compiled Evaluator
+     @throws Selector.SelectorParseException if the CSS query is invalid
+     @see #compile(Evaluator)
+     @since 1.23.2
+     */
+    public static Evaluator compile(String css) {
+        return SelectorCompiler.compile(QueryParser.parse(css));
+    }
+
+    /**
+     Compile an Evaluator into a fused matcher. The evaluator is not modified.
+
+     @param evaluator the evaluator to compile
+     @return the compiled Evaluator
+     @see #compile(String)
+     @since 1.23.2
+     */
+    public static Evaluator compile(Evaluator evaluator) {
+        Validate.notNull(evaluator);
+        return SelectorCompiler.compile(evaluator);
+    }
+
     public static class SelectorParseException extends IllegalStateException {
         public SelectorParseException(String msg) {
             super(msg);
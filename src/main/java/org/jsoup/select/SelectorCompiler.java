@@ -0,0 +1,226 @@
+package org.jsoup.select;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ Compiles an evaluator tree into a fused matcher; see {@link Selector#compile(String)}.
+ <p>In an evaluator tree, each simple test of a compound selector (e.g. the {@code p}, {@code .lead} and {@code [title]}
+ of {@code p.lead[title]}) is a separate Evaluator, tested through the And's list. As every selector shares that And,
+ the call in its loop sees every type of test, so the JIT can't inline them. The compiler fuses each compound's simple
+ tests into a single {@link Compound} matcher that tests them inline, rejecting elements without attributes before
+ any attribute lookups; and the remaining Ands and Ors test arrays of their compiled evaluators. The combinators keep
+ their (memoizing) evaluators, over their compiled inner evaluators.</p>
+ */
+final class SelectorCompiler {
+    private SelectorCompiler() {}
+
+    static Evaluator compile(Evaluator eval) {
+        if (eval instanceof QueryPlan) // keeps the planned order
+            return compile(((QueryPlan) eval).planned);
+        if (eval instanceof Compiled || eval.wantsNodes()) // node tests are left to the interpreted evaluators
+            return eval;
+
+        if (eval instanceof CombiningEvaluator) {
+            CombiningEvaluator combined = (CombiningEvaluator) eval;
+            boolean and = combined instanceof CombiningEvaluator.And;
+            List<Evaluator> evals = new ArrayList<>();
+            Compound compound = null;
+            for (Evaluator inner : combined.sortedEvaluators) {
+                if (and && Compound.isSimple(inner)) {
+                    if (compound == null) {
+                        compound = new Compound();
+                        evals.add(0, compound);
+                    }
+                    if (compound.add(inner)) continue;
+                }
+                evals.add(compile(inner));
+            }
+            if (evals.size() == 1) {
+                if (compound != null) compound.source = eval.toString(); // as a whole compound
+                return evals.get(0);
+            }
+            return and ? new And(eval, evals) : new Or(eval, evals);
+        } else if (eval instanceof StructuralEvaluator.ImmediateParentRun) {
+            List<Evaluator> run = ((StructuralEvaluator.ImmediateParentRun) eval).evaluators;
+            StructuralEvaluator.ImmediateParentRun compiled = new StructuralEvaluator.ImmediateParentRun(compile(run.get(0)));
+            for (int i = 1; i < run.size(); i++)
+                compiled.add(compile(run.get(i)));
+            return compiled;
+        } else if (eval instanceof StructuralEvaluator) {
+            Evaluator inner = compile(((StructuralEvaluator) eval).evaluator);
+            if (eval instanceof StructuralEvaluator.Has) return new StructuralEvaluator.Has(inner);
+            if (eval instanceof StructuralEvaluator.Is) return new StructuralEvaluator.Is(inner);
+            if (eval instanceof StructuralEvaluator.Not) return new StructuralEvaluator.Not(inner);
+            if (eval instanceof StructuralEvaluator.Ancestor) return new StructuralEvaluator.Ancestor(inner);
+            if (eval instanceof StructuralEvaluator.PreviousSibling) return new StructuralEvaluator.PreviousSibling(inner);
+            if (eval instanceof StructuralEvaluator.ImmediatePreviousSibling)
+                return new StructuralEvaluator.ImmediatePreviousSibling(inner);
+            return eval; // not known to the compiler; used as is
+        } else {
+            if (!Compound.isSimple(eval)) return eval;
+            Compound compound = new Compound();
+            compound.add(eval);
+            return compound;
+        }
+    }
+
+    /** Marks the compiled matchers, so that they are not recompiled. */
+    abstract static class Compiled extends Evaluator {
+        String source;
+        int cost;
+
+        Compiled(String source, int cost) {
+            this.source = source;
+            this.cost = cost;
+        }
+
+        @Override protected int cost() {
+            return cost;
+        }
+
+        @Override public String toString() {
+            return source;
+        }
+
+        /** The evaluators this one tests. */
+        List<Evaluator> inner() {
+            return Collections.emptyList();
+        }
+    }
+
+    /** The simple tests of a compound selector, tested inline: the tag, then the id and attributes, then the classes. */
+    static final class Compound extends Compiled {
+        private static final String[] None = {};
+
+        private @Nullable String tagName;
+        private @Nullable String id;
+        private String[] attributeKeys = None;
+        private @Nullable String[] attributeValues = None; // lower case; null to test the key alone
+        private String[] classNames = None;
+
+        Compound() {
+            super("", 0);
+        }
+
+        static boolean isSimple(Evaluator eval) {
+            return eval instanceof Evaluator.Tag || eval instanceof Evaluator.Id || eval instanceof Evaluator.Class
+                || eval instanceof Evaluator.Attribute || eval instanceof Evaluator.AttributeWithValue
+                || eval instanceof Evaluator.AllElements;
+        }
+
+        /**
+         Fuse the simple test into this compound.
+         @return false if it can't be fused (a second tag or id test), and must be tested separately
+         */
+        boolean add(Evaluator eval) {
+            if (eval instanceof Evaluator.Tag) {
+                if (tagName != null) return false;
+                tagName = ((Evaluator.Tag) eval).tagName;
+            } else if (eval instanceof Evaluator.Id) {
+                if (id != null) return false;
+                id = ((Evaluator.Id) eval).id;
+            } else if (eval instanceof Evaluator.Class) {
+                classNames = append(classNames, ((Evaluator.Class) eval).className);
+            } else if (eval instanceof Evaluator.Attribute) {
+                attributeKeys = append(attributeKeys, ((Evaluator.Attribute) eval).key);
+                attributeValues = append(attributeValues, null);
+            } else if (eval instanceof Evaluator.AttributeWithValue) {
+                Evaluator.AttributeWithValue pair = (Evaluator.AttributeWithValue) eval;
+                attributeKeys = append(attributeKeys, pair.key);
+                attributeValues = append(attributeValues, pair.value);
+            } // AllElements: no test
+            source += eval.toString();
+            cost += eval.cost();
+            return true;
+        }
+
+        private static String[] append(@Nullable String[] array, @Nullable String value) {
+            String[] appended = new String[array.length + 1];
+            System.arraycopy(array, 0, appended, 0, array.length);
+            appended[array.length] = value;
+            return appended;
+        }
+
+        @Override public boolean matches(Element root, Element element) {
+            if (tagName != null && !element.nameIs(tagName)) return false;
+            if (id == null && attributeKeys.length == 0 && classNames.length == 0) return true;
+            if (element.attributesSize() == 0) return false; // saves the lookups
+
+            if (id != null && !id.equals(element.id())) return false;
+            for (int i = 0; i < attributeKeys.length; i++) {
+                String key = attributeKeys[i];
+                if (!element.hasAttr(key)) return false;
+                String value = attributeValues[i];
+                if (value != null && !value.equalsIgnoreCase(element.attr(key))) return false;
+            }
+            for (String className : classNames) {
+                if (!element.hasClass(className)) return false;
+            }
+            return true;
+        }
+    }
+
+    /** An And of compiled evaluators, the compound first. */
+    static final class And extends Compiled {
+        private final Evaluator[] evaluators;
+
+        And(Evaluator eval, List<Evaluator> evaluators) {
+            super(eval.toString(), eval.cost());
+            this.evaluators = evaluators.toArray(new Evaluator[0]);
+        }
+
+        @Override public boolean matches(Element root, Element element) {
+            return matches(null, root, element);
+        }
+
+        @Override boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
+            for (Evaluator eval : evaluators) {
+                if (!eval.matches(memo, root, element)) return false;
+            }
+            return true;
+        }
+
+        @Override protected void reset() {
+            for (Evaluator eval : evaluators) eval.reset();
+        }
+
+        @Override List<Evaluator> inner() {
+            return Arrays.asList(evaluators);
+        }
+    }
+
+    /** An Or of compiled evaluators. */
+    static final class Or extends Compiled {
+        private final Evaluator[] evaluators;
+
+        Or(Evaluator eval, List<Evaluator> evaluators) {
+            super(eval.toString(), eval.cost());
+            this.evaluators = evaluators.toArray(new Evaluator[0]);
+        }
+
+        @Override public boolean matches(Element root, Element element) {
+            return matches(null, root, element);
+        }
+
+        @Override boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
+            for (Evaluator eval : evaluators) {
+                if (eval.matches(memo, root, element)) return true;
+            }
+            return false;
+        }
+
+        @Override protected void reset() {
+            for (Evaluator eval : evaluators) eval.reset();
+        }
+
+        @Override List<Evaluator> inner() {
+            return Arrays.asList(evaluators);
+        }
+    }
+}
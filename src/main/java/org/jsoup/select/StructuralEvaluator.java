@@ -8,9 +8,9 @@ import org.jsoup.nodes.Node;
 import org.jsoup.nodes.NodeIterator;
 import org.jsoup.nodes.TextNode;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  * Base structural evaluator.
@@ -29,33 +29,39 @@ abstract class StructuralEvaluator extends Evaluator {
         return wantsNodes;
     }
 
-    // Memoize inner matches, to save repeated re-evaluations of parent, sibling etc.
-    // root + element: Boolean matches. ThreadLocal in case the Evaluator is compiled then reused across multi threads
-    final ThreadLocal<Map<Node, Map<Node, Boolean>>> threadMemo = ThreadLocal.withInitial(WeakHashMap::new);
-
-    boolean memoMatches(final Element root, final Node node) {
-        Map<Node, Map<Node, Boolean>> rootMemo = threadMemo.get();
-        Map<Node, Boolean> memo = rootMemo.computeIfAbsent(root, r -> new WeakHashMap<>());
-        return memo.computeIfAbsent(node, test -> evaluator.matches(root, test));
+    // Memoize inner matches in the query's memo, to save repeated re-evaluations of parent, sibling etc.
+    boolean memoMatches(@Nullable QueryMemo memo, final Element root, final Node node) {
+        return memo != null ?
+            memo.matches(this, root, node) :
+            evaluator.matches(null, root, node);
     }
 
     @Override protected void reset() {
-        threadMemo.remove();
         evaluator.reset();
         super.reset();
     }
 
     @Override
     public boolean matches(Element root, Element element) {
-        return evaluateMatch(root, element);
+        return evaluateMatch(null, root, element);
     }
 
     @Override
     boolean matches(Element root, LeafNode leafNode) {
-        return evaluateMatch(root, leafNode);
+        return evaluateMatch(null, root, leafNode);
+    }
+
+    @Override
+    boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
+        return evaluateMatch(memo, root, element);
+    }
+
+    @Override
+    boolean matches(@Nullable QueryMemo memo, Element root, LeafNode leafNode) {
+        return evaluateMatch(memo, root, leafNode);
     }
 
-    abstract boolean evaluateMatch(Element root, Node node);
+    abstract boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node);
 
     static class Root extends Evaluator {
         @Override
@@ -84,10 +90,10 @@ abstract class StructuralEvaluator extends Evaluator {
             checkSiblings = evalWantsSiblings(evaluator);
         }
 
-        @Override public boolean matches(Element root, Element element) {
+        @Override boolean matches(@Nullable QueryMemo memo, Element root, Element element) {
             if (checkSiblings) { // evaluating against siblings
                 for (Element sib = element.firstElementSibling(); sib != null; sib = sib.nextElementSibling()) {
-                    if (sib != element && evaluator.matches(element, sib)) { // don't match against self
+                    if (sib != element && evaluator.matches(memo, element, sib)) { // don't match against self
                         return true;
                     }
                 }
@@ -99,7 +105,7 @@ abstract class StructuralEvaluator extends Evaluator {
                 while (it.hasNext()) {
                     Node node = it.next();
                     if (node == element) continue; // don't match self, only descendants
-                    if (evaluator.matches(element, node)) {
+                    if (evaluator.matches(memo, element, node)) {
                         return true;
                     }
                 }
@@ -110,8 +116,9 @@ abstract class StructuralEvaluator extends Evaluator {
         }
 
         @Override
-        boolean evaluateMatch(Element root, Node node) {
-            return false; // unused; :has(::comment)) goes via implicit root combinator
+        boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
+            if (node instanceof Element) return matches(memo, root, (Element) node);
+            return false; // :has(::comment)) goes via implicit root combinator
         }
 
         /* Test if the :has sub-clause wants sibling elements (vs nested elements) - will be a Combining eval */
@@ -143,8 +150,8 @@ abstract class StructuralEvaluator extends Evaluator {
         }
 
         @Override
-        boolean evaluateMatch(Element root, Node node) {
-            return evaluator.matches(root, node);
+        boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
+            return evaluator.matches(memo, root, node);
         }
 
         @Override protected int cost() {
@@ -163,8 +170,8 @@ abstract class StructuralEvaluator extends Evaluator {
         }
 
         @Override
-        boolean evaluateMatch(Element root, Node node) {
-            return !memoMatches(root, node);
+        boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
+            return !memoMatches(memo, root, node);
         }
 
         @Override protected int cost() {
@@ -186,12 +193,12 @@ abstract class StructuralEvaluator extends Evaluator {
         }
 
         @Override
-        boolean evaluateMatch(Element root, Node node) {
+        boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
             if (root == node)
                 return false;
 
             for (Node parent = node.parent(); parent != null; parent = parent.parent()) {
-                if (memoMatches(root, parent))
+                if (memoMatches(memo, root, parent))
                     return true;
                 if (parent == root)
                     break;
@@ -230,7 +237,7 @@ abstract class StructuralEvaluator extends Evaluator {
             wantsNodes |= evaluator.wantsNodes();
         }
 
-        @Override boolean evaluateMatch(Element root, Node node) {
+        @Override boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
             if (node == root)
                 return false; // cannot match as the second eval (first parent test) would be above the root
 
@@ -238,7 +245,7 @@ abstract class StructuralEvaluator extends Evaluator {
                 if (node == null)
                     return false;
                 Evaluator eval = evaluators.get(i);
-                if (!eval.matches(root, node))
+                if (!eval.matches(memo, root, node))
                     return false;
                 node = node.parent();
             }
@@ -269,12 +276,12 @@ abstract class StructuralEvaluator extends Evaluator {
         }
 
         // matches any previous sibling, so can be same in Element only or wantsNodes context
-        @Override boolean evaluateMatch(Element root, Node node) {
+        @Override boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
             if (root == node) return false;
 
             for (Node sib = node.firstSibling(); sib != null; sib = sib.nextSibling()) {
                 if (sib == node) break;
-                if (memoMatches(root, sib)) return true;
+                if (memoMatches(memo, root, sib)) return true;
             }
 
             return false;
@@ -295,11 +302,11 @@ abstract class StructuralEvaluator extends Evaluator {
             super(evaluator);
         }
 
-        @Override boolean evaluateMatch(Element root, Node node) {
+        @Override boolean evaluateMatch(@Nullable QueryMemo memo, Element root, Node node) {
             if (root == node) return false;
 
             Node prev = wantsNodes ? node.previousSibling() : node.previousElementSibling();
-            return prev != null && memoMatches(root, prev);
+            return prev != null && memoMatches(memo, root, prev);
         }
 
         @Override protected int cost() {
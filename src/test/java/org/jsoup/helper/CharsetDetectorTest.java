@@ -0,0 +1,51 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharsetDetectorTest {
+    private static final String Japanese = "東京都は十日、新しい感染者が確認されたと発表しました。専門家は、引き続き注意が必要だと話しています。";
+    private static final String Russian = "Сегодня в Москве прошло заседание правительства, на котором обсуждались вопросы развития страны.";
+
+    static Stream<Arguments> samples() {
+        return Stream.of(
+            Arguments.of("Shift_JIS", Japanese),
+            Arguments.of("EUC-JP", Japanese),
+            Arguments.of("GB18030", "国家统计局今天发布的数据显示，今年前三个月我国经济运行总体平稳，主要指标好于预期。"),
+            Arguments.of("Big5", "國家統計局今天發布的數據顯示，今年前三個月我國經濟運行總體平穩，主要指標好於預期。"),
+            Arguments.of("EUC-KR", "서울시는 오늘 새로운 교통 정책을 발표했다고 밝혔습니다. 이번 정책은 다음 달부터 시행될 예정입니다."),
+            Arguments.of("windows-1251", Russian),
+            Arguments.of("KOI8-R", Russian),
+            Arguments.of("windows-1252", "Le président a annoncé une réforme de l'éducation. « C'est une étape importante », a-t-il déclaré."),
+            Arguments.of("windows-1252", "Die Bundesregierung hat heute neue Maßnahmen für die Größe der Züge beschlossen."),
+            Arguments.of("windows-1252", "Copyright © 2024 – “Quoted” text… for €5") // no letters, so the fallback
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void detectsCharset(String charset, String text) {
+        byte[] bytes = ("<html><head><title>Test</title></head><body><p>" + text + "</p></body></html>")
+            .getBytes(Charset.forName(charset));
+        assertEquals(charset, CharsetDetector.detect(bytes, bytes.length));
+    }
+
+    @Test void utf8IsNotGuessed() {
+        byte[] bytes = ("<p>" + Japanese + Russian + "</p>").getBytes(StandardCharsets.UTF_8);
+        assertNull(CharsetDetector.detect(bytes, bytes.length));
+        assertNull(CharsetDetector.detect(bytes, 5)); // cut off within a sequence
+        assertNull(CharsetDetector.detect(new byte[]{'<', 'p', '>'}, 3));
+
+        assertFalse(CharsetDetector.isUtf8(new byte[]{(byte) 0xC0, (byte) 0x80}, 2)); // overlong
+        assertFalse(CharsetDetector.isUtf8(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, 3)); // surrogate
+        assertFalse(CharsetDetector.isUtf8(new byte[]{(byte) 0xE9, 'a'}, 2)); // latin-1 é
+    }
+}
@@ -0,0 +1,70 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentEncodingsTest {
+    @Test void findsDecoderOnClasspath() throws IOException {
+        ContentEncodings.Decoder decoder = ContentEncodings.find("not.on.the.Classpath", UpperCaseStream.class.getName());
+        assertNotNull(decoder);
+        InputStream in = decoder.decode(new ByteArrayInputStream("jsoup".getBytes(StandardCharsets.US_ASCII)));
+        assertInstanceOf(UpperCaseStream.class, in);
+        assertEquals("JSOUP", new String(DataUtil.readToByteBuffer(in, 0).array(), 0, 5, StandardCharsets.US_ASCII));
+    }
+
+    @Test void skipsMissingAndUnsuitableClasses() {
+        assertNull(ContentEncodings.find("not.on.the.Classpath"));
+        assertNull(ContentEncodings.find(String.class.getName())); // not an InputStream
+        assertNull(ContentEncodings.find(ByteArrayInputStream.class.getName())); // no InputStream constructor
+    }
+
+    @Test void decoderPassesOnIOExceptions() {
+        ContentEncodings.Decoder decoder = ContentEncodings.find(FailingStream.class.getName());
+        assertNotNull(decoder);
+        IOException e = assertThrows(IOException.class, () -> decoder.decode(new ByteArrayInputStream(new byte[0])));
+        assertEquals("Bad header", e.getMessage());
+    }
+
+    @Test void acceptsGzipAndFoundEncodings() {
+        // br and zstd decoders aren't on the test classpath
+        assertEquals("gzip", ContentEncodings.AcceptEncoding);
+        assertEquals("gzip", new HttpConnection.Request().header("Accept-Encoding"));
+    }
+
+    @Test void countsBytesRead() throws IOException {
+        ContentEncodings.CountingInputStream in = new ContentEncodings.CountingInputStream(
+            new ByteArrayInputStream(new byte[100]));
+        assertEquals(0, in.read());
+        assertEquals(10, in.read(new byte[10], 0, 10));
+        assertEquals(5, in.skip(5));
+        assertEquals(16, in.count());
+        DataUtil.readToByteBuffer(in, 0);
+        assertEquals(100, in.count());
+    }
+
+    public static class UpperCaseStream extends FilterInputStream {
+        public UpperCaseStream(InputStream in) {
+            super(in);
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            for (int i = off; i < off + read; i++) b[i] = (byte) Character.toUpperCase(b[i]);
+            return read;
+        }
+    }
+
+    public static class FailingStream extends FilterInputStream {
+        public FailingStream(InputStream in) throws IOException {
+            super(in);
+            throw new IOException("Bad header");
+        }
+    }
+}
@@ -252,6 +252,56 @@ public class DataUtilTest {
     }
 
 
+    @Test
+    public void prescansForDeclaredCharset() {
+        assertEquals("gb2312", prescan("<!doctype html><html><head><meta charset=GB2312>"));
+        assertEquals("euc-kr", prescan("<META HTTP-EQUIV='Content-Type' CONTENT='text/html; charset=\"EUC-KR\"'>"));
+        assertEquals("koi8-r", prescan("<meta/charset='koi8-r'/>"));
+        assertEquals("iso-8859-1", prescan("<?xml version='1.0' encoding='ISO-8859-1'?><html>"));
+        assertEquals("shift_jis", prescan("<?xml version='1.0' encoding='euc-jp'?><meta charset=shift_jis>")); // meta wins
+
+        assertNull(prescan("<html><head><title>No charset</title>"));
+        assertNull(prescan("<meta content='text/html; charset=gb2312'>")); // needs the http-equiv pragma
+        assertNull(prescan("<!-- <meta charset=gb2312> -->"));
+        assertNull(prescan("<div title='<meta charset=gb2312>'>"));
+        assertNull(prescan("<p><?xml version='1.0' encoding='gb2312'?>")); // not leading
+        assertNull(prescan("<meta charset=gb")); // cut off
+
+        assertEquals("gb2312", prescan("<!--><meta charset=gb2312>")); // the comment's dashes close it
+        assertEquals("gb2312", prescan("<meta charset=bogus><meta charset=gb2312>")); // unsupported is skipped
+        assertEquals("gb2312", prescan("<meta charset=gb2312 charset=koi8-r>")); // first of a duplicate
+        assertEquals("UTF-8", prescan("<meta charset=utf-16le>")); // as it was readable as ASCII
+    }
+
+    @Test
+    public void detectsUndeclaredCharsetWhenEnabled() throws IOException {
+        String html = "<html><head><title>Новости</title></head><body><p>Сегодня в Москве прошло заседание</p></body></html>";
+        Parser parser = Parser.htmlParser();
+        assertFalse(parser.isDetectUndeclaredCharset());
+        Document doc = DataUtil.parseInputStream(stream(html, "windows-1251"), null, "", parser);
+        assertEquals("UTF-8", doc.charset().name()); // not valid, so has replacement chars
+        assertNotEquals("Новости", doc.title());
+
+        parser.setDetectUndeclaredCharset(true);
+        assertTrue(parser.newInstance().isDetectUndeclaredCharset());
+        doc = DataUtil.parseInputStream(stream(html, "windows-1251"), null, "", parser);
+        assertEquals("windows-1251", doc.charset().name());
+        assertEquals("Новости", doc.title());
+        assertEquals("Сегодня в Москве прошло заседание", doc.expectFirst("p").text());
+
+        doc = DataUtil.parseInputStream(stream(html, "UTF-8"), null, "", parser);
+        assertEquals("UTF-8", doc.charset().name()); // valid UTF-8 stays as is
+        assertEquals("Новости", doc.title());
+
+        doc = DataUtil.parseInputStream(stream(html, "KOI8-R"), "windows-1251", "", parser);
+        assertEquals("windows-1251", doc.charset().name()); // a declared charset is not second guessed
+    }
+
+    private static String prescan(String html) {
+        byte[] bytes = html.getBytes(StandardCharsets.US_ASCII);
+        return CharsetPrescan.prescan(bytes, bytes.length);
+    }
+
     @Test
     public void loadsGzipFile() throws IOException {
         File in = getFile("/htmltests/gzip.html.gz");
@@ -384,7 +434,7 @@ public class DataUtilTest {
         byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
         ControllableInputStream in = ControllableInputStream.wrap(new BufferedOnceAvailableStream(bytes), 0);
 
-        DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(in, null, "http://example.com/", Parser.htmlParser());
+        DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(in, null, Parser.htmlParser());
         Document doc = DataUtil.parseInputStream(charsetDoc, "http://example.com/", Parser.htmlParser());
 
         assertNotNull(doc.selectFirst("hr"), "hr should survive the sniff + full parse");
@@ -0,0 +1,187 @@
+package org.jsoup.helper;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaxReaderTest {
+
+    @ParameterizedTest
+    @MethodSource("org.jsoup.helper.W3CDomTest#parserProvider")
+    void transformsAsConversion(Parser parser) throws Exception {
+        String html = "<?xml version='1.0'?><!-- top --><html xmlns:bk='urn:b'><body><div id=1 class='a b'>" +
+            "<p>One <b>bold</b><!-- c --></p><bk:book bk:id='2' title='T'>Two</bk:book><svg><path d='M1'/></svg>" +
+            "<script>x < 2</script><?pi data?></div></body></html>";
+        org.jsoup.nodes.Document doc = Jsoup.parse(html, parser);
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        for (Map.Entry<String, String> property : W3CDom.OutputXml().entrySet())
+            transformer.setOutputProperty(property.getKey(), property.getValue());
+        StringWriter out = new StringWriter();
+        transformer.transform(new SAXSource(new SaxReader(doc), new InputSource()), new StreamResult(out));
+
+        // attribute and declaration order may differ, so compare the reparsed trees
+        String converted = W3CDom.asString(W3CDom.convert(doc), W3CDom.OutputXml());
+        assertTrue(reparse(out.toString()).isEqualNode(reparse(converted)));
+    }
+
+    @Test void emitsNamespacedEvents() throws SAXException {
+        String xml = "<?xml version='1.0'?><!DOCTYPE root><!-- c --><root xmlns='urn:d' xmlns:a='urn:a' a:x='1' y='2'>" +
+            "<a:one>One</a:one><two xmlns=''><![CDATA[<cd>]]></two><b:three b:z='3'/><?pi go?></root><after/>";
+        org.jsoup.nodes.Document doc = Jsoup.parse(xml, Parser.xmlParser());
+        Recorder recorder = new Recorder();
+        SaxReader reader = new SaxReader(doc);
+        reader.setContentHandler(recorder);
+        reader.parse();
+
+        // an undeclared element prefix takes the element's namespace, as in the W3C conversion
+        assertEquals("startDocument, dtd root, comment  c , " +
+            "map :urn:d, map a:urn:a, start urn:d root root [urn:a x a:x=1, '' y y=2], " +
+            "start urn:a one a:one [], chars One, end a:one, " +
+            "map :, start '' two two [], startCDATA, chars <cd>, endCDATA, end two, unmap , " +
+            "map b:urn:d, start urn:d three b:three [undefined z b:z=3], end b:three, unmap b, " +
+            "pi pi go, end root, unmap a, unmap , endDocument", String.join(", ", recorder.events));
+    }
+
+    @Test void skipsTextOutsideRoot() throws SAXException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("\n <root>One</root>\n <!-- c -->\n", Parser.xmlParser());
+        Recorder recorder = new Recorder();
+        SaxReader reader = new SaxReader(doc);
+        reader.setContentHandler(recorder);
+        reader.parse();
+
+        // whitespace around the root element is not character data, as in the W3C conversion
+        assertEquals("startDocument, start '' root root [], chars One, end root, comment  c , endDocument",
+            String.join(", ", recorder.events));
+    }
+
+    @Test void emitsElementAsDocument() throws SAXException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("<div xmlns:p='urn:p'><section><p:x p:y=1>Hi</p:x></section></div>",
+            Parser.xmlParser());
+        Recorder recorder = new Recorder();
+        SaxReader reader = new SaxReader(doc.expectFirst("section"));
+        reader.setContentHandler(recorder);
+        reader.parse();
+
+        // the ancestor's declaration resolves the attribute, and is mapped where needed
+        assertEquals("startDocument, start '' section section [], map p:urn:p, " +
+            "start urn:p x p:x [urn:p y p:y=1], chars Hi, end p:x, unmap p, end section, endDocument",
+            String.join(", ", recorder.events));
+    }
+
+    @Test void supportsNamespaceFeatures() throws SAXException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("<a:x xmlns:a='urn:a' a:y=1 z='2'/>", Parser.xmlParser());
+        Recorder recorder = new Recorder();
+        SaxReader reader = new SaxReader(doc);
+        reader.setContentHandler(recorder);
+        reader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+        assertTrue(reader.getFeature("http://xml.org/sax/features/namespaces"));
+        reader.parse();
+        assertEquals("startDocument, map a:urn:a, start urn:a x a:x ['' xmlns:a=urn:a, urn:a y a:y=1, '' z z=2], " +
+            "end a:x, unmap a, endDocument", String.join(", ", recorder.events));
+
+        recorder.events.clear();
+        reader.setFeature("http://xml.org/sax/features/namespaces", false);
+        reader.parse();
+        assertEquals("startDocument, start '' '' a:x ['' xmlns:a=urn:a, '' a:y=1, '' z=2], end a:x, endDocument",
+            String.join(", ", recorder.events));
+
+        assertThrows(SAXNotRecognizedException.class, () -> reader.setFeature("http://example.com/unknown", true));
+    }
+
+    @Test void lexicalHandlerProperty() throws SAXException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("<!doctype html><p>One<!-- c --></p>");
+        Recorder recorder = new Recorder();
+        List<String> plain = new ArrayList<>();
+        SaxReader reader = new SaxReader(doc);
+        reader.setContentHandler(new org.xml.sax.helpers.DefaultHandler() {
+            @Override public void characters(char[] ch, int start, int length) {
+                plain.add(new String(ch, start, length));
+            }
+        });
+        reader.setProperty("http://xml.org/sax/properties/lexical-handler", recorder);
+        reader.parse();
+
+        assertEquals("dtd html, comment  c ", String.join(", ", recorder.events));
+        assertEquals("One", String.join("", plain));
+    }
+
+    @Test void emitsCurrentState() throws SAXException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("<p>One</p>");
+        Recorder recorder = new Recorder();
+        SaxReader reader = new SaxReader(doc.body());
+        reader.setContentHandler(recorder);
+        reader.parse();
+        assertTrue(recorder.events.contains("chars One"));
+
+        Element p = doc.expectFirst("p");
+        p.text("Two");
+        recorder.events.clear();
+        reader.parse();
+        assertTrue(recorder.events.contains("chars Two"));
+    }
+
+    private static Document reparse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document doc = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        doc.normalizeDocument();
+        return doc;
+    }
+
+    /** Records content and lexical events as strings. */
+    private static class Recorder extends DefaultHandler2 {
+        final List<String> events = new ArrayList<>();
+
+        @Override public void startDocument() { events.add("startDocument"); }
+        @Override public void endDocument() { events.add("endDocument"); }
+        @Override public void startPrefixMapping(String prefix, String uri) { events.add("map " + prefix + ":" + uri); }
+        @Override public void endPrefixMapping(String prefix) { events.add("unmap " + prefix); }
+
+        @Override public void startElement(String uri, String localName, String qName, Attributes atts) {
+            StringBuilder sb = new StringBuilder("start ").append(orQuotes(uri)).append(' ').append(orQuotes(localName))
+                .append(' ').append(qName).append(" [");
+            for (int i = 0; i < atts.getLength(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(orQuotes(atts.getURI(i))).append(' ');
+                if (!atts.getLocalName(i).isEmpty()) sb.append(atts.getLocalName(i)).append(' ');
+                sb.append(atts.getQName(i)).append('=').append(atts.getValue(i));
+            }
+            events.add(sb.append(']').toString());
+        }
+
+        @Override public void endElement(String uri, String localName, String qName) { events.add("end " + qName); }
+        @Override public void characters(char[] ch, int start, int length) { events.add("chars " + new String(ch, start, length)); }
+        @Override public void processingInstruction(String target, String data) { events.add("pi " + target + " " + data); }
+        @Override public void comment(char[] ch, int start, int length) { events.add("comment " + new String(ch, start, length)); }
+        @Override public void startCDATA() { events.add("startCDATA"); }
+        @Override public void endCDATA() { events.add("endCDATA"); }
+        @Override public void startDTD(String name, String publicId, String systemId) { events.add("dtd " + name); }
+
+        private static String orQuotes(String s) {
+            return s.isEmpty() ? "''" : s;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -801,6 +802,62 @@ public class W3CDomTest {
         assertEquals(0, w3CDoc.getElementsByTagName("xml:thing").getLength());
     }
 
+    @ParameterizedTest
+    @MethodSource("parserProvider")
+    void viewSerializesAsConversion(Parser parser) {
+        String html = "<?xml version='1.0'?><!-- top --><html xmlns:bk='urn:b'><body><div id=1 class='a b'>" +
+            "<p>One <b>bold</b><!-- c --></p><bk:book bk:id='2' title='T'>Two</bk:book><svg><path d='M1'/></svg>" +
+            "<script>x < 2</script></div></body></html>";
+        org.jsoup.nodes.Document doc = Jsoup.parse(html, parser);
+        for (boolean namespaceAware : new boolean[]{true, false}) {
+            W3CDom w3c = new W3CDom().namespaceAware(namespaceAware);
+            Document converted = w3c.fromJsoup(doc);
+            Document view = w3c.view(doc);
+            assertEquals(W3CDom.asString(converted, W3CDom.OutputXml()), W3CDom.asString(view, W3CDom.OutputXml()));
+            assertEquals(W3CDom.asString(converted, W3CDom.OutputHtml()), W3CDom.asString(view, W3CDom.OutputHtml()));
+        }
+    }
+
+    @Test void viewWrapsJsoupNodes() throws XPathExpressionException {
+        org.jsoup.nodes.Document doc = Jsoup.parse("<div id=1><p>One</p><p>Two</p></div>");
+        W3CDom w3c = new W3CDom();
+        Document view = w3c.view(doc);
+
+        Node html = view.getDocumentElement();
+        assertSame(doc.expectFirst("html"), html.getUserData(W3CDom.SourceProperty));
+        Node body = html.getLastChild();
+        assertSame(body, html.getFirstChild().getNextSibling()); // same wrapper on each navigation
+        assertSame(html, body.getParentNode());
+
+        NodeList ps = view.getElementsByTagName("p");
+        assertEquals(2, ps.getLength());
+        assertEquals("Two", ps.item(1).getTextContent());
+        assertEquals("1", ((org.w3c.dom.Element) view.getElementsByTagName("div").item(0)).getAttribute("id"));
+
+        // xpath over the view maps back to the jsoup nodes
+        w3c.namespaceAware(false);
+        Document unaware = w3c.view(doc);
+        XPathExpression xpath = XPathFactory.newInstance().newXPath().compile("//p[text()='Two']");
+        NodeList found = (NodeList) xpath.evaluate(unaware, XPathConstants.NODESET);
+        assertEquals(1, found.getLength());
+        assertSame(doc.select("p").get(1), w3c.sourceNodes(found, Element.class).get(0));
+
+        // reads through to the current jsoup state
+        doc.expectFirst("p").text("Changed");
+        assertEquals("Changed", ((org.w3c.dom.Element) unaware.getElementsByTagName("p").item(0)).getTextContent());
+    }
+
+    @Test void viewIsReadOnly() {
+        Document view = new W3CDom().view(Jsoup.parse("<p>One</p>"));
+        org.w3c.dom.Element p = (org.w3c.dom.Element) view.getElementsByTagName("p").item(0);
+        DOMException e = assertThrows(DOMException.class, () -> p.setAttribute("id", "1"));
+        assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, e.code);
+        assertThrows(DOMException.class, () -> p.appendChild(view.getDocumentElement()));
+        assertThrows(DOMException.class, () -> view.createElement("div"));
+        assertThrows(DOMException.class, () -> ((org.w3c.dom.Text) p.getFirstChild()).setData("Two"));
+        assertEquals("One", p.getTextContent());
+    }
+
     private static Stream<Arguments> parserProvider() {
         return Stream.of(
             Arguments.of(Parser.htmlParser()),
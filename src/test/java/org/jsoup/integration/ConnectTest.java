@@ -1347,6 +1347,41 @@ public class ConnectTest {
         assertEquals(LargeDocTextLen, document.text().length());
     }
 
+    @Test void progressCountsEncodedBytes() throws IOException {
+        // the content length is of the gzipped bytes, so progress is too; the response has both counts
+        String path = "/htmltests/xwiki-1324.html.gz";
+        int encodedLen = (int) ParseTest.getFile(path).length();
+        int decodedLen = 55560;
+        AtomicInteger lastProcessed = new AtomicInteger();
+        AtomicBoolean completed = new AtomicBoolean(false);
+
+        Connection.Response res = Jsoup.connect(origin().file.url(path))
+            .onResponseProgress((processed, total, percent, response) -> {
+                assertEquals(encodedLen, total);
+                assertTrue(processed >= lastProcessed.getAndSet(processed));
+                assertEquals(processed, response.bodyBytesReceived());
+                if (percent == 100.0f) {
+                    completed.set(true);
+                    assertEquals(encodedLen, processed);
+                }
+            })
+            .execute();
+        assertEquals("gzip", res.header("Content-Encoding"));
+        Document doc = res.parse();
+
+        assertTrue(completed.get());
+        assertEquals(encodedLen, res.bodyBytesReceived());
+        assertEquals(decodedLen, res.bodyBytesDecoded());
+        assertEquals("XWiki Jetty HSQLDB 12.1-SNAPSHOT", doc.select("#xwikiplatformversion").text());
+    }
+
+    @Test void bodyByteCountsMatchWhenNotEncoded() throws IOException {
+        Connection.Response res = Jsoup.connect(origin().file.url("/htmltests/large.html")).execute();
+        res.readFully();
+        assertEquals(LargeDocFileLen, res.bodyBytesReceived());
+        assertEquals(LargeDocFileLen, res.bodyBytesDecoded());
+    }
+
     @Test public void handlesMissingContentType() throws IOException {
         // test that responses without a Content-Type header parse and preserve the absent response metadata
         // we were giving an empty string back in httpclient which then would throw an invalid response
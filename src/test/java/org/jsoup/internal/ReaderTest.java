@@ -6,11 +6,14 @@ import org.jsoup.parser.CharacterReader;
 import org.jsoup.parser.Parser;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
 
 import static org.jsoup.integration.ParseTest.getPath;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -49,4 +52,68 @@ public class ReaderTest {
         ControllableInputStream stream = ControllableInputStream.wrap(input, 0);
         return new SimpleStreamReader(stream, StandardCharsets.UTF_8);
     }
+
+    @Test void decodesUtf8AsJdk() throws IOException {
+        // random mixes of ASCII runs, multibyte and supplementary chars, and malformed or cut off sequences; read in
+        // odd sized chunks so that sequences straddle the byte buffer and the char array
+        byte[][] parts = {
+            "Some ASCII text, long enough to span reads. ".getBytes(StandardCharsets.UTF_8),
+            "é".getBytes(StandardCharsets.UTF_8), "中文".getBytes(StandardCharsets.UTF_8),
+            "😀".getBytes(StandardCharsets.UTF_8), {(byte) 0x80}, {(byte) 0xC0, (byte) 0xAF}, {(byte) 0xE0, (byte) 0x80},
+            {(byte) 0xF0, (byte) 0x9F}, {(byte) 0xF4, (byte) 0x90, (byte) 0x80},
+            {(byte) 0xFF}, {(byte) 0xE2, (byte) 0x82}, {'<', 'p', '>'}};
+        Random random = new Random(2024);
+        for (int test = 0; test < 500; test++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int count = random.nextInt(200);
+            for (int i = 0; i < count; i++) out.write(parts[random.nextInt(parts.length)]);
+            if (random.nextBoolean()) out.write(0xF0); // cut off at the end
+            byte[] bytes = out.toByteArray();
+
+            int chunk = 1 + random.nextInt(50);
+            SimpleStreamReader reader = new SimpleStreamReader(ControllableInputStream.wrap(new ChunkedStream(bytes, chunk), 0),
+                StandardCharsets.UTF_8);
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), readAll(reader, 2 + random.nextInt(30)));
+        }
+    }
+
+    @Test void decodesAsciiAsJdk() throws IOException {
+        byte[] bytes = "Plain text, and some bytes out of range: \u00e9\u00ff and more plain text.".getBytes(StandardCharsets.ISO_8859_1);
+        SimpleStreamReader reader = new SimpleStreamReader(ControllableInputStream.wrap(new ChunkedStream(bytes, 7), 0),
+            StandardCharsets.US_ASCII);
+        assertEquals(new String(bytes, StandardCharsets.US_ASCII), readAll(reader, 5));
+    }
+
+    @Test void readsSupplementaryWhenRoom() throws IOException {
+        byte[] bytes = "a😀".getBytes(StandardCharsets.UTF_8);
+        SimpleStreamReader reader = new SimpleStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        char[] chars = new char[2];
+        assertEquals(1, reader.read(chars, 0, 1));
+        assertEquals(0, reader.read(chars, 0, 1)); // no room for the pair
+        assertEquals(2, reader.read(chars, 0, 2));
+        assertEquals("😀", new String(chars));
+        assertEquals(-1, reader.read(chars, 0, 2));
+    }
+
+    private static String readAll(SimpleStreamReader reader, int size) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] chars = new char[size];
+        int read;
+        while ((read = reader.read(chars)) != -1) builder.append(chars, 0, read);
+        return builder.toString();
+    }
+
+    /** Returns at most the chunk size of bytes per read. */
+    private static class ChunkedStream extends ByteArrayInputStream {
+        private final int chunk;
+
+        ChunkedStream(byte[] bytes, int chunk) {
+            super(bytes);
+            this.chunk = chunk;
+        }
+
+        @Override public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+    }
 }
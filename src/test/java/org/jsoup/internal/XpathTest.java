@@ -0,0 +1,83 @@
+package org.jsoup.internal;
+
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ Tests the native XPath evaluator against the W3C implementation. Selection via {@code Element.selectXpath} is tested
+ in {@link org.jsoup.select.XpathTest}.
+ */
+public class XpathTest {
+    @ParameterizedTest
+    @MethodSource("nativeXpaths")
+    void nativeMatchesW3c(Document doc, String xpath) {
+        Element context = doc.selectFirst("body, book");
+        for (Element el : new Element[]{doc, context}) {
+            List<Node> expected = w3cSelect(xpath, el);
+            List<Node> actual = Xpath.select(xpath, el, Node.class);
+            assertNotNull(actual, xpath);
+            assertEquals(expected.size(), actual.size(), xpath);
+            for (int i = 0; i < expected.size(); i++)
+                assertSame(expected.get(i), actual.get(i), xpath);
+        }
+    }
+
+    private static Stream<Arguments> nativeXpaths() {
+        Document html = Jsoup.parse("<!doctype html><head><title>T</title><script>x = 1 < 2;</script></head><body>" +
+            "<div id=1 class='a b'><p>One <b>bold</b> two</p><p class=x>Two<!-- c --> tail</p></div>" +
+            "<div id=2><p data-n=5>Three</p><span>3</span><span>4.5</span><div id=3><p>Nested</p></div></div>" +
+            "<a href=/x>link</a><a>none</a><ul><li>1</li><li>2</li><li>3</li></ul>");
+        html.expectFirst("p.x").appendText(" more"); // adjacent text nodes are one text node in XPath
+        Document xml = Jsoup.parse("<?xml version='1.0'?><?pi data?><!-- top --><bk:books xmlns:bk='urn:b'>" +
+            "<bk:book id='1'><title>A</title><price>10</price></bk:book>" +
+            "<book id='2'><title lang='en'>B</title><price>20.5</price><![CDATA[<x>]]>after</book></bk:books>",
+            Parser.xmlParser());
+
+        return Stream.of(
+            "//p", "//div/p", "//div//p", "//p[1]", "(//p)[last()]", "//p[position() > 1]", "//*", "//node()",
+            "//text()", "//p/text()[2]", "//comment()", "/", "/*", "/node()", ".", "..", "p", "ancestor-or-self::*",
+            "//p/ancestor::*[1]", "//p/preceding-sibling::*[1]", "//p/following::p", "//p/preceding::*[2]",
+            "//div[@id='2']", "//div[@id=2]", "//p[@data-n > 4]", "//p[contains(text(), 'Two')]",
+            "//p[starts-with(., 'Th')]", "//p[normalize-space(.) = 'One bold two']", "//div[count(p) = 2]",
+            "//div[not(p)]", "//*[name() = 'b']", "//span[. > 4]", "//span[sum(../span) = 7.5]",
+            "//li[position() mod 2 = 1]", "//li[last() - 1]", "//li[string(. div 3) = '0.3333333333333333']",
+            "//p[substring(., 2, 2) = 'ne']", "//p[translate(., 'OT', 'ot') = 'one bold two']", "//a[@href]",
+            "//a/@href", "//div | //p", "(//p | //span)[3]", "//script/text()", "//*[@id='3']/../p",
+            "//div[@id][2]", "//*[count(@*) = 2]", "//li[//span > //li]", "//processing-instruction()"
+        ).flatMap(xpath -> Stream.of(Arguments.of(html, xpath), Arguments.of(xml, xpath
+            .replaceAll("//p\\b", "//title").replace("span", "price"))));
+    }
+
+    private static List<Node> w3cSelect(String xpath, Element el) {
+        W3CDom w3c = new W3CDom().namespaceAware(false);
+        org.w3c.dom.Document wDoc = w3c.fromJsoup(el);
+        return w3c.sourceNodes(w3c.selectXpath(xpath, w3c.contextNode(wDoc)), Node.class);
+    }
+
+    @Test void unsupportedXpathIsReported() {
+        Document doc = Jsoup.parse("<p lang=en>One</p><p lang=fr>Two</p>");
+        String xpath = "//p[lang('en')] | //p[2]"; // lang() isn't supported natively
+        assertNull(Xpath.select(xpath, doc, Element.class));
+        assertFalse(Xpath.compile(xpath).isSupported());
+        assertNull(Xpath.select("count(//p)", doc, Element.class)); // not a node-set
+    }
+
+    @Test void cachesCompiledXpath() {
+        Xpath xpath = Xpath.compile("//div[@id='cached']/p");
+        assertTrue(xpath.isSupported());
+        assertSame(xpath, Xpath.compile("//div[@id='cached']/p"));
+    }
+}
@@ -215,6 +215,49 @@ public class DocumentTest {
         assertEquals("Before " + expected, accum.toString());
     }
 
+    @Test void writeHtmlMatchesString() throws IOException {
+        StringBuilder html = new StringBuilder("<title>One</title>");
+        for (int i = 0; i < 2000; i++) // spans many chunks, with surrogate pairs falling across chunk boundaries
+            html.append("<p class=c").append(i).append(">Two \uD83D\uDE00 ").append("éééééé", 0, i % 7).append("</p>");
+        Document doc = Jsoup.parse(html.toString());
+
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.UTF_16, StandardCharsets.US_ASCII}) {
+            doc.charset(charset);
+            byte[] expected = doc.outerHtml().getBytes(charset);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.writeHtml(out);
+            assertArrayEquals(expected, out.toByteArray());
+
+            ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+            doc.body().writeHtml(java.nio.channels.Channels.newChannel(channelOut));
+            assertArrayEquals(doc.body().outerHtml().getBytes(charset), channelOut.toByteArray());
+        }
+    }
+
+    @Test void writeHtmlThrowsIOException() {
+        Document doc = Jsoup.parse("<p>One</p>");
+        OutputStream failing = new OutputStream() {
+            @Override public void write(int b) throws IOException { throw new IOException("Closed"); }
+        };
+        IOException e = assertThrows(IOException.class, () -> doc.writeHtml(failing));
+        assertEquals("Closed", e.getMessage());
+    }
+
+    @Test void outerHtmlToPrintStream() throws IOException {
+        // a PrintStream is both an Appendable and an OutputStream, so each call must resolve unambiguously
+        Document doc = Jsoup.parse("<p>One \u00e9</p>");
+        ByteArrayOutputStream appended = new ByteArrayOutputStream();
+        PrintStream printStream = new PrintStream(appended, true, "UTF-8");
+        assertSame(printStream, doc.body().outerHtml(printStream));
+        printStream.flush();
+        assertEquals(doc.body().outerHtml(), new String(appended.toByteArray(), StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        doc.body().writeHtml(new PrintStream(written));
+        assertEquals(doc.body().outerHtml(), new String(written.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test public void testOverflowClone() {
         StringBuilder sb = new StringBuilder();
         sb.append("<head><base href='https://jsoup.org/'>");
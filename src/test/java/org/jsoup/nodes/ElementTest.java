@@ -21,12 +21,14 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
@@ -1567,6 +1569,76 @@ public class ElementTest {
         assertClassList("alpha\u00A0beta gamma", "alpha\u00A0beta", "gamma");
     }
 
+    @Test
+    public void longClassValuesAreTokenisedWhenRepeated() {
+        String value = "flex items-center\tjustify-between px-4 py-2 text-sm FONT-medium px-4";
+        Element one = new Element("div").attr("class", value);
+        Element two = new Element("div").attr("class", new String(value.toCharArray())); // equal, not the same
+        for (int i = 0; i < 3; i++) { // first sight scans; later tests use the shared tokens
+            for (Element el : new Element[]{one, two}) {
+                assertTrue(el.hasClass("font-medium"));
+                assertTrue(el.hasClass("PX-4"));
+                assertFalse(el.hasClass("px"));
+                assertFalse(el.hasClass("items-center justify-between"));
+                assertEquals(8, el.classList().size());
+                assertEquals(7, el.classNames().size());
+                assertThrows(UnsupportedOperationException.class, () -> el.classList().add("x"));
+            }
+        }
+
+        one.attributes().put("class", value + " extra");
+        assertTrue(one.hasClass("extra"));
+        assertTrue(one.classNames().contains("extra"));
+        one.classNames().add("mutable"); // a new set each time
+        assertFalse(one.hasClass("mutable"));
+        assertFalse(two.hasClass("extra"));
+    }
+
+    @Test
+    public void veryLongClassValuesAreNotRetained() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; value.length() <= ClassTokens.MaxLength; i++) value.append("c").append(i).append(' ');
+        Element el = new Element("div").attr("class", value.toString());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(el.hasClass("c100"));
+            assertFalse(el.hasClass("c"));
+            assertEquals(el.classList().size(), el.classNames().size());
+        }
+        assertNull(ClassTokens.of(value.toString())); // scanned each time, not held in the table
+    }
+
+    @Test
+    public void longClassValuesAreTokenisedWhenSeenOnAnotherAttribute() {
+        String value = "grid gap-4 sm:grid-cols-2 lg:grid-cols-3 text-slate-600 tokenised-on-another";
+        assertNull(ClassTokens.of(value)); // first sight, noted
+        assertNull(ClassTokens.of(value)); // the same attribute again, as for a compound selector
+        ClassTokens tokens = ClassTokens.of(new String(value)); // an equal value on another element
+        assertNotNull(tokens);
+        assertSame(tokens, ClassTokens.of(value));
+        assertTrue(tokens.contains("LG:GRID-COLS-3"));
+    }
+
+    @Test
+    public void longClassValuesMatchScan() {
+        Random random = new Random(2049);
+        String[] names = {"a", "bb", "flex", "px-4", "text-gray-700", "hover:bg-gray-50", "focus:ring-indigo-500"};
+        List<Element> els = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) { // more values than the table holds, so entries are replaced
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j < 6; j++) value.append(names[random.nextInt(names.length)]).append(j % 2 == 0 ? " " : "\n");
+            value.append("v").append(random.nextInt(500));
+            els.add(new Element("div").attr("class", value.toString()));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (Element el : els) {
+                List<String> expected = Arrays.asList(el.attr("class").split("[ \\n]"));
+                String name = random.nextBoolean() ? names[random.nextInt(names.length)] : "v" + random.nextInt(500);
+                assertEquals(expected.contains(name), el.hasClass(name));
+                assertEquals(expected, el.classList());
+            }
+        }
+    }
+
     @Test
     public void classListIsImmutable() {
         // Checks classList() returns immutable snapshots for empty, single, and multi-token results.
@@ -3570,4 +3642,57 @@ public class ElementTest {
         assertEquals(1, actualSize);
         assertEquals(1, reported); // was 0 via cache
     }
+
+    @Test void batchRemovesAndInserts() {
+        Document doc = Jsoup.parse("<ul><li>0</li><li>1</li><li>2</li><li>3</li><li>4</li></ul><p>Moved</p>");
+        Element ul = doc.expectFirst("ul");
+        Elements children = ul.children(); // cached; invalidated by the batch
+        Element p = doc.expectFirst("p");
+
+        ul.batch(b -> {
+            for (int i = 1; i < 5; i += 2) b.remove(ul.child(i));
+            b.insert(0, new Element("li").text("First"));
+            b.insert(2, p);
+            b.insert(2, new Element("li").text("After p"));
+            b.append(new Element("li").text("Last"));
+            b.replace(ul.child(4), new Element("li").text("Four"));
+        });
+
+        assertEquals("<li>First</li><li>0</li><p>Moved</p><li>After p</li><li>2</li><li>Four</li><li>Last</li>",
+            TextUtil.stripNewlines(ul.html()));
+        assertNull(children.get(1).parent());
+        assertSame(ul, p.parent());
+        assertEquals(0, doc.select("body > p").size());
+        for (int i = 0; i < ul.childNodeSize(); i++)
+            assertEquals(i, ul.childNode(i).siblingIndex());
+        assertEquals(7, ul.childrenSize());
+        assertEquals("Four", ul.child(5).text());
+    }
+
+    @Test void batchMovesWithinElement() {
+        Document doc = Jsoup.parse("<div><p>0</p><p>1</p><p>2</p></div>");
+        Element div = doc.expectFirst("div");
+        div.batch(b -> b.append(div.child(0)).insert(1, div.child(2)));
+        assertEquals("<p>2</p><p>1</p><p>0</p>", TextUtil.stripNewlines(div.html()));
+        assertEquals(3, div.childNodeSize());
+    }
+
+    @Test void invalidBatchMakesNoChanges() {
+        Document doc = Jsoup.parse("<div><p>0</p><p>1</p></div><span>Other</span>");
+        Element div = doc.expectFirst("div");
+        Element span = doc.expectFirst("span");
+        assertThrows(IllegalArgumentException.class, () -> div.batch(b -> b.remove(div.child(0)).remove(span)));
+        assertThrows(IllegalArgumentException.class, () -> div.batch(b -> b.remove(div.child(0)).insert(3, span)));
+        assertThrows(IllegalArgumentException.class, () -> div.batch(b -> b.append(span).append(span)));
+        assertThrows(IllegalArgumentException.class, () -> div.child(0).batch(b -> b.append(div)));
+        assertEquals("<p>0</p><p>1</p>", TextUtil.stripNewlines(div.html()));
+    }
+
+    @Test void batchUnlinksFormControls() {
+        Document doc = Jsoup.parse("<form><input name=one value=1><input name=two value=2></form>");
+        FormElement form = (FormElement) doc.expectFirst("form");
+        form.batch(b -> b.remove(form.child(0)));
+        assertEquals(1, form.elements().size());
+        assertEquals("two=2", form.formData().get(0).toString());
+    }
 }
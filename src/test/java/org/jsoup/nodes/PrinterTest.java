@@ -1,10 +1,17 @@
 package org.jsoup.nodes;
 
 import org.jsoup.Jsoup;
+import org.jsoup.internal.QuietAppendable;
+import org.jsoup.select.Elements;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.jsoup.integration.ParseTest.getFile;
 import static org.jsoup.integration.ParseTest.getFileAsString;
@@ -90,4 +97,187 @@ public class PrinterTest {
         assertEquals("<div>\n <span>Span</span> Text <span>Follow</span>\n</div>\n<p><span>Span</span> Text <span>Follow</span></p>", body.html());
     }
 
+    @Test void parallelMatchesSerial() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Document doc = Jsoup.parse(getFile("/htmltests/large.html"));
+            assertNotNull(ParallelPrinter.findSplit(doc));
+            for (int mode = 0; mode < 3; mode++) { // passthru, pretty, outline
+                doc.outputSettings().prettyPrint(mode > 0).outline(mode == 2);
+                assertEquals(doc.outerHtml(), parallel(doc, executor));
+                assertEquals(doc.body().outerHtml(), parallel(doc.body(), executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void parallelSeamsMatchSerial() {
+        // the split's children (and their text trimming and indents) depend on neighbours in other groups
+        StringBuilder html = new StringBuilder("<section><div>");
+        String[] parts = {" Text ", "<span>Span</span>", "<p>P <i>i</i></p>", "\n  ", "<pre> x\n  y </pre>", "<br>",
+            "<!-- c -->", "<custom>c<div>d</div></custom>", "&amp;"};
+        for (int i = 0; i < 900; i++) html.append(parts[i % parts.length]);
+        html.append("</div></section><pre><div>");
+        for (int i = 0; i < 900; i++) html.append(parts[i % parts.length]);
+        Document doc = Jsoup.parse(html.toString());
+        assertNotNull(ParallelPrinter.findSplit(doc.expectFirst("body > pre"))); // within preserved whitespace
+
+        Executor direct = Runnable::run;
+        for (int mode = 0; mode < 3; mode++) {
+            doc.outputSettings().prettyPrint(mode > 0).outline(mode == 2);
+            assertEquals(doc.outerHtml(), parallel(doc, direct));
+            for (Element el : doc.select("div, pre"))
+                assertEquals(el.outerHtml(), parallel(el, direct));
+        }
+    }
+
+    @Test void parallelSplitsHeaviestWideElement() {
+        // a head of whitespace-separated meta tags is wide, but the body holds the work
+        StringBuilder html = new StringBuilder("<!doctype html>\n<html>\n<head>\n");
+        for (int i = 0; i < 9; i++) html.append("  <meta name=m").append(i).append(" content=c>\n");
+        html.append("</head>\n<body>\n<div><p>One</p></div>\n<table>\n<tbody>\n");
+        for (int i = 0; i < 5000; i++) html.append("<tr><td>Row ").append(i).append("</td><td>x</td></tr>\n");
+        html.append("</tbody>\n</table>\n</body>\n</html>");
+        Document doc = Jsoup.parse(html.toString());
+        Element tbody = doc.expectFirst("tbody");
+
+        assertTrue(doc.head().childNodeSize() >= ParallelPrinter.MinSplitChildren);
+        assertSame(tbody, ParallelPrinter.findSplit(doc));
+        assertSame(tbody, ParallelPrinter.findSplit(doc.body()));
+        assertNull(ParallelPrinter.findSplit(doc.head())); // too small to be worth splitting
+        assertNull(ParallelPrinter.findSplit(doc.expectFirst("div")));
+
+        List<Runnable> tasks = new ArrayList<>();
+        Executor queueing = tasks::add; // never runs them
+        String out = parallel(doc, queueing);
+        assertFalse(tasks.isEmpty());
+        assertEquals(doc.outerHtml(), out); // run by the caller on join if the executor has not
+    }
+
+    @Test void parallelSkipsBlankTextWhenCountingChildren() {
+        StringBuilder html = new StringBuilder("<div>");
+        for (int i = 0; i < ParallelPrinter.MinSplitChildren - 1; i++) html.append("\n <p>").append(i).append("</p>");
+        html.append("\n</div>");
+        Element div = Jsoup.parse(html.toString()).expectFirst("div");
+        for (Element p : div.children()) for (int i = 0; i < 100; i++) p.appendElement("span").text("s"); // heavy enough
+        assertTrue(div.childNodeSize() >= ParallelPrinter.MinSplitChildren);
+        assertNull(ParallelPrinter.findSplit(div)); // 15 paragraphs and blank text: searched through, not split
+
+        div.appendElement("p").appendElement("span").text("more");
+        assertSame(div, ParallelPrinter.findSplit(div));
+    }
+
+    private static String parallel(Node node, Executor executor) {
+        StringBuilder sb = new StringBuilder();
+        ParallelPrinter.print(node, QuietAppendable.wrap(sb), executor);
+        return sb.toString();
+    }
+
+    @Test void cachedHtmlMatchesUncached() throws IOException {
+        Document doc = Jsoup.parse(getFile("/htmltests/large.html"));
+        Elements cached = doc.select("div, p, pre, td");
+        try {
+            for (int mode = 0; mode < 3; mode++) { // passthru, pretty, outline
+                doc.outputSettings().prettyPrint(mode > 0).outline(mode == 2);
+                String expected = doc.outerHtml();
+                String body = doc.body().html();
+                cached.forEach(el -> el.cacheHtml(true));
+                assertEquals(expected, doc.outerHtml()); // printed and cached
+                assertEquals(expected, doc.outerHtml()); // spliced from the cache
+                assertEquals(body, doc.body().html());
+                cached.forEach(el -> el.cacheHtml(false));
+            }
+        } finally {
+            cached.forEach(el -> el.cacheHtml(false));
+        }
+    }
+
+    @Test void cachedHtmlIsInvalidatedOnMutation() {
+        Document doc = Jsoup.parse("<header><nav><a href=/one>One</a> <a href=/two>Two</a><pre> x <span>y</span></pre></nav>" +
+            "</header><main><p>Main</p></main><footer></footer>");
+        Element nav = doc.expectFirst("nav").cacheHtml(true);
+        Element pre = doc.expectFirst("pre").cacheHtml(true);
+        Element a = doc.expectFirst("a");
+        try {
+            assertEquals(uncached(doc), doc.outerHtml());
+
+            // a direct attribute change is not tracked, so the cache is used until reset
+            a.attributes().put("href", "/uno");
+            assertFalse(doc.outerHtml().contains("/uno"));
+            nav.cacheHtml(true);
+            assertTrue(doc.outerHtml().contains("/uno"));
+
+            List<Runnable> mutations = new ArrayList<>();
+            mutations.add(() -> a.attr("href", "/1"));
+            mutations.add(() -> a.attr("hidden", true));
+            mutations.add(() -> a.removeAttr("hidden"));
+            mutations.add(() -> a.addClass("active"));
+            mutations.add(() -> a.text("Uno"));
+            mutations.add(() -> ((TextNode) pre.childNode(0)).text(" z "));
+            mutations.add(() -> pre.expectFirst("span").tagName("b"));
+            mutations.add(() -> pre.expectFirst("b").tag(doc.expectFirst("a").tag()));
+            mutations.add(() -> nav.appendElement("a").text("Three"));
+            mutations.add(() -> nav.prependText("Links: "));
+            mutations.add(() -> a.after("<i>|</i>"));
+            mutations.add(() -> nav.expectFirst("i").remove());
+            mutations.add(() -> a.wrap("<span></span>"));
+            mutations.add(() -> a.parent().unwrap());
+            mutations.add(() -> a.replaceWith(new Element("em").text("Replaced")));
+            mutations.add(() -> pre.empty());
+            mutations.add(() -> pre.clearAttributes().attr("class", "code").appendChild(new TextNode("\n  code  ")));
+            mutations.add(() -> doc.expectFirst("footer").appendChild(nav)); // moved, at the same depth
+            mutations.add(() -> doc.body().appendChild(nav)); // moved, shallower
+            mutations.add(() -> doc.outputSettings().indentAmount(4));
+            mutations.add(() -> doc.outputSettings().outline(true));
+            mutations.add(() -> doc.outputSettings().prettyPrint(false));
+            for (Runnable mutation : mutations) {
+                mutation.run();
+                assertEquals(uncached(doc), doc.outerHtml());
+                assertEquals(uncached(doc), doc.outerHtml());
+            }
+        } finally {
+            nav.cacheHtml(false);
+            pre.cacheHtml(false);
+        }
+    }
+
+    @Test void clonedElementHasOwnCache() {
+        Document doc = Jsoup.parse("<div><p>One</p></div>");
+        Element div = doc.expectFirst("div").cacheHtml(true);
+        Document clone = doc.clone();
+        Element cloneDiv = clone.expectFirst("div");
+        try {
+            assertEquals("<div>\n <p>One</p>\n</div>", div.outerHtml());
+            cloneDiv.expectFirst("p").text("Two");
+            assertEquals("<div>\n <p>Two</p>\n</div>", cloneDiv.outerHtml());
+            assertEquals("<div>\n <p>One</p>\n</div>", div.outerHtml());
+            assertNotSame(HtmlCache.of(div), HtmlCache.of(cloneDiv));
+        } finally {
+            div.cacheHtml(false);
+            cloneDiv.cacheHtml(false);
+        }
+    }
+
+    @Test void abandonedCacheIsReclaimed() throws InterruptedException {
+        cacheAndAbandon();
+        for (int i = 0; i < 500 && HtmlCache.isActive(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertFalse(HtmlCache.isActive()); // mutations and printing skip the cache checks again
+    }
+
+    private static void cacheAndAbandon() {
+        Document doc = Jsoup.parse("<div><p>One</p></div>");
+        doc.expectFirst("div").cacheHtml(true); // never disabled
+        assertTrue(HtmlCache.isActive());
+    }
+
+    /** Prints a copy of the document with caching disabled. */
+    private static String uncached(Document doc) {
+        Document copy = doc.clone();
+        copy.getAllElements().forEach(el -> el.cacheHtml(false));
+        return copy.outerHtml();
+    }
 }
@@ -1,7 +1,10 @@
 package org.jsoup.parser;
 
+import org.jsoup.Jsoup;
 import org.jsoup.integration.ParseTest;
 import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.TextNode;
 import org.junit.jupiter.api.Test;
 
 import java.io.BufferedReader;
@@ -274,6 +277,36 @@ public class CharacterReaderTest {
         assertEquals(five, "A string that is longer than 16 chars");
     }
 
+    @Test public void sharesWhitespaceRunsAcrossReaders() {
+        String indent = "\n                    "; // longer than the string cache length
+        String tabs = "\t\t\t\t\t\t\t\t\t\t\t\t\t\t";
+        String html = "<div>" + indent + "<p>One</p>" + indent + "<p>" + tabs + "</p></div>";
+
+        CharacterReader r1 = new CharacterReader(html);
+        r1.consumeTo('\n');
+        String one = r1.consumeTo('<');
+        CharacterReader r2 = new CharacterReader(html);
+        r2.consumeTo('\n');
+        String two = r2.consumeTo('<');
+        assertEquals(indent, one);
+        assertSame(one, two);
+
+        Document doc1 = Jsoup.parse(html);
+        Document doc2 = Jsoup.parse(html);
+        TextNode text1 = (TextNode) doc1.expectFirst("div").childNode(0);
+        TextNode text2 = (TextNode) doc2.expectFirst("div").childNode(0);
+        assertEquals(indent, text1.getWholeText());
+        assertSame(text1.getWholeText(), text2.getWholeText());
+        assertSame(text1.getWholeText(), ((TextNode) doc1.expectFirst("div").childNode(2)).getWholeText());
+        assertSame(doc1.select("p").get(1).textNodes().get(0).getWholeText(), doc2.select("p").get(1).textNodes().get(0).getWholeText());
+
+        // mixed runs are not shared
+        String mixed = "\n      \t       ";
+        assertNotSame(new CharacterReader(mixed).consumeToEnd(), new CharacterReader(mixed).consumeToEnd());
+        String text = "Not whitespace at all";
+        assertNotSame(new CharacterReader(text).consumeToEnd(), new CharacterReader(text).consumeToEnd());
+    }
+
     @Test
     public void rangeEquals() {
         CharacterReader r = new CharacterReader("Check\tCheck\tCheck\tCHOKE");
@@ -18,6 +18,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.jsoup.parser.ParseSettings.preserveCase;
@@ -1252,6 +1253,52 @@ public class HtmlParserTest {
         assertEquals("<3:2>: Invalid character reference: invalid named reference [arrgh]", errors.get(2).toString());
     }
 
+    @Test public void aggregatesErrorsWhenRequested() {
+        String html = "<p>One</p href='no'>\n<!DOCTYPE html>\n&arrgh;<font />&#33 &amp &#x110000;<br /></div></span><foo";
+        Parser parser = Parser.htmlParser().setAggregateErrors(3);
+        assertTrue(parser.isTrackErrors());
+        parser.parseInput(html, "http://example.com");
+
+        ParseErrorList errors = parser.getErrors();
+        assertTrue(errors.isAggregating());
+        assertEquals(3, errors.size()); // sampled
+        assertEquals(11, errors.getErrorCount());
+
+        Map<String, Integer> counts = errors.getErrorCounts();
+        assertEquals(4, counts.get("Unexpected %s token [%s] when in state [%s]"));
+        assertEquals(1, counts.get("Invalid character reference: missing semicolon on [&%s]"));
+        assertEquals(1, counts.get("Tag [%s] cannot be self-closing; not a void tag"));
+
+        for (ParseError error : errors) {
+            assertTrue(counts.containsKey(error.getErrorType()));
+            assertTrue(error.toString().startsWith("<"));
+        }
+
+        // counts reset on the next parse
+        parser.parseInput("<p>One</p href='no'>", "");
+        assertEquals(1, parser.getErrors().getErrorCount());
+        assertEquals("<1:21>: Attributes incorrectly present on end tag [/p]", parser.getErrors().get(0).toString());
+    }
+
+    @Test public void aggregateErrorsCanOnlyCount() {
+        Parser parser = Parser.htmlParser().setAggregateErrors(0);
+        parser.parseInput("<font /><b /><foo", "");
+        ParseErrorList errors = parser.getErrors();
+        assertEquals(0, errors.size());
+        assertEquals(4, errors.getErrorCount());
+        assertEquals(2, errors.getErrorCounts().get("Tag [%s] cannot be self-closing; not a void tag"));
+        assertTrue(parser.newInstance().getErrors().isAggregating());
+    }
+
+    @Test public void errorCountsInTrackingMode() {
+        Parser parser = Parser.htmlParser().setTrackErrors(10);
+        parser.parseInput("<font /><b />", "");
+        ParseErrorList errors = parser.getErrors();
+        assertFalse(errors.isAggregating());
+        assertEquals(3, errors.getErrorCount()); // includes the EOF error
+        assertEquals(2, errors.getErrorCounts().get("Tag [%s] cannot be self-closing; not a void tag"));
+    }
+
     @Test public void noErrorsByDefault() {
         String html = "<p>One</p href='no'>&arrgh;<font /><br /><foo";
         Parser parser = Parser.htmlParser();
@@ -1,7 +1,6 @@
 package org.jsoup.parser;
 
 import org.jsoup.Jsoup;
-import org.jsoup.internal.StringUtil;
 import org.jsoup.parser.HtmlTreeBuilderState.Constants;
 import org.junit.jupiter.api.Test;
 
@@ -11,7 +10,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.jsoup.parser.HtmlTreeBuilderState.Constants.InBodyStartInputAttribs;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class HtmlTreeBuilderStateTest {
@@ -45,19 +43,42 @@ public class HtmlTreeBuilderStateTest {
     public void ensureArraysAreSorted() {
         List<Object[]> constants = findConstantArrays(Constants.class);
         ensureSorted(constants);
-        assertEquals(37, constants.size());
+        assertEquals(1, constants.size()); // the tag constants are IdSets, checked at creation to be in the id table
+        ensureSorted(findConstantArrays(HtmlTagIds.class));
     }
 
-    @Test public void ensureTagSearchesAreKnownTags() {
-        List<Object[]> constants = findConstantArrays(Constants.class);
-        for (Object[] constant : constants) {
-            String[] tagNames = (String[]) constant;
-            for (String tagName : tagNames) {
-                if (StringUtil.inSorted(tagName, InBodyStartInputAttribs))
-                    continue; // odd one out in the constant
-                assertTrue(Tag.isKnownTag(tagName), String.format("Unknown tag name: %s", tagName));
-            }
+    @Test public void ensureTagIdsAreKnownTags() {
+        for (String tagName : HtmlTagIds.Names) {
+            assertTrue(Tag.isKnownTag(tagName), String.format("Unknown tag name: %s", tagName));
+        }
+        assertTrue(HtmlTagIds.Names.length < 128);
+    }
+
+    @Test public void tagIdSetsMatchNames() {
+        HtmlTagIds.IdSet set = HtmlTagIds.set("a", "var"); // the first and last ids, in each half of the set
+        for (String name : HtmlTagIds.Names) {
+            int id = HtmlTagIds.idOf(name);
+            assertEquals(name.equals("a") || name.equals("var"), set.contains(id), name);
         }
+        assertEquals(HtmlTagIds.Other, HtmlTagIds.idOf("custom-tag"));
+        assertFalse(set.contains(HtmlTagIds.Other));
+        assertThrows(IllegalStateException.class, () -> HtmlTagIds.set("custom-tag"));
+    }
+
+    @Test public void tagsAndTokensHaveIdOfName() {
+        Tag tag = new Tag("TD");
+        assertEquals(HtmlTagIds.idOf("td"), tag.tagId());
+        tag.name("th");
+        assertEquals(HtmlTagIds.idOf("th"), tag.tagId());
+        assertEquals(HtmlTagIds.Other, new Tag("custom").tagId());
+
+        Token.StartTag start = new Token.StartTag(new HtmlTreeBuilder());
+        start.name("TR");
+        assertEquals(HtmlTagIds.idOf("tr"), start.tagId());
+        start.appendTagName("ack"); // trACK
+        assertEquals(HtmlTagIds.idOf("track"), start.tagId());
+        start.reset().name("p");
+        assertEquals(HtmlTagIds.idOf("p"), start.tagId());
     }
 
 
@@ -2,16 +2,23 @@ package org.jsoup.parser;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParserTest {
@@ -99,4 +106,136 @@ public class ParserTest {
         parser.tagSet().add(new Tag("bar"));
         assertNull(clone.tagSet().get("bar", Parser.NamespaceHtml));
     }
+
+    @Test
+    public void reusedParserResetsStateBetweenParses() {
+        Parser parser = Parser.htmlParser();
+        parser.parseInput("<p>Zero", "");
+        TreeBuilder treeBuilder = parser.getTreeBuilder();
+        assertNull(treeBuilder.tokeniser); // released after a one-off parse
+
+        // leave the reused parse mid-table, mid-formatting, mid-template, and in a raw text state
+        Document first = parser.parseInput("<table><tr><td><b><i>One<template><p>Two<script>var a = '", "");
+        Tokeniser tokeniser = treeBuilder.tokeniser;
+        assertNotNull(tokeniser); // now retained
+
+        Document second = parser.parseInput("<p>Three<p>Four</p>", "");
+        assertSame(tokeniser, treeBuilder.tokeniser); // reused
+        assertEquals("<p>Three</p><p>Four</p>", second.body().html().replace("\n", ""));
+        assertEquals(Jsoup.parse("<p>Three<p>Four</p>").html(), second.html());
+        assertNotSame(first, second);
+
+        Document xml = Parser.xmlParser().parseInput("<a>One</a>", "");
+        Parser xmlParser = xml.parser();
+        assertEquals("<b>Two</b>", xmlParser.parseInput("<b>Two</b>", "").html());
+    }
+
+    @Test
+    public void reusedParserPicksUpSettingChanges() {
+        Parser parser = Parser.htmlParser();
+        parser.parseInput("<p>One</p>", "");
+        parser.parseInput("<p>One</p>", "");
+        Tokeniser tokeniser = parser.getTreeBuilder().tokeniser;
+
+        parser.setTrackPosition(true).setTrackErrors(10);
+        Document doc = parser.parseInput("<p>One</p href=x>", "");
+        assertNotSame(tokeniser, parser.getTreeBuilder().tokeniser); // tokens are rebuilt when tracking changes
+        assertEquals("1,1:0-1,4:3", doc.expectFirst("p").sourceRange().toString());
+        assertEquals(1, parser.getErrors().size());
+
+        parser.setTrackErrors(0);
+        parser.parseInput("<p>One</p href=x>", "");
+        assertEquals(0, parser.getErrors().size());
+
+        assertEquals("& <", parser.unescape("&amp; &lt;", false));
+        assertEquals("<p>Two</p>", parser.parseInput("<p>Two</p>", "").body().html());
+    }
+
+    @Test
+    public void reusedParserReleasesOutlierLists() {
+        Parser parser = Parser.htmlParser();
+        HtmlTreeBuilder treeBuilder = (HtmlTreeBuilder) parser.getTreeBuilder();
+        parser.parseInput("<p>One", "");
+        parser.parseInput("<p>One", "");
+        TreeBuilder.WorkList<Element> formatting = treeBuilder.formattingElements;
+
+        // the formatting list grows large, but is drained by the end of the parse
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < TreeBuilder.MaxRetainedListSize * 2; i++) html.append("<b id=").append(i).append(">");
+        for (int i = 0; i < TreeBuilder.MaxRetainedListSize * 2; i++) html.append("</b>");
+        parser.parseInput(html.toString(), "");
+        assertSame(formatting, treeBuilder.formattingElements);
+        assertTrue(formatting.isEmpty());
+
+        parser.parseInput("<p>Two", "");
+        assertNotSame(formatting, treeBuilder.formattingElements); // replaced, as its peak was an outlier
+        formatting = treeBuilder.formattingElements;
+        parser.parseInput("<p>Three", "");
+        assertSame(formatting, treeBuilder.formattingElements);
+    }
+
+    @Test
+    public void simpleFragmentsMatchFullParse() {
+        String[] inputs = {
+            "", "Hello", " ", "\n  ", "  Hello, world!  ", "One > two", "Emoji \uD83D\uDE00 and \u4E2D\u6587",
+            "<b>Bold</b>", "Some <em>emphasis</em> and <strong>strong</strong> text.", "<i><b>Nested</b> text</i> after",
+            "Line one<br>Line two<br>", "<span><code>x</code><sub>1</sub><sup>2</sup><s>old</s><u>u</u><small>s</small></span>",
+            "<b></b>", "<br><br>",
+        };
+        Element body = Document.createShell("").body();
+        for (String input : inputs) {
+            List<Node> fast = SimpleFragment.parse(input);
+            assertNotNull(fast, input);
+
+            HtmlTreeBuilder treeBuilder = new HtmlTreeBuilder();
+            List<Node> full = treeBuilder.parseFragment(new StringReader(input), body, "", new Parser(treeBuilder));
+            assertEquals(full.size(), fast.size(), input);
+            for (int i = 0; i < full.size(); i++) {
+                assertNull(fast.get(i).parent());
+                assertEquals(full.get(i).getClass(), fast.get(i).getClass(), input);
+                if (full.get(i) instanceof TextNode)
+                    assertEquals(((TextNode) full.get(i)).getWholeText(), ((TextNode) fast.get(i)).getWholeText());
+            }
+            Document fullDoc = Document.createShell("");
+            fullDoc.body().appendChildren(full);
+            Document fastDoc = Document.createShell("");
+            fastDoc.body().appendChildren(fast);
+            assertEquals(fullDoc.html(), fastDoc.html(), input);
+            assertEquals(fullDoc.html(), Jsoup.parseBodyFragment(input).html(), input);
+        }
+    }
+
+    @Test
+    public void complexFragmentsUseFullParse() {
+        String[] inputs = {
+            "a < b", "Fish &amp; chips", "<b>One<i>Two</b>Three</i>", "<b>Unclosed", "Stray</b>", "<B>Upper</B>",
+            "<a href=x>Link</a>", "<b class=x>Attr</b>", "<p>Block</p>", "<br/>", "<b >Space</b >", "Null\u0000",
+            "CR\r\nLF", "<!-- comment -->", "<script>x</script>", "<>", "<b>",
+        };
+        for (String input : inputs) {
+            assertNull(SimpleFragment.parse(input), input);
+        }
+
+        // and those are still parsed correctly by the full path
+        assertEquals("<b>One<i>Two</i></b><i>Three</i>", Jsoup.parseBodyFragment("<b>One<i>Two</b>Three</i>").body().html());
+        assertEquals("Fish &amp; chips", Jsoup.parseBodyFragment("Fish &amp; chips").body().html());
+    }
+
+    @Test
+    public void simpleFragmentsOnlyInBodyContext() {
+        Document doc = Document.createShell("");
+        assertTrue(SimpleFragment.isBodyContext(doc.body()));
+        assertFalse(SimpleFragment.isBodyContext(doc.head()));
+        assertFalse(SimpleFragment.isBodyContext(null));
+        assertFalse(SimpleFragment.isBodyContext(new Element("body", Parser.NamespaceSvg)));
+
+        List<Node> nodes = Parser.parseFragment("<b>One</b>", doc.head(), "");
+        assertEquals("<b>One</b>", nodes.get(0).outerHtml()); // via full parser
+
+        ParseErrorList errors = ParseErrorList.tracking(10);
+        errors.add(new ParseError(0, "Old"));
+        nodes = Parser.parseFragment("<b>One</b>", doc.body(), "", errors);
+        assertEquals(1, nodes.size());
+        assertTrue(errors.isEmpty());
+    }
 }
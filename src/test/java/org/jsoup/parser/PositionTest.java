@@ -776,6 +776,72 @@ class PositionTest {
         assertEquals("<html attr=\"foo\"><head></head><body class=\"2\" data=\"bar\"><span id=\"1\">One</span>Two </body></html>", TextUtil.normalizeSpaces(doc.html()));
     }
 
+    @Test void sourceHtmlReturnsOriginalMarkup() {
+        String html = "<div CLASS='a'  id=one>One &amp; <b>Two</B><!-- c --></div><p>Three<p>Four";
+        Parser parser = Parser.htmlParser().setRetainSource(1024);
+        assertTrue(parser.isRetainSource());
+        assertTrue(parser.isTrackPosition());
+        Document doc = Jsoup.parse(html, parser);
+
+        Element div = doc.expectFirst("div");
+        assertEquals("<div CLASS='a'  id=one>One &amp; <b>Two</B><!-- c --></div>", div.sourceHtml().toString());
+        assertEquals("<b>Two</B>", doc.expectFirst("b").sourceHtml().toString());
+        assertEquals("One &amp; ", div.childNode(0).sourceHtml().toString());
+        assertEquals("<!-- c -->", div.childNode(2).sourceHtml().toString());
+        assertEquals("<p>Three", doc.expectFirst("p").sourceHtml().toString()); // implicitly closed
+        assertEquals(html, doc.sourceHtml().toString());
+
+        // modifications don't change the source
+        div.attr("id", "two").empty();
+        assertEquals("<div CLASS='a'  id=one>One &amp; <b>Two</B><!-- c --></div>", div.sourceHtml().toString());
+    }
+
+    @Test void sourceHtmlAcrossBufferRefills() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("<p id=").append(i).append(">Text ").append(i).append("</p>\n");
+        }
+        Document doc = Jsoup.parse(sb.toString(), Parser.htmlParser().setRetainSource(Integer.MAX_VALUE));
+        assertEquals("<p id=500>Text 500</p>", doc.expectFirst("#500").sourceHtml().toString());
+        assertEquals("<p id=999>Text 999</p>", doc.expectFirst("#999").sourceHtml().toString());
+        assertEquals(sb.toString(), doc.sourceHtml().toString());
+    }
+
+    @Test void sourceHtmlIsBounded() {
+        String html = "<p>One</p><p>Two</p>";
+        Document doc = Jsoup.parse(html, Parser.htmlParser().setRetainSource(12));
+        Elements ps = doc.select("p");
+        assertEquals("<p>One</p>", ps.get(0).sourceHtml().toString());
+        assertNull(ps.get(1).sourceHtml()); // past the retained prefix
+        assertNull(doc.sourceHtml());
+    }
+
+    @Test void sourceHtmlNotRetainedByDefault() {
+        Document doc = Jsoup.parse("<p>One</p>", TrackingHtmlParser);
+        assertNull(doc.expectFirst("p").sourceHtml());
+        assertNull(Jsoup.parse("<p>One</p>").expectFirst("p").sourceHtml());
+
+        Parser parser = Parser.htmlParser().setRetainSource(100);
+        assertEquals(100, parser.newInstance().getRetainSourceMax());
+        assertFalse(parser.setRetainSource(0).isRetainSource());
+    }
+
+    @Test void disablingTrackingDisablesRetainSource() {
+        Parser parser = Parser.htmlParser().setRetainSource(100).setTrackPosition(false);
+        assertFalse(parser.isRetainSource());
+        assertEquals(0, parser.getRetainSourceMax());
+        assertNull(Jsoup.parse("<p>One</p>", parser).expectFirst("p").sourceHtml());
+
+        parser.setTrackPosition(true).setRetainSource(100); // retention re-enabled explicitly
+        assertEquals("<p>One</p>", Jsoup.parse("<p>One</p>", parser).expectFirst("p").sourceHtml().toString());
+    }
+
+    @Test void sourceHtmlSurvivesClone() {
+        Document doc = Jsoup.parse("<div><p>One</p></div>", Parser.xmlParser().setRetainSource(100));
+        Element p = doc.expectFirst("p").clone();
+        assertEquals("<p>One</p>", p.sourceHtml().toString());
+    }
+
     static void accumulateAttributePositions(Node node, StringBuilder sb) {
         if (node instanceof LeafNode) return; // leafnode pseudo attributes are not tracked
         for (Attribute attribute : node.attributes()) {
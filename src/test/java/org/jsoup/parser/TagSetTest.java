@@ -218,6 +218,112 @@ public class TagSetTest {
         assertEquals(0, sourceAdds.get());
     }
 
+    @Test void parsersShareFrozenTags() {
+        TagSet frozen = TagSet.Html().freeze();
+        assertSame(frozen, frozen.freeze());
+        Document doc1 = Jsoup.parse("<p>One<custom>Two</custom></p>", Parser.htmlParser().tagSet(frozen));
+        Document doc2 = Jsoup.parse("<p>Three<custom>Four</custom></p>", Parser.htmlParser().tagSet(frozen));
+
+        Tag p = doc1.expectFirst("p").tag();
+        assertSame(p, doc2.expectFirst("p").tag());
+        assertSame(p, frozen.get("p", NamespaceHtml));
+        assertTrue(p.isKnownTag());
+        assertTrue(p.isBlock());
+
+        // new tags go into each parser's own tagset, not the frozen one
+        Tag custom1 = doc1.expectFirst("custom").tag();
+        Tag custom2 = doc2.expectFirst("custom").tag();
+        assertNotSame(custom1, custom2);
+        assertSame(custom1, doc1.parser().tagSet().get("custom", NamespaceHtml));
+        assertNull(frozen.get("custom", NamespaceHtml));
+        custom1.set(Tag.Block);
+        assertFalse(custom2.isBlock());
+    }
+
+    @Test void frozenTagsCannotBeModified() {
+        TagSet frozen = TagSet.Html().freeze();
+        Tag div = frozen.valueOf("div", NamespaceHtml);
+        assertThrows(IllegalArgumentException.class, () -> div.set(Tag.Void));
+        assertThrows(IllegalArgumentException.class, () -> div.clear(Tag.Block));
+        assertThrows(IllegalArgumentException.class, () -> div.name("span"));
+        assertThrows(IllegalArgumentException.class, () -> frozen.add(new Tag("foo")));
+        assertThrows(IllegalArgumentException.class, () -> frozen.valueOf("foo", NamespaceHtml));
+        assertThrows(IllegalArgumentException.class, () -> frozen.onNewTag(tag -> {}));
+
+        Tag copy = new TagSet(frozen).add(new Tag("div").set(Tag.Void)).get("div", NamespaceHtml);
+        assertNotNull(copy);
+        assertTrue(copy.isEmpty());
+        assertFalse(div.isEmpty());
+    }
+
+    @Test void freezeKeepsCustomizations() {
+        TagSet tags = TagSet.Html();
+        tags.onNewTag(tag -> {
+            if (!tag.isKnownTag()) tag.set(Tag.SelfClose);
+        });
+        tags.valueOf("div", NamespaceHtml).set(Tag.PreserveWhitespace);
+        tags.add(new Tag("widget").set(Tag.Block));
+        TagSet frozen = tags.freeze();
+
+        assertTrue(frozen.valueOf("div", NamespaceHtml).preserveWhitespace());
+        assertTrue(frozen.valueOf("widget", NamespaceHtml).isBlock());
+        assertTrue(frozen.valueOf("meta", NamespaceHtml).isKnownTag()); // read through from the defaults
+        assertNotSame(tags.get("div", NamespaceHtml), frozen.get("div", NamespaceHtml));
+        tags.valueOf("div", NamespaceHtml).clear(Tag.PreserveWhitespace); // original is still modifiable
+        assertTrue(frozen.valueOf("div", NamespaceHtml).preserveWhitespace());
+
+        Document doc = Jsoup.parse("<div><foo /></div>", Parser.htmlParser().tagSet(frozen));
+        assertTrue(doc.expectFirst("foo").tag().isSelfClosing()); // customizer runs on the new tag
+    }
+
+    @Test void laterCustomizersCopyFrozenTags() {
+        TagSet frozen = TagSet.Html().freeze();
+        Parser parser = Parser.htmlParser().tagSet(frozen);
+        parser.tagSet().onNewTag(tag -> tag.set(Tag.PreserveWhitespace));
+        Document doc = Jsoup.parse("<div>One</div>", parser);
+
+        Tag div = doc.expectFirst("div").tag();
+        assertNotSame(frozen.get("div", NamespaceHtml), div);
+        assertTrue(div.preserveWhitespace());
+        assertFalse(frozen.valueOf("div", NamespaceHtml).preserveWhitespace());
+    }
+
+    @Test void seenSelfCloseDoesNotLeakFromFrozen() {
+        TagSet frozen = TagSet.Html().freeze();
+        Document doc1 = Jsoup.parse("<div /><div>Two</div>", Parser.htmlParser().tagSet(frozen));
+        Document doc2 = Jsoup.parse("<div>Three</div>", Parser.htmlParser().tagSet(frozen));
+
+        Tag div1 = doc1.expectFirst("div").tag();
+        assertTrue(div1.is(Tag.SeenSelfClose));
+        assertSame(div1, doc1.select("div").get(1).tag()); // the copy is used for the rest of the parse
+        assertFalse(doc2.expectFirst("div").tag().is(Tag.SeenSelfClose));
+        assertFalse(frozen.valueOf("div", NamespaceHtml).is(Tag.SeenSelfClose));
+
+        Document xml = Jsoup.parse("<div/><div>Four</div>", Parser.xmlParser().tagSet(frozen));
+        assertTrue(xml.expectFirst("div").tag().is(Tag.SeenSelfClose));
+        assertEquals("<div /><div>Four</div>", xml.html());
+        assertFalse(frozen.valueOf("div", NamespaceHtml).is(Tag.SeenSelfClose));
+    }
+
+    @Test void frozenTagSetParsesAcrossThreads() throws InterruptedException {
+        TagSet frozen = TagSet.Html().freeze();
+        String html = "<table><tr><td>One<td><svg><rect /></svg></table><my-tag>Two</my-tag><br />";
+        String expected = Jsoup.parse(html).body().html();
+        AtomicInteger matches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    if (Jsoup.parse(html, Parser.htmlParser().tagSet(frozen)).body().html().equals(expected))
+                        matches.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(400, matches.get());
+    }
+
     private static int tagSetNamespaceCount(TagSet tagSet) {
         try {
             Field tagsField = TagSet.class.getDeclaredField("tags");
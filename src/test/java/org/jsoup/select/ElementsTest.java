@@ -11,8 +11,13 @@ import org.jsoup.nodes.Node;
 import org.jsoup.nodes.TextNode;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -677,4 +682,104 @@ public class ElementsTest {
         assertNotNull(divs.selectFirst("div")); // reselect self, similar to element.select
         assertNull(divs.selectFirst(">div")); // no div>div
     }
+
+    static final String bulkHtml = "<div><p>One <a href=/1>1</a> <a href=/2 class='x  y x'>2</a></p>" +
+        "<table><tr><td><a href=/3 class=y>3</a></td></tr></table>" +
+        "<form><a href=/4>4</a><input name=a></form><svg><a href=/5>5</a></svg><p><a>6</a></p></div>";
+
+    static void assertBulkEdit(Consumer<Elements> bulk, Consumer<Element> each) {
+        Document bulkDoc = Jsoup.parse(bulkHtml);
+        Document eachDoc = Jsoup.parse(bulkHtml);
+        bulk.accept(bulkDoc.select("a"));
+        eachDoc.select("a").forEach(each);
+        assertEquals(eachDoc.html(), bulkDoc.html());
+        // the form's controls stay linked to it, when moved out
+        eachDoc.body().appendChildren(eachDoc.select("form input"));
+        bulkDoc.body().appendChildren(bulkDoc.select("form input"));
+        assertEquals(((FormElement) eachDoc.expectFirst("form")).elements().size(),
+            ((FormElement) bulkDoc.expectFirst("form")).elements().size());
+    }
+
+    @Test void bulkFragmentsMatchEachElementEdits() {
+        String html = "<span class=a><input name=b><td>Cell</td><b>Bold</b></span> text";
+        assertBulkEdit(els -> els.html(html), el -> el.html(html));
+        assertBulkEdit(els -> els.append(html), el -> el.append(html));
+        assertBulkEdit(els -> els.prepend(html), el -> el.prepend(html));
+        assertBulkEdit(els -> els.before(html), el -> el.before(html));
+        assertBulkEdit(els -> els.after(html), el -> el.after(html));
+        assertBulkEdit(els -> els.wrap("<i><input name=c><b></b></i> tail"), el -> el.wrap("<i><input name=c><b></b></i> tail"));
+        assertBulkEdit(Elements::remove, Element::remove);
+    }
+
+    @Test void bulkFragmentsAreClonedPerTarget() {
+        Document doc = Jsoup.parse("<p><a>One</a><a>Two</a></p>");
+        doc.select("a").wrap("<span class=wrap></span>").append("<b>!</b>");
+        Elements spans = doc.select("span.wrap");
+        assertEquals(2, spans.size());
+        assertNotSame(spans.get(0).expectFirst("b"), spans.get(1).expectFirst("b"));
+        spans.first().addClass("first").expectFirst("b").text("?");
+        assertEquals("<p><span class=\"wrap first\"><a>One<b>?</b></a></span><span class=\"wrap\"><a>Two<b>!</b></a></span></p>",
+            TextUtil.stripNewlines(doc.body().html()));
+    }
+
+    @Test void bulkClassEditsMatchEachElementEdits() {
+        assertBulkEdit(els -> els.addClass("z"), el -> el.addClass("z"));
+        assertBulkEdit(els -> els.addClass("y"), el -> el.addClass("y"));
+        assertBulkEdit(els -> els.removeClass("x"), el -> el.removeClass("x"));
+        assertBulkEdit(els -> els.removeClass("y"), el -> el.removeClass("y"));
+        assertBulkEdit(els -> els.toggleClass("y"), el -> el.toggleClass("y"));
+
+        Document doc = Jsoup.parse("<a class=' y  x '>1</a><a class=' y  x '>2</a><a>3</a>");
+        doc.select("a").toggleClass("x");
+        assertEquals("<a class=\"y\">1</a><a class=\"y\">2</a><a class=\"x\">3</a>", doc.body().html().replace("\n", ""));
+    }
+
+    @Test void removesSiblingsTogether() {
+        Document doc = Jsoup.parse("<form><input name=a><input name=b><p>One</p><input name=c></form><div><p>Two</p></div>");
+        FormElement form = (FormElement) doc.expectFirst("form");
+        Elements removed = doc.select("input[name~=a|c], p").remove();
+        assertEquals(4, removed.size());
+        assertEquals("<form><input name=\"b\"></form><div></div>", TextUtil.stripNewlines(doc.body().html()));
+        assertEquals(1, form.elements().size());
+    }
+
+    @Test void textsMatchEachText() {
+        Document doc = Jsoup.parse("<div>  One <p>Two<br>Three</p><span> Four <div>Five</div>Six</span></div>" +
+            "<table><tr><td> A <b>B</b></td><td></td><td>\n C\n</td></tr></table><pre>  Seven\n  <b>Eight</b> </pre>" +
+            "<p>Nine<img>Ten <a> </a> Eleven</p>");
+        Elements all = doc.getAllElements();
+        List<Element> reversed = new ArrayList<>(all);
+        Collections.reverse(reversed);
+        Elements repeated = new Elements(doc.select("td, p"));
+        repeated.addAll(doc.select("tr, td"));
+
+        for (Elements els : new Elements[]{all, new Elements(reversed), repeated}) {
+            List<String> texts = els.texts();
+            List<CharSequence> slices = els.textSlices();
+            assertEquals(els.size(), texts.size());
+            for (int i = 0; i < els.size(); i++) {
+                assertEquals(els.get(i).text(), texts.get(i));
+                assertEquals(els.get(i).text(), slices.get(i).toString());
+            }
+        }
+        assertEquals(Arrays.asList("A B", "", "C"), doc.select("td").texts());
+        assertEquals("A B  C", doc.select("td").text()); // joins each, including the empty
+        assertEquals(Arrays.asList("A B", "C"), doc.select("td").eachText());
+    }
+
+    @Test void textSlicesAreViews() {
+        Document doc = Jsoup.parse("<ul><li> One  two </li><li>Three</li></ul>");
+        List<CharSequence> slices = doc.select("ul, li").textSlices();
+        assertEquals(Arrays.asList("One two Three", "One two", "Three"),
+            slices.stream().map(CharSequence::toString).collect(Collectors.toList()));
+
+        CharSequence two = slices.get(1);
+        assertEquals(7, two.length());
+        assertEquals('t', two.charAt(4));
+        assertEquals("two", two.subSequence(4, 7).toString());
+        assertEquals("", two.subSequence(7, 7).toString());
+        assertThrows(IllegalArgumentException.class, () -> two.charAt(7));
+        assertThrows(IllegalArgumentException.class, () -> two.subSequence(3, 8));
+        assertTrue(new Elements().textSlices().isEmpty());
+    }
 }
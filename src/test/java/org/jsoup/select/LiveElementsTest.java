@@ -0,0 +1,151 @@
+package org.jsoup.select;
+
+import org.jsoup.Jsoup;
+import org.jsoup.internal.Mutations;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveElementsTest {
+    @Test void tracksMutations() {
+        Document doc = Jsoup.parse("<div><a href=/one>One</a><a>Two</a><p><img src=/a.png></p></div>");
+        LiveElements links = doc.selectLive("a[href]");
+        assertEquals("One", links.elements().text());
+
+        Element div = doc.expectFirst("div");
+        div.appendElement("a").attr("href", "/three").text("Three");
+        assertEquals("One Three", links.elements().text());
+
+        doc.expectFirst("a:not([href])").attr("href", "/two");
+        assertEquals("One Two Three", links.elements().text());
+
+        doc.expectFirst("a").remove();
+        assertEquals("Two Three", links.elements().text());
+
+        doc.expectFirst("a").replaceWith(new Element("a").attr("href", "/four").text("Four"));
+        assertEquals("Four Three", links.elements().text());
+
+        doc.expectFirst("p").wrap("<section></section>").unwrap();
+        doc.expectFirst("img").before("<a href=/five>Five</a>");
+        assertEquals("Four Five Three", links.elements().text()); // in document order, as the p is before the appended a
+
+        doc.select("a").removeAttr("href");
+        assertEquals(0, links.size());
+    }
+
+    @Test void tracksAncestorChanges() {
+        Document doc = Jsoup.parse("<div class=content><p><img src=/a.png></p></div><div><img src=/b.png></div>");
+        LiveElements imgs = doc.selectLive("div.content img[src]");
+        assertEquals(1, imgs.size());
+
+        doc.select("div").last().addClass("content");
+        assertEquals(2, imgs.size());
+
+        doc.expectFirst("div").removeClass("content");
+        assertEquals("/b.png", imgs.elements().attr("src"));
+
+        Element moved = doc.expectFirst("img");
+        doc.select("div").last().prependChild(moved);
+        assertEquals("/a.png", imgs.elements().attr("src"));
+    }
+
+    @Test void reselectsNonLocalQueries() {
+        Document doc = Jsoup.parse("<p>One</p><p>Two</p>");
+        LiveElements found = doc.selectLive("p:contains(three)");
+        assertFalse(LiveElements.isLocal(Selector.evaluatorOf("p:contains(three)")));
+        assertEquals(0, found.size());
+
+        ((TextNode) doc.expectFirst("p").childNode(0)).text("Three");
+        assertEquals(1, found.size());
+    }
+
+    @Test void isScopedToRoot() {
+        Document doc = Jsoup.parse("<div id=a><span>One</span></div><div id=b><span>Two</span></div>");
+        LiveElements spans = doc.expectFirst("#a").selectLive("span");
+        doc.expectFirst("#b").appendElement("span");
+        assertEquals(1, spans.size());
+
+        doc.expectFirst("#a").appendChild(doc.expectFirst("#b span"));
+        assertEquals("One Two", spans.elements().text());
+    }
+
+    @Test void refreshReselectsUntrackedChanges() {
+        Document doc = Jsoup.parse("<p>One</p><p>Two</p>");
+        LiveElements found = doc.selectLive("p.x");
+        assertEquals(0, found.size());
+
+        doc.expectFirst("p").attributes().put("class", "x"); // not tracked
+        assertEquals(0, found.size());
+        assertEquals(1, found.refresh().size());
+    }
+
+    @Test void closedSelectionCantBeUsed() {
+        Document doc = Jsoup.parse("<p>One</p>");
+        LiveElements found = doc.selectLive("p");
+        found.close();
+        assertThrows(IllegalArgumentException.class, found::elements);
+        doc.body().appendElement("p"); // no longer notified
+    }
+
+    @Test void abandonedSelectionStopsNotifications() throws InterruptedException {
+        selectAndAbandon();
+        for (int i = 0; i < 500 && Mutations.isActive(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertFalse(Mutations.isActive()); // mutations skip the notifications again
+    }
+
+    private static void selectAndAbandon() {
+        Document doc = Jsoup.parse("<p>One</p>");
+        doc.selectLive("p"); // never closed
+        assertTrue(Mutations.isActive());
+    }
+
+    @Test void requiresDocument() {
+        assertThrows(IllegalArgumentException.class, () -> new Element("div").selectLive("p"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a[href]", "div p", "div > p.x", "p:not(.x)", ":is(a, img)[src]", "p + p", "div:has(a)",
+        "p.x, a"})
+    void matchesSelectAfterRandomMutations(String query) {
+        Random random = new Random(query.hashCode());
+        Document doc = Jsoup.parse("<div><p>One <a href=/1>1</a></p><p class=x>Two</p></div><div><p><img src=/i>Three</p></div>");
+        LiveElements live = doc.selectLive(query);
+        Evaluator compiled = Selector.compile(query);
+        LiveElements liveCompiled = doc.selectLive(compiled);
+        String[] tags = {"div", "p", "a", "img", "span"};
+
+        for (int round = 0; round < 200; round++) {
+            Elements all = doc.body().select("*");
+            Element el = all.get(random.nextInt(all.size()));
+            switch (random.nextInt(7)) {
+                case 0: el.appendElement(tags[random.nextInt(tags.length)]).text("x"); break;
+                case 1: if (el != doc.body()) el.remove(); break;
+                case 2: el.toggleClass("x"); break;
+                case 3: el.attr(random.nextBoolean() ? "href" : "src", "/" + round); break;
+                case 4: el.removeAttr("href"); break;
+                case 5: if (el != doc.body()) el.wrap("<div></div>"); break;
+                case 6:
+                    Element other = all.get(random.nextInt(all.size()));
+                    if (other != el && !el.parents().contains(other) && other != doc.body() && el != other.parent())
+                        el.prependChild(other); // moves
+                    break;
+            }
+            if (random.nextInt(3) == 0) {
+                Elements expected = doc.select(query);
+                assertEquals(expected, live.elements(), query + " at round " + round);
+                assertEquals(expected, liveCompiled.elements());
+            }
+        }
+        assertEquals(doc.select(query), live.elements());
+    }
+}
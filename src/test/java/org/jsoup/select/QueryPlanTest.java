@@ -0,0 +1,102 @@
+package org.jsoup.select;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlanTest {
+    static Document sample() {
+        StringBuilder html = new StringBuilder("<div class=content id=main>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<div class=row><article><p>Para <a href=/foo/").append(i).append(">link</a></p><span>One</span>")
+                .append("<p>Two</p><span class=").append(i == 7 ? "rare" : "common").append(">Three</span></article></div>");
+        }
+        html.append("</div><p>Outside <span>Four</span></p><!-- comment -->");
+        return Jsoup.parse(html.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "div.content article > p:has(a[href*=foo]) ~ span",
+        "span.rare", "div span.common", "p + span", "article > span:not(.common)", "#main > div.row",
+        "span, p:has(a), .rare", ":is(p, span):contains(Two)", "> body div", "div:has(> article) span",
+        "p ~ span.common:last-child", "*", "article ::text:contains(one)", "p:has(::comment)"
+    })
+    void matchesAsUnplanned(String query) {
+        Document doc = sample();
+        Evaluator eval = Selector.evaluatorOf(query);
+        Elements expected = doc.select(eval);
+        assertEquals(expected, doc.select(QueryPlan.of(eval)));
+        assertEquals(expected, doc.select(QueryPlan.of(eval, doc)));
+        assertEquals(expected, doc.select(QueryPlan.of(eval, Jsoup.parse("<p>Other</p>"))));
+        assertEquals(eval.toString(), QueryPlan.of(eval).toString());
+    }
+
+    @Test void matchesNodesAsUnplanned() {
+        Document doc = sample();
+        Evaluator eval = Selector.evaluatorOf("article p ::text");
+        assertEquals(doc.selectNodes(eval, TextNode.class), doc.selectNodes(QueryPlan.of(eval, doc), TextNode.class));
+    }
+
+    @Test void seedsWithRareClass() {
+        Document doc = sample();
+        Evaluator eval = Selector.evaluatorOf(".common.rare");
+
+        String byCost = QueryPlan.of(eval).explain();
+        assertTrue(byCost.contains("\nSeed: Class '.common'\n"), byCost); // in query order, as equal cost
+
+        QueryPlan plan = QueryPlan.of(eval, doc);
+        assertEquals(
+            "Plan for '.common.rare', from a sample of 147 elements\n" +
+                "Seed: Class '.rare'\n" +
+                "And '.common.rare' cost 16, matches 0.1%\n" +
+                "  Class '.rare' cost 8, matches 0.7%\n" +
+                "  Class '.common' cost 8, matches 12.9%\n",
+            plan.explain());
+        assertEquals(0, doc.select(plan).size());
+    }
+
+    @Test void cheapTestStaysFirst() {
+        Document doc = sample();
+        String explain = QueryPlan.of(Selector.evaluatorOf("span.rare"), doc).explain();
+        assertTrue(explain.contains("\nSeed: Tag 'span'\n"), explain); // 1 + 0.28 * 8 is less than 8 + 0.007 * 1
+    }
+
+    @Test void explainsCombinatorsRightToLeft() {
+        Document doc = sample();
+        String explain = QueryPlan.of(Selector.evaluatorOf("div.content article > p:has(a[href*=foo]) ~ span"), doc).explain();
+        assertEquals(
+            "Plan for 'div.content article > p:has(a[href*=foo]) ~ span', from a sample of 147 elements\n" +
+                "Seed: Tag 'span'\n" +
+                "And 'div.content article > p:has(a[href*=foo]) ~ span' cost 439, matches 0.1%\n" +
+                "  Tag 'span' cost 1, matches 27.9%\n" +
+                "  PreviousSibling 'div.content article > p:has(a[href*=foo]) ~ ' cost 438, matches 0.3%\n" +
+                "    ImmediateParentRun 'div.content article > p:has(a[href*=foo])' cost 146, matches 0.1%\n" +
+                "      And 'p:has(a[href*=foo])' cost 71, matches 2.7%\n" +
+                "        Tag 'p' cost 1, matches 27.9%\n" +
+                "        Has ':has(a[href*=foo])' cost 70, matches 9.8%\n" +
+                "          And 'a[href*=foo]' cost 7, matches 1.9%\n" +
+                "            Tag 'a' cost 1, matches 13.6%\n" +
+                "            AttributeWithValueContaining '[href*=foo]' cost 6, matches 13.6%\n" +
+                "      And 'div.content article' cost 73, matches 0.1%\n" +
+                "        Tag 'article' cost 1, matches 13.6%\n" +
+                "        Ancestor 'div.content ' cost 72, matches 0.6%\n" +
+                "          And 'div.content' cost 9, matches 0.1%\n" +
+                "            Tag 'div' cost 1, matches 14.3%\n" +
+                "            Class '.content' cost 8, matches 0.7%\n",
+            explain);
+    }
+
+    @Test void canReuseAcrossDocuments() {
+        QueryPlan plan = QueryPlan.of(Selector.evaluatorOf("div span.rare"), sample());
+        Element span = Jsoup.parse("<div><p><span class=rare>Hi</span></div><span class=rare>Not</span>").selectFirst(plan);
+        assertNotNull(span);
+        assertEquals("Hi", span.text());
+    }
+}
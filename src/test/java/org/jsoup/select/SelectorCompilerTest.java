@@ -0,0 +1,59 @@
+package org.jsoup.select;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SelectorCompilerTest {
+    static Document sample() {
+        return Jsoup.parse("<div id=main class='content Wide'><p class=lead title=One>One <a href=/foo>link</a></p>" +
+            "<p class='lead other' data-x=Y>Two</p><p>Three <span class=lead>Four</span></p><!-- comment -->" +
+            "<img src=/a.png alt=''><div class=content><p id=last class=lead>Five</p></div></div>");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "p", "*", "#main", ".lead", "p.lead.other", "P.LEAD", "[title]", "p[title=one]", "[data-x=y].lead", "img[alt]",
+        "div#main.content.wide", "div p", "div > p.lead", "p + p.lead", "p ~ p", "div.content p:not(.other)",
+        "p:has(a[href])", ":is(p, span).lead", "span, p.lead, [src]", "p.lead:first-child", "div:has(::comment)",
+        "p:contains(two).lead", "#main > div > #last", "*.lead", "[abs:href]", "p:nth-child(2n+1)"
+    })
+    void matchesAsInterpreted(String query) {
+        Document doc = sample();
+        Evaluator eval = Selector.evaluatorOf(query);
+        Evaluator compiled = Selector.compile(query);
+        assertEquals(doc.select(eval), doc.select(compiled));
+        assertEquals(doc.select(eval), doc.select(Selector.compile(QueryPlan.of(eval, doc))));
+        assertEquals(eval.toString(), Selector.compile(eval).toString());
+    }
+
+    @Test void fusesCompoundTests() {
+        Evaluator compiled = Selector.compile("p.lead[title]#x");
+        assertInstanceOf(SelectorCompiler.Compound.class, compiled);
+        assertEquals(1 + 8 + 2 + 2, compiled.cost());
+        assertSame(compiled, Selector.compile(compiled));
+    }
+
+    @Test void fusesWithinCombinators() {
+        Evaluator compiled = Selector.compile("div.content > p.lead:not(.other)");
+        assertInstanceOf(StructuralEvaluator.ImmediateParentRun.class, compiled);
+        StructuralEvaluator.ImmediateParentRun run = (StructuralEvaluator.ImmediateParentRun) compiled;
+        assertInstanceOf(SelectorCompiler.Compound.class, run.evaluators.get(0)); // div.content
+        assertInstanceOf(SelectorCompiler.And.class, run.evaluators.get(1)); // p.lead, then :not(.other)
+        assertEquals(2, sample().select(compiled).size());
+    }
+
+    @Test void keepsNodeEvaluators() {
+        Evaluator eval = Selector.evaluatorOf("p ::text");
+        assertSame(eval, Selector.compile(eval));
+    }
+
+    @Test void secondTagIsTestedSeparately() {
+        CombiningEvaluator.And and = new CombiningEvaluator.And(new Evaluator.Tag("p"), new Evaluator.Tag("div"));
+        assertEquals(0, sample().select(Selector.compile(and)).size());
+    }
+}
@@ -15,7 +15,6 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.jsoup.select.EvaluatorDebug.sexpr;
@@ -1197,12 +1196,8 @@ public class SelectorTest {
         assertEquals("%&", ex.getMessage());
     }
 
-    @Test public void evaluatorMemosAreReset() {
+    @Test public void evaluatorMemosArePerQuery() {
         Evaluator eval = QueryParser.parse("p ~ p");
-        CombiningEvaluator.And andEval = (CombiningEvaluator.And) eval;
-        StructuralEvaluator.PreviousSibling prevEval = (StructuralEvaluator.PreviousSibling) andEval.evaluators.get(0);
-        Map<Node, Map<Node, Boolean>> map = prevEval.threadMemo.get();
-        assertEquals(0, map.size()); // no memo yet
 
         Document doc1 = Jsoup.parse("<p>One<p>Two<p>Three");
         Document doc2 = Jsoup.parse("<p>One2<p>Two2<p>Three2");
@@ -1214,7 +1209,37 @@ public class SelectorTest {
         assertEquals(2, s2.size());
         assertEquals("Two2", s2.first().text());
 
-        assertEquals(0, map.size()); // reset after collect
+        Evaluator adjacent = QueryParser.parse("p + p");
+        QueryMemo memo = new QueryMemo();
+        assertTrue(adjacent.matches(memo, doc1, doc1.select("p").get(2)));
+        assertEquals(1, memo.size()); // the previous sibling
+        assertTrue(adjacent.matches(memo, doc1, doc1.select("p").get(1)));
+        assertEquals(2, memo.size());
+        assertTrue(adjacent.matches(memo, doc1, doc1.select("p").get(2)));
+        assertEquals(2, memo.size()); // reused
+        assertTrue(adjacent.matches(memo, doc2, doc2.select("p").get(1)));
+        assertEquals(1, memo.size()); // restarted for the new root
+    }
+
+    @Test void memoIsNotUsedByOtherThreads() throws InterruptedException {
+        QueryMemo memo = new QueryMemo();
+        assertSame(memo, memo.forThread());
+        QueryMemo[] other = new QueryMemo[]{memo};
+        Thread thread = new Thread(() -> other[0] = memo.forThread());
+        thread.start();
+        thread.join();
+        assertNull(other[0]);
+    }
+
+    @Test void parallelSelectMatchesSequential() {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 200; i++) html.append("<div class=a><p>One<span>Two</span></p><p>Three</p></div><div class=b><p>Four</p></div>");
+        Document doc = Jsoup.parse(html.toString());
+        Evaluator eval = QueryParser.parse("div.a p ~ p, div:not(.a) p, div:has(span) > p + p");
+        List<Element> sequential = doc.select(eval);
+        List<Element> parallel = doc.stream().parallel().filter(eval.asPredicate(doc)).collect(Collectors.toList());
+        assertEquals(sequential, parallel);
+        assertEquals(400, parallel.size());
     }
 
     @Test public void blankTextNodesAreConsideredEmpty() {
@@ -1434,13 +1459,10 @@ public class SelectorTest {
 
         Document doc = Jsoup.parse("<div><p>Test</p></div>");
         Element p = doc.expectFirst("p");
-        structEval.matches(doc, p);
-
-        assertFalse(structEval.threadMemo.get().isEmpty());
+        assertFalse(structEval.matches(doc, p));
         assertFalse(track.resetCalled);
 
         structEval.reset();
-        assertTrue(structEval.threadMemo.get().isEmpty());
         assertTrue(track.resetCalled);
     }
 
@@ -1478,8 +1500,6 @@ public class SelectorTest {
         assertTrue(grandParent.resetCalled);
         assertTrue(parent.resetCalled);
         assertTrue(child.resetCalled);
-        assertTrue(b_needs_a.threadMemo.get().isEmpty());
-        assertTrue(c_needs_b.threadMemo.get().isEmpty());
     }
 
     @Test void hexDigitUnescape() {
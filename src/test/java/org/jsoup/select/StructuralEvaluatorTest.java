@@ -2,12 +2,14 @@ package org.jsoup.select;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,8 +34,8 @@ class StructuralEvaluatorTest {
 
     @ParameterizedTest
     @MethodSource("selectorMemoData")
-    void selectorMemoIsClearedOnReset(String selector, boolean expectMemos) {
-        // test that the structural evaluator memos are used, and are reset
+    void selectorMemoIsScopedToQuery(String selector, boolean expectMemos) {
+        // test that the structural evaluator memos are used, and are held by the query, not the evaluators
 
         Document doc = Jsoup.parse(Html);
         Evaluator evaluator = Selector.evaluatorOf(selector);
@@ -41,27 +43,19 @@ class StructuralEvaluatorTest {
         // collect all StructuralEvaluator instances from the parsed evaluator tree
         List<StructuralEvaluator> structuralEvals = new ArrayList<>();
         collectEvals(evaluator, structuralEvals);
-
-        // use Collector.stream vs Selector.select(), as the later is able to reset after executing
-        Collector.stream(evaluator, doc).count(); // consume stream to populate memos
         assertFalse(structuralEvals.isEmpty());
 
-        boolean hadMemos = false;
-        for (StructuralEvaluator se : structuralEvals) {
-            if (!se.threadMemo.get().isEmpty()) {
-                hadMemos = true;
-                break;
-            }
-        }
-
-        evaluator.reset();
-
-        // verify all structural evaluator thread-local maps are cleared
-        for (StructuralEvaluator se : structuralEvals) {
-            assertTrue(se.threadMemo.get().isEmpty());
+        QueryMemo memo = new QueryMemo();
+        List<Element> matched = new ArrayList<>();
+        for (Element el : doc.getAllElements()) {
+            if (evaluator.matches(memo, doc, el)) matched.add(el);
         }
+        assertEquals(expectMemos, memo.size() > 0);
+        assertEquals(doc.select(evaluator), matched);
 
-        assertEquals(expectMemos, hadMemos);
+        // without a query memo, matches are evaluated directly
+        Collector.stream(evaluator, doc).count();
+        assertEquals(matched, Collector.stream(evaluator, doc).collect(Collectors.toList()));
     }
 
     private static Stream<Arguments> selectorMemoData() {
@@ -244,6 +244,17 @@ public class XpathTest {
         assertEquals(1, els.size());
     }
 
+    @Test void unsupportedXpathFallsBackToW3c() {
+        Document doc = Jsoup.parse("<p lang=en>One</p><p lang=fr>Two</p>");
+        String xpath = "//p[lang('en')] | //p[2]"; // lang() isn't supported natively
+        Elements els = doc.selectXpath(xpath);
+        assertEquals(1, els.size());
+        assertEquals("Two", els.first().text());
+
+        // a non node-set result also goes to the W3C path, which reports it
+        assertThrows(Selector.SelectorParseException.class, () -> doc.selectXpath("count(//p)"));
+    }
+
     // minimal, no-op implementation class to verify users can load a factory to support XPath 2.0 etc
     public static class AlternateXpathFactory extends XPathFactory {
         public AlternateXpathFactory() {